@@ -0,0 +1,36 @@
+package org.cell2d.bench;
+
+import java.util.function.Consumer;
+import org.cell2d.CellGame;
+import org.cell2d.HeadlessRunner;
+
+/**
+ * <p>A BenchmarkGame is a CellGame for the benchmarks to run headlessly. Its
+ * initActions() create its GameStates with a function that it is given, then
+ * enter the GameState with ID 0.</p>
+ * @author Alex Heyman
+ */
+final class BenchmarkGame extends CellGame {
+    
+    private final Consumer<CellGame> initializer;
+    
+    BenchmarkGame(Consumer<CellGame> initializer) {
+        super("Benchmark", 1, 60, 640, 480, 1, false, null);
+        this.initializer = initializer;
+    }
+    
+    @Override
+    public void initActions() {
+        initializer.accept(this);
+        enterState(0);
+    }
+    
+    //Enters headless mode and returns a new BenchmarkGame that has been initialized and run for one frame
+    static BenchmarkGame start(Consumer<CellGame> initializer) {
+        HeadlessRunner.enterHeadlessMode();
+        BenchmarkGame game = new BenchmarkGame(initializer);
+        new HeadlessRunner(game).run(1);
+        return game;
+    }
+    
+}
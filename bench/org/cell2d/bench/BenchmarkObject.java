@@ -0,0 +1,26 @@
+package org.cell2d.bench;
+
+import org.cell2d.Frac;
+import org.cell2d.space.MobileObject;
+import org.cell2d.space.RectangleHitbox;
+
+/**
+ * <p>A BenchmarkObject is a square MobileObject, 8 fracunits on a side, that
+ * the benchmarks fill their SpaceStates with.</p>
+ * @author Alex Heyman
+ */
+final class BenchmarkObject extends MobileObject {
+    
+    static final int TYPE_ID = 0;
+    static final long HALF_SIZE = 4*Frac.UNIT;
+    
+    BenchmarkObject() {
+        this(0, 0);
+    }
+    
+    BenchmarkObject(long x, long y) {
+        setLocatorHitbox(new RectangleHitbox(x, y, -HALF_SIZE, HALF_SIZE, -HALF_SIZE, HALF_SIZE));
+        setOverlapHitbox(getLocatorHitbox());
+    }
+    
+}
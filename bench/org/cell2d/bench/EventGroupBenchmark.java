@@ -0,0 +1,127 @@
+package org.cell2d.bench;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.cell2d.CellGame;
+import org.cell2d.Event;
+import org.cell2d.EventGroup;
+import org.cell2d.basic.BasicState;
+
+/**
+ * <p>EventGroupBenchmark measures how long it takes an EventGroup with a given
+ * number of Events to perform them all, and compares that with the time that
+ * a group stored as a TreeSet of Event instances, as EventGroups once were,
+ * takes to do the same. For each power of 2 number of Events up to a maximum,
+ * it fills a new EventGroup and a new TreeSet-based group with the same Events
+ * at the same randomly chosen priorities, warms both groups up, and then times
+ * their performances, alternating between them. The Events do nothing but
+ * count how many times they have been performed.</p>
+ * 
+ * <p>Usage: EventGroupBenchmark [maxEvents [numPerformances]]</p>
+ * @author Alex Heyman
+ */
+public final class EventGroupBenchmark {
+    
+    private static final int NUM_PRIORITIES = 16;
+    private static final int NUM_WARMUP_PERFORMANCES = 100;
+    
+    //An EventGroup as it was stored before it became a pair of sorted arrays
+    private static class TreeSetGroup {
+        
+        private static class Entry {
+            
+            private final Event<CellGame,BasicState> event;
+            private final int priority;
+            private final int tiebreaker;
+            
+            private Entry(Event<CellGame,BasicState> event, int priority, int tiebreaker) {
+                this.event = event;
+                this.priority = priority;
+                this.tiebreaker = tiebreaker;
+            }
+            
+        }
+        
+        private final Comparator<Entry> priorityComparator = (entry1, entry2) -> {
+            int priorityDiff = entry2.priority - entry1.priority;
+            if (priorityDiff == 0) {
+                int eventCodeDiff = entry1.event.hashCode() - entry2.event.hashCode();
+                if (eventCodeDiff == 0) {
+                    int tiebreakerDiff = entry1.tiebreaker - entry2.tiebreaker;
+                    if (tiebreakerDiff == 0) {
+                        return System.identityHashCode(entry1) - System.identityHashCode(entry2);
+                    }
+                    return tiebreakerDiff;
+                }
+                return eventCodeDiff;
+            }
+            return priorityDiff;
+        };
+        
+        private final SortedSet<Entry> entries = new TreeSet<>(priorityComparator);
+        
+        private void add(Event<CellGame,BasicState> event, int priority) {
+            entries.add(new Entry(event, priority, 0));
+        }
+        
+        private void perform(BasicState state) {
+            CellGame game = state.getGame();
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                iterator.next().event.actions(game, state);
+            }
+        }
+        
+    }
+    
+    private static long numPerformed = 0;
+    
+    private EventGroupBenchmark() {}
+    
+    private static void run(BasicState state, int numEvents, int numPerformances) {
+        EventGroup<CellGame,BasicState> group = new EventGroup<>();
+        TreeSetGroup treeSetGroup = new TreeSetGroup();
+        Random random = new Random(0);
+        for (int i = 0; i < numEvents; i++) {
+            Event<CellGame,BasicState> event = (game, eventState) -> numPerformed++;
+            int priority = random.nextInt(NUM_PRIORITIES);
+            group.add(event, priority);
+            treeSetGroup.add(event, priority);
+        }
+        for (int i = 0; i < NUM_WARMUP_PERFORMANCES; i++) {
+            group.perform(state);
+            treeSetGroup.perform(state);
+        }
+        long groupTime = 0;
+        long treeSetTime = 0;
+        for (int i = 0; i < numPerformances; i++) {
+            long startTime = System.nanoTime();
+            group.perform(state);
+            groupTime += System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            treeSetGroup.perform(state);
+            treeSetTime += System.nanoTime() - startTime;
+        }
+        groupTime = Math.max(groupTime/numPerformances, 1);
+        treeSetTime = Math.max(treeSetTime/numPerformances, 1);
+        System.out.printf("%8d %14.3f %14.3f %9.2fx%n", numEvents,
+                groupTime/1000.0, treeSetTime/1000.0, (double)treeSetTime/groupTime);
+    }
+    
+    public static void main(String[] args) {
+        int maxEvents = (args.length > 0 ? Integer.parseInt(args[0]) : 16384);
+        int numPerformances = (args.length > 1 ? Integer.parseInt(args[1]) : 1000);
+        BenchmarkGame game = BenchmarkGame.start(g -> new BasicState(g, 0) {});
+        BasicState state = (BasicState)game.getState(0);
+        System.out.printf("%8s %14s %14s %10s%n", "events", "EventGroup us", "TreeSet us", "speedup");
+        for (int numEvents = 1; numEvents < maxEvents; numEvents *= 2) {
+            run(state, numEvents, numPerformances);
+        }
+        run(state, maxEvents, numPerformances);
+        System.out.println("(" + numPerformed + " Events performed)");
+    }
+    
+}
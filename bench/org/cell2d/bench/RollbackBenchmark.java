@@ -0,0 +1,82 @@
+package org.cell2d.bench;
+
+import java.util.List;
+import org.cell2d.Frac;
+import org.cell2d.space.RollbackBuffer;
+import org.cell2d.space.SpaceObject;
+import org.cell2d.space.SpaceState;
+import org.cell2d.space.basic.BasicSpaceState;
+
+/**
+ * <p>RollbackBenchmark measures how long it takes a RollbackBuffer to save a
+ * frame and to restore one when only some of its SpaceState's SpaceObjects
+ * have changed since the last frame, as in rollback netcode. For each power of
+ * 10 number of BenchmarkObjects up to a maximum, it fills a SpaceState with
+ * that many BenchmarkObjects arranged in a grid. Then, each frame, it moves a
+ * fixed number of them and times the saving of the frame, then moves them
+ * again and times the restoring of the frame that it just saved.</p>
+ * 
+ * <p>Usage: RollbackBenchmark [maxObjects [numMovedObjects [numFrames]]]</p>
+ * @author Alex Heyman
+ */
+public final class RollbackBenchmark {
+    
+    private static final int CAPACITY = 8;
+    
+    private RollbackBenchmark() {}
+    
+    private static void move(List<SpaceObject> objects, int start, int numMovedObjects, long distance) {
+        for (int i = 0; i < numMovedObjects; i++) {
+            SpaceObject object = objects.get((start + i) % objects.size());
+            object.setX(object.getX() + distance);
+        }
+    }
+    
+    private static void run(SpaceState<?,?,?> state, int numObjects, int numMovedObjects, int numFrames) {
+        List<SpaceObject> objects = SnapshotBenchmark.fill(state, numObjects);
+        numMovedObjects = Math.min(numMovedObjects, numObjects);
+        RollbackBuffer buffer = new RollbackBuffer(state, CAPACITY);
+        try {
+            buffer.saveFrame(0);
+            long saveTime = 0;
+            long restoreTime = 0;
+            //The first half of the frames are a warm-up
+            for (int frame = 1 - numFrames; frame <= numFrames; frame++) {
+                int start = (frame + numFrames)*numMovedObjects;
+                move(objects, start, numMovedObjects, Frac.UNIT);
+                long startTime = System.nanoTime();
+                buffer.saveFrame(frame + numFrames);
+                long midTime = System.nanoTime();
+                move(objects, start, numMovedObjects, Frac.UNIT);
+                long restoreStartTime = System.nanoTime();
+                buffer.restoreFrame(frame + numFrames);
+                long endTime = System.nanoTime();
+                if (frame > 0) {
+                    saveTime += midTime - startTime;
+                    restoreTime += endTime - restoreStartTime;
+                }
+            }
+            System.out.printf("%8d %6d %12d %10.2f %10.2f %10.2f%n", numObjects, numMovedObjects,
+                    buffer.getNumBytes(), saveTime/1000.0/numFrames, restoreTime/1000.0/numFrames,
+                    (saveTime + restoreTime)/1000.0/numFrames);
+        } finally {
+            buffer.detach();
+        }
+    }
+    
+    public static void main(String[] args) {
+        int maxObjects = (args.length > 0 ? Integer.parseInt(args[0]) : 100000);
+        int numMovedObjects = (args.length > 1 ? Integer.parseInt(args[1]) : 100);
+        int numFrames = (args.length > 2 ? Integer.parseInt(args[2]) : 300);
+        BenchmarkGame game = BenchmarkGame.start(g -> new BasicSpaceState(
+                g, 0, 256*Frac.UNIT, 256*Frac.UNIT, SpaceState.DrawMode.FLAT));
+        BasicSpaceState state = (BasicSpaceState)game.getState(0);
+        System.out.printf("%8s %6s %12s %10s %10s %10s%n",
+                "objects", "moved", "buffer bytes", "save us", "restore us", "total us");
+        for (int numObjects = 100; numObjects < maxObjects; numObjects *= 10) {
+            run(state, numObjects, numMovedObjects, numFrames);
+        }
+        run(state, maxObjects, numMovedObjects, numFrames);
+    }
+    
+}
@@ -0,0 +1,130 @@
+package org.cell2d.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cell2d.CellGame;
+import org.cell2d.Frac;
+import org.cell2d.HeadlessRunner;
+import org.cell2d.space.SpaceObject;
+import org.cell2d.space.SpaceState;
+import org.cell2d.space.basic.BasicSpaceState;
+import org.cell2d.space.basic.BasicSpaceThinker;
+
+/**
+ * <p>RoomBenchmark measures how many room frames per second a program can
+ * simulate when it hosts many independent rooms, each of which is a headless
+ * CellGame, on a pool of threads. Each room is a BasicSpaceState full of
+ * BenchmarkObjects that move around inside a square and bounce off its edges,
+ * and that each query their surroundings every frame. For each power of 2
+ * number of threads up to a maximum, RoomBenchmark creates a fixed number of
+ * rooms per thread, warms them up, and then runs them all for a number of
+ * frames, one task per room.</p>
+ * 
+ * <p>Usage: RoomBenchmark [maxThreads [roomsPerThread [numFrames]]]</p>
+ * @author Alex Heyman
+ */
+public final class RoomBenchmark {
+    
+    private static final int NUM_OBJECTS = 200;
+    private static final int ROOM_SIZE = 512;
+    private static final long NUM_WARMUP_FRAMES = 60;
+    
+    private RoomBenchmark() {}
+    
+    private static void initRoom(CellGame game, long seed) {
+        BasicSpaceState state = new BasicSpaceState(game, 0, 64*Frac.UNIT, 64*Frac.UNIT,
+                SpaceState.DrawMode.FLAT);
+        Random random = new Random(seed);
+        List<BenchmarkObject> objects = new ArrayList<>(NUM_OBJECTS);
+        for (int i = 0; i < NUM_OBJECTS; i++) {
+            BenchmarkObject object = new BenchmarkObject(
+                    random.nextInt(ROOM_SIZE)*Frac.UNIT, random.nextInt(ROOM_SIZE)*Frac.UNIT);
+            //Up to 2 fracunits per frame in each direction
+            object.setVelocity((random.nextInt(65) - 32)*Frac.UNIT/16, (random.nextInt(65) - 32)*Frac.UNIT/16);
+            objects.add(object);
+        }
+        state.addObjects(objects);
+        state.addSubThinker(new BasicSpaceThinker() {
+            
+            @Override
+            public void frameActions(CellGame game, BasicSpaceState state) {
+                for (BenchmarkObject object : objects) {
+                    long x = object.getX();
+                    long y = object.getY();
+                    if ((x < 0 && object.getVelocityX() < 0)
+                            || (x > ROOM_SIZE*Frac.UNIT && object.getVelocityX() > 0)) {
+                        object.setVelocityX(-object.getVelocityX());
+                    }
+                    if ((y < 0 && object.getVelocityY() < 0)
+                            || (y > ROOM_SIZE*Frac.UNIT && object.getVelocityY() > 0)) {
+                        object.setVelocityY(-object.getVelocityY());
+                    }
+                    state.objectsWithinRectangle(x - 16*Frac.UNIT, y - 16*Frac.UNIT,
+                            x + 16*Frac.UNIT, y + 16*Frac.UNIT, SpaceObject.class);
+                }
+            }
+            
+        });
+    }
+    
+    //Runs one task per runner on the pool and returns the total number of frames they ran
+    private static long runAll(ExecutorService pool, List<HeadlessRunner> runners, long numFrames) {
+        List<Future<Long>> futures = new ArrayList<>(runners.size());
+        for (HeadlessRunner runner : runners) {
+            Callable<Long> task = () -> runner.run(numFrames);
+            futures.add(pool.submit(task));
+        }
+        long numFramesRun = 0;
+        try {
+            for (Future<Long> future : futures) {
+                numFramesRun += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return numFramesRun;
+    }
+    
+    private static void run(int numThreads, int numRooms, long numFrames) {
+        List<HeadlessRunner> runners = new ArrayList<>(numRooms);
+        for (int i = 0; i < numRooms; i++) {
+            long seed = i;
+            runners.add(new HeadlessRunner(new BenchmarkGame(game -> initRoom(game, seed))));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            runAll(pool, runners, NUM_WARMUP_FRAMES);
+            long startTime = System.nanoTime();
+            long numRoomFrames = runAll(pool, runners, numFrames);
+            long time = Math.max(System.nanoTime() - startTime, 1);
+            double roomFramesPerSecond = numRoomFrames*1000000000.0/time;
+            System.out.printf("%8d %6d %14.0f %12.0f%n", numThreads, numRooms,
+                    roomFramesPerSecond, roomFramesPerSecond/numThreads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    public static void main(String[] args) {
+        int maxThreads = (args.length > 0 ?
+                Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors());
+        int roomsPerThread = (args.length > 1 ? Integer.parseInt(args[1]) : 4);
+        long numFrames = (args.length > 2 ? Long.parseLong(args[2]) : 600);
+        HeadlessRunner.enterHeadlessMode();
+        System.out.printf("%8s %6s %14s %12s%n", "threads", "rooms", "room frames/s", "per thread");
+        for (int numThreads = 1; numThreads < maxThreads; numThreads *= 2) {
+            run(numThreads, numThreads*roomsPerThread, numFrames);
+        }
+        run(maxThreads, maxThreads*roomsPerThread, numFrames);
+    }
+    
+}
@@ -0,0 +1,91 @@
+package org.cell2d.bench;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.cell2d.Frac;
+import org.cell2d.space.SpaceObject;
+import org.cell2d.space.SpaceObjectFactory;
+import org.cell2d.space.SpaceState;
+import org.cell2d.space.basic.BasicSpaceState;
+
+/**
+ * <p>SnapshotBenchmark measures how long it takes a SpaceState to save a
+ * snapshot of its SpaceObjects to a ByteBuffer, and to load that snapshot
+ * back. For each power of 10 number of BenchmarkObjects up to a maximum, it
+ * fills a SpaceState with that many BenchmarkObjects arranged in a grid, then
+ * times a number of saves and loads after an equal number of warm-up saves and
+ * loads.</p>
+ * 
+ * <p>Usage: SnapshotBenchmark [maxObjects [numRuns]]</p>
+ * @author Alex Heyman
+ */
+public final class SnapshotBenchmark {
+    
+    private static final long SPACING = 16*Frac.UNIT;
+    private static final SpaceObjectFactory FACTORY = new SpaceObjectFactory() {
+        
+        @Override
+        public int getTypeID(SpaceObject object) {
+            return BenchmarkObject.TYPE_ID;
+        }
+        
+        @Override
+        public SpaceObject createObject(int typeID) {
+            return new BenchmarkObject();
+        }
+        
+    };
+    
+    private SnapshotBenchmark() {}
+    
+    //Replaces the SpaceState's SpaceObjects with the specified number of BenchmarkObjects in a square grid
+    static List<SpaceObject> fill(SpaceState<?,?,?> state, int numObjects) {
+        state.clearObjects();
+        int gridWidth = Math.max((int)Math.ceil(Math.sqrt(numObjects)), 1);
+        List<SpaceObject> objects = new ArrayList<>(numObjects);
+        for (int i = 0; i < numObjects; i++) {
+            objects.add(new BenchmarkObject((i % gridWidth)*SPACING, (i / gridWidth)*SPACING));
+        }
+        state.addObjects(objects);
+        return objects;
+    }
+    
+    private static void run(SpaceState<?,?,?> state, int numObjects, int numRuns) {
+        fill(state, numObjects);
+        ByteBuffer buffer = state.saveSnapshot(FACTORY);
+        int numBytes = buffer.remaining();
+        ByteBuffer runBuffer = ByteBuffer.allocate(buffer.capacity());
+        long saveTime = 0;
+        long loadTime = 0;
+        for (int i = -numRuns; i < numRuns; i++) {
+            runBuffer.clear();
+            long startTime = System.nanoTime();
+            state.saveSnapshot(runBuffer, FACTORY);
+            long midTime = System.nanoTime();
+            runBuffer.flip();
+            state.loadSnapshot(runBuffer, FACTORY);
+            long endTime = System.nanoTime();
+            if (i >= 0) {
+                saveTime += midTime - startTime;
+                loadTime += endTime - midTime;
+            }
+        }
+        System.out.printf("%8d %10d %10.3f %10.3f%n", numObjects, numBytes,
+                saveTime/1000000.0/numRuns, loadTime/1000000.0/numRuns);
+    }
+    
+    public static void main(String[] args) {
+        int maxObjects = (args.length > 0 ? Integer.parseInt(args[0]) : 100000);
+        int numRuns = (args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        BenchmarkGame game = BenchmarkGame.start(g -> new BasicSpaceState(
+                g, 0, 256*Frac.UNIT, 256*Frac.UNIT, SpaceState.DrawMode.FLAT));
+        BasicSpaceState state = (BasicSpaceState)game.getState(0);
+        System.out.printf("%8s %10s %10s %10s%n", "objects", "bytes", "save ms", "load ms");
+        for (int numObjects = 1; numObjects < maxObjects; numObjects *= 10) {
+            run(state, numObjects, numRuns);
+        }
+        run(state, maxObjects, numRuns);
+    }
+    
+}
@@ -1,6 +1,8 @@
 package org.cell2d;
 
+import java.nio.ByteBuffer;
 import org.cell2d.celick.Graphics;
+import org.cell2d.space.SpaceObject;
 
 /**
  * <p>An AnimationInstance is an instance of an Animation that represents a
@@ -50,6 +52,7 @@ public class AnimationInstance implements Drawable {
     
     private final boolean blank;
     GameState state = null;
+    private Object owner = null;
     private long timeFactor = -1;
     private final Animation animation;
     private final int level;
@@ -131,6 +134,43 @@ public class AnimationInstance implements Drawable {
         return this;
     }
     
+    /**
+     * Returns the object, such as a SpaceObject, that has claimed this
+     * AnimationInstance as one of its own, or null if no object has claimed it.
+     * An AnimationInstance can be claimed by only one object at a time.
+     * @return The object that has claimed this AnimationInstance
+     */
+    public final Object getOwner() {
+        return owner;
+    }
+    
+    /**
+     * Claims this AnimationInstance for the specified object, if no other
+     * object has already claimed it. AnimationInstance.BLANK cannot be
+     * claimed.
+     * @param owner The object to claim this AnimationInstance for
+     * @return Whether the specified object has now claimed this
+     * AnimationInstance
+     */
+    public final boolean claim(Object owner) {
+        if (blank || (this.owner != null && this.owner != owner)) {
+            return false;
+        }
+        this.owner = owner;
+        return true;
+    }
+    
+    /**
+     * Releases this AnimationInstance from the specified object's claim, if the
+     * specified object has claimed it.
+     * @param owner The object to release this AnimationInstance from
+     */
+    public final void release(Object owner) {
+        if (this.owner == owner) {
+            this.owner = null;
+        }
+    }
+    
     /**
      * Returns this AnimationInstance's time factor.
      * @return This AnimationInstance's time factor
@@ -240,6 +280,7 @@ public class AnimationInstance implements Drawable {
             setIndex(level, frame, index, resetLowerIndices);
             indexChanges[level] = 0;
             updateCurrentSprite();
+            markOwnerChanged();
         }
         return this;
     }
@@ -311,6 +352,7 @@ public class AnimationInstance implements Drawable {
         }
         if (!blank) {
             speeds[level] = speed;
+            markOwnerChanged();
         }
         return this;
     }
@@ -325,10 +367,66 @@ public class AnimationInstance implements Drawable {
     public final AnimationInstance setSpeed(long speed) {
         if (!blank) {
             speeds[indices.length - 1] = speed;
+            markOwnerChanged();
+        }
+        return this;
+    }
+    
+    /**
+     * Writes this AnimationInstance's indices, speeds, and progress toward its
+     * next indices to the specified ByteBuffer, in a form that its
+     * readSnapshot() method can read.
+     * @param buffer The ByteBuffer to write to
+     */
+    public final void writeSnapshot(ByteBuffer buffer) {
+        buffer.put((byte)indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            buffer.putInt(indices[i]);
+            buffer.putLong(indexChanges[i]);
+            buffer.putLong(speeds[i]);
+        }
+    }
+    
+    /**
+     * Reads indices, speeds, and progress toward the next indices that were
+     * written by an AnimationInstance's writeSnapshot() method from the
+     * specified ByteBuffer, and gives them to this AnimationInstance. They
+     * should have been written by an AnimationInstance of the same Animation.
+     * If they were written by an AnimationInstance with a different number of
+     * levels, or if this AnimationInstance is AnimationInstance.BLANK, they
+     * will be read, but ignored.
+     * @param buffer The ByteBuffer to read from
+     * @return This AnimationInstance
+     */
+    public final AnimationInstance readSnapshot(ByteBuffer buffer) {
+        int numLevels = buffer.get();
+        if (blank || numLevels != indices.length) {
+            buffer.position(buffer.position() + numLevels*(Integer.BYTES + 2*Long.BYTES));
+            return this;
+        }
+        boolean indicesChanged = false;
+        for (int i = 0; i < numLevels; i++) {
+            int index = buffer.getInt();
+            if (index != indices[i]) {
+                indices[i] = index;
+                indicesChanged = true;
+            }
+            indexChanges[i] = buffer.getLong();
+            speeds[i] = buffer.getLong();
+        }
+        if (indicesChanged) {
+            updateCurrentSprite();
         }
         return this;
     }
     
+    //Lets a SpaceState's RollbackBuffer know that this AnimationInstance's SpaceObject has changed
+    private void markOwnerChanged() {
+        if (owner instanceof SpaceObject) {
+            ((SpaceObject)owner).markChanged();
+        }
+    }
+    
     final void update() {
         if (blank) {
             return;
@@ -337,6 +435,7 @@ public class AnimationInstance implements Drawable {
         if (timeToRun == 0) {
             return;
         }
+        boolean progressed = false;
         boolean spriteChanged = false;
         Animatable frame = animation;
         for (int i = indices.length - 1; i >= 0; i--) {
@@ -344,6 +443,7 @@ public class AnimationInstance implements Drawable {
                 long duration = frame.getFrameDuration(indices[i]);
                 if (duration > 0) {
                     indexChanges[i] += Frac.mul(timeToRun, speeds[i]);
+                    progressed = true;
                     if (speeds[i] > 0) {
                         while (indexChanges[i] >= duration) {
                             spriteChanged = true;
@@ -372,6 +472,9 @@ public class AnimationInstance implements Drawable {
         if (spriteChanged) {
             updateCurrentSprite();
         }
+        if (progressed) {
+            markOwnerChanged();
+        }
     }
     
     @Override
@@ -23,18 +23,31 @@ class Audio {
     private static IntBuffer sources = null;
     private static int[] timesSourcesPlayed = null;
     
+    private final boolean silent;
     private final int buffer;
     private int index = -1;
     private int timesSourcePlayed = -1;
     private final float length;
+    private final int size;
     
     Audio(String path) throws IOException {
+        if (HeadlessRunner.isHeadless()) {
+            //Headless audio is never played, so it need not be decoded
+            silent = true;
+            buffer = 0;
+            length = 0;
+            size = 0;
+            return;
+        }
+        silent = false;
         if (!initialized) {
             init();
         }
         IntBuffer buf = BufferUtils.createIntBuffer(1);
         AL10.alGenBuffers(buf);
         buffer = buf.get(0);
+        JFREvents.AudioDecode event = new JFREvents.AudioDecode();
+        event.begin();
         String lowerPath = path.toLowerCase();
         InputStream stream = ResourceLoader.getResourceAsStream(path);
         if (lowerPath.endsWith(".wav")) {
@@ -48,6 +61,13 @@ class Audio {
             throw new IOException("Attempted to load an audio file with an unsupported format: " + path);
         }
         int bytes = AL10.alGetBufferi(buffer, AL10.AL_SIZE);
+        size = bytes;
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.bytes = bytes;
+            event.commit();
+        }
         int bits = AL10.alGetBufferi(buffer, AL10.AL_BITS);
         int channels = AL10.alGetBufferi(buffer, AL10.AL_CHANNELS);
         int freq = AL10.alGetBufferi(buffer, AL10.AL_FREQUENCY);
@@ -71,19 +91,28 @@ class Audio {
     
     final void unload() {
         stop();
-        AL10.alDeleteBuffers(buffer);
+        if (!silent) {
+            AL10.alDeleteBuffers(buffer);
+        }
     }
     
     final double getLength() {
         return length;
     }
     
+    final int getSize() {
+        return size;
+    }
+    
     final boolean isPlaying() {
         return index >= 0 && timesSourcePlayed == timesSourcesPlayed[index]
                 && AL10.alGetSourcei(sources.get(index), AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING;
     }
     
     final void play(double speed, double volume, boolean loop) {
+        if (silent) {
+            return;
+        }
         int freeIndex = -1;
         for (int i = 0; i < NUM_SOURCES; i++) {
             int state = AL10.alGetSourcei(sources.get(i), AL10.AL_SOURCE_STATE);
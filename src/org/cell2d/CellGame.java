@@ -3,8 +3,8 @@ package org.cell2d;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -13,19 +13,19 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
 import org.cell2d.celick.Game;
 import org.cell2d.celick.GameContainer;
 import org.cell2d.celick.Graphics;
 import org.cell2d.celick.SlickException;
+import org.cell2d.celick.opengl.renderer.RecordingSGL;
 import org.cell2d.celick.opengl.renderer.Renderer;
 import org.cell2d.celick.opengl.renderer.SGL;
+import org.cell2d.celick.opengl.renderer.SpriteBatch;
 import org.cell2d.celick.util.Log;
 import org.cell2d.control.Control;
-import org.cell2d.control.ControllerButtonControl;
-import org.cell2d.control.ControllerDirectionControl;
-import org.cell2d.control.InvalidControlException;
+import org.cell2d.control.ControllerControl;
 import org.cell2d.control.KeyControl;
-import org.cell2d.control.MouseButtonControl;
 import org.lwjgl.LWJGLException;
 import org.lwjgl.input.Controller;
 import org.lwjgl.input.Controllers;
@@ -91,7 +91,19 @@ public abstract class CellGame {
      */
     public static final String VERSION = "2.1.2";
     
-    private static final SGL GL = Renderer.get();
+    //The Renderer routes all GL calls through these, whichever classes are initialized first
+    private static final RecordingSGL RECORDER = Renderer.getRecorder();
+    private static final SpriteBatch BATCH = Renderer.getSpriteBatch();
+    private static final SGL GL = BATCH;
+    //The CellGame whose logic thread the recorder records, since there is only one recorder
+    private static CellGame pipelinedGame = null;
+    
+    //Characters that stand for the special keys used while typing a String
+    private static final char TYPED_ESCAPE = '\u001B';
+    private static final char TYPED_BACKSPACE = '\b';
+    private static final char TYPED_DELETE = '\u007F';
+    private static final char TYPED_ENTER = '\n';
+    private static final Direction[] DIRECTIONS = Direction.values();
     
     private static class CommandState {
         
@@ -173,6 +185,7 @@ public abstract class CellGame {
         Log.info("Cell2D Version: " + VERSION);
         try {
             GameContainer container = new GameContainer(game.game);
+            container.setFramePacer(game.framePacer);
             game.updateScreen(container);
             if (game.iconPath != null) {
                 container.setIcon(game.iconPath);
@@ -183,7 +196,7 @@ public abstract class CellGame {
         }
     }
     
-    private final Game game;
+    private final CelickGame game;
     private final String title;
     private boolean closeRequested = false;
     private boolean loadingVisualsRendered = false;
@@ -195,20 +208,48 @@ public abstract class CellGame {
     private int transitionStage = 0;
     private int transitionTimer = 0;
     private final CommandState[] commandStates;
-    private final Set<Control> controlsHeld = new HashSet<>();
-    private final Map<Integer,Set<Direction>> controllerDirections = new HashMap<>();
+    //One bit per Control index
+    private final long[] controlsHeld = new long[(Control.NUM_INDICES + 63)/64];
+    //One bit per Direction per controller
+    private final int[] controllerDirections = new int[ControllerControl.MAX_CONTROLLERS];
     private List<Set<Control>> commandControls;
-    private final Map<Control,Integer> controlCommands = new HashMap<>();
+    //The number of the command to which each Control index is bound, or -1 if it is bound to none
+    private final int[] controlCommands = new int[Control.NUM_INDICES];
     private int bindingCommandNum = -1;
+    //Command presses and releases since the last frame, in order of their timestamps
+    private int numInputEvents = 0;
+    private int[] inputEventCommands = new int[16];
+    private boolean[] inputEventPresses = new boolean[16];
+    private long[] inputEventTimes = new long[16];
     private int mouseX = 0;
     private int mouseY = 0;
+    private boolean lateLatchingMouse = false;
+    private boolean mouseLatched = false;
+    private int latchedMouseX = 0;
+    private int latchedMouseY = 0;
     private int mouseWheelChange = 0;
+    private boolean typing = false;
+    private final StringBuilder typingChars = new StringBuilder();
+    //The String form of typingChars, or null if it has changed since it was last needed
     private String typingString = null;
+    private CommandSource commandSource = null;
+    private boolean supplyingInput = false;
+    private boolean headless = false;
+    private long frameNumber = 0;
+    private InputRecorder inputRecorder = null;
+    private final StringBuilder typedChars = new StringBuilder();
+    private boolean fastForward = false;
     private int maxTypingStringLength = 0;
     private int fps;
     private double msPerFrame;
     private double msToRun = 0;
-    private final DisplayMode[] displayModes;
+    private boolean fixedStep = false;
+    private int maxCatchUpFrames = 5;
+    private double droppedTime = 0;
+    private double interpolationAlpha = 1;
+    private FrameProfiler profiler = null;
+    private final FramePacer framePacer = new FramePacer();
+    private boolean pipelined = false;
     private int screenWidth, screenHeight;
     private double scaleFactor;
     private double effectiveScaleFactor = 1;
@@ -245,17 +286,13 @@ public abstract class CellGame {
                     + numCommands);
         }
         commandStates = new CommandState[numCommands];
+        Arrays.fill(controlCommands, -1);
         commandControls = new ArrayList<>(numCommands);
         for (int i = 0; i < numCommands; i++) {
             commandStates[i] = new CommandState();
             commandControls.add(new HashSet<>());
         }
         setFPS(fps);
-        try {
-            displayModes = Display.getAvailableDisplayModes();
-        } catch (LWJGLException e) {
-            throw new RuntimeException(e);
-        }
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
         setScaleFactor(scaleFactor);
@@ -275,8 +312,8 @@ public abstract class CellGame {
         for (CommandState commandState : commandStates) {
             commandState.reset();
         }
-        controlsHeld.clear();
-        controllerDirections.clear();
+        Arrays.fill(controlsHeld, 0);
+        Arrays.fill(controllerDirections, 0);
     }
     
     private void updateScreen(GameContainer container) throws SlickException {
@@ -307,119 +344,214 @@ public abstract class CellGame {
         resetCommands();
     }
     
-    private void updateControl(Control control, boolean pressed) {
+    private void addInputEvent(int commandNum, boolean pressed, long time) {
+        if (numInputEvents == inputEventCommands.length) {
+            inputEventCommands = Arrays.copyOf(inputEventCommands, 2*numInputEvents);
+            inputEventPresses = Arrays.copyOf(inputEventPresses, 2*numInputEvents);
+            inputEventTimes = Arrays.copyOf(inputEventTimes, 2*numInputEvents);
+        }
+        //Each device's events arrive in order, but different devices' events must be merged
+        int i = numInputEvents;
+        while (i > 0 && inputEventTimes[i - 1] > time) {
+            inputEventCommands[i] = inputEventCommands[i - 1];
+            inputEventPresses[i] = inputEventPresses[i - 1];
+            inputEventTimes[i] = inputEventTimes[i - 1];
+            i--;
+        }
+        inputEventCommands[i] = commandNum;
+        inputEventPresses[i] = pressed;
+        inputEventTimes[i] = time;
+        numInputEvents++;
+    }
+    
+    private void updateControl(int controlIndex, boolean pressed, long time) {
+        if (controlIndex < 0) {
+            return;
+        }
         if (bindingCommandNum >= 0) {
             if (pressed) {
-                finishBindToCommand(control);
+                Control control = Control.getControl(controlIndex);
+                if (control != null) {
+                    finishBindToCommand(control);
+                }
             }
-        } else if (typingString == null) {
-            int commandNum = controlCommands.getOrDefault(control, -1);
+        } else if (!typing) {
+            int commandNum = controlCommands[controlIndex];
             if (commandNum < 0) {
                 return;
             }
             CommandState commandState = commandStates[commandNum];
+            int word = controlIndex >> 6;
+            long bit = 1L << (controlIndex & 63);
             if (pressed) {
-                if (controlsHeld.add(control)) {
+                if ((controlsHeld[word] & bit) == 0) {
+                    controlsHeld[word] |= bit;
                     if (commandState.numControlsHeld == 0) {
                         commandState.pressed = true;
+                        addInputEvent(commandNum, true, time);
                     }
                     commandState.numControlsHeld++;
                 }
             } else {
-                if (controlsHeld.remove(control)) {
+                if ((controlsHeld[word] & bit) != 0) {
+                    controlsHeld[word] &= ~bit;
                     commandState.numControlsHeld--;
                     if (commandState.numControlsHeld == 0) {
                         commandState.released = true;
+                        addInputEvent(commandNum, false, time);
                     }
                 }
             }
         }
     }
     
-    private void updateInput() {
+    private void clearInputChanges() {
         for (CommandState commandState : commandStates) {
             commandState.pressed = false;
             commandState.released = false;
         }
+        numInputEvents = 0;
+        mouseWheelChange = 0;
+        typedChars.setLength(0);
+    }
+    
+    private void processTypedChar(char c) {
+        if (inputRecorder != null) {
+            typedChars.append(c);
+        }
+        String s;
+        switch (c) {
+            case TYPED_ESCAPE:
+                cancelTypingString();
+                break;
+            case TYPED_BACKSPACE:
+                if (typingChars.length() > 0) {
+                    char toDelete = typingChars.charAt(typingChars.length() - 1);
+                    typingChars.setLength(typingChars.length() - 1);
+                    typingString = null;
+                    if (currentState != null) {
+                        currentState.charDeletedActions(currentState.game, toDelete);
+                    }
+                }
+                break;
+            case TYPED_DELETE:
+                s = getTypingString();
+                typingChars.setLength(0);
+                typingString = null;
+                if (currentState != null) {
+                    currentState.stringDeletedActions(currentState.game, s);
+                }
+                break;
+            case TYPED_ENTER:
+                s = getTypingString();
+                typing = false;
+                typingChars.setLength(0);
+                typingString = null;
+                maxTypingStringLength = 0;
+                if (currentState != null) {
+                    currentState.stringFinishedActions(currentState.game, s);
+                }
+                break;
+            default:
+                if (c != '\u0000' && typingChars.length() < maxTypingStringLength) {
+                    typingChars.append(c);
+                    typingString = null;
+                    if (currentState != null) {
+                        currentState.charTypedActions(currentState.game, c);
+                    }
+                }
+                break;
+        }
+    }
+    
+    private int getScreenMouseX(int rawX) {
+        return Math.min(Math.max((int)(rawX/effectiveScaleFactor) - screenXOffset, 0), screenWidth - 1);
+    }
+    
+    private int getScreenMouseY(int rawY) {
+        return Math.min(Math.max((int)(rawY/effectiveScaleFactor) - screenYOffset, 0), screenHeight - 1);
+    }
+    
+    //Re-samples the mouse cursor's position just before rendering, without consuming any input events
+    private void latchMouse() {
+        Display.processMessages();
+        Mouse.poll();
+        latchedMouseX = getScreenMouseX(Mouse.getX());
+        latchedMouseY = getScreenMouseY(Mouse.getY());
+        mouseLatched = true;
+    }
+    
+    private void updateInput() {
+        clearInputChanges();
+        if (commandSource != null) {
+            supplyingInput = true;
+            try {
+                commandSource.inputActions(this, frameNumber);
+            } finally {
+                supplyingInput = false;
+            }
+            return;
+        }
+        if (headless) {
+            return;
+        }
         Keyboard.poll();
         Mouse.poll();
         Controllers.poll();
         while (Keyboard.next()) {
             int keyCode = Keyboard.getEventKey();
             boolean keyPressed = Keyboard.getEventKeyState();
-            if (typingString != null) {
+            if (typing) {
                 if (keyPressed) {
-                    String s;
                     switch (keyCode) {
                         case KeyControl.KEY_ESCAPE:
-                            cancelTypingString();
+                            processTypedChar(TYPED_ESCAPE);
                             break;
                         case KeyControl.KEY_BACK:
-                            if (typingString.length() > 0) {
-                                char toDelete = typingString.charAt(typingString.length() - 1);
-                                typingString = typingString.substring(0, typingString.length() - 1);
-                                if (currentState != null) {
-                                    currentState.charDeletedActions(currentState.game, toDelete);
-                                }
-                            }
+                            processTypedChar(TYPED_BACKSPACE);
                             break;
                         case KeyControl.KEY_DELETE:
-                            s = typingString;
-                            typingString = "";
-                            if (currentState != null) {
-                                currentState.stringDeletedActions(currentState.game, s);
-                            }
+                            processTypedChar(TYPED_DELETE);
                             break;
                         case KeyControl.KEY_ENTER:
-                            s = typingString;
-                            typingString = null;
-                            maxTypingStringLength = 0;
-                            if (currentState != null) {
-                                currentState.stringFinishedActions(currentState.game, s);
-                            }
+                            processTypedChar(TYPED_ENTER);
                             break;
                         default:
                             char c = Keyboard.getEventCharacter();
-                            if (c != '\u0000' && typingString.length() < maxTypingStringLength) {
-                                typingString += c;
-                                if (currentState != null) {
-                                    currentState.charTypedActions(currentState.game, c);
-                                }
+                            if (c != TYPED_ESCAPE && c != TYPED_BACKSPACE
+                                    && c != TYPED_DELETE && c != TYPED_ENTER) {
+                                processTypedChar(c);
                             }
                             break;
                     }
                 }
             } else {
-                try {
-                    updateControl(new KeyControl(keyCode), keyPressed);
-                } catch (InvalidControlException e) {}
+                updateControl(Control.getKeyIndex(keyCode), keyPressed, Keyboard.getEventNanoseconds());
             }
         }
-        mouseWheelChange = 0;
         while (Mouse.next()) {
             mouseWheelChange += Mouse.getEventDWheel();
             int buttonNum = Mouse.getEventButton();
             if (buttonNum >= 0) {
                 boolean buttonPressed = Mouse.getEventButtonState();
-                try {
-                    updateControl(new MouseButtonControl(buttonNum), buttonPressed);
-                } catch (InvalidControlException e) {}
+                updateControl(Control.getMouseButtonIndex(buttonNum), buttonPressed,
+                        Mouse.getEventNanoseconds());
             }
         }
-        mouseX = Math.min(Math.max(
-                (int)(Mouse.getX()/effectiveScaleFactor) - screenXOffset, 0), screenWidth - 1);
-        mouseY = Math.min(Math.max(
-                (int)(Mouse.getY()/effectiveScaleFactor) - screenYOffset, 0), screenHeight - 1);
+        mouseX = getScreenMouseX(Mouse.getX());
+        mouseY = getScreenMouseY(Mouse.getY());
+        mouseLatched = false;
         while (Controllers.next()) {
             Controller controller = Controllers.getEventSource();
             int controllerNum = controller.getIndex();
+            long time = Controllers.getEventNanoseconds();
             if (Controllers.isEventButton()) {
                 int buttonNum = Controllers.getEventControlIndex();
                 boolean buttonPressed = Controllers.getEventButtonState();
-                try {
-                    updateControl(new ControllerButtonControl(controllerNum, buttonNum), buttonPressed);
-                } catch (InvalidControlException e) {}
-            } else if (Controllers.isEventXAxis() || Controllers.isEventYAxis()) {
+                updateControl(Control.getControllerButtonIndex(controllerNum, buttonNum),
+                        buttonPressed, time);
+            } else if ((Controllers.isEventXAxis() || Controllers.isEventYAxis())
+                    && controllerNum >= 0 && controllerNum < controllerDirections.length) {
                 float x = Controllers.getEventXAxisValue();
                 float y = Controllers.getEventYAxisValue();
                 double angle = Math.toDegrees(Math.atan2(-y, x)) % 360;
@@ -428,32 +560,24 @@ public abstract class CellGame {
                 }
                 float deadZoneX = controller.getXAxisDeadZone();
                 float deadZoneY = controller.getYAxisDeadZone();
-                Set<Direction> directions = EnumSet.noneOf(Direction.class);
+                int directions = 0;
                 if (x > deadZoneX && (angle < 67.5 || angle > 292.5)) {
-                    directions.add(Direction.RIGHT);
+                    directions |= 1 << Direction.RIGHT.ordinal();
                 } else if (x < -deadZoneX && angle > 112.5 && angle < 247.5) {
-                    directions.add(Direction.LEFT);
+                    directions |= 1 << Direction.LEFT.ordinal();
                 }
                 if (y > deadZoneY && angle > 202.5 && angle < 337.5) {
-                    directions.add(Direction.DOWN);
+                    directions |= 1 << Direction.DOWN.ordinal();
                 } else if (y < -deadZoneY && angle > 22.5 && angle < 157.5) {
-                    directions.add(Direction.UP);
+                    directions |= 1 << Direction.UP.ordinal();
                 }
-                Set<Direction> oldDirections = controllerDirections.getOrDefault(
-                        controllerNum, EnumSet.noneOf(Direction.class));
-                controllerDirections.put(controllerNum, directions);
-                for (Direction direction : Direction.values()) {
-                    if (directions.contains(direction)) {
-                        if (!oldDirections.contains(direction)) {
-                            try {
-                                updateControl(
-                                        new ControllerDirectionControl(controllerNum, direction), true);
-                            } catch (InvalidControlException e) {}
-                        }
-                    } else if (oldDirections.contains(direction)) {
-                        try {
-                            updateControl(new ControllerDirectionControl(controllerNum, direction), false);
-                        } catch (InvalidControlException e) {}
+                int changedDirections = directions ^ controllerDirections[controllerNum];
+                controllerDirections[controllerNum] = directions;
+                for (Direction direction : DIRECTIONS) {
+                    int bit = 1 << direction.ordinal();
+                    if ((changedDirections & bit) != 0) {
+                        updateControl(Control.getControllerDirectionIndex(controllerNum, direction),
+                                (directions & bit) != 0, time);
                     }
                 }
             }
@@ -540,8 +664,57 @@ public abstract class CellGame {
     
     private class CelickGame implements Game {
         
+        private LogicThread logicThread = null;
+        private boolean logicRunning = false;
+        private boolean frameRecorded = false;
+        private long displayTime = 0;
+        
         private CelickGame() {}
         
+        //Performs game logic updates and records their rendering while the main thread displays
+        private class LogicThread extends Thread {
+            
+            private final Semaphore start = new Semaphore(0);
+            private int numUpdates = 0;
+            private Graphics g = null;
+            private boolean rendered = false;
+            private Throwable error = null;
+            
+            private LogicThread() {
+                super("Cell2D Logic");
+                setDaemon(true);
+            }
+            
+            @Override
+            public void run() {
+                while (true) {
+                    start.acquireUninterruptibly();
+                    rendered = false;
+                    try {
+                        for (int i = 0; i < numUpdates && !closeRequested; i++) {
+                            if (i > 0) {
+                                //Input devices were only polled before the first update
+                                if (commandSource == null) {
+                                    clearInputChanges();
+                                } else {
+                                    updateInput();
+                                }
+                            }
+                            updateFrame(false);
+                        }
+                        if (!closeRequested) {
+                            renderFrame(g);
+                            rendered = true;
+                        }
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    RECORDER.finishRecording();
+                }
+            }
+            
+        }
+        
         @Override
         public void init(GameContainer container) throws SlickException {
             create();
@@ -549,32 +722,33 @@ public abstract class CellGame {
         
         @Override
         public void gameLoop(GameContainer container, int msElapsed, Graphics g) throws SlickException {
+            if (logicRunning) {
+                finishLogic();
+            }
             updateMusicStack(msElapsed);
             if (!Display.isActive()) {
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {}
+                framePacer.pause(10000000);
+                framePacer.skipFrame();
                 Display.update();
                 return;
             }
+            if (loaded && fastForward) {
+                fastForwardLoop();
+                return;
+            }
+            if (loaded && pipelined) {
+                pipelinedGameLoop(container, msElapsed, g);
+                return;
+            }
             boolean render = true;
             if (loaded) {
-                //Do a game logic update if it's been long enough since the last one
-                msToRun += Math.min(msElapsed, msPerFrame);
-                if (msToRun >= msPerFrame) {
-                    msToRun -= msPerFrame;
-                    updateInput();
-                    if (transitionStage == 0) {
-                        currentState.stateUpdate();
-                        if (nextTransition != null) {
-                            startNextTransition();
-                        }
-                    } else {
-                        updateCurrentTransition();
-                    }
-                } else {
-                    render = false;
+                //Pass on anything recorded before this CellGame stopped being pipelined
+                RECORDER.replayReady();
+                int numUpdates = getNumUpdates(msElapsed);
+                for (int i = 0; i < numUpdates && !closeRequested; i++) {
+                    updateFrame(true);
                 }
+                render = (fixedStep || numUpdates > 0);
             } else if (loadingVisualsRendered) {
                 initActions();
                 if (nextTransition == null) {
@@ -595,40 +769,223 @@ public abstract class CellGame {
                 updateScreen(container);
             }
             if (render) {
-                GL.glClear(SGL.GL_COLOR_BUFFER_BIT | SGL.GL_DEPTH_BUFFER_BIT);
-                g.resetTransform();
-                float scale = (float)effectiveScaleFactor;
-                g.scale(scale, scale);
-                int x1 = screenXOffset;
-                int y1 = screenYOffset;
-                int x2 = x1 + screenWidth;
-                int y2 = y1 + screenHeight;
-                g.setWorldClip(x1, y1, x2 - x1, y2 - y1);
-                if (currentState == null) {
-                    renderLoadingVisuals(g, x1, y1, x2, y2);
-                    loadingVisualsRendered = true;
-                } else {
-                    currentState.renderActions(currentState.getGame(), g, x1, y1, x2, y2);
-                    renderActions(g, x1, y1, x2, y2);
+                JFREvents.FrameRender renderEvent = new JFREvents.FrameRender();
+                renderEvent.begin();
+                if (lateLatchingMouse && loaded && commandSource == null) {
+                    latchMouse();
                 }
-                if (currentTransition != null) {
-                    Color fadeColor = currentTransition.fadeColor;
-                    if (fadeColor != null) {
-                        float filterAlpha;
-                        if (transitionStage == 1) {
-                            filterAlpha = ((float)transitionTimer)/currentTransition.fadeOutTime;
-                        } else {
-                            filterAlpha = ((float)transitionTimer)/currentTransition.fadeInTime;
-                        }
-                        Color filterColor = new Color(fadeColor.getR(), fadeColor.getG(),
-                                fadeColor.getB(), filterAlpha);
-                        g.setColor(filterColor);
-                        g.fillRect(x1, y1, x2 - x1, y2 - y1);
-                    }
-                }
-                g.clearWorldClip();
+                renderFrame(g);
+                long startTime = (profiler == null ? 0 : System.nanoTime());
                 GL.flush();
                 Display.update();
+                if (profiler != null) {
+                    profiler.endPhase(FrameProfiler.Phase.DISPLAY_UPDATE, startTime);
+                    profiler.endFrame();
+                }
+                renderEvent.end();
+                if (renderEvent.shouldCommit()) {
+                    renderEvent.stateID = (currentState == null ? -1 : currentState.getID());
+                    renderEvent.commit();
+                }
+            }
+        }
+        
+        private void pipelinedGameLoop(GameContainer container, int msElapsed, Graphics g)
+                throws SlickException {
+            int numUpdates = getNumUpdates(msElapsed);
+            if (closeRequested) {
+                destroy();
+                return;
+            }
+            if (updateScreen) {
+                //Display the last recorded frame as it was drawn before the screen changes
+                displayRecordedFrame();
+                updateScreen(container);
+            }
+            if (numUpdates > 0 || fixedStep) {
+                if (numUpdates > 0) {
+                    long startTime = (profiler == null ? 0 : System.nanoTime());
+                    updateInput();
+                    if (profiler != null) {
+                        profiler.endPhase(FrameProfiler.Phase.INPUT, startTime);
+                    }
+                }
+                startLogic(numUpdates, g);
+            }
+            displayRecordedFrame();
+        }
+        
+        private void fastForwardLoop() {
+            //Pass on anything recorded before this CellGame started fast-forwarding
+            RECORDER.replayReady();
+            msToRun = 0;
+            //Update for up to one frame's worth of time without rendering, then let the window respond
+            long endTime = System.nanoTime() + (long)(msPerFrame*1000000);
+            do {
+                updateFrame(true);
+            } while (!closeRequested && fastForward && System.nanoTime() < endTime);
+            if (closeRequested) {
+                destroy();
+                return;
+            }
+            Display.processMessages();
+        }
+        
+        //Returns how many game logic updates to do in the time that has passed
+        private int getNumUpdates(int msElapsed) {
+            if (fixedStep) {
+                //Do as many game logic updates as fit in the time that has passed, up to a limit
+                msToRun += msElapsed;
+                int numUpdates = 0;
+                while (msToRun >= msPerFrame) {
+                    if (numUpdates == maxCatchUpFrames) {
+                        //Too far behind to catch up; give up on the rest of the whole frames
+                        double msBehind = Math.floor(msToRun/msPerFrame)*msPerFrame;
+                        msToRun -= msBehind;
+                        droppedTime += msBehind;
+                        break;
+                    }
+                    msToRun -= msPerFrame;
+                    numUpdates++;
+                }
+                interpolationAlpha = msToRun/msPerFrame;
+                return numUpdates;
+            }
+            //Do a game logic update if it's been long enough since the last one
+            if (msElapsed > msPerFrame) {
+                droppedTime += msElapsed - msPerFrame;
+            }
+            msToRun += Math.min(msElapsed, msPerFrame);
+            if (msToRun >= msPerFrame) {
+                msToRun -= msPerFrame;
+                return 1;
+            }
+            return 0;
+        }
+        
+        private void startLogic(int numUpdates, Graphics g) {
+            if (logicThread == null) {
+                logicThread = new LogicThread();
+                logicThread.start();
+            }
+            RECORDER.setRecordingThread(logicThread);
+            logicThread.numUpdates = numUpdates;
+            logicThread.g = g;
+            logicRunning = true;
+            RECORDER.startRecording();
+            logicThread.start.release();
+        }
+        
+        private void finishLogic() {
+            RECORDER.awaitRecording();
+            logicRunning = false;
+            Throwable error = logicThread.error;
+            if (error != null) {
+                logicThread.error = null;
+                if (error instanceof RuntimeException) {
+                    throw (RuntimeException)error;
+                } else if (error instanceof Error) {
+                    throw (Error)error;
+                }
+                throw new RuntimeException(error);
+            }
+            RECORDER.swapCommandLists();
+            frameRecorded = logicThread.rendered;
+            if (profiler != null) {
+                //The last display update overlapped with this frame's game logic update
+                profiler.endPhase(FrameProfiler.Phase.DISPLAY_UPDATE, System.nanoTime() - displayTime);
+                profiler.endFrame();
+            }
+            displayTime = 0;
+        }
+        
+        private void displayRecordedFrame() {
+            if (!frameRecorded) {
+                return;
+            }
+            frameRecorded = false;
+            JFREvents.FrameRender renderEvent = new JFREvents.FrameRender();
+            renderEvent.begin();
+            long startTime = System.nanoTime();
+            RECORDER.replayReady();
+            //The logic thread may be drawing through the sprite batch, so bypass it
+            RECORDER.flush();
+            Display.update();
+            displayTime += System.nanoTime() - startTime;
+            renderEvent.end();
+            if (renderEvent.shouldCommit()) {
+                renderEvent.stateID = (currentState == null ? -1 : currentState.getID());
+                renderEvent.commit();
+            }
+        }
+        
+        private void renderFrame(Graphics g) {
+            GL.glClear(SGL.GL_COLOR_BUFFER_BIT | SGL.GL_DEPTH_BUFFER_BIT);
+            g.resetTransform();
+            float scale = (float)effectiveScaleFactor;
+            g.scale(scale, scale);
+            int x1 = screenXOffset;
+            int y1 = screenYOffset;
+            int x2 = x1 + screenWidth;
+            int y2 = y1 + screenHeight;
+            g.setWorldClip(x1, y1, x2 - x1, y2 - y1);
+            if (currentState == null) {
+                renderLoadingVisuals(g, x1, y1, x2, y2);
+                loadingVisualsRendered = true;
+            } else {
+                currentState.renderActions(currentState.getGame(), g, x1, y1, x2, y2);
+                renderActions(g, x1, y1, x2, y2);
+            }
+            if (currentTransition != null) {
+                Color fadeColor = currentTransition.fadeColor;
+                if (fadeColor != null) {
+                    float filterAlpha;
+                    if (transitionStage == 1) {
+                        filterAlpha = ((float)transitionTimer)/currentTransition.fadeOutTime;
+                    } else {
+                        filterAlpha = ((float)transitionTimer)/currentTransition.fadeInTime;
+                    }
+                    Color filterColor = new Color(fadeColor.getR(), fadeColor.getG(),
+                            fadeColor.getB(), filterAlpha);
+                    g.setColor(filterColor);
+                    g.fillRect(x1, y1, x2 - x1, y2 - y1);
+                }
+            }
+            g.clearWorldClip();
+            BATCH.flushBatch();
+        }
+        
+        private void updateFrame(boolean pollInput) {
+            JFREvents.FrameUpdate updateEvent = new JFREvents.FrameUpdate();
+            updateEvent.begin();
+            if (pollInput) {
+                long startTime = (profiler == null ? 0 : System.nanoTime());
+                updateInput();
+                if (profiler != null) {
+                    profiler.endPhase(FrameProfiler.Phase.INPUT, startTime);
+                }
+            }
+            if (commandSource != null) {
+                commandSource.inputAppliedActions(CellGame.this, frameNumber);
+            }
+            if (inputRecorder != null) {
+                inputRecorder.recordFrame(CellGame.this);
+            }
+            boolean transitioning = (transitionStage != 0);
+            if (transitionStage == 0) {
+                currentState.stateUpdate();
+                if (nextTransition != null) {
+                    startNextTransition();
+                }
+            } else {
+                updateCurrentTransition();
+            }
+            frameNumber++;
+            updateEvent.end();
+            if (updateEvent.shouldCommit()) {
+                updateEvent.stateID = (currentState == null ? -1 : currentState.getID());
+                updateEvent.transitioning = transitioning;
+                updateEvent.commit();
             }
         }
         
@@ -786,12 +1143,13 @@ public abstract class CellGame {
         if (commandNum < 0 || commandNum >= commandStates.length) {
             throw new RuntimeException("Attempted to bind to nonexistent command number " + commandNum);
         }
-        int oldCommandNum = controlCommands.getOrDefault(control, -1);
+        int index = control.getIndex();
+        int oldCommandNum = controlCommands[index];
         if (oldCommandNum >= 0) {
             commandControls.get(oldCommandNum).remove(control);
         }
         commandControls.get(commandNum).add(control);
-        controlCommands.put(control, commandNum);
+        controlCommands[index] = commandNum;
     }
     
     /**
@@ -799,10 +1157,11 @@ public abstract class CellGame {
      * @param control The Control to be unbound
      */
     public final void unbindControl(Control control) {
-        int oldCommandNum = controlCommands.getOrDefault(control, -1);
+        int index = control.getIndex();
+        int oldCommandNum = controlCommands[index];
         if (oldCommandNum >= 0) {
             commandControls.get(oldCommandNum).remove(control);
-            controlCommands.remove(control);
+            controlCommands[index] = -1;
         }
     }
     
@@ -816,7 +1175,7 @@ public abstract class CellGame {
             throw new RuntimeException("Attempted to clear nonexistent command number " + commandNum);
         }
         for (Control control : commandControls.get(commandNum)) {
-            controlCommands.remove(control);
+            controlCommands[control.getIndex()] = -1;
         }
         commandControls.get(commandNum).clear();
     }
@@ -846,7 +1205,7 @@ public abstract class CellGame {
             throw new RuntimeException("Attempted to begin waiting to bind to nonexistent command number "
                     + commandNum);
         }
-        if (typingString != null) {
+        if (typing) {
             throw new RuntimeException("Attempted to begin waiting to bind to command number " + commandNum
                     + " while already typing to a String");
         }
@@ -923,6 +1282,110 @@ public abstract class CellGame {
         return mouseY;
     }
     
+    /**
+     * Returns whether this CellGame re-samples the position of the mouse
+     * cursor just before it renders its visuals.
+     * @return Whether this CellGame late-latches the mouse cursor's position
+     * @see #setLateLatchingMouse(boolean)
+     */
+    public final boolean isLateLatchingMouse() {
+        return lateLatchingMouse;
+    }
+    
+    /**
+     * Sets whether this CellGame re-samples the position of the mouse cursor
+     * just before it renders its visuals, so that visuals that follow the
+     * cursor can use a more recent position than the one that its game logic
+     * used. The re-sampled position is available through getLatchedMouseX()
+     * and getLatchedMouseY(), and does not affect getMouseX() and getMouseY(),
+     * so the game logic remains deterministic. This has no effect while this
+     * CellGame is pipelined, headless, or taking its input from a
+     * CommandSource.
+     * @param lateLatchingMouse Whether this CellGame should late-latch the
+     * mouse cursor's position
+     */
+    public final void setLateLatchingMouse(boolean lateLatchingMouse) {
+        this.lateLatchingMouse = lateLatchingMouse;
+    }
+    
+    /**
+     * Returns the x-coordinate in pixels of the mouse cursor on this CellGame's
+     * screen as it was re-sampled just before this CellGame began rendering
+     * its visuals, or the same value as getMouseX() if it has not been
+     * re-sampled since the last frame.
+     * @return The late-latched x-coordinate of the mouse cursor
+     * @see #setLateLatchingMouse(boolean)
+     */
+    public final int getLatchedMouseX() {
+        return (mouseLatched ? latchedMouseX : mouseX);
+    }
+    
+    /**
+     * Returns the y-coordinate in pixels of the mouse cursor on this CellGame's
+     * screen as it was re-sampled just before this CellGame began rendering
+     * its visuals, or the same value as getMouseY() if it has not been
+     * re-sampled since the last frame.
+     * @return The late-latched y-coordinate of the mouse cursor
+     * @see #setLateLatchingMouse(boolean)
+     */
+    public final int getLatchedMouseY() {
+        return (mouseLatched ? latchedMouseY : mouseY);
+    }
+    
+    /**
+     * Returns the number of times that a command was pressed or released
+     * between the previous frame and this one, according to the input events
+     * that this CellGame processed this frame. The events are numbered from 0
+     * in order of their timestamps, so that games can respond to presses and
+     * releases that occurred between the same two frames in the order in which
+     * they occurred. Input supplied by a CommandSource has no events.
+     * @return The number of input events this frame
+     */
+    public final int getNumInputEvents() {
+        return numInputEvents;
+    }
+    
+    private void checkInputEvent(int eventNum) {
+        if (eventNum < 0 || eventNum >= numInputEvents) {
+            throw new RuntimeException("Attempted to get nonexistent input event number " + eventNum);
+        }
+    }
+    
+    /**
+     * Returns the number of the command that was pressed or released in the
+     * input event with the specified number.
+     * @param eventNum The number of the input event to examine
+     * @return The number of the input event's command
+     */
+    public final int getInputEventCommand(int eventNum) {
+        checkInputEvent(eventNum);
+        return inputEventCommands[eventNum];
+    }
+    
+    /**
+     * Returns whether the input event with the specified number was a press,
+     * rather than a release, of its command.
+     * @param eventNum The number of the input event to examine
+     * @return Whether the input event was a press
+     */
+    public final boolean inputEventIsPress(int eventNum) {
+        checkInputEvent(eventNum);
+        return inputEventPresses[eventNum];
+    }
+    
+    /**
+     * Returns the timestamp in nanoseconds of the input event with the
+     * specified number. Timestamps are measured from an arbitrary origin that
+     * is the same for all of a program's input events, so only the differences
+     * between them are meaningful.
+     * @param eventNum The number of the input event to examine
+     * @return The input event's timestamp in nanoseconds
+     */
+    public final long getInputEventTime(int eventNum) {
+        checkInputEvent(eventNum);
+        return inputEventTimes[eventNum];
+    }
+    
     /**
      * Returns the change in the position of the mouse wheel since last frame.
      * This value will be positive if the mouse wheel is being rotated up,
@@ -940,6 +1403,12 @@ public abstract class CellGame {
      * @return The String that this CellGame is being used to type
      */
     public final String getTypingString() {
+        if (!typing) {
+            return null;
+        }
+        if (typingString == null) {
+            typingString = typingChars.toString();
+        }
         return typingString;
     }
     
@@ -999,6 +1468,9 @@ public abstract class CellGame {
         if (initialString.length() > maxLength) {
             initialString = initialString.substring(0, maxLength);
         }
+        typing = true;
+        typingChars.setLength(0);
+        typingChars.append(initialString);
         typingString = initialString;
         maxTypingStringLength = maxLength;
         resetCommands();
@@ -1013,8 +1485,10 @@ public abstract class CellGame {
      * stringCanceledActions() method of this CellGame's current GameState.
      */
     public final void cancelTypingString() {
-        if (typingString != null) {
-            String s = typingString;
+        if (typing) {
+            String s = getTypingString();
+            typing = false;
+            typingChars.setLength(0);
             typingString = null;
             maxTypingStringLength = 0;
             if (currentState != null) {
@@ -1023,6 +1497,190 @@ public abstract class CellGame {
         }
     }
     
+    /**
+     * Returns the CommandSource that supplies this CellGame's input in place of
+     * its Controls, or null if it has none.
+     * @return This CellGame's CommandSource
+     */
+    public final CommandSource getCommandSource() {
+        return commandSource;
+    }
+    
+    /**
+     * Sets the CommandSource that supplies this CellGame's input in place of
+     * its Controls to the specified one. If the specified CommandSource is
+     * null, this CellGame will take its input from its Controls again. Either
+     * way, all of this CellGame's commands will be released.
+     * @param commandSource The new CommandSource
+     */
+    public final void setCommandSource(CommandSource commandSource) {
+        this.commandSource = commandSource;
+        resetCommands();
+    }
+    
+    /**
+     * Returns the number of game logic updates that this CellGame has
+     * performed. This is also the number of the frame whose input this
+     * CellGame's CommandSource supplies next.
+     * @return The number of game logic updates that this CellGame has
+     * performed
+     */
+    public final long getFrameNumber() {
+        return frameNumber;
+    }
+    
+    private void checkSupplyingInput() {
+        if (!supplyingInput) {
+            throw new RuntimeException("Attempted to supply a CellGame's input outside of its CommandSource's"
+                    + " inputActions() method");
+        }
+    }
+    
+    /**
+     * Sets whether the specified command is being held this frame. If the
+     * command was not held last frame and is now, it will count as pressed
+     * this frame, and if it was held last frame and is not now, it will count
+     * as released. This method may only be called by this CellGame's
+     * CommandSource while it is supplying this CellGame's input.
+     * @param commandNum The number of the command
+     * @param held Whether the command is being held this frame
+     */
+    public final void setCommandHeld(int commandNum, boolean held) {
+        checkSupplyingInput();
+        CommandState commandState = commandStates[commandNum];
+        if (held) {
+            if (commandState.numControlsHeld == 0) {
+                commandState.numControlsHeld = 1;
+                commandState.pressed = true;
+            }
+        } else if (commandState.numControlsHeld > 0) {
+            commandState.numControlsHeld = 0;
+            commandState.released = true;
+        }
+    }
+    
+    /**
+     * Sets the position of the mouse cursor on this CellGame's screen. The
+     * coordinates will be clamped to the screen's boundaries. This method may
+     * only be called by this CellGame's CommandSource while it is supplying
+     * this CellGame's input.
+     * @param mouseX The x-coordinate in pixels of the mouse cursor
+     * @param mouseY The y-coordinate in pixels of the mouse cursor
+     */
+    public final void setMousePosition(int mouseX, int mouseY) {
+        checkSupplyingInput();
+        this.mouseX = Math.min(Math.max(mouseX, 0), screenWidth - 1);
+        this.mouseY = Math.min(Math.max(mouseY, 0), screenHeight - 1);
+    }
+    
+    /**
+     * Sets the change in the position of the mouse wheel since last frame.
+     * This method may only be called by this CellGame's CommandSource while it
+     * is supplying this CellGame's input.
+     * @param mouseWheelChange The change in the position of the mouse wheel
+     * since last frame
+     */
+    public final void setMouseWheelChange(int mouseWheelChange) {
+        checkSupplyingInput();
+        this.mouseWheelChange = mouseWheelChange;
+    }
+    
+    /**
+     * Types the specified character to the String that this CellGame is being
+     * used to type, if there is one. The characters U+001B (escape), U+0008
+     * (backspace), U+007F (delete), and U+000A (line feed) have the same
+     * effects as the Escape, Backspace, Delete, and Enter keys respectively. This method may only be called by this
+     * CellGame's CommandSource while it is supplying this CellGame's input.
+     * @param c The character to type
+     */
+    public final void typeChar(char c) {
+        checkSupplyingInput();
+        if (typing) {
+            processTypedChar(c);
+        }
+    }
+    
+    /**
+     * Returns the InputRecorder that records this CellGame's input, or null if
+     * it has none.
+     * @return This CellGame's InputRecorder
+     */
+    public final InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+    
+    /**
+     * Sets the InputRecorder that records this CellGame's input to the
+     * specified one. If the specified InputRecorder is null, this CellGame's
+     * input will stop being recorded. An InputRecorder should not be used to
+     * record more than one CellGame.
+     * @param inputRecorder The new InputRecorder
+     */
+    public final void setInputRecorder(InputRecorder inputRecorder) {
+        this.inputRecorder = inputRecorder;
+        typedChars.setLength(0);
+    }
+    
+    /**
+     * Returns whether this CellGame is fast-forwarding.
+     * @return Whether this CellGame is fast-forwarding
+     * @see #setFastForward(boolean)
+     */
+    public final boolean isFastForward() {
+        return fastForward;
+    }
+    
+    /**
+     * Sets whether this CellGame is fast-forwarding. A fast-forwarding CellGame
+     * does not render its visuals, and performs its game logic updates one
+     * after another as fast as possible rather than at its FPS. This is useful
+     * for quickly replaying recorded input with an InputReplay.
+     * @param fastForward Whether this CellGame should fast-forward
+     */
+    public final void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+    
+    //The characters typed this frame, if this CellGame's input is being recorded
+    final CharSequence getTypedChars() {
+        return typedChars;
+    }
+    
+    final void setCommandState(int commandNum, boolean pressed, boolean held, boolean released) {
+        checkSupplyingInput();
+        CommandState commandState = commandStates[commandNum];
+        commandState.pressed = pressed;
+        commandState.numControlsHeld = (held ? 1 : 0);
+        commandState.released = released;
+    }
+    
+    static void setHeadlessSGL(SGL sgl) {
+        RECORDER.setSGL(sgl);
+    }
+    
+    final void startHeadless() {
+        headless = true;
+        if (!loaded) {
+            initActions();
+            if (nextTransition == null) {
+                throw new RuntimeException("A CellGame did not enter any of its GameStates during"
+                        + " initialization");
+            }
+            startNextTransition();
+            loaded = true;
+        }
+    }
+    
+    //Returns whether this CellGame is still running after the frame
+    final boolean headlessFrame() {
+        game.updateFrame(true);
+        return !closeRequested;
+    }
+    
+    final void headlessRender(Graphics g) {
+        game.renderFrame(g);
+    }
+    
     /**
      * Returns the number of frames that this CellGame executes per second.
      * @return The number of frames that this CellGame executes per second
@@ -1044,6 +1702,166 @@ public abstract class CellGame {
         msPerFrame = 1000.0/fps;
     }
     
+    /**
+     * Returns whether this CellGame uses a fixed-timestep game loop.
+     * @return Whether this CellGame uses a fixed-timestep game loop
+     * @see #setFixedStep(boolean)
+     */
+    public final boolean isFixedStep() {
+        return fixedStep;
+    }
+    
+    /**
+     * Sets whether this CellGame uses a fixed-timestep game loop.
+     * 
+     * <p>By default, a CellGame renders its visuals only after each of its game
+     * logic updates, so it renders them at most at its FPS. If more than one
+     * frame's worth of time passes between two updates, the CellGame does not
+     * try to catch up, and the extra time is dropped.</p>
+     * 
+     * <p>A CellGame with a fixed-timestep game loop instead renders its visuals
+     * as often as the display allows, and between renders performs as many
+     * game logic updates as fit in the time that has passed, up to its maximum
+     * number of catch-up frames. Only time beyond that maximum is dropped. The
+     * CellGame's interpolation alpha reports how far the time of each render
+     * is between that of its last two updates, so that renderActions() can
+     * draw things between their previous and current positions. SpaceStates
+     * draw their MobileObjects, and position their Viewports' cameras, in this
+     * way automatically.</p>
+     * @param fixedStep Whether this CellGame should use a fixed-timestep game
+     * loop
+     */
+    public final void setFixedStep(boolean fixedStep) {
+        this.fixedStep = fixedStep;
+        if (!fixedStep) {
+            interpolationAlpha = 1;
+        }
+    }
+    
+    /**
+     * Returns the maximum number of game logic updates that this CellGame
+     * performs between two renders when using a fixed-timestep game loop.
+     * @return This CellGame's maximum number of catch-up frames
+     */
+    public final int getMaxCatchUpFrames() {
+        return maxCatchUpFrames;
+    }
+    
+    /**
+     * Sets the maximum number of game logic updates that this CellGame
+     * performs between two renders when using a fixed-timestep game loop to
+     * the specified value.
+     * @param maxCatchUpFrames The new maximum number of catch-up frames
+     */
+    public final void setMaxCatchUpFrames(int maxCatchUpFrames) {
+        if (maxCatchUpFrames <= 0) {
+            throw new RuntimeException("Attempted to give a CellGame a non-positive maximum number of"
+                    + " catch-up frames (" + maxCatchUpFrames + ")");
+        }
+        this.maxCatchUpFrames = maxCatchUpFrames;
+    }
+    
+    /**
+     * Returns the total time in milliseconds that this CellGame has dropped
+     * from its game logic updates because it fell too far behind to catch up.
+     * @return The total time in milliseconds that this CellGame has dropped
+     */
+    public final double getDroppedTime() {
+        return droppedTime;
+    }
+    
+    /**
+     * Returns how far the current render is between the times of this
+     * CellGame's last two game logic updates, as a value from 0 (the time of
+     * the second-to-last update) up to 1 (the time of the last update). This
+     * is always 1 when this CellGame is not using a fixed-timestep game loop.
+     * @return This CellGame's interpolation alpha
+     */
+    public final double getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+    
+    /**
+     * Returns whether this CellGame is pipelined.
+     * @return Whether this CellGame is pipelined
+     * @see #setPipelined(boolean)
+     */
+    public final boolean isPipelined() {
+        return pipelined;
+    }
+    
+    /**
+     * Sets whether this CellGame is pipelined.
+     * 
+     * <p>By default, a CellGame performs its game logic updates and renders its
+     * visuals on the same thread, the one that owns the GL context, so each
+     * frame's game logic waits for the previous frame to be displayed. A
+     * pipelined CellGame instead performs its game logic updates and its
+     * rendering on a separate logic thread, whose GL calls are recorded into a
+     * command list rather than made immediately. While the logic thread
+     * computes and records one frame, the GL context's thread replays the
+     * previous frame's commands and updates the display. This lets the two
+     * threads' work overlap, at the cost of one frame of display latency.</p>
+     * 
+     * <p>GL calls that return values or fill buffers, such as those made when a
+     * Sprite is loaded or a pixel's color is read, cannot be recorded. When a
+     * pipelined CellGame's logic thread makes one, it waits for the GL context's
+     * thread to finish displaying the previous frame and make the call. Such
+     * calls should thus be avoided during gameplay. A pipelined CellGame still
+     * processes input and controls its music stack on the GL context's thread
+     * while its logic thread is waiting. Offscreen Graphics contexts that draw
+     * to Images bypass the recording and should not be used while a CellGame
+     * is pipelined.</p>
+     * 
+     * <p>All GL calls pass through one shared recorder, so only one CellGame
+     * at a time may be pipelined.</p>
+     * @param pipelined Whether this CellGame should be pipelined
+     */
+    public final void setPipelined(boolean pipelined) {
+        synchronized (CellGame.class) {
+            if (pipelined) {
+                if (pipelinedGame != null && pipelinedGame != this) {
+                    throw new RuntimeException("Attempted to pipeline a CellGame while another CellGame is"
+                            + " pipelined");
+                }
+                pipelinedGame = this;
+            } else if (pipelinedGame == this) {
+                pipelinedGame = null;
+            }
+        }
+        this.pipelined = pipelined;
+    }
+    
+    /**
+     * Returns the FramePacer that spaces out the frames that this CellGame
+     * renders. Its target FPS is independent of this CellGame's FPS, and is 0
+     * by default, in which case this CellGame's rendering is paced only by the
+     * display's vertical sync.
+     * @return This CellGame's FramePacer
+     */
+    public final FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
+    /**
+     * Returns the FrameProfiler that measures this CellGame's phase times, or
+     * null if it has none.
+     * @return This CellGame's FrameProfiler
+     */
+    public final FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Sets the FrameProfiler that measures this CellGame's phase times to the
+     * specified one. If the specified FrameProfiler is null, this CellGame will
+     * stop measuring its phase times.
+     * @param profiler The new FrameProfiler
+     */
+    public final void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
     /**
      * Returns the width in pixels of this CellGame's screen.
      * @return The width in pixels of this CellGame's screen
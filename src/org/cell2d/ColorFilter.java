@@ -1,9 +1,6 @@
 package org.cell2d;
 
 import java.util.Objects;
-import org.cell2d.celick.Graphics;
-import org.cell2d.celick.Image;
-import org.cell2d.celick.SlickException;
 
 /**
  * <p>A ColorFilter is a Filter that blends the RGB value of each pixel in the
@@ -16,9 +13,12 @@ import org.cell2d.celick.SlickException;
  * @see Color
  * @author Alex Heyman
  */
-public class ColorFilter implements Filter {
+public class ColorFilter extends PixelFilter {
     
     private final Color color;
+    //The blend as 16.16 fixed-point numbers: each RGB value becomes (value*remainder + blend)
+    private final int remainder;
+    private final int blendR, blendG, blendB;
     
     /**
      * Constructs a ColorFilter that uses the specified Color.
@@ -26,6 +26,11 @@ public class ColorFilter implements Filter {
      */
     public ColorFilter(Color color) {
         this.color = color;
+        float blendAlpha = color.getA();
+        remainder = Math.round((1 - blendAlpha)*65536);
+        blendR = Math.round(color.getR()*blendAlpha*255*65536);
+        blendG = Math.round(color.getG()*blendAlpha*255*65536);
+        blendB = Math.round(color.getB()*blendAlpha*255*65536);
     }
     
     @Override
@@ -58,49 +63,15 @@ public class ColorFilter implements Filter {
     }
     
     @Override
-    public final Image getFilteredImage(Image image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        Image newImage;
-        Graphics newGraphics;
-        try {
-            newImage = image.getBlankCopy();
-            newGraphics = newImage.getGraphics();
-        } catch (SlickException e) {
-            throw new RuntimeException(e);
-        }
-        newGraphics.setDrawMode(Graphics.MODE_SCREEN);
-        float blendAlpha = color.getA();
-        if (blendAlpha == 1) {
-            float newR = color.getR();
-            float newG = color.getG();
-            float newB = color.getB();
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    Color pixelColor = image.getColor(x, y);
-                    pixelColor = new Color(newR, newG, newB, pixelColor.getA());
-                    newGraphics.setColor(pixelColor);
-                    newGraphics.fillRect(x, y, 1, 1);
-                }
-            }
-        } else {
-            float blendR = color.getR()*blendAlpha;
-            float blendG = color.getG()*blendAlpha;
-            float blendB = color.getB()*blendAlpha;
-            float remainder = 1 - blendAlpha;
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    Color pixelColor = image.getColor(x, y);
-                    pixelColor = new Color(
-                            blendR + pixelColor.getR()*remainder, blendG + pixelColor.getG()*remainder,
-                            blendB + pixelColor.getB()*remainder, pixelColor.getA());
-                    newGraphics.setColor(pixelColor);
-                    newGraphics.fillRect(x, y, 1, 1);
-                }
-            }
+    protected final void filterPixels(int[] pixels, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int pixel = pixels[i];
+            pixels[i] = ((((pixel >>> 24)*remainder + blendR + 32768) >>> 16) << 24)
+                    | (((((pixel >>> 16) & 0xFF)*remainder + blendG + 32768) >>> 16) << 16)
+                    | (((((pixel >>> 8) & 0xFF)*remainder + blendB + 32768) >>> 16) << 8)
+                    | (pixel & 0xFF);
         }
-        newGraphics.flush();
-        return newImage;
     }
     
 }
@@ -1,12 +1,10 @@
 package org.cell2d;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import org.cell2d.celick.Graphics;
-import org.cell2d.celick.Image;
-import org.cell2d.celick.SlickException;
 
 /**
  * <p>A ColorMapFilter is a Filter that uses a Map&lt;Color,Color&gt; to replace
@@ -20,9 +18,13 @@ import org.cell2d.celick.SlickException;
  * @see Color
  * @author Alex Heyman
  */
-public class ColorMapFilter implements Filter {
+public class ColorMapFilter extends PixelFilter {
     
     private final Map<Color,Color> colorMap;
+    //An open-addressing hash table from packed RGB keys to packed RGB values, with -1 marking empty slots
+    private int[] lutKeys = null;
+    private int[] lutValues = null;
+    private int lutShift = 0;
     
     /**
      * Constructs a ColorMapFilter that uses a copy of the specified Map.
@@ -30,6 +32,7 @@ public class ColorMapFilter implements Filter {
      */
     public ColorMapFilter(Map<Color,Color> colorMap) {
         this.colorMap = new HashMap<>(colorMap);
+        buildLUT();
     }
     
     /**
@@ -41,6 +44,49 @@ public class ColorMapFilter implements Filter {
     public ColorMapFilter(Color key, Color value) {
         colorMap = new HashMap<>();
         colorMap.put(key, value);
+        buildLUT();
+    }
+    
+    //Returns the 0-255 value that the specified color value was made from, or -1 if there is none
+    private static int exactByte(float f) {
+        int n = Math.round(f*255);
+        return (((float)n)/255 == f ? n : -1);
+    }
+    
+    private static int hash(int key, int shift) {
+        return (key*0x9E3779B9) >>> shift;
+    }
+    
+    private void buildLUT() {
+        int capacity = 4;
+        int shift = 30;
+        while (capacity < 2*colorMap.size()) {
+            capacity *= 2;
+            shift--;
+        }
+        lutKeys = new int[capacity];
+        lutValues = new int[capacity];
+        lutShift = shift;
+        Arrays.fill(lutKeys, -1);
+        for (Map.Entry<Color,Color> entry : colorMap.entrySet()) {
+            Color key = entry.getKey();
+            //Only keys that a pixel's color could equal exactly can match any pixels
+            int r = exactByte(key.getR());
+            int g = exactByte(key.getG());
+            int b = exactByte(key.getB());
+            if (key.getA() != 1 || r < 0 || g < 0 || b < 0) {
+                continue;
+            }
+            int packedKey = (r << 16) | (g << 8) | b;
+            Color value = entry.getValue();
+            int index = hash(packedKey, shift);
+            while (lutKeys[index] != -1) {
+                index = (index + 1) & (capacity - 1);
+            }
+            lutKeys[index] = packedKey;
+            lutValues[index] = (toByte(value.getR()) << 16) | (toByte(value.getG()) << 8)
+                    | toByte(value.getB());
+        }
     }
     
     @Override
@@ -73,33 +119,23 @@ public class ColorMapFilter implements Filter {
     }
     
     @Override
-    public final Image getFilteredImage(Image image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        Image newImage;
-        Graphics newGraphics;
-        try {
-            newImage = image.getBlankCopy();
-            newGraphics = newImage.getGraphics();
-        } catch (SlickException e) {
-            throw new RuntimeException(e);
-        }
-        newGraphics.setDrawMode(Graphics.MODE_SCREEN);
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                Color pixelColor = image.getColor(x, y);
-                Color mappedColor = colorMap.get(new Color(
-                        pixelColor.getR(), pixelColor.getG(), pixelColor.getB(), 1f));
-                if (mappedColor != null) {
-                    pixelColor = new Color(mappedColor.getR(), mappedColor.getG(),
-                            mappedColor.getB(), pixelColor.getA());
+    protected final void filterPixels(int[] pixels, int offset, int length) {
+        int[] keys = lutKeys;
+        int mask = keys.length - 1;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int pixel = pixels[i];
+            int key = pixel >>> 8;
+            int index = hash(key, lutShift);
+            int lutKey;
+            while ((lutKey = keys[index]) != -1) {
+                if (lutKey == key) {
+                    pixels[i] = (lutValues[index] << 8) | (pixel & 0xFF);
+                    break;
                 }
-                newGraphics.setColor(pixelColor);
-                newGraphics.fillRect(x, y, 1, 1);
+                index = (index + 1) & mask;
             }
         }
-        newGraphics.flush();
-        return newImage;
     }
     
 }
@@ -1,9 +1,6 @@
 package org.cell2d;
 
 import java.util.Objects;
-import org.cell2d.celick.Graphics;
-import org.cell2d.celick.Image;
-import org.cell2d.celick.SlickException;
 
 /**
  * <p>A ColorMultiplyFilter is a Filter that multiplies the red, green, blue,
@@ -14,9 +11,10 @@ import org.cell2d.celick.SlickException;
  * @see Color
  * @author Alex Heyman
  */
-public class ColorMultiplyFilter implements Filter {
+public class ColorMultiplyFilter extends PixelFilter {
     
     private final Color color;
+    private final int r, g, b, a;
     
     /**
      * Constructs a ColorMultiplyFilter that uses the specified Color.
@@ -24,6 +22,10 @@ public class ColorMultiplyFilter implements Filter {
      */
     public ColorMultiplyFilter(Color color) {
         this.color = color;
+        r = toByte(color.getR());
+        g = toByte(color.getG());
+        b = toByte(color.getB());
+        a = toByte(color.getA());
     }
     
     @Override
@@ -56,25 +58,15 @@ public class ColorMultiplyFilter implements Filter {
     }
     
     @Override
-    public final Image getFilteredImage(Image image) {
-        Image newImage;
-        Graphics newGraphics;
-        try {
-            newImage = image.getBlankCopy();
-            newGraphics = newImage.getGraphics();
-        } catch (SlickException e) {
-            throw new RuntimeException(e);
+    protected final void filterPixels(int[] pixels, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int pixel = pixels[i];
+            pixels[i] = ((((pixel >>> 24)*r + 127)/255) << 24)
+                    | (((((pixel >>> 16) & 0xFF)*g + 127)/255) << 16)
+                    | (((((pixel >>> 8) & 0xFF)*b + 127)/255) << 8)
+                    | ((pixel & 0xFF)*a + 127)/255;
         }
-        newGraphics.setDrawMode(Graphics.MODE_SCREEN);
-        float rotation = image.getRotation();
-        float alpha = image.getAlpha();
-        image.setRotation(0);
-        image.setAlpha(1);
-        newGraphics.drawImage(image, 0, 0, color);
-        newGraphics.flush();
-        image.setRotation(rotation);
-        image.setAlpha(alpha);
-        return newImage;
     }
     
 }
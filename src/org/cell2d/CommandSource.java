@@ -0,0 +1,43 @@
+package org.cell2d;
+
+/**
+ * <p>A CommandSource supplies a CellGame's input in place of the Controls that
+ * are bound to its commands, such as from a script or a recording. While a
+ * CellGame has a CommandSource, it does not read input devices at all. At the
+ * start of each frame, it forgets which commands were pressed and released
+ * last frame and resets its mouse wheel change to 0, then lets its
+ * CommandSource supply that frame's input by
+ * calling its setCommandHeld(), setMousePosition(), setMouseWheelChange(), and
+ * typeChar() methods. Commands whose held states the CommandSource does not
+ * set stay as they were last frame, as does the position of the mouse
+ * cursor. Once the CellGame has applied that input, including by taking its
+ * current GameState's actions for any characters typed, it calls its
+ * CommandSource's inputAppliedActions() method before it updates its current
+ * GameState.</p>
+ * @see CellGame#setCommandSource(org.cell2d.CommandSource)
+ * @author Alex Heyman
+ */
+public interface CommandSource {
+    
+    /**
+     * Actions for this CommandSource to take to supply the specified
+     * CellGame's input for one frame.
+     * @param game The CellGame whose input to supply
+     * @param frameNumber The number of the frame whose input to supply, which
+     * is the number of game logic updates that the CellGame has already
+     * performed
+     */
+    void inputActions(CellGame game, long frameNumber);
+    
+    /**
+     * Actions for this CommandSource to take after the specified CellGame has
+     * applied the input that this CommandSource supplied for one frame, and
+     * before it updates its current GameState. This is the same point in the
+     * frame at which the CellGame's InputRecorder, if it has one, records that
+     * frame. By default, this method does nothing.
+     * @param game The CellGame whose input was supplied
+     * @param frameNumber The number of the frame whose input was supplied
+     */
+    default void inputAppliedActions(CellGame game, long frameNumber) {}
+    
+}
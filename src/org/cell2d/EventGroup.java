@@ -1,14 +1,12 @@
 package org.cell2d;
 
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 /**
  * <p>An EventGroup is an ordered group of Events. Events in an EventGroup are
- * ordered by integer priority values that are specified when they are added.
+ * ordered by integer priority values that are specified when they are added,
+ * and Events with the same priority are ordered by when they were added.
  * Multiple instances of the same Event can be added to an EventGroup at the
  * same or different priorities. Because an EventGroup's internal list of Events
  * cannot be modified while it is being iterated over, the actual addition or
@@ -25,59 +23,47 @@ import java.util.TreeSet;
  */
 public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
     
-    private static class Entry<T extends CellGame, U extends GameState<T,U,?>> {
-        
-        private final Event<T,U> event;
-        private final int priority;
-        private final int tiebreaker;
-        
-        private Entry(Event<T,U> event, int priority, int tiebreaker) {
-            this.event = event;
-            this.priority = priority;
-            this.tiebreaker = tiebreaker;
-        }
-        
-    }
-    
-    private final Comparator<Entry<T,U>> priorityComparator = (entry1, entry2) -> {
-        int priorityDiff = entry2.priority - entry1.priority;
-        if (priorityDiff == 0) {
-            int eventCodeDiff = entry1.event.hashCode() - entry2.event.hashCode();
-            if (eventCodeDiff == 0) {
-                int tiebreakerDiff = entry1.tiebreaker - entry2.tiebreaker;
-                if (tiebreakerDiff == 0) {
-                    return System.identityHashCode(entry1) - System.identityHashCode(entry2);
-                }
-                return tiebreakerDiff;
-            }
-            return eventCodeDiff;
-        }
-        return priorityDiff;
-    };
+    private static final int INITIAL_CAPACITY = 4;
     
-    private final SortedSet<Entry<T,U>> entries = new TreeSet<>(priorityComparator);
+    //Sorted from highest to lowest priority, then from earliest to latest addition
+    private Event<T,U>[] events = newEventArray(INITIAL_CAPACITY);
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int size = 0;
     private int numIterators = 0;
-    private final SortedSet<Entry<T,U>> entriesToAdd = new TreeSet<>(priorityComparator);
-    private final SortedSet<Entry<T,U>> entriesToRemove = new TreeSet<>(priorityComparator);
+    //Changes made during iterations, merged into the sorted arrays once all iterations have finished
+    private boolean[] toRemove = null;
+    private int numToRemove = 0;
+    private Event<T,U>[] eventsToAdd = null;
+    private int[] prioritiesToAdd = null;
+    private int numToAdd = 0;
     
     /**
      * Constructs an empty EventGroup.
      */
     public EventGroup() {}
     
+    //Arrays of a generic type cannot be created directly, so this is the one place where they are cast to it
+    @SuppressWarnings("unchecked")
+    private static <T extends CellGame, U extends GameState<T,U,?>> Event<T,U>[] newEventArray(int length) {
+        return (Event<T,U>[])new Event<?,?>[length];
+    }
+    
     /**
      * Returns the number of Event instances in this EventGroup.
      * @return The number of Event instances in this EventGroup
      */
     public final int size() {
-        return entries.size();
+        return size;
     }
     
     private class EventIterator implements SafeIterator<Event<T,U>> {
         
         private boolean stopped = false;
-        private final Iterator<Entry<T,U>> iterator = entries.iterator();
-        private Entry<T,U> lastEntry = null;
+        private final Event<T,U>[] iteratorEvents = events;
+        private final int[] iteratorPriorities = priorities;
+        private final int iteratorSize = size;
+        private int index = 0;
+        private int lastIndex = -1;
         
         private EventIterator() {
             numIterators++;
@@ -88,7 +74,7 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
             if (stopped) {
                 return false;
             }
-            boolean hasNext = iterator.hasNext();
+            boolean hasNext = index < iteratorSize;
             if (!hasNext) {
                 stop();
             }
@@ -97,18 +83,18 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
         
         @Override
         public final Event<T,U> next() {
-            if (stopped) {
+            if (stopped || index >= iteratorSize) {
                 throw new NoSuchElementException();
             }
-            lastEntry = iterator.next();
-            return lastEntry.event;
+            lastIndex = index++;
+            return iteratorEvents[lastIndex];
         }
         
         @Override
         public final void remove() {
-            if (!stopped && lastEntry != null) {
-                EventGroup.this.remove(lastEntry.event, lastEntry.priority);
-                lastEntry = null;
+            if (!stopped && lastIndex >= 0) {
+                EventGroup.this.remove(iteratorEvents[lastIndex], iteratorPriorities[lastIndex]);
+                lastIndex = -1;
             }
         }
         
@@ -116,22 +102,19 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
         public final void stop() {
             if (!stopped) {
                 stopped = true;
-                numIterators--;
-                if (numIterators == 0) {
-                    for (Entry<T,U> entry : entriesToRemove) {
-                        entries.remove(entry);
-                    }
-                    entriesToRemove.clear();
-                    for (Entry<T,U> entry : entriesToAdd) {
-                        entries.add(entry);
-                    }
-                    entriesToAdd.clear();
-                }
+                stopIterating();
             }
         }
         
     }
     
+    private void stopIterating() {
+        numIterators--;
+        if (numIterators == 0 && (numToRemove > 0 || numToAdd > 0)) {
+            mergeChanges();
+        }
+    }
+    
     /**
      * Returns whether any Iterators over this EventGroup's Events are in
      * progress.
@@ -159,10 +142,45 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
      * when performing them
      */
     public final void perform(U state) {
+        if (size == 0) {
+            return;
+        }
         T game = state.getGame();
-        Iterator<Event<T,U>> eventIterator = iterator();
-        while (eventIterator.hasNext()) {
-            eventIterator.next().actions(game, state);
+        //Changes made while performing are deferred, so these stay valid until stopIterating()
+        Event<T,U>[] eventsToPerform = events;
+        int numToPerform = size;
+        numIterators++;
+        for (int i = 0; i < numToPerform; i++) {
+            eventsToPerform[i].actions(game, state);
+        }
+        stopIterating();
+    }
+    
+    //Returns the index of the first Event instance with a priority lower than the specified one
+    private int getEndOfPriority(int priority) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priorities[mid] >= priority) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    //Returns the index of the first Event instance with a priority no higher than the specified one
+    private int getStartOfPriority(int priority) {
+        return (priority == Integer.MAX_VALUE ? 0 : getEndOfPriority(priority + 1));
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > events.length) {
+            int newCapacity = Math.max(capacity, events.length*2);
+            events = Arrays.copyOf(events, newCapacity);
+            priorities = Arrays.copyOf(priorities, newCapacity);
         }
     }
     
@@ -174,19 +192,36 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
      */
     public final void add(Event<T,U> event, int priority) {
         if (numIterators == 0) {
-            entries.add(new Entry<>(event, priority, 0));
+            int index = getEndOfPriority(priority);
+            ensureCapacity(size + 1);
+            System.arraycopy(events, index, events, index + 1, size - index);
+            System.arraycopy(priorities, index, priorities, index + 1, size - index);
+            events[index] = event;
+            priorities[index] = priority;
+            size++;
             return;
         }
-        //subSet(before, after) contains all and only the entries with the specified event and priority
-        Entry<T,U> before = new Entry<>(event, priority, -1);
-        Entry<T,U> after = new Entry<>(event, priority, 1);
-        Iterator<Entry<T,U>> iterator = entriesToRemove.subSet(before, after).iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-            return;
+        //An instance that is waiting to be removed can simply stay instead
+        if (numToRemove > 0) {
+            int end = getEndOfPriority(priority);
+            for (int i = getStartOfPriority(priority); i < end; i++) {
+                if (toRemove[i] && events[i].equals(event)) {
+                    toRemove[i] = false;
+                    numToRemove--;
+                    return;
+                }
+            }
+        }
+        if (eventsToAdd == null) {
+            eventsToAdd = newEventArray(INITIAL_CAPACITY);
+            prioritiesToAdd = new int[INITIAL_CAPACITY];
+        } else if (numToAdd == eventsToAdd.length) {
+            eventsToAdd = Arrays.copyOf(eventsToAdd, numToAdd*2);
+            prioritiesToAdd = Arrays.copyOf(prioritiesToAdd, numToAdd*2);
         }
-        entriesToAdd.add(new Entry<>(event, priority, 0));
+        eventsToAdd[numToAdd] = event;
+        prioritiesToAdd[numToAdd] = priority;
+        numToAdd++;
     }
     
     /**
@@ -197,31 +232,95 @@ public class EventGroup<T extends CellGame, U extends GameState<T,U,?>> {
      * @return Whether the removal occurred
      */
     public final boolean remove(Event<T,U> event, int priority) {
-        //subSet(before, after) contains all and only the entries with the specified event and priority
-        Entry<T,U> before = new Entry<>(event, priority, -1);
-        Entry<T,U> after = new Entry<>(event, priority, 1);
         if (numIterators == 0) {
-            Iterator<Entry<T,U>> iterator = entries.subSet(before, after).iterator();
-            while (iterator.hasNext()) {
-                iterator.next();
-                iterator.remove();
-                return true;
+            int end = getEndOfPriority(priority);
+            for (int i = getStartOfPriority(priority); i < end; i++) {
+                if (events[i].equals(event)) {
+                    size--;
+                    System.arraycopy(events, i + 1, events, i, size - i);
+                    System.arraycopy(priorities, i + 1, priorities, i, size - i);
+                    events[size] = null;
+                    return true;
+                }
             }
             return false;
         }
-        Iterator<Entry<T,U>> iterator = entriesToAdd.subSet(before, after).iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-            return true;
+        //An instance that is waiting to be added can simply not be added
+        for (int i = numToAdd - 1; i >= 0; i--) {
+            if (prioritiesToAdd[i] == priority && eventsToAdd[i].equals(event)) {
+                numToAdd--;
+                System.arraycopy(eventsToAdd, i + 1, eventsToAdd, i, numToAdd - i);
+                System.arraycopy(prioritiesToAdd, i + 1, prioritiesToAdd, i, numToAdd - i);
+                eventsToAdd[numToAdd] = null;
+                return true;
+            }
         }
-        iterator = entries.subSet(before, after).iterator();
-        while (iterator.hasNext()) {
-            if (entriesToRemove.add(iterator.next())) {
+        int end = getEndOfPriority(priority);
+        for (int i = getStartOfPriority(priority); i < end; i++) {
+            if (events[i].equals(event) && (toRemove == null || !toRemove[i])) {
+                if (toRemove == null || toRemove.length < size) {
+                    toRemove = (toRemove == null ? new boolean[events.length] : Arrays.copyOf(toRemove, events.length));
+                }
+                toRemove[i] = true;
+                numToRemove++;
                 return true;
             }
         }
         return false;
     }
     
+    private void mergeChanges() {
+        //Remove the instances waiting to be removed while keeping the rest in order
+        if (numToRemove > 0) {
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (toRemove[i]) {
+                    toRemove[i] = false;
+                } else {
+                    events[newSize] = events[i];
+                    priorities[newSize] = priorities[i];
+                    newSize++;
+                }
+            }
+            Arrays.fill(events, newSize, size, null);
+            size = newSize;
+            numToRemove = 0;
+        }
+        if (numToAdd > 0) {
+            //Stable insertion sort, since only a few instances are usually waiting to be added
+            for (int i = 1; i < numToAdd; i++) {
+                Event<T,U> event = eventsToAdd[i];
+                int priority = prioritiesToAdd[i];
+                int j = i - 1;
+                while (j >= 0 && prioritiesToAdd[j] < priority) {
+                    eventsToAdd[j + 1] = eventsToAdd[j];
+                    prioritiesToAdd[j + 1] = prioritiesToAdd[j];
+                    j--;
+                }
+                eventsToAdd[j + 1] = event;
+                prioritiesToAdd[j + 1] = priority;
+            }
+            //Merge from the back so that no instance is overwritten before it is moved
+            ensureCapacity(size + numToAdd);
+            int i = size - 1;
+            int j = numToAdd - 1;
+            int k = size + numToAdd - 1;
+            while (j >= 0) {
+                if (i >= 0 && priorities[i] < prioritiesToAdd[j]) {
+                    events[k] = events[i];
+                    priorities[k] = priorities[i];
+                    i--;
+                } else {
+                    events[k] = eventsToAdd[j];
+                    priorities[k] = prioritiesToAdd[j];
+                    eventsToAdd[j] = null;
+                    j--;
+                }
+                k--;
+            }
+            size += numToAdd;
+            numToAdd = 0;
+        }
+    }
+    
 }
@@ -0,0 +1,110 @@
+package org.cell2d;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>The FilterRegistry interns Filters into small integer IDs, so that the
+ * images that Sprites create with Filters can be stored in arrays indexed by
+ * Filter ID instead of in Maps keyed by Filter. Equal Filters share an ID.
+ * Filters are interned only when Sprites and SpriteSheets are created with
+ * them; drawing with a Filter only looks its ID up, so drawing with Filters
+ * that no Sprite was created with does not grow the FilterRegistry. Looking up
+ * a Filter's ID hashes it without locking, and a PixelFilter remembers its ID
+ * once it has one, so finding its ID again costs only a field access. IDs are
+ * never released.</p>
+ * @author Alex Heyman
+ */
+final class FilterRegistry {
+    
+    private static final Map<Filter,Integer> IDS = new ConcurrentHashMap<>();
+    
+    private FilterRegistry() {}
+    
+    private static synchronized int intern(Filter filter) {
+        Integer id = IDS.get(filter);
+        if (id == null) {
+            id = IDS.size();
+            IDS.put(filter, id);
+        }
+        return id;
+    }
+    
+    /**
+     * Returns the ID of the specified Filter, interning it if it has not been
+     * interned yet.
+     * @param filter The Filter whose ID should be returned
+     * @return The Filter's ID
+     */
+    static int getID(Filter filter) {
+        int id = findID(filter);
+        if (id < 0) {
+            id = intern(filter);
+            if (filter instanceof PixelFilter) {
+                ((PixelFilter)filter).id = id;
+            }
+        }
+        return id;
+    }
+    
+    /**
+     * Returns the ID of the specified Filter, or -1 if it has not been
+     * interned. This never interns the Filter or waits for a lock.
+     * @param filter The Filter whose ID should be returned
+     * @return The Filter's ID, or -1 if it has none
+     */
+    static int findID(Filter filter) {
+        if (filter instanceof PixelFilter) {
+            PixelFilter pixelFilter = (PixelFilter)filter;
+            int id = pixelFilter.id;
+            if (id < 0) {
+                Integer internedID = IDS.get(filter);
+                if (internedID == null) {
+                    return -1;
+                }
+                id = internedID;
+                pixelFilter.id = id;
+            }
+            return id;
+        }
+        Integer id = IDS.get(filter);
+        return (id == null ? -1 : id);
+    }
+    
+    /**
+     * Returns an unmodifiable copy of the specified Collection of Filters,
+     * interning each of them.
+     * @param filters The Filters to intern
+     * @return An unmodifiable Set of the Filters
+     */
+    static Set<Filter> register(Collection<Filter> filters) {
+        if (filters.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Filter> set = new HashSet<>();
+        for (Filter filter : filters) {
+            getID(filter);
+            set.add(filter);
+        }
+        return Collections.unmodifiableSet(set);
+    }
+    
+    /**
+     * Returns the length of an array just long enough to be indexed by the IDs
+     * of all of the specified Filters.
+     * @param filters The Filters whose IDs should be valid indices
+     * @return The length that the array should have
+     */
+    static int getArrayLength(Collection<Filter> filters) {
+        int length = 0;
+        for (Filter filter : filters) {
+            length = Math.max(length, getID(filter) + 1);
+        }
+        return length;
+    }
+    
+}
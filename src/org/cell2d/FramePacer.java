@@ -0,0 +1,278 @@
+package org.cell2d;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A FramePacer keeps the frames that a CellGame renders evenly spaced in
+ * time, and measures how evenly spaced they are. Every CellGame has its own
+ * FramePacer, which it waits on at the end of each iteration of its game loop.
+ * A FramePacer's target FPS, the number of frames per second that it tries to
+ * let the CellGame render, is independent of the CellGame's own FPS, the rate
+ * at which it performs game logic updates. A target FPS of 0 means that the
+ * FramePacer does not limit the rate of rendering at all, leaving it up to the
+ * display's vertical sync.</p>
+ * 
+ * <p>Sleeping threads tend to wake up late by an amount that varies from
+ * platform to platform, and often by several milliseconds. Therefore, a
+ * FramePacer waits in two stages: it parks its thread until shortly before
+ * the end of the wait, then spins, yielding to other threads, until the end
+ * arrives. How shortly before the end it stops parking, its <i>spin
+ * threshold</i>, is calibrated the first time it waits, by measuring how late
+ * parking actually wakes the thread up. It is raised afterward whenever
+ * parking wakes the thread up later than that, and gradually returns to its
+ * calibrated value.</p>
+ * 
+ * <p>A FramePacer records the time between the ends of each pair of
+ * consecutive waits at the ends of frames, and can report the mean, variance,
+ * minimum, and maximum of those frame times.</p>
+ * @see CellGame#getFramePacer()
+ * @author Alex Heyman
+ */
+public final class FramePacer {
+    
+    private static final int NUM_CALIBRATION_SAMPLES = 10;
+    private static final long CALIBRATION_PARK_NANOSECONDS = 1000000;
+    private static final long MIN_SPIN_THRESHOLD = 50000;
+    private static final long MAX_SPIN_THRESHOLD = 4000000;
+    
+    private int targetFPS = 0;
+    private long nanosecondsPerFrame = 0;
+    private long calibratedSpinThreshold = -1;
+    private long spinThreshold = -1;
+    private boolean pacing = false;
+    private long nextFrameTime = 0;
+    private boolean timing = false;
+    private long lastFrameTime = 0;
+    private long numFrames = 0;
+    private double frameTimeMean = 0;
+    //The sum of squared differences from the mean, as in Welford's algorithm
+    private double frameTimeSquares = 0;
+    private long minFrameTime = 0;
+    private long maxFrameTime = 0;
+    
+    /**
+     * Constructs a FramePacer with a target FPS of 0.
+     */
+    public FramePacer() {}
+    
+    /**
+     * Constructs a FramePacer with the specified target FPS.
+     * @param targetFPS The target FPS, or 0 if the FramePacer should not limit
+     * the rate of rendering
+     */
+    public FramePacer(int targetFPS) {
+        setTargetFPS(targetFPS);
+    }
+    
+    /**
+     * Returns this FramePacer's target FPS, or 0 if it does not limit the rate
+     * of rendering.
+     * @return This FramePacer's target FPS
+     */
+    public final int getTargetFPS() {
+        return targetFPS;
+    }
+    
+    /**
+     * Sets this FramePacer's target FPS to the specified value. If the
+     * specified value is 0, this FramePacer will stop limiting the rate of
+     * rendering.
+     * @param targetFPS The new target FPS
+     */
+    public final void setTargetFPS(int targetFPS) {
+        if (targetFPS < 0) {
+            throw new RuntimeException("Attempted to give a FramePacer a negative target FPS " + targetFPS);
+        }
+        this.targetFPS = targetFPS;
+        nanosecondsPerFrame = (targetFPS == 0 ? 0 : 1000000000L/targetFPS);
+        pacing = false;
+    }
+    
+    /**
+     * Returns this FramePacer's spin threshold in nanoseconds, or -1 if it has
+     * not yet been calibrated.
+     * @return This FramePacer's spin threshold
+     */
+    public final long getSpinThreshold() {
+        return spinThreshold;
+    }
+    
+    /**
+     * Calibrates this FramePacer's spin threshold by parking the current
+     * thread several times and measuring how late it wakes up. This takes
+     * about 10 milliseconds. A FramePacer calibrates itself automatically the
+     * first time it waits, so this method need only be called to recalibrate
+     * it.
+     */
+    public final void calibrate() {
+        long maxOvershoot = 0;
+        for (int i = 0; i < NUM_CALIBRATION_SAMPLES; i++) {
+            long startTime = System.nanoTime();
+            LockSupport.parkNanos(CALIBRATION_PARK_NANOSECONDS);
+            long overshoot = System.nanoTime() - startTime - CALIBRATION_PARK_NANOSECONDS;
+            maxOvershoot = Math.max(maxOvershoot, overshoot);
+        }
+        calibratedSpinThreshold = Math.max(Math.min(maxOvershoot, MAX_SPIN_THRESHOLD), MIN_SPIN_THRESHOLD);
+        spinThreshold = calibratedSpinThreshold;
+    }
+    
+    //Waits until System.nanoTime() reaches the specified time
+    private void waitUntil(long endTime) {
+        if (spinThreshold < 0) {
+            calibrate();
+        }
+        long remaining = endTime - System.nanoTime();
+        while (remaining > spinThreshold) {
+            long parkTime = remaining - spinThreshold;
+            LockSupport.parkNanos(parkTime);
+            long newRemaining = endTime - System.nanoTime();
+            long overshoot = remaining - newRemaining - parkTime;
+            if (overshoot > spinThreshold) {
+                //Parking woke up later than expected; stop parking earlier from now on
+                spinThreshold = Math.min(overshoot, MAX_SPIN_THRESHOLD);
+            }
+            remaining = newRemaining;
+        }
+        while (System.nanoTime() - endTime < 0) {
+            Thread.yield();
+        }
+    }
+    
+    /**
+     * Waits for the specified number of nanoseconds, as precisely as this
+     * FramePacer can.
+     * @param nanoseconds The number of nanoseconds to wait
+     */
+    public final void pause(long nanoseconds) {
+        if (nanoseconds > 0) {
+            waitUntil(System.nanoTime() + nanoseconds);
+        }
+    }
+    
+    /**
+     * Makes this FramePacer neither wait at the end of the current frame nor
+     * record its time. This should be called on frames that do not render,
+     * such as when the program window is inactive.
+     */
+    public final void skipFrame() {
+        pacing = false;
+        timing = false;
+    }
+    
+    /**
+     * Waits until it is time for the next frame to start according to this
+     * FramePacer's target FPS, and records the time since the last frame
+     * ended. If the last frame ran more than a whole frame's worth of time
+     * late, this FramePacer does not try to make up for it by shortening the
+     * next frames.
+     */
+    public final void waitForNextFrame() {
+        if (nanosecondsPerFrame > 0) {
+            if (pacing) {
+                waitUntil(nextFrameTime);
+                //Let an isolated late wake-up's effect on the spin threshold wear off over time
+                spinThreshold -= (spinThreshold - calibratedSpinThreshold)/16;
+            }
+            long time = System.nanoTime();
+            if (!pacing || time - nextFrameTime >= nanosecondsPerFrame) {
+                nextFrameTime = time + nanosecondsPerFrame;
+                pacing = true;
+            } else {
+                nextFrameTime += nanosecondsPerFrame;
+            }
+        }
+        long time = System.nanoTime();
+        if (timing) {
+            recordFrameTime(time - lastFrameTime);
+        }
+        lastFrameTime = time;
+        timing = true;
+    }
+    
+    private void recordFrameTime(long frameTime) {
+        numFrames++;
+        double difference = frameTime - frameTimeMean;
+        frameTimeMean += difference/numFrames;
+        frameTimeSquares += difference*(frameTime - frameTimeMean);
+        if (numFrames == 1) {
+            minFrameTime = frameTime;
+            maxFrameTime = frameTime;
+        } else {
+            minFrameTime = Math.min(minFrameTime, frameTime);
+            maxFrameTime = Math.max(maxFrameTime, frameTime);
+        }
+    }
+    
+    /**
+     * Returns the number of frame times that this FramePacer has recorded
+     * since its statistics were last reset.
+     * @return The number of recorded frame times
+     */
+    public final long getNumFrames() {
+        return numFrames;
+    }
+    
+    /**
+     * Returns the mean of this FramePacer's recorded frame times in
+     * nanoseconds, or 0 if it has recorded none.
+     * @return The mean frame time
+     */
+    public final double getFrameTimeMean() {
+        return frameTimeMean;
+    }
+    
+    /**
+     * Returns the variance of this FramePacer's recorded frame times in
+     * nanoseconds squared, or 0 if it has recorded fewer than two.
+     * @return The frame-time variance
+     */
+    public final double getFrameTimeVariance() {
+        return (numFrames < 2 ? 0 : frameTimeSquares/(numFrames - 1));
+    }
+    
+    /**
+     * Returns the standard deviation of this FramePacer's recorded frame times
+     * in nanoseconds, or 0 if it has recorded fewer than two.
+     * @return The frame-time standard deviation
+     */
+    public final double getFrameTimeStandardDeviation() {
+        return Math.sqrt(getFrameTimeVariance());
+    }
+    
+    /**
+     * Returns the shortest of this FramePacer's recorded frame times in
+     * nanoseconds, or 0 if it has recorded none.
+     * @return The shortest frame time
+     */
+    public final long getMinFrameTime() {
+        return minFrameTime;
+    }
+    
+    /**
+     * Returns the longest of this FramePacer's recorded frame times in
+     * nanoseconds, or 0 if it has recorded none.
+     * @return The longest frame time
+     */
+    public final long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+    
+    /**
+     * Discards all of this FramePacer's recorded frame times.
+     */
+    public final void resetStatistics() {
+        numFrames = 0;
+        frameTimeMean = 0;
+        frameTimeSquares = 0;
+        minFrameTime = 0;
+        maxFrameTime = 0;
+    }
+    
+    @Override
+    public final String toString() {
+        return String.format("%d frames: mean %.3f ms, std dev %.3f ms, min %.3f ms, max %.3f ms",
+                numFrames, frameTimeMean/1000000, getFrameTimeStandardDeviation()/1000000,
+                minFrameTime/1000000.0, maxFrameTime/1000000.0);
+    }
+    
+}
@@ -0,0 +1,217 @@
+package org.cell2d;
+
+import java.util.Arrays;
+
+/**
+ * <p>A FrameProfiler measures how much time a CellGame spends in each of
+ * several phases of its game loop each frame, and keeps those measurements for
+ * a fixed number of the most recent frames, called its window. A FrameProfiler
+ * can report the last frame's time for each phase, as well as the average and
+ * any percentile of a phase's times over its window.</p>
+ * 
+ * <p>A FrameProfiler only takes measurements while it is assigned to a CellGame
+ * with the CellGame's setProfiler() method. A CellGame without a FrameProfiler
+ * does not measure the times of its phases at all.</p>
+ * 
+ * <p>Some phases occur during other phases; for instance, cell maintenance
+ * takes place while SpaceObjects move. The time that a CellGame spends in such
+ * a nested phase is included in the time of the phase that contains it.</p>
+ * @see CellGame#setProfiler(org.cell2d.FrameProfiler)
+ * @author Alex Heyman
+ */
+public final class FrameProfiler {
+    
+    /**
+     * <p>A Phase is one part of a CellGame's game loop whose time a
+     * FrameProfiler measures.</p>
+     * @author Alex Heyman
+     */
+    public static enum Phase {
+        /**
+         * The CellGame updating the states of its controls and commands.
+         */
+        INPUT,
+        /**
+         * The current GameState updating its AnimationInstances.
+         */
+        ANIMATIONS,
+        /**
+         * The current GameState and its SubThinkers advancing their timers and
+         * taking their timer-triggered Events.
+         */
+        TIMERS,
+        /**
+         * A SpaceState performing its before-movement Events.
+         */
+        BEFORE_MOVEMENT,
+        /**
+         * A SpaceState moving its MobileObjects. This includes any cell
+         * maintenance caused by the movement.
+         */
+        MOVEMENT,
+        /**
+         * A SpaceState moving Hitboxes between its cells.
+         */
+        CELL_MAINTENANCE,
+        /**
+         * A SpaceState rendering its SpaceLayers.
+         */
+        LAYER_RENDERING,
+        /**
+         * A SpaceState drawing its visible SpaceObjects.
+         */
+        OBJECT_DRAWING,
+        /**
+         * A SpaceState rendering its own and its Viewports' HUDs.
+         */
+        HUD_RENDERING,
+        /**
+         * The CellGame flushing its rendering and updating the display.
+         */
+        DISPLAY_UPDATE
+    }
+    
+    private static final Phase[] PHASES = Phase.values();
+    
+    private final int windowSize;
+    //times[phase][frame] in nanoseconds, a ring buffer of the last windowSize frames
+    private final long[][] times;
+    private final long[] currentTimes = new long[PHASES.length];
+    private final long[] scratch;
+    private int nextFrame = 0;
+    private int numFrames = 0;
+    
+    /**
+     * Constructs a FrameProfiler that keeps its measurements for the specified
+     * number of frames.
+     * @param windowSize The number of the most recent frames for which this
+     * FrameProfiler keeps its measurements
+     */
+    public FrameProfiler(int windowSize) {
+        if (windowSize <= 0) {
+            throw new RuntimeException("Attempted to construct a FrameProfiler with a non-positive window"
+                    + " size (" + windowSize + ")");
+        }
+        this.windowSize = windowSize;
+        times = new long[PHASES.length][windowSize];
+        scratch = new long[windowSize];
+    }
+    
+    /**
+     * Returns the number of the most recent frames for which this
+     * FrameProfiler keeps its measurements.
+     * @return This FrameProfiler's window size
+     */
+    public final int getWindowSize() {
+        return windowSize;
+    }
+    
+    /**
+     * Returns the number of frames whose measurements this FrameProfiler
+     * currently has. This is the number of frames it has measured, up to its
+     * window size.
+     * @return The number of frames whose measurements this FrameProfiler has
+     */
+    public final int getNumFrames() {
+        return numFrames;
+    }
+    
+    /**
+     * Removes all of this FrameProfiler's measurements, including those of the
+     * frame in progress.
+     */
+    public final void clear() {
+        Arrays.fill(currentTimes, 0);
+        nextFrame = 0;
+        numFrames = 0;
+    }
+    
+    /**
+     * Adds the time since the specified start time to the time of the specified
+     * Phase in the frame in progress.
+     * @param phase The Phase to add the time to
+     * @param startTime The value of System.nanoTime() when the measured part of
+     * the Phase started
+     * @return The current value of System.nanoTime(), which can be used as the
+     * start time of the next Phase
+     */
+    public final long endPhase(Phase phase, long startTime) {
+        long time = System.nanoTime();
+        currentTimes[phase.ordinal()] += time - startTime;
+        return time;
+    }
+    
+    /**
+     * Records the measurements of the frame in progress as those of this
+     * FrameProfiler's most recent frame, discarding those of its oldest frame if
+     * its window is full, and starts a new frame.
+     */
+    public final void endFrame() {
+        for (int i = 0; i < currentTimes.length; i++) {
+            times[i][nextFrame] = currentTimes[i];
+            currentTimes[i] = 0;
+        }
+        nextFrame = (nextFrame + 1) % windowSize;
+        if (numFrames < windowSize) {
+            numFrames++;
+        }
+    }
+    
+    /**
+     * Returns the time in nanoseconds that the specified Phase took in this
+     * FrameProfiler's most recent frame, or 0 if it has no measurements.
+     * @param phase The Phase whose time should be returned
+     * @return The specified Phase's time in the most recent frame
+     */
+    public final long getLastTime(Phase phase) {
+        if (numFrames == 0) {
+            return 0;
+        }
+        return times[phase.ordinal()][(nextFrame + windowSize - 1) % windowSize];
+    }
+    
+    /**
+     * Returns the average time in nanoseconds that the specified Phase took in
+     * the frames whose measurements this FrameProfiler has, or 0 if it has no
+     * measurements.
+     * @param phase The Phase whose average time should be returned
+     * @return The specified Phase's average time
+     */
+    public final double getAverageTime(Phase phase) {
+        if (numFrames == 0) {
+            return 0;
+        }
+        long[] phaseTimes = times[phase.ordinal()];
+        long sum = 0;
+        for (int i = 0; i < numFrames; i++) {
+            sum += phaseTimes[i];
+        }
+        return ((double)sum)/numFrames;
+    }
+    
+    /**
+     * Returns the specified percentile of the times in nanoseconds that the
+     * specified Phase took in the frames whose measurements this FrameProfiler
+     * has, or 0 if it has no measurements. The percentile is the time that is
+     * greater than or equal to that fraction of the times, so a percentile of 0
+     * returns the shortest time, and a percentile of 1 returns the longest.
+     * @param phase The Phase whose time percentile should be returned
+     * @param percentile The fraction, between 0 and 1 inclusive, of the times
+     * that the returned time should be greater than or equal to
+     * @return The specified percentile of the specified Phase's times
+     */
+    public final long getPercentile(Phase phase, double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new RuntimeException("Attempted to get a FrameProfiler's time percentile of "
+                    + percentile + ", which is not between 0 and 1");
+        }
+        if (numFrames == 0) {
+            return 0;
+        }
+        System.arraycopy(times[phase.ordinal()], 0, scratch, 0, numFrames);
+        Arrays.sort(scratch, 0, numFrames);
+        int index = (int)Math.ceil(percentile*numFrames) - 1;
+        return scratch[Math.max(index, 0)];
+    }
+    
+}
@@ -292,10 +292,18 @@ public abstract class GameState<T extends CellGame,
     public void leftActions(T game) {}
     
     final void stateUpdate() {
+        FrameProfiler profiler = game.getProfiler();
+        long startTime = (profiler == null ? 0 : System.nanoTime());
         for (AnimationInstance instance : animInstancesToIDs.keySet()) {
             instance.update();
         }
+        if (profiler != null) {
+            startTime = profiler.endPhase(FrameProfiler.Phase.ANIMATIONS, startTime);
+        }
         update(game, thisState, Frac.UNIT);
+        if (profiler != null) {
+            profiler.endPhase(FrameProfiler.Phase.TIMERS, startTime);
+        }
         frame.actions(game, thisState);
     }
     
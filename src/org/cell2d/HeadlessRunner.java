@@ -0,0 +1,250 @@
+package org.cell2d;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.cell2d.celick.Graphics;
+import org.cell2d.celick.opengl.ImageDataFactory;
+import org.cell2d.celick.opengl.LoadableImageData;
+import org.cell2d.celick.opengl.renderer.NullSGL;
+import org.cell2d.celick.util.ResourceLoader;
+
+/**
+ * <p>A HeadlessRunner runs a CellGame without a display, audio device, or
+ * input devices, such as to simulate its GameStates on a server or to
+ * benchmark them on a machine without a GPU. Instead of being started with
+ * CellGame.startGame(), a CellGame is run by a HeadlessRunner for a specified
+ * number of frames at a time, either as fast as possible or at the CellGame's
+ * FPS.</p>
+ * 
+ * <p>Before any HeadlessRunners can be created, the program must enter
+ * headless mode by calling HeadlessRunner.enterHeadlessMode(). This should be
+ * done before any CellGames or assets are created, and cannot be undone. In
+ * headless mode, rendering goes to a NullSGL that makes no GL calls, and Sounds
+ * and Music tracks neither decode their audio files nor play, so their lengths
+ * are 0. Sprites and SpriteSheets load their dimensions and keep their pixels
+ * in main memory, so that their alpha values and colors can still be read,
+ * but create no textures and draw nothing.</p>
+ * 
+ * <p>A CellGame run by a HeadlessRunner performs its game logic updates as
+ * usual, but does not control its music stack, and takes its input only from
+ * its CommandSource, if it has one. A HeadlessRunner renders the CellGame's
+ * visuals after each update only if it is set to do so; the rendering does not
+ * produce any visuals, but can be useful for measuring the cost of the
+ * CellGame's rendering code.</p>
+ * 
+ * <p>HeadlessRunners of different CellGames can run their CellGames on
+ * different threads at the same time, such as to host many independent
+ * simulations in one program. Their game logic updates run concurrently, but
+ * because the rendering code shares state between all CellGames, only one
+ * HeadlessRunner renders at a time. A single HeadlessRunner, and the CellGame
+ * and assets it uses, should still only be used by one thread at a time.</p>
+ * @see CommandSource
+ * @author Alex Heyman
+ */
+public final class HeadlessRunner {
+    
+    private static volatile boolean headless = false;
+    //Rendering state is shared between CellGames, so only one may render at a time
+    private static final Object RENDER_LOCK = new Object();
+    
+    /**
+     * Puts the program into headless mode, if it is not already in headless
+     * mode.
+     */
+    public static synchronized void enterHeadlessMode() {
+        if (!headless) {
+            headless = true;
+            CellGame.setHeadlessSGL(new NullSGL());
+        }
+    }
+    
+    /**
+     * Returns whether the program is in headless mode.
+     * @return Whether the program is in headless mode
+     */
+    public static boolean isHeadless() {
+        return headless;
+    }
+    
+    //The decoded pixels of an image file, each packed as 0xRRGGBBAA, in rows from top to bottom
+    static final class ImagePixels {
+        
+        final int width, height;
+        final int[] pixels;
+        
+        private ImagePixels(int width, int height, int[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+        
+        //Returns the pixels of the specified rectangle of this image, or transparent ones outside of it
+        int[] getRegion(int x, int y, int regionWidth, int regionHeight) {
+            int[] region = new int[regionWidth*regionHeight];
+            for (int row = 0; row < regionHeight; row++) {
+                int srcY = y + row;
+                if (srcY < 0 || srcY >= height) {
+                    continue;
+                }
+                int start = Math.max(x, 0);
+                int end = Math.min(x + regionWidth, width);
+                if (start < end) {
+                    System.arraycopy(pixels, srcY*width + start, region, row*regionWidth + start - x,
+                            end - start);
+                }
+            }
+            return region;
+        }
+        
+    }
+    
+    //Decodes the image file at the specified path into main memory as a Sprite would, without a texture
+    static ImagePixels loadPixels(String path, Color transColor) {
+        LoadableImageData data = ImageDataFactory.getImageDataFor(path);
+        int[] transparent = (transColor == null ? null
+                : new int[]{transColor.getRByte(), transColor.getGByte(), transColor.getBByte()});
+        ByteBuffer buffer;
+        try (InputStream stream = ResourceLoader.getResourceAsStream(path)) {
+            buffer = data.loadImage(stream, false, transparent);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        int width = data.getWidth();
+        int height = data.getHeight();
+        int bytesPerPixel = data.getDepth()/8;
+        int rowBytes = data.getTexWidth()*bytesPerPixel;
+        int[] pixels = new int[width*height];
+        for (int y = 0; y < height; y++) {
+            int i = y*rowBytes;
+            for (int x = 0; x < width; x++, i += bytesPerPixel) {
+                int a = (bytesPerPixel == 4 ? buffer.get(i + 3) & 0xFF : 255);
+                pixels[y*width + x] = PixelFilter.pack(buffer.get(i) & 0xFF, buffer.get(i + 1) & 0xFF,
+                        buffer.get(i + 2) & 0xFF, a);
+            }
+        }
+        return new ImagePixels(width, height, pixels);
+    }
+    
+    private final CellGame game;
+    private boolean started = false;
+    private boolean running = true;
+    private Graphics graphics = null;
+    private boolean rendering = false;
+    
+    /**
+     * Constructs a HeadlessRunner that runs the specified CellGame.
+     * @param game The CellGame to run
+     */
+    public HeadlessRunner(CellGame game) {
+        if (!headless) {
+            throw new RuntimeException("Attempted to construct a HeadlessRunner outside of headless mode");
+        }
+        this.game = game;
+    }
+    
+    /**
+     * Returns the CellGame that this HeadlessRunner runs.
+     * @return This HeadlessRunner's CellGame
+     */
+    public final CellGame getGame() {
+        return game;
+    }
+    
+    /**
+     * Returns whether this HeadlessRunner's CellGame is still running - that
+     * is, whether it has not closed itself.
+     * @return Whether this HeadlessRunner's CellGame is still running
+     */
+    public final boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Returns whether this HeadlessRunner renders its CellGame's visuals after
+     * each game logic update.
+     * @return Whether this HeadlessRunner renders its CellGame's visuals
+     */
+    public final boolean isRendering() {
+        return rendering;
+    }
+    
+    /**
+     * Sets whether this HeadlessRunner renders its CellGame's visuals after
+     * each game logic update.
+     * @param rendering Whether this HeadlessRunner should render its CellGame's
+     * visuals
+     */
+    public final void setRendering(boolean rendering) {
+        this.rendering = rendering;
+    }
+    
+    /**
+     * Runs this HeadlessRunner's CellGame for the specified number of frames,
+     * or until it closes itself, as fast as possible. The first time that this
+     * HeadlessRunner runs its CellGame, it will first call the CellGame's
+     * initActions() and enter the GameState that the CellGame entered during
+     * them.
+     * @param numFrames The number of frames to run the CellGame for
+     * @return The number of frames that the CellGame was actually run for
+     */
+    public final long run(long numFrames) {
+        return run(numFrames, false);
+    }
+    
+    /**
+     * Runs this HeadlessRunner's CellGame for the specified number of frames,
+     * or until it closes itself, either as fast as possible or at its FPS. The
+     * first time that this HeadlessRunner runs its CellGame, it will first call
+     * the CellGame's initActions() and enter the GameState that the CellGame
+     * entered during them.
+     * @param numFrames The number of frames to run the CellGame for
+     * @param realTime If true, the CellGame will be run at its FPS. If false,
+     * it will be run as fast as possible.
+     * @return The number of frames that the CellGame was actually run for
+     */
+    public final long run(long numFrames, boolean realTime) {
+        if (numFrames < 0) {
+            throw new RuntimeException("Attempted to run a CellGame for a negative number of frames ("
+                    + numFrames + ")");
+        }
+        if (!running) {
+            return 0;
+        }
+        if (!started) {
+            started = true;
+            game.startHeadless();
+        }
+        if (rendering && graphics == null) {
+            synchronized (RENDER_LOCK) {
+                graphics = new Graphics(game.getScreenWidth(), game.getScreenHeight());
+            }
+        }
+        long startTime = System.nanoTime();
+        long numFramesRun = 0;
+        while (numFramesRun < numFrames) {
+            if (realTime) {
+                //Wait until it is time for the next frame
+                long frameTime = startTime + (long)(numFramesRun*1000000000.0/game.getFPS());
+                long waitTime = frameTime - System.nanoTime();
+                if (waitTime > 0) {
+                    try {
+                        Thread.sleep(waitTime/1000000, (int)(waitTime % 1000000));
+                    } catch (InterruptedException e) {}
+                }
+            }
+            numFramesRun++;
+            if (!game.headlessFrame()) {
+                running = false;
+                break;
+            }
+            if (rendering) {
+                synchronized (RENDER_LOCK) {
+                    game.headlessRender(graphics);
+                }
+            }
+        }
+        return numFramesRun;
+    }
+    
+}
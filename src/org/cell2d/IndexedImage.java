@@ -0,0 +1,265 @@
+package org.cell2d;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.cell2d.celick.Image;
+import org.cell2d.celick.util.ResourceLoader;
+
+/**
+ * <p>An IndexedImage is an image stored in main memory as one byte per pixel,
+ * each an index into a palette of up to 256 colors. IndexedImages are
+ * immutable. An IndexedImage with a different palette can be created from an
+ * existing one without copying its pixels, so a PixelFilter can be applied to
+ * an IndexedImage by transforming only its palette. An IndexedImage is only
+ * expanded into a full RGBA texture when a
+ * <a href="https://cell2d.gitbook.io/cell2d-documentation/general/celick">Celick</a>
+ * Image is requested from it, which makes an IndexedImage roughly a quarter
+ * the size of the texture it stands for.</p>
+ * 
+ * <p>A Sprite can be created from an IndexedImage. Such a Sprite creates the
+ * images for its PixelFilters by remapping its IndexedImage's palette, and does
+ * not create the texture for each of its Filters until it is first drawn with
+ * that Filter.</p>
+ * 
+ * <p>Each color in an IndexedImage's palette is packed as 0xRRGGBBAA, the same
+ * format that PixelFilters use.</p>
+ * @see Sprite
+ * @see PixelFilter
+ * @author Alex Heyman
+ */
+public final class IndexedImage {
+    
+    private final int width, height;
+    private final byte[] indices;
+    private final int[] palette;
+    
+    /**
+     * Constructs an IndexedImage with the specified dimensions, pixel
+     * indices, and palette. The arrays are copied.
+     * @param width The IndexedImage's width in pixels
+     * @param height The IndexedImage's height in pixels
+     * @param indices The palette index of each pixel, in rows from top to
+     * bottom, each from left to right
+     * @param palette The palette, with each color packed as 0xRRGGBBAA
+     */
+    public IndexedImage(int width, int height, byte[] indices, int[] palette) {
+        this(width, height, Arrays.copyOf(indices, indices.length),
+                Arrays.copyOf(palette, palette.length), true);
+    }
+    
+    private IndexedImage(int width, int height, byte[] indices, int[] palette, boolean check) {
+        if (width <= 0) {
+            throw new RuntimeException("Attempted to construct an IndexedImage with non-positive width "
+                    + width);
+        }
+        if (height <= 0) {
+            throw new RuntimeException("Attempted to construct an IndexedImage with non-positive height "
+                    + height);
+        }
+        if (indices.length != width*height) {
+            throw new RuntimeException("Attempted to construct a " + width + "x" + height
+                    + " IndexedImage with " + indices.length + " pixel indices");
+        }
+        if (palette.length == 0 || palette.length > 256) {
+            throw new RuntimeException("Attempted to construct an IndexedImage with a palette of "
+                    + palette.length + " colors");
+        }
+        if (check && palette.length < 256) {
+            for (byte index : indices) {
+                if ((index & 0xFF) >= palette.length) {
+                    throw new RuntimeException("Attempted to construct an IndexedImage with pixel index "
+                            + (index & 0xFF) + ", which is outside its palette of " + palette.length
+                            + " colors");
+                }
+            }
+        }
+        this.width = width;
+        this.height = height;
+        this.indices = indices;
+        this.palette = palette;
+    }
+    
+    /**
+     * Loads an IndexedImage from an image file. If the file uses indexed
+     * color, its indices and palette are used directly. Otherwise, its
+     * distinct colors become the palette, and there must be no more than 256
+     * of them.
+     * @param path The relative path to the image file
+     * @return The loaded IndexedImage
+     */
+    public static IndexedImage load(String path) {
+        BufferedImage image;
+        try (InputStream in = ResourceLoader.getResourceAsStream(path)) {
+            image = ImageIO.read(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (image == null) {
+            throw new RuntimeException("Attempted to load an IndexedImage from " + path
+                    + ", which is not in a readable image format");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] indices = new byte[width*height];
+        int[] palette;
+        if (image.getColorModel() instanceof IndexColorModel && image.getRaster().getNumBands() == 1) {
+            IndexColorModel model = (IndexColorModel)image.getColorModel();
+            palette = new int[Math.min(model.getMapSize(), 256)];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = PixelFilter.pack(model.getRed(i), model.getGreen(i), model.getBlue(i),
+                        model.getAlpha(i));
+            }
+            Raster raster = image.getRaster();
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                raster.getSamples(0, y, width, 1, 0, row);
+                for (int x = 0; x < width; x++) {
+                    indices[y*width + x] = (byte)row[x];
+                }
+            }
+            return new IndexedImage(width, height, indices, palette, true);
+        }
+        int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+        Map<Integer,Integer> colorIndices = new HashMap<>();
+        int[] colors = new int[256];
+        for (int i = 0; i < argb.length; i++) {
+            int color = (argb[i] << 8) | (argb[i] >>> 24);
+            Integer index = colorIndices.get(color);
+            if (index == null) {
+                index = colorIndices.size();
+                if (index == 256) {
+                    throw new RuntimeException("Attempted to load an IndexedImage from " + path
+                            + ", which has more than 256 colors");
+                }
+                colorIndices.put(color, index);
+                colors[index] = color;
+            }
+            indices[i] = (byte)(int)index;
+        }
+        palette = Arrays.copyOf(colors, colorIndices.size());
+        return new IndexedImage(width, height, indices, palette, false);
+    }
+    
+    /**
+     * Returns this IndexedImage's width in pixels.
+     * @return This IndexedImage's width
+     */
+    public final int getWidth() {
+        return width;
+    }
+    
+    /**
+     * Returns this IndexedImage's height in pixels.
+     * @return This IndexedImage's height
+     */
+    public final int getHeight() {
+        return height;
+    }
+    
+    /**
+     * Returns the number of colors in this IndexedImage's palette.
+     * @return The number of colors in this IndexedImage's palette
+     */
+    public final int getNumColors() {
+        return palette.length;
+    }
+    
+    /**
+     * Returns the palette index of the pixel at the specified coordinates.
+     * @param x The x-coordinate of the pixel
+     * @param y The y-coordinate of the pixel
+     * @return The pixel's palette index
+     */
+    public final int getIndex(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new RuntimeException("Attempted to get the palette index of an IndexedImage's pixel at"
+                    + " invalid coordinates (" + x + ", " + y + ")");
+        }
+        return indices[y*width + x] & 0xFF;
+    }
+    
+    /**
+     * Returns a copy of this IndexedImage's palette, with each color packed as
+     * 0xRRGGBBAA.
+     * @return A copy of this IndexedImage's palette
+     */
+    public final int[] getPalette() {
+        return Arrays.copyOf(palette, palette.length);
+    }
+    
+    /**
+     * Returns the number of bytes of main memory that this IndexedImage's
+     * pixel indices and palette occupy.
+     * @return The size of this IndexedImage in bytes
+     */
+    public final long getNumBytes() {
+        return indices.length + 4L*palette.length;
+    }
+    
+    /**
+     * Returns an IndexedImage that shares this IndexedImage's pixel indices,
+     * but has the specified palette. The palette is copied, and must have at
+     * least as many colors as this IndexedImage's palette.
+     * @param palette The new IndexedImage's palette
+     * @return An IndexedImage with the specified palette
+     */
+    public final IndexedImage getCopyWithPalette(int[] palette) {
+        if (palette.length < this.palette.length) {
+            throw new RuntimeException("Attempted to give an IndexedImage with " + this.palette.length
+                    + " colors a palette of only " + palette.length + " colors");
+        }
+        return new IndexedImage(width, height, indices, Arrays.copyOf(palette, palette.length), false);
+    }
+    
+    /**
+     * Returns the transformation of this IndexedImage through the specified
+     * PixelFilter, which shares this IndexedImage's pixel indices and has a
+     * palette made by applying the PixelFilter to this IndexedImage's palette.
+     * @param filter The PixelFilter to apply
+     * @return The transformation of this IndexedImage through the PixelFilter
+     */
+    public final IndexedImage getFilteredCopy(PixelFilter filter) {
+        int[] newPalette = Arrays.copyOf(palette, palette.length);
+        filter.filterPixels(newPalette, 0, newPalette.length);
+        return new IndexedImage(width, height, indices, newPalette, false);
+    }
+    
+    //Returns this IndexedImage's pixels, each packed as 0xRRGGBBAA, in rows from top to bottom
+    final int[] getPixels() {
+        int[] pixels = new int[indices.length];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = palette[indices[i] & 0xFF];
+        }
+        return pixels;
+    }
+    
+    /**
+     * Expands this IndexedImage into a new
+     * <a href="https://cell2d.gitbook.io/cell2d-documentation/general/celick">Celick</a>
+     * Image with its own RGBA texture. This must be called from the thread
+     * that loads textures.
+     * @return An Image of this IndexedImage
+     */
+    public final Image getImage() {
+        PixelFilter.PixelData data = new PixelFilter.PixelData(width, height);
+        ByteBuffer buffer = data.buffer;
+        int rowBytes = data.getTexWidth()*4;
+        for (int y = 0; y < height; y++) {
+            int i = y*width;
+            int bufferIndex = y*rowBytes;
+            for (int x = 0; x < width; x++, i++, bufferIndex += 4) {
+                buffer.putInt(bufferIndex, palette[indices[i] & 0xFF]);
+            }
+        }
+        return new Image(data, Image.FILTER_NEAREST);
+    }
+    
+}
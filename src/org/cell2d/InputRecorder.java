@@ -0,0 +1,233 @@
+package org.cell2d;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.cell2d.space.SpaceState;
+
+/**
+ * <p>An InputRecorder records the input that a CellGame processes each frame
+ * to a compact binary log, which an InputReplay can read to supply the same
+ * input to a CellGame again. While assigned to a CellGame with the CellGame's
+ * setInputRecorder() method, an InputRecorder records, for each frame, which
+ * of the CellGame's commands were pressed, held, and released, the position of
+ * the mouse cursor, the change in the position of the mouse wheel, and the
+ * characters typed. Only the parts of each frame's input that changed since
+ * the previous frame are written, so a frame with no new input takes up one
+ * byte.</p>
+ * 
+ * <p>If the CellGame's current GameState is a SpaceState, the InputRecorder
+ * also records the SpaceState's position checksum each frame, once that
+ * frame's input has been applied and before the SpaceState is updated. An
+ * InputReplay compares these checksums with those of the CellGame it supplies
+ * input to, so that it can detect when the replayed simulation diverges from
+ * the recorded one.</p>
+ * 
+ * <p>The log is not complete until the InputRecorder's finish() method has
+ * been called.</p>
+ * @see InputReplay
+ * @see SpaceState#getPositionChecksum()
+ * @author Alex Heyman
+ */
+public class InputRecorder {
+    
+    static final int MAGIC = 0x43324449; //"C2DI"
+    static final int VERSION = 1;
+    
+    //Flags that say which parts of a frame's input follow
+    static final int COMMANDS = 1;
+    static final int MOUSE = 2;
+    static final int WHEEL = 4;
+    static final int TYPED = 8;
+    static final int CHECKSUM = 16;
+    static final int END = 128;
+    
+    private final DataOutputStream out;
+    private boolean started = false;
+    private boolean finished = false;
+    private CellGame game = null;
+    private int numCommands = 0;
+    //Pressed, held, and released bits for each command, in that order
+    private byte[] commandBits = null;
+    private byte[] lastCommandBits = null;
+    private int lastMouseX = 0;
+    private int lastMouseY = 0;
+    private long numFrames = 0;
+    
+    /**
+     * Constructs an InputRecorder that writes its log to the specified
+     * OutputStream.
+     * @param out The OutputStream to write the log to
+     */
+    public InputRecorder(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+    
+    /**
+     * Returns the number of frames whose input this InputRecorder has
+     * recorded.
+     * @return The number of frames recorded
+     */
+    public final long getNumFrames() {
+        return numFrames;
+    }
+    
+    /**
+     * Returns whether this InputRecorder's finish() method has been called.
+     * @return Whether this InputRecorder is finished
+     */
+    public final boolean isFinished() {
+        return finished;
+    }
+    
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        //Zigzag encoding keeps small negative values short
+        value = (value << 1) ^ (value >> 63);
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+    
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= ((long)(b & 0x7F)) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    static int getNumCommandBytes(int numCommands) {
+        return 3*((numCommands + 7)/8);
+    }
+    
+    //Returns whether the specified CellGame's current GameState has a position checksum
+    static boolean hasChecksum(CellGame game) {
+        return game.getCurrentState() instanceof SpaceState;
+    }
+    
+    static long getChecksum(CellGame game) {
+        return ((SpaceState)game.getCurrentState()).getPositionChecksum();
+    }
+    
+    private void start(int numCommands) throws IOException {
+        started = true;
+        this.numCommands = numCommands;
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarLong(out, numCommands);
+        commandBits = new byte[getNumCommandBytes(numCommands)];
+        lastCommandBits = new byte[commandBits.length];
+    }
+    
+    final void recordFrame(CellGame game) {
+        if (finished) {
+            return;
+        }
+        try {
+            if (!started) {
+                this.game = game;
+                start(game.getNumCommands());
+            }
+            Arrays.fill(commandBits, (byte)0);
+            int bitsPerRow = commandBits.length/3*8;
+            for (int i = 0; i < numCommands; i++) {
+                if (game.commandPressed(i)) {
+                    commandBits[i >> 3] |= 1 << (i & 7);
+                }
+                if (game.commandHeld(i)) {
+                    commandBits[(bitsPerRow + i) >> 3] |= 1 << (i & 7);
+                }
+                if (game.commandReleased(i)) {
+                    commandBits[(2*bitsPerRow + i) >> 3] |= 1 << (i & 7);
+                }
+            }
+            int mouseX = game.getMouseX();
+            int mouseY = game.getMouseY();
+            int mouseWheelChange = game.getMouseWheelChange();
+            CharSequence typedChars = game.getTypedChars();
+            boolean hasChecksum = hasChecksum(game);
+            int flags = 0;
+            if (!Arrays.equals(commandBits, lastCommandBits)) {
+                flags |= COMMANDS;
+            }
+            if (mouseX != lastMouseX || mouseY != lastMouseY) {
+                flags |= MOUSE;
+            }
+            if (mouseWheelChange != 0) {
+                flags |= WHEEL;
+            }
+            if (typedChars.length() > 0) {
+                flags |= TYPED;
+            }
+            if (hasChecksum) {
+                flags |= CHECKSUM;
+            }
+            out.writeByte(flags);
+            if (hasChecksum) {
+                out.writeLong(getChecksum(game));
+            }
+            if ((flags & COMMANDS) != 0) {
+                out.write(commandBits);
+                byte[] temp = lastCommandBits;
+                lastCommandBits = commandBits;
+                commandBits = temp;
+            }
+            if ((flags & MOUSE) != 0) {
+                writeVarLong(out, mouseX);
+                writeVarLong(out, mouseY);
+                lastMouseX = mouseX;
+                lastMouseY = mouseY;
+            }
+            if ((flags & WHEEL) != 0) {
+                writeVarLong(out, mouseWheelChange);
+            }
+            if ((flags & TYPED) != 0) {
+                writeVarLong(out, typedChars.length());
+                for (int i = 0; i < typedChars.length(); i++) {
+                    out.writeChar(typedChars.charAt(i));
+                }
+            }
+            numFrames++;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Finishes this InputRecorder's log, recording the position checksum of
+     * its CellGame's current GameState after the last recorded frame, and
+     * closes the OutputStream to which it writes the log. This InputRecorder
+     * will record no more frames afterward. If this InputRecorder is already
+     * finished, this method will do nothing.
+     */
+    public final void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (!started) {
+                start(0);
+            }
+            boolean hasChecksum = (game != null && hasChecksum(game));
+            out.writeByte(hasChecksum ? END | CHECKSUM : END);
+            if (hasChecksum) {
+                out.writeLong(getChecksum(game));
+            }
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+}
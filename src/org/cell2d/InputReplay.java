@@ -0,0 +1,194 @@
+package org.cell2d;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <p>An InputReplay is a CommandSource that reads a log written by an
+ * InputRecorder and supplies the recorded input to a CellGame, one recorded
+ * frame per frame, in place of the CellGame's input devices. If the CellGame
+ * is deterministic and starts the replay in the same state as the recorded
+ * CellGame started recording, it will play out exactly as the recorded one
+ * did. An InputReplay can be used with a fast-forwarding CellGame or a
+ * HeadlessRunner to replay its log as fast as possible without rendering.</p>
+ * 
+ * <p>Wherever the log contains a position checksum, the InputReplay compares
+ * it with the position checksum of its CellGame's current GameState at the
+ * same point in the replay, once the frame's input has been applied, and
+ * remembers the first frame at which they differ. Once the InputReplay
+ * reaches the end of its log, it supplies no more input and closes the
+ * InputStream from which it reads the log.</p>
+ * @see InputRecorder
+ * @author Alex Heyman
+ */
+public class InputReplay implements CommandSource {
+    
+    private final DataInputStream in;
+    private final int numCommands;
+    private final byte[] commandBits;
+    private int mouseX = 0;
+    private int mouseY = 0;
+    private long numFrames = 0;
+    private long divergentFrame = -1;
+    //The checksum recorded for the frame whose input was just supplied, compared once it has been applied
+    private boolean checksumPending = false;
+    private long pendingChecksum = 0;
+    private long pendingFrameNumber = 0;
+    private boolean finished = false;
+    
+    /**
+     * Constructs an InputReplay that reads its log from the specified
+     * InputStream.
+     * @param in The InputStream to read the log from
+     */
+    public InputReplay(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        try {
+            if (this.in.readInt() != InputRecorder.MAGIC) {
+                throw new RuntimeException("Attempted to read an input log that is not an input log");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != InputRecorder.VERSION) {
+                throw new RuntimeException("Attempted to read an input log with unsupported version "
+                        + version);
+            }
+            numCommands = (int)InputRecorder.readVarLong(this.in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        commandBits = new byte[InputRecorder.getNumCommandBytes(numCommands)];
+    }
+    
+    /**
+     * Returns the number of commands whose states this InputReplay's log
+     * records.
+     * @return The number of commands in this InputReplay's log
+     */
+    public final int getNumCommands() {
+        return numCommands;
+    }
+    
+    /**
+     * Returns the number of frames whose input this InputReplay has supplied.
+     * @return The number of frames replayed
+     */
+    public final long getNumFrames() {
+        return numFrames;
+    }
+    
+    /**
+     * Returns whether this InputReplay has reached the end of its log.
+     * @return Whether this InputReplay is finished
+     */
+    public final boolean isFinished() {
+        return finished;
+    }
+    
+    /**
+     * Returns whether this InputReplay has found its CellGame's position
+     * checksum to differ from the recorded one.
+     * @return Whether the replay has diverged from the recording
+     */
+    public final boolean hasDiverged() {
+        return divergentFrame >= 0;
+    }
+    
+    /**
+     * Returns the number of frames that this InputReplay had replayed before
+     * the frame at which it first found its CellGame's position checksum to
+     * differ from the recorded one, or -1 if it has not found them to differ.
+     * @return The number of frames replayed before the replay diverged
+     */
+    public final long getDivergentFrame() {
+        return divergentFrame;
+    }
+    
+    private void checkChecksum(CellGame game, long checksum, long frame) {
+        if (divergentFrame < 0 && (!InputRecorder.hasChecksum(game)
+                || InputRecorder.getChecksum(game) != checksum)) {
+            divergentFrame = frame;
+        }
+    }
+    
+    private void finish() throws IOException {
+        finished = true;
+        in.close();
+    }
+    
+    @Override
+    public void inputActions(CellGame game, long frameNumber) {
+        if (finished) {
+            return;
+        }
+        if (game.getNumCommands() != numCommands) {
+            throw new RuntimeException("Attempted to replay an input log with " + numCommands
+                    + " commands to a CellGame with " + game.getNumCommands() + " commands");
+        }
+        try {
+            int flags;
+            try {
+                flags = in.readUnsignedByte();
+            } catch (EOFException e) {
+                finish();
+                return;
+            }
+            if ((flags & InputRecorder.END) != 0) {
+                //The final checksum was recorded after the last frame, with no input to apply
+                if ((flags & InputRecorder.CHECKSUM) != 0) {
+                    checkChecksum(game, in.readLong(), numFrames);
+                }
+                finish();
+                return;
+            }
+            if ((flags & InputRecorder.CHECKSUM) != 0) {
+                pendingChecksum = in.readLong();
+                pendingFrameNumber = frameNumber;
+                checksumPending = true;
+            }
+            if ((flags & InputRecorder.COMMANDS) != 0) {
+                in.readFully(commandBits);
+            }
+            int bitsPerRow = commandBits.length/3*8;
+            for (int i = 0; i < numCommands; i++) {
+                int bit = 1 << (i & 7);
+                game.setCommandState(i, (commandBits[i >> 3] & bit) != 0,
+                        (commandBits[(bitsPerRow + i) >> 3] & bit) != 0,
+                        (commandBits[(2*bitsPerRow + i) >> 3] & bit) != 0);
+            }
+            if ((flags & InputRecorder.MOUSE) != 0) {
+                mouseX = (int)InputRecorder.readVarLong(in);
+                mouseY = (int)InputRecorder.readVarLong(in);
+            }
+            game.setMousePosition(mouseX, mouseY);
+            if ((flags & InputRecorder.WHEEL) != 0) {
+                game.setMouseWheelChange((int)InputRecorder.readVarLong(in));
+            }
+            if ((flags & InputRecorder.TYPED) != 0) {
+                int numChars = (int)InputRecorder.readVarLong(in);
+                for (int i = 0; i < numChars; i++) {
+                    game.typeChar(in.readChar());
+                }
+            }
+            numFrames++;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    @Override
+    public void inputAppliedActions(CellGame game, long frameNumber) {
+        if (checksumPending) {
+            checksumPending = false;
+            if (frameNumber != pendingFrameNumber) {
+                throw new RuntimeException("Attempted to check the input that an InputReplay supplied for"
+                        + " frame " + pendingFrameNumber + " after the input for frame " + frameNumber
+                        + " was applied");
+            }
+            checkChecksum(game, pendingChecksum, numFrames - 1);
+        }
+    }
+    
+}
@@ -0,0 +1,125 @@
+package org.cell2d;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.cell2d.celick.Image;
+
+/**
+ * <p>JFREvents contains the Java Flight Recorder events that Cell2D's core
+ * classes emit. Each event type can be enabled or disabled, and given a
+ * duration threshold below which it is not recorded, through a recording's
+ * settings by the event type's name. Event types are enabled or disabled, and
+ * have thresholds, by default as their annotations specify.</p>
+ * @author Alex Heyman
+ */
+final class JFREvents {
+    
+    private JFREvents() {}
+    
+    private static final String CATEGORY = "Cell2D";
+    
+    @Name("org.cell2d.FrameUpdate")
+    @Label("Frame Update")
+    @Category({CATEGORY, "Frame"})
+    @Description("A CellGame's game logic update for one frame")
+    @Enabled(true)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class FrameUpdate extends Event {
+        
+        @Label("GameState ID")
+        @Description("The ID of the CellGame's current GameState, or -1 if it has none")
+        int stateID;
+        
+        @Label("Transitioning")
+        @Description("Whether the CellGame was transitioning between GameStates instead of updating one")
+        boolean transitioning;
+        
+    }
+    
+    @Name("org.cell2d.FrameRender")
+    @Label("Frame Render")
+    @Category({CATEGORY, "Frame"})
+    @Description("A CellGame's rendering of one frame, including the display update")
+    @Enabled(true)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class FrameRender extends Event {
+        
+        @Label("GameState ID")
+        @Description("The ID of the CellGame's current GameState, or -1 if it has none")
+        int stateID;
+        
+    }
+    
+    @Name("org.cell2d.AssetLoad")
+    @Label("Asset Load")
+    @Category({CATEGORY, "Assets"})
+    @Description("A call to an asset's load() method that loaded it")
+    @Enabled(true)
+    @Threshold("0 ms")
+    static final class AssetLoad extends Event {
+        
+        @Label("Asset Type")
+        String assetType;
+        
+        @Label("Path")
+        String path;
+        
+        @Label("Size")
+        @DataAmount
+        long bytes;
+        
+    }
+    
+    @Name("org.cell2d.AssetUnload")
+    @Label("Asset Unload")
+    @Category({CATEGORY, "Assets"})
+    @Description("A call to an asset's unload() method that unloaded it")
+    @Enabled(true)
+    @Threshold("0 ms")
+    static final class AssetUnload extends Event {
+        
+        @Label("Asset Type")
+        String assetType;
+        
+        @Label("Path")
+        String path;
+        
+        @Label("Size")
+        @DataAmount
+        long bytes;
+        
+    }
+    
+    @Name("org.cell2d.AudioDecode")
+    @Label("Audio Decode")
+    @Category({CATEGORY, "Assets"})
+    @Description("The decoding of an audio file into an OpenAL buffer")
+    @Enabled(true)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class AudioDecode extends Event {
+        
+        @Label("Path")
+        String path;
+        
+        @Label("Decoded Size")
+        @DataAmount
+        long bytes;
+        
+    }
+    
+    //The number of bytes of texture memory that the specified Image's texture occupies
+    static long getTextureBytes(Image image) {
+        return 4L*image.getTexture().getTextureWidth()*image.getTexture().getTextureHeight();
+    }
+    
+}
@@ -139,12 +139,21 @@ public class Music implements Loadable {
     @Override
     public final boolean load() {
         if (!loaded) {
+            JFREvents.AssetLoad event = new JFREvents.AssetLoad();
+            event.begin();
             loaded = true;
             try {
                 audio = new Audio(path);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.assetType = "Music";
+                event.path = path;
+                event.bytes = audio.getSize();
+                event.commit();
+            }
             return true;
         }
         return false;
@@ -155,10 +164,20 @@ public class Music implements Loadable {
         if (blank || !loaded) {
             return false;
         }
+        JFREvents.AssetUnload event = new JFREvents.AssetUnload();
+        event.begin();
+        int size = audio.getSize();
         stop();
         audio.unload();
         audio = null;
         loaded = false;
+        event.end();
+        if (event.shouldCommit()) {
+            event.assetType = "Music";
+            event.path = path;
+            event.bytes = size;
+            event.commit();
+        }
         return true;
     }
     
@@ -0,0 +1,166 @@
+package org.cell2d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.cell2d.celick.Image;
+import org.cell2d.celick.opengl.ImageData;
+import org.cell2d.celick.opengl.Texture;
+import org.lwjgl.BufferUtils;
+
+/**
+ * <p>A PixelFilter is a Filter that transforms each pixel of an image
+ * independently of the others, on the CPU. A PixelFilter reads the original
+ * image's texture data once, passes its pixels, one row at a time, to its
+ * filterPixels() method as <code>int</code>s, and uploads the result to a new
+ * texture once. Each pixel is packed as 0xRRGGBBAA, with each of its red,
+ * green, blue, and alpha values from 0 to 255. If the image is large enough to
+ * be worth it, a PixelFilter processes its rows in parallel, so filterPixels()
+ * must be safe to call from several threads at once.</p>
+ * @see Color
+ * @author Alex Heyman
+ */
+public abstract class PixelFilter implements Filter {
+    
+    //Images with fewer pixels than this are not worth splitting up between threads
+    private static final int MIN_PARALLEL_PIXELS = 64*64;
+    
+    //This PixelFilter's ID in the FilterRegistry, or -1 if it has not yet been looked up
+    volatile int id = -1;
+    
+    //A ready-made RGBA pixel buffer for the texture loader to upload
+    static class PixelData implements ImageData {
+        
+        private final int width, height, texWidth, texHeight;
+        final ByteBuffer buffer;
+        
+        PixelData(int width, int height) {
+            this.width = width;
+            this.height = height;
+            texWidth = get2Fold(width);
+            texHeight = get2Fold(height);
+            buffer = BufferUtils.createByteBuffer(texWidth*texHeight*4).order(ByteOrder.BIG_ENDIAN);
+        }
+        
+        private static int get2Fold(int fold) {
+            int ret = 2;
+            while (ret < fold) {
+                ret *= 2;
+            }
+            return ret;
+        }
+        
+        @Override
+        public int getDepth() {
+            return 32;
+        }
+        
+        @Override
+        public int getWidth() {
+            return width;
+        }
+        
+        @Override
+        public int getHeight() {
+            return height;
+        }
+        
+        @Override
+        public int getTexWidth() {
+            return texWidth;
+        }
+        
+        @Override
+        public int getTexHeight() {
+            return texHeight;
+        }
+        
+        @Override
+        public ByteBuffer getImageBufferData() {
+            return buffer;
+        }
+        
+    }
+    
+    /**
+     * Packs the specified red, green, blue, and alpha values, each from 0 to
+     * 255, into a pixel in the format that PixelFilters use.
+     * @param r The red value
+     * @param g The green value
+     * @param b The blue value
+     * @param a The alpha value
+     * @return The packed pixel
+     */
+    public static int pack(int r, int g, int b, int a) {
+        return (r << 24) | (g << 16) | (b << 8) | a;
+    }
+    
+    /**
+     * Converts the specified floating-point color value from 0 to 1 into a
+     * color value from 0 to 255, as used in a packed pixel.
+     * @param f The color value from 0 to 1
+     * @return The color value from 0 to 255
+     */
+    public static int toByte(float f) {
+        return Math.round(f*255);
+    }
+    
+    /**
+     * Transforms the specified number of consecutive pixels in the specified
+     * array, starting at the specified offset, in place.
+     * @param pixels The array of pixels, each packed as 0xRRGGBBAA
+     * @param offset The index in the array of the first pixel to transform
+     * @param length The number of pixels to transform
+     */
+    protected abstract void filterPixels(int[] pixels, int offset, int length);
+    
+    //Returns a transformed copy of the specified pixels, for images that are kept only in main memory
+    final int[] getFilteredPixels(int[] pixels) {
+        int[] filtered = Arrays.copyOf(pixels, pixels.length);
+        filterPixels(filtered, 0, filtered.length);
+        return filtered;
+    }
+    
+    @Override
+    public final Image getFilteredImage(Image image) {
+        image.getWidth(); //Prompt the image to initialize itself if it hasn't already
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Texture texture = image.getTexture();
+        byte[] source = texture.getTextureData();
+        int texWidth = texture.getTextureWidth();
+        int bytesPerPixel = (texture.hasAlpha() ? 4 : 3);
+        //A flipped image's texture offset is at its far edge, and it is read backward from there
+        boolean xFlip = image.getTextureWidth() < 0;
+        boolean yFlip = image.getTextureHeight() < 0;
+        int sourceX = (int)(image.getTextureOffsetX()*texWidth) - (xFlip ? 1 : 0);
+        int sourceY = (int)(image.getTextureOffsetY()*texture.getTextureHeight()) - (yFlip ? 1 : 0);
+        int xStep = (xFlip ? -1 : 1)*bytesPerPixel;
+        int yStep = (yFlip ? -1 : 1);
+        int[] pixels = new int[width*height];
+        PixelData data = new PixelData(width, height);
+        ByteBuffer buffer = data.buffer;
+        IntStream rows = IntStream.range(0, height);
+        if (width*height >= MIN_PARALLEL_PIXELS) {
+            rows = rows.parallel();
+        }
+        rows.forEach(y -> {
+            int rowStart = y*width;
+            int i = ((sourceY + y*yStep)*texWidth + sourceX)*bytesPerPixel;
+            for (int x = 0; x < width; x++, i += xStep) {
+                int a = (bytesPerPixel == 4 ? source[i + 3] & 0xFF : 255);
+                pixels[rowStart + x] = ((source[i] & 0xFF) << 24) | ((source[i + 1] & 0xFF) << 16)
+                        | ((source[i + 2] & 0xFF) << 8) | a;
+            }
+            filterPixels(pixels, rowStart, width);
+            //Each row writes to its own part of the buffer with absolute puts, so no locking is needed
+            int bufferIndex = y*data.texWidth*4;
+            for (int x = 0; x < width; x++, bufferIndex += 4) {
+                buffer.putInt(bufferIndex, pixels[rowStart + x]);
+            }
+        });
+        return image.getCopyWithData(data);
+    }
+    
+}
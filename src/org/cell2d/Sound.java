@@ -61,12 +61,21 @@ public class Sound implements Loadable {
     @Override
     public final boolean load() {
         if (!loaded) {
+            JFREvents.AssetLoad event = new JFREvents.AssetLoad();
+            event.begin();
             loaded = true;
             try {
                 audio = new Audio(path);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.assetType = "Sound";
+                event.path = path;
+                event.bytes = audio.getSize();
+                event.commit();
+            }
             return true;
         }
         return false;
@@ -75,9 +84,19 @@ public class Sound implements Loadable {
     @Override
     public final boolean unload() {
         if (loaded) {
+            JFREvents.AssetUnload event = new JFREvents.AssetUnload();
+            event.begin();
+            int size = audio.getSize();
             loaded = false;
             audio.unload();
             audio = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.assetType = "Sound";
+                event.path = path;
+                event.bytes = size;
+                event.commit();
+            }
             return true;
         }
         return false;
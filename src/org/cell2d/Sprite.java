@@ -43,26 +43,35 @@ public class Sprite implements Animatable, Drawable, Loadable {
     private final SpriteSheet spriteSheet;
     private final String path;
     private final Color transColor;
+    private final IndexedImage indexedImage;
     private Image[] defaultImages;
-    private Map<Filter,Image[]> filterImages;
+    private Set<Filter> filters;
+    //Indexed by Filter ID, with null entries for Filters that have no effect on this Sprite
+    private Image[][] filterImages;
     private final int originX, originY;
     private int width = 0;
     private int height = 0;
     private int right = 0;
     private int bottom = 0;
+    TextureAtlas atlas = null;
+    //In headless mode, the unfiltered image's pixels, each packed as 0xRRGGBBAA, in rows from top to bottom
+    int[] pixels = null;
     
     private void initImageStorage(Collection<Filter> filters) {
         defaultImages = new Image[4];
-        if (filters.isEmpty()) {
-            filterImages = Collections.emptyMap();
-        } else {
-            filterImages = new HashMap<>();
-            for (Filter filter : filters) {
-                filterImages.put(filter, new Image[4]);
-            }
+        this.filters = FilterRegistry.register(filters);
+        filterImages = new Image[FilterRegistry.getArrayLength(this.filters)][];
+        for (Filter filter : this.filters) {
+            filterImages[FilterRegistry.getID(filter)] = new Image[4];
         }
     }
     
+    private Image[] getFilterImages(Filter filter) {
+        //Looking up rather than interning keeps drawing with arbitrary Filters from growing the registry
+        int id = FilterRegistry.findID(filter);
+        return (id >= 0 && id < filterImages.length ? filterImages[id] : null);
+    }
+    
     private Sprite() {
         blank = true;
         loaded = true;
@@ -71,8 +80,10 @@ public class Sprite implements Animatable, Drawable, Loadable {
         spriteSheet = null;
         path = null;
         transColor = null;
+        indexedImage = null;
         defaultImages = new Image[4];
-        filterImages = Collections.emptyMap();
+        filters = Collections.emptySet();
+        filterImages = new Image[0][];
         originX = 0;
         originY = 0;
     }
@@ -85,6 +96,7 @@ public class Sprite implements Animatable, Drawable, Loadable {
         this.spriteSheet = spriteSheet;
         path = null;
         transColor = null;
+        indexedImage = null;
         initImageStorage(spriteSheet.getFilters());
         originX = spriteSheet.getOriginX();
         originY = spriteSheet.getOriginY();
@@ -123,6 +135,7 @@ public class Sprite implements Animatable, Drawable, Loadable {
         spriteSheet = null;
         this.path = path;
         this.transColor = transColor;
+        indexedImage = null;
         initImageStorage(Arrays.asList(filters));
         this.originX = originX;
         this.originY = originY;
@@ -168,6 +181,7 @@ public class Sprite implements Animatable, Drawable, Loadable {
         spriteSheet = null;
         path = null;
         transColor = null;
+        indexedImage = null;
         initImageStorage(Arrays.asList(filters));
         originX = (int)Math.round(image.getCenterOfRotationX());
         originY = (int)Math.round(image.getCenterOfRotationY());
@@ -181,11 +195,42 @@ public class Sprite implements Animatable, Drawable, Loadable {
             throw new RuntimeException(e);
         }
         loadFilter(null, spriteImage);
-        for (Filter filter : filterImages.keySet()) {
+        for (Filter filter : filters) {
             loadFilter(filter, filter.getFilteredImage(spriteImage));   
         }
     }
     
+    /**
+     * Constructs a Sprite from an IndexedImage. This Sprite will create its
+     * images with PixelFilters, and the Sprites that getFilteredCopy() returns
+     * for PixelFilters, by remapping the IndexedImage's palette. It will not
+     * create its image with each of its Filters until it is first drawn with
+     * that Filter. Since the IndexedImage stays in main memory, this Sprite can
+     * be reloaded after it is unloaded.
+     * @param image The IndexedImage to create this Sprite from
+     * @param originX The x-coordinate in pixels of the origin on the image
+     * @param originY The y-coordinate in pixels of the origin on the image
+     * @param load Whether this Sprite should load upon creation
+     * @param filters The Filters that should have an effect on this Sprite when
+     * applied to it with draw()
+     */
+    public Sprite(IndexedImage image, int originX, int originY, boolean load, Filter... filters) {
+        blank = false;
+        loaded = false;
+        basedOn = null;
+        basedFilter = null;
+        spriteSheet = null;
+        path = null;
+        transColor = null;
+        indexedImage = image;
+        initImageStorage(Arrays.asList(filters));
+        this.originX = originX;
+        this.originY = originY;
+        if (load) {
+            load();
+        }
+    }
+    
     private Sprite(Sprite sprite, Filter filter, boolean load) {
         blank = false;
         loaded = false;
@@ -194,7 +239,10 @@ public class Sprite implements Animatable, Drawable, Loadable {
         spriteSheet = null;
         path = null;
         transColor = null;
-        initImageStorage(sprite.filterImages.keySet());
+        //A PixelFilter can be applied to an IndexedImage by remapping only its palette
+        indexedImage = (sprite.indexedImage != null && filter instanceof PixelFilter
+                ? sprite.indexedImage.getFilteredCopy((PixelFilter)filter) : null);
+        initImageStorage(sprite.filters);
         originX = sprite.originX;
         originY = sprite.originY;
         if (load) {
@@ -218,42 +266,86 @@ public class Sprite implements Animatable, Drawable, Loadable {
         if (loaded) {
             return false;
         }
+        JFREvents.AssetLoad event = new JFREvents.AssetLoad();
+        event.begin();
         loaded = true;
         if (spriteSheet == null) {
-            Image image;
-            if (path != null) {
-                try {
-                    image = new Image(path, false, Image.FILTER_NEAREST, transColor);
-                } catch (SlickException e) {
-                    throw new RuntimeException(e);
+            if (HeadlessRunner.isHeadless()) {
+                //Load only this Sprite's dimensions and pixels, without creating any textures
+                if (path != null) {
+                    HeadlessRunner.ImagePixels image = HeadlessRunner.loadPixels(path, transColor);
+                    pixels = image.pixels;
+                    setDimensions(image.width, image.height);
+                } else if (indexedImage != null) {
+                    pixels = indexedImage.getPixels();
+                    setDimensions(indexedImage.getWidth(), indexedImage.getHeight());
+                } else if (basedOn != null) {
+                    basedOn.load();
+                    pixels = getFilteredPixels(basedFilter, basedOn.pixels);
+                    setDimensions(basedOn.width, basedOn.height);
+                } else {
+                    throw new RuntimeException("Attempted to reload a Sprite that cannot be reloaded");
                 }
-            } else if (basedOn != null) {
-                basedOn.load();
-                image = basedFilter.getFilteredImage(basedOn.defaultImages[0]);
             } else {
-                throw new RuntimeException("Attempted to reload a Sprite that cannot be reloaded");
-            }
-            loadFilter(null, image);
-            for (Filter filter : filterImages.keySet()) {
-                loadFilter(filter, filter.getFilteredImage(image));   
+                Image image;
+                if (path != null) {
+                    try {
+                        image = new Image(path, false, Image.FILTER_NEAREST, transColor);
+                    } catch (SlickException e) {
+                        throw new RuntimeException(e);
+                    }
+                } else if (indexedImage != null) {
+                    image = indexedImage.getImage();
+                } else if (basedOn != null) {
+                    basedOn.load();
+                    image = basedFilter.getFilteredImage(basedOn.defaultImages[0]);
+                } else {
+                    throw new RuntimeException("Attempted to reload a Sprite that cannot be reloaded");
+                }
+                loadFilter(null, image);
+                //An indexed Sprite's filtered images are created when they are first needed
+                if (indexedImage == null) {
+                    for (Filter filter : filters) {
+                        loadFilter(filter, filter.getFilteredImage(image));   
+                    }
+                }
             }
         } else {
             spriteSheet.load();
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.assetType = "Sprite";
+            event.path = path;
+            event.bytes = getTextureBytes();
+            event.commit();
+        }
         return true;
     }
     
+    //The number of bytes of texture memory that this Sprite's images occupy, not counting its SpriteSheet's
+    private long getTextureBytes() {
+        if (spriteSheet != null || defaultImages == null || defaultImages[0] == null) {
+            return 0;
+        }
+        long bytes = JFREvents.getTextureBytes(defaultImages[0]);
+        for (Filter filter : filters) {
+            Image image = getFilterImages(filter)[0];
+            if (image != null) {
+                bytes += JFREvents.getTextureBytes(image);
+            }
+        }
+        return bytes;
+    }
+    
     final void loadFilter(Filter filter, Image image) {
         image.getWidth(); //Prompt the image to initialize itself if it hasn't already
         Image[] imageArray;
         if (filter == null) {
             imageArray = defaultImages;
-            width = image.getWidth();
-            height = image.getHeight();
-            right = width - originX;
-            bottom = height - originY;
+            setDimensions(image.getWidth(), image.getHeight());
         } else {
-            imageArray = filterImages.get(filter);
+            imageArray = getFilterImages(filter);
         }
         imageArray[0] = image;
         imageArray[0].setCenterOfRotation(originX, originY);
@@ -265,6 +357,32 @@ public class Sprite implements Animatable, Drawable, Loadable {
         imageArray[3].setCenterOfRotation(right, bottom);
     }
     
+    //Returns this Sprite's images with the specified Filter, creating them first if they were deferred
+    private Image[] getLoadedFilterImages(Filter filter) {
+        Image[] imageArray = getFilterImages(filter);
+        if (imageArray != null && imageArray[0] == null && indexedImage != null) {
+            loadFilter(filter, (filter instanceof PixelFilter
+                    ? indexedImage.getFilteredCopy((PixelFilter)filter).getImage()
+                    : filter.getFilteredImage(defaultImages[0])));
+        }
+        return imageArray;
+    }
+    
+    final boolean ownsImage() {
+        return indexedImage != null;
+    }
+    
+    final Image getImage(Filter filter) {
+        return (filter == null ? defaultImages[0] : getLoadedFilterImages(filter)[0]);
+    }
+    
+    final void setDimensions(int width, int height) {
+        this.width = width;
+        this.height = height;
+        right = width - originX;
+        bottom = height - originY;
+    }
+    
     /**
      * Unloads this Sprite if it is currently loaded. If this Sprite is part of
      * a SpriteSheet that had no other Sprites loaded, that SpriteSheet will be
@@ -275,33 +393,64 @@ public class Sprite implements Animatable, Drawable, Loadable {
     public final boolean unload() {
         if (blank || !loaded) {
             return false;
-        } else if (spriteSheet != null) {
+        }
+        JFREvents.AssetUnload event = new JFREvents.AssetUnload();
+        event.begin();
+        long bytes = (event.isEnabled() ? getTextureBytes() : 0);
+        if (spriteSheet != null) {
             spriteSheet.unloadSprite();
         } else {
-            try {
-                for (Image[] imageArray : filterImages.values()) {
-                    imageArray[0].destroy();
+            //A TextureAtlas' pages are released by the TextureAtlas itself
+            if (atlas == null) {
+                try {
+                    //An indexed Sprite's image is its own, rather than shared through the texture cache
+                    if (indexedImage != null && defaultImages[0] != null) {
+                        defaultImages[0].destroy();
+                    }
+                    for (Filter filter : filters) {
+                        Image[] imageArray = getFilterImages(filter);
+                        if (imageArray[0] != null) {
+                            imageArray[0].destroy();
+                        }
+                    }
+                } catch (SlickException e) {
+                    throw new RuntimeException(e);
                 }
-            } catch (SlickException e) {
-                throw new RuntimeException(e);
             }
             clear();
         }
         loaded = false;
+        event.end();
+        if (event.shouldCommit()) {
+            event.assetType = "Sprite";
+            event.path = path;
+            event.bytes = bytes;
+            event.commit();
+        }
         return true;
     }
     
     final void clear() {
-        defaultImages = null;
-        for (Image[] images : filterImages.values()) {
-            for (int i = 0; i < images.length; i++) {
-                images[i] = null;
+        Arrays.fill(defaultImages, null);
+        for (Image[] images : filterImages) {
+            if (images != null) {
+                Arrays.fill(images, null);
             }
         }
         width = 0;
         height = 0;
         right = 0;
         bottom = 0;
+        atlas = null;
+        pixels = null;
+    }
+    
+    //Returns the specified headless pixels as transformed by the specified Filter, or null if they cannot be
+    static int[] getFilteredPixels(Filter filter, int[] pixels) {
+        if (pixels == null || !(filter instanceof PixelFilter)) {
+            return null;
+        }
+        return ((PixelFilter)filter).getFilteredPixels(pixels);
     }
     
     @Override
@@ -388,7 +537,7 @@ public class Sprite implements Animatable, Drawable, Loadable {
      * applied to it with draw()
      */
     public final Set<Filter> getFilters() {
-        return Collections.unmodifiableSet(filterImages.keySet());
+        return filters;
     }
     
     /**
@@ -425,8 +574,73 @@ public class Sprite implements Animatable, Drawable, Loadable {
         return height;
     }
     
+    /**
+     * Returns whether the colors and alpha values of this Sprite's pixels can
+     * be read with its getColor() and getAlpha() methods. This is true of any
+     * loaded Sprite, except for one that was loaded in headless mode and was
+     * created with a Filter that is not a PixelFilter, since such a Filter
+     * can only be applied to a texture.
+     * @return Whether this Sprite's pixels can be read
+     */
+    public final boolean hasPixelData() {
+        return blank || (loaded && (pixels != null || (defaultImages != null && defaultImages[0] != null)));
+    }
+    
+    /**
+     * Returns the alpha value (0-255) of the pixel at the specified coordinates
+     * on this Sprite's unfiltered image, relative to the image's top left
+     * corner rather than to this Sprite's origin. If this Sprite is not loaded,
+     * the coordinates are outside its image, or its pixels cannot be read, this
+     * method will return 0.
+     * @param x The x-coordinate in pixels of the pixel
+     * @param y The y-coordinate in pixels of the pixel
+     * @return The alpha value of the pixel at the specified coordinates
+     * @see #hasPixelData()
+     */
+    public final int getAlpha(int x, int y) {
+        if (blank || !loaded || x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        if (pixels != null) {
+            return pixels[y*width + x] & 0xFF;
+        }
+        if (defaultImages == null || defaultImages[0] == null) {
+            return 0;
+        }
+        return defaultImages[0].getAlpha(x, y);
+    }
+    
+    /**
+     * Returns the color of the pixel at the specified coordinates on this
+     * Sprite's unfiltered image, relative to the image's top left corner rather
+     * than to this Sprite's origin. If this Sprite is not loaded, the
+     * coordinates are outside its image, or its pixels cannot be read, this
+     * method will return null.
+     * @param x The x-coordinate in pixels of the pixel
+     * @param y The y-coordinate in pixels of the pixel
+     * @return The color of the pixel at the specified coordinates
+     * @see #hasPixelData()
+     */
+    public final Color getColor(int x, int y) {
+        if (blank || !loaded || x < 0 || x >= width || y < 0 || y >= height) {
+            return null;
+        }
+        if (pixels != null) {
+            int pixel = pixels[y*width + x];
+            return new Color(pixel >>> 24, (pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+        }
+        if (defaultImages == null || defaultImages[0] == null) {
+            return null;
+        }
+        return defaultImages[0].getColor(x, y);
+    }
+    
     private void draw(Graphics g, float x, float y, int left, int right, int top, int bottom,
             float scale, boolean xFlip, boolean yFlip, float angle, float alpha, Filter filter) {
+        if (defaultImages == null || defaultImages[0] == null) {
+            //This Sprite was loaded in headless mode and has no images to draw
+            return;
+        }
         int index = 0;
         float xOffset, yOffset;
         if (xFlip) {
@@ -447,7 +661,7 @@ public class Sprite implements Animatable, Drawable, Loadable {
         if (filter == null) {
             image = defaultImages[index];
         } else {
-            Image[] imageArray = filterImages.get(filter);
+            Image[] imageArray = getLoadedFilterImages(filter);
             image = (imageArray == null ? defaultImages[index] : imageArray[index]);
         }
         image.setRotation(-angle);
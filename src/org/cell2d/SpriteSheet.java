@@ -2,10 +2,7 @@ package org.cell2d;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import org.cell2d.celick.Image;
 import org.cell2d.celick.SlickException;
@@ -39,7 +36,9 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
     private final String path;
     private final Color transColor;
     private Image defaultImage = null;
-    private final Map<Filter,Image> filterImages;
+    private final Set<Filter> filters;
+    //Indexed by Filter ID, with null entries for Filters that have no effect on this SpriteSheet
+    private final Image[] filterImages;
     private final int width, height, spriteWidth, spriteHeight, spacing, margin, originX, originY;
     private final Sprite[] sprites;
     private int numSpritesLoaded = 0;
@@ -138,7 +137,7 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
      * @param load Whether this SpriteSheet should load upon creation
      */
     public SpriteSheet(SpriteSheet spriteSheet, Filter filter, boolean load) {
-        this(spriteSheet, filter, null, null, spriteSheet.filterImages.keySet(),
+        this(spriteSheet, filter, null, null, spriteSheet.filters,
                 spriteSheet.width, spriteSheet.height, spriteSheet.spriteWidth, spriteSheet.spriteHeight,
                 spriteSheet.spacing, spriteSheet.margin, spriteSheet.originX, spriteSheet.originY, load);
     }
@@ -174,14 +173,8 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
         this.basedFilter = basedFilter;
         this.path = path;
         this.transColor = transColor;
-        if (filters.isEmpty()) {
-            filterImages = Collections.emptyMap();
-        } else {
-            filterImages = new HashMap<>();
-            for (Filter filter : filters) {
-                filterImages.put(filter, null);
-            }
-        }
+        this.filters = FilterRegistry.register(filters);
+        filterImages = new Image[FilterRegistry.getArrayLength(this.filters)];
         this.width = width;
         this.height = height;
         this.spriteWidth = spriteWidth;
@@ -240,7 +233,42 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
     @Override
     public final boolean load() {
         if (!loaded) {
+            JFREvents.AssetLoad event = new JFREvents.AssetLoad();
+            event.begin();
             loaded = true;
+            if (HeadlessRunner.isHeadless()) {
+                //Load only the Sprites' dimensions and pixels, without creating any textures
+                HeadlessRunner.ImagePixels image = null;
+                if (path == null) {
+                    basedOn.load();
+                } else {
+                    image = HeadlessRunner.loadPixels(path, transColor);
+                }
+                int i = 0;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        Sprite sprite = sprites[i];
+                        sprite.loaded = true;
+                        sprite.setDimensions(spriteWidth, spriteHeight);
+                        if (image != null) {
+                            sprite.pixels = image.getRegion(margin + x*(spriteWidth + spacing),
+                                    margin + y*(spriteHeight + spacing), spriteWidth, spriteHeight);
+                        } else {
+                            sprite.pixels = Sprite.getFilteredPixels(basedFilter, basedOn.sprites[i].pixels);
+                        }
+                        i++;
+                    }
+                }
+                numSpritesLoaded = sprites.length;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.assetType = "SpriteSheet";
+                    event.path = path;
+                    event.bytes = 0;
+                    event.commit();
+                }
+                return true;
+            }
             Image image;
             if (path != null) {
                 try {
@@ -250,7 +278,7 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
                 }
             } else {
                 basedOn.load();
-                image = basedFilter.getFilteredImage(basedOn.filterImages.get(null));
+                image = basedFilter.getFilteredImage(basedOn.defaultImage);
             }
             for (Sprite sprite : sprites) {
                 sprite.loaded = true;
@@ -258,17 +286,35 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
             numSpritesLoaded = sprites.length;
             loadFilter(null, image);
             defaultImage = image;
-            for (Map.Entry<Filter,Image> entry : filterImages.entrySet()) {
-                Filter filter = entry.getKey();
+            for (Filter filter : filters) {
                 Image filteredImage = filter.getFilteredImage(image);
                 loadFilter(filter, filteredImage);
-                entry.setValue(filteredImage);
+                filterImages[FilterRegistry.getID(filter)] = filteredImage;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.assetType = "SpriteSheet";
+                event.path = path;
+                event.bytes = getTextureBytes();
+                event.commit();
             }
             return true;
         }
         return false;
     }
     
+    //The number of bytes of texture memory that this SpriteSheet's images occupy
+    private long getTextureBytes() {
+        if (defaultImage == null) {
+            return 0;
+        }
+        long bytes = JFREvents.getTextureBytes(defaultImage);
+        for (Filter filter : filters) {
+            bytes += JFREvents.getTextureBytes(filterImages[FilterRegistry.getID(filter)]);
+        }
+        return bytes;
+    }
+    
     private void loadFilter(Filter filter, Image image) {
         org.cell2d.celick.SpriteSheet spriteSheet = new org.cell2d.celick.SpriteSheet(
                 image, spriteWidth, spriteHeight, spacing, margin);
@@ -289,6 +335,9 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
     @Override
     public final boolean unload() {
         if (loaded) {
+            JFREvents.AssetUnload event = new JFREvents.AssetUnload();
+            event.begin();
+            long bytes = (event.isEnabled() ? getTextureBytes() : 0);
             loaded = false;
             destroyAndClear();
             for (Sprite sprite : sprites) {
@@ -296,6 +345,13 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
                 sprite.clear();
             }
             numSpritesLoaded = 0;
+            event.end();
+            if (event.shouldCommit()) {
+                event.assetType = "SpriteSheet";
+                event.path = path;
+                event.bytes = bytes;
+                event.commit();
+            }
             return true;
         }
         return false;
@@ -312,13 +368,21 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
         }
     }
     
+    final void releaseImages() {
+        destroyAndClear();
+    }
+    
     private void destroyAndClear() {
         try {
-            defaultImage.destroy();
-            defaultImage = null;
-            for (Map.Entry<Filter,Image> entry : filterImages.entrySet()) {
-                entry.getValue().destroy();
-                entry.setValue(null);
+            if (defaultImage != null) {
+                defaultImage.destroy();
+                defaultImage = null;
+            }
+            for (int i = 0; i < filterImages.length; i++) {
+                if (filterImages[i] != null) {
+                    filterImages[i].destroy();
+                    filterImages[i] = null;
+                }
             }
         } catch (SlickException e) {
             throw new RuntimeException(e);
@@ -332,7 +396,7 @@ public class SpriteSheet implements Iterable<Sprite>, Loadable {
      * Sprites when applied to them with draw()
      */
     public final Set<Filter> getFilters() {
-        return Collections.unmodifiableSet(filterImages.keySet());
+        return filters;
     }
     
     /**
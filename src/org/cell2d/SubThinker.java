@@ -1,6 +1,8 @@
 package org.cell2d;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * <p>A SubThinker is a type of Thinker that contributes to the mechanics of
@@ -44,6 +46,10 @@ public abstract class SubThinker<T extends CellGame,
     private T game = null;
     private U state = null;
     private int framePriority = 0;
+    private boolean parallelSafe = false;
+    private boolean takingParallelFrameActions = false;
+    private boolean tookParallelFrameActions = false;
+    private final List<Event<T,U>> deferredEvents = new ArrayList<>();
     
     /**
      * Constructs a SubThinker.
@@ -175,4 +181,84 @@ public abstract class SubThinker<T extends CellGame,
         }
     }
     
+    /**
+     * Returns whether this SubThinker is parallel-safe.
+     * @return Whether this SubThinker is parallel-safe
+     */
+    public final boolean isParallelSafe() {
+        return parallelSafe;
+    }
+    
+    /**
+     * Sets whether this SubThinker is parallel-safe. A parallel-safe
+     * SubThinker's frameActions() must only read the state of the game, and
+     * must use defer() to make any changes to it, including changes to this
+     * SubThinker's own timers and SubThinkers. Reading includes the getters of
+     * GameStates, SubThinkers, and SpaceObjects, and the spatial queries of
+     * SpaceStates, which may all be used from several threads at once; any
+     * method that adds, removes, moves, or otherwise changes something must
+     * be deferred.
+     * @param parallelSafe Whether this SubThinker should be parallel-safe
+     */
+    public final void setParallelSafe(boolean parallelSafe) {
+        if (this.parallelSafe != parallelSafe) {
+            this.parallelSafe = parallelSafe;
+            if (superThinker != null) {
+                superThinker.changeNumParallelSafeSubThinkers(parallelSafe ? 1 : -1);
+            }
+        }
+    }
+    
+    /**
+     * Defers the performance of the specified Event. If this SubThinker is
+     * currently taking its frameActions() concurrently with other parallel-safe
+     * SubThinkers, the Event will be performed at the point in its
+     * super-Thinker's frame Events where this SubThinker would otherwise have
+     * taken its frameActions(). Otherwise, the Event will be performed
+     * immediately.
+     * @param event The Event to defer
+     */
+    public final void defer(Event<T,U> event) {
+        if (takingParallelFrameActions) {
+            deferredEvents.add(event);
+        } else {
+            event.actions(game, state);
+        }
+    }
+    
+    final void takeFrameActionsInParallel(T game, U state) {
+        takingParallelFrameActions = true;
+        boolean finished = false;
+        try {
+            frameActions(game, state);
+            finished = true;
+        } finally {
+            takingParallelFrameActions = false;
+            if (finished) {
+                tookParallelFrameActions = true;
+            } else {
+                //Don't leave half of an interrupted frame's changes to be performed later
+                deferredEvents.clear();
+            }
+        }
+    }
+    
+    @Override
+    final boolean performDeferredEvents(T game, U state) {
+        if (!tookParallelFrameActions) {
+            return false;
+        }
+        tookParallelFrameActions = false;
+        for (int i = 0; i < deferredEvents.size(); i++) {
+            deferredEvents.get(i).actions(game, state);
+        }
+        deferredEvents.clear();
+        return true;
+    }
+    
+    final void discardDeferredEvents() {
+        tookParallelFrameActions = false;
+        deferredEvents.clear();
+    }
+    
 }
@@ -0,0 +1,550 @@
+package org.cell2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.cell2d.celick.Image;
+import org.cell2d.celick.ImageBuffer;
+import org.cell2d.celick.SlickException;
+import org.cell2d.celick.opengl.Texture;
+
+/**
+ * <p>A TextureAtlas packs the images of a set of Sprites and SpriteSheets into
+ * a few large textures, called <i>pages</i>, so that drawing those Sprites
+ * rarely requires switching from one texture to another, and consecutive
+ * draws of them can be batched together. Sprites and SpriteSheets are added to
+ * a TextureAtlas while it is not loaded. Loading the TextureAtlas loads all of
+ * them, copies each of their images, including the images of each Sprite with
+ * each of its Filters applied, into a rectangular region of a page, makes the
+ * Sprites draw those regions, and releases the textures that the
+ * SpriteSheets and Filters created for them. Unloading the TextureAtlas unloads all of them and releases its
+ * pages.</p>
+ * 
+ * <p>A TextureAtlas packs its regions using the skyline bottom-left
+ * algorithm, largest regions first, and leaves a number of transparent pixels
+ * of padding between them so that no region's pixels bleed into another's.
+ * Each page has the same dimensions, except that an image too large to fit in
+ * a page is given a page of its own. A TextureAtlas can report how much of
+ * each of its pages its regions fill.</p>
+ * 
+ * <p>If a Sprite in a loaded TextureAtlas, or a SpriteSheet that contains it,
+ * is unloaded individually, it will load its own texture the next time it is
+ * loaded. In headless mode, loading a TextureAtlas simply loads its Sprites
+ * and SpriteSheets, and it has no pages.</p>
+ * @see Sprite
+ * @see SpriteSheet
+ * @author Alex Heyman
+ */
+public class TextureAtlas implements Loadable {
+    
+    //One image of one Sprite with one Filter (or none), and where it is packed
+    private static class Region {
+        
+        private final Sprite sprite;
+        private final Filter filter;
+        private final Image image;
+        private final int width, height;
+        private Page page = null;
+        private int x = 0;
+        private int y = 0;
+        
+        private Region(Sprite sprite, Filter filter, Image image) {
+            this.sprite = sprite;
+            this.filter = filter;
+            this.image = image;
+            width = image.getWidth();
+            height = image.getHeight();
+        }
+        
+    }
+    
+    private static class Page {
+        
+        private final int width, height;
+        //The skyline: the nodes' x-coordinates, the y-coordinates of their tops, and their widths
+        private int[] nodeX = new int[16];
+        private int[] nodeY = new int[16];
+        private int[] nodeWidth = new int[16];
+        private int numNodes = 1;
+        private final List<Region> regions = new ArrayList<>();
+        private long usedArea = 0;
+        private Image image = null;
+        
+        private Page(int width, int height) {
+            this.width = width;
+            this.height = height;
+            nodeWidth[0] = width;
+        }
+        
+        //Returns the y-coordinate at which a rectangle of the specified width fits at the specified node, or
+        //-1 if it does not fit there
+        private int fit(int node, int rectWidth, int rectHeight) {
+            if (nodeX[node] + rectWidth > width) {
+                return -1;
+            }
+            int y = 0;
+            int widthLeft = rectWidth;
+            for (int i = node; widthLeft > 0; i++) {
+                y = Math.max(y, nodeY[i]);
+                if (y + rectHeight > height) {
+                    return -1;
+                }
+                widthLeft -= nodeWidth[i];
+            }
+            return y;
+        }
+        
+        //Places the specified region as low and then as far left as possible and returns true, or returns
+        //false if it does not fit
+        private boolean place(Region region, int rectWidth, int rectHeight) {
+            int bestNode = -1;
+            int bestY = Integer.MAX_VALUE;
+            for (int i = 0; i < numNodes; i++) {
+                int y = fit(i, rectWidth, rectHeight);
+                if (y >= 0 && y < bestY) {
+                    bestNode = i;
+                    bestY = y;
+                }
+            }
+            if (bestNode < 0) {
+                return false;
+            }
+            int x = nodeX[bestNode];
+            addNode(bestNode, x, bestY + rectHeight, rectWidth);
+            region.page = this;
+            region.x = x;
+            region.y = bestY;
+            regions.add(region);
+            usedArea += (long)region.width*region.height;
+            return true;
+        }
+        
+        private void addNode(int index, int x, int y, int nodeWidthToAdd) {
+            if (numNodes == nodeX.length) {
+                nodeX = Arrays.copyOf(nodeX, 2*numNodes);
+                nodeY = Arrays.copyOf(nodeY, 2*numNodes);
+                nodeWidth = Arrays.copyOf(nodeWidth, 2*numNodes);
+            }
+            System.arraycopy(nodeX, index, nodeX, index + 1, numNodes - index);
+            System.arraycopy(nodeY, index, nodeY, index + 1, numNodes - index);
+            System.arraycopy(nodeWidth, index, nodeWidth, index + 1, numNodes - index);
+            nodeX[index] = x;
+            nodeY[index] = y;
+            nodeWidth[index] = nodeWidthToAdd;
+            numNodes++;
+            //Shrink or remove the nodes that the new node now covers
+            int i = index + 1;
+            while (i < numNodes) {
+                int overlap = nodeX[i - 1] + nodeWidth[i - 1] - nodeX[i];
+                if (overlap <= 0) {
+                    break;
+                }
+                if (overlap < nodeWidth[i]) {
+                    nodeX[i] += overlap;
+                    nodeWidth[i] -= overlap;
+                    break;
+                }
+                removeNode(i);
+            }
+            //Merge adjacent nodes of the same height
+            for (i = 0; i < numNodes - 1;) {
+                if (nodeY[i] == nodeY[i + 1]) {
+                    nodeWidth[i] += nodeWidth[i + 1];
+                    removeNode(i + 1);
+                } else {
+                    i++;
+                }
+            }
+        }
+        
+        private void removeNode(int index) {
+            numNodes--;
+            System.arraycopy(nodeX, index + 1, nodeX, index, numNodes - index);
+            System.arraycopy(nodeY, index + 1, nodeY, index, numNodes - index);
+            System.arraycopy(nodeWidth, index + 1, nodeWidth, index, numNodes - index);
+        }
+        
+    }
+    
+    private final int pageWidth, pageHeight;
+    private final int padding;
+    private boolean loaded = false;
+    private final Set<Sprite> sprites = new LinkedHashSet<>();
+    private final Set<SpriteSheet> spriteSheets = new LinkedHashSet<>();
+    private final List<Page> pages = new ArrayList<>();
+    
+    /**
+     * Constructs a TextureAtlas with pages 2048 pixels wide and tall and 1
+     * pixel of padding between regions.
+     */
+    public TextureAtlas() {
+        this(2048, 2048, 1);
+    }
+    
+    /**
+     * Constructs a TextureAtlas with the specified page dimensions and
+     * padding. Since textures' dimensions are powers of 2, page dimensions
+     * that are not powers of 2 will waste texture memory.
+     * @param pageWidth The width in pixels of this TextureAtlas' pages
+     * @param pageHeight The height in pixels of this TextureAtlas' pages
+     * @param padding The number of transparent pixels to leave between regions
+     */
+    public TextureAtlas(int pageWidth, int pageHeight, int padding) {
+        if (pageWidth <= 0) {
+            throw new RuntimeException("Attempted to construct a TextureAtlas with non-positive page width "
+                    + pageWidth);
+        }
+        if (pageHeight <= 0) {
+            throw new RuntimeException("Attempted to construct a TextureAtlas with non-positive page height "
+                    + pageHeight);
+        }
+        if (padding < 0) {
+            throw new RuntimeException("Attempted to construct a TextureAtlas with negative padding "
+                    + padding);
+        }
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.padding = padding;
+    }
+    
+    /**
+     * Returns the width in pixels of this TextureAtlas' pages.
+     * @return The width of this TextureAtlas' pages
+     */
+    public final int getPageWidth() {
+        return pageWidth;
+    }
+    
+    /**
+     * Returns the height in pixels of this TextureAtlas' pages.
+     * @return The height of this TextureAtlas' pages
+     */
+    public final int getPageHeight() {
+        return pageHeight;
+    }
+    
+    /**
+     * Returns the number of transparent pixels that this TextureAtlas leaves
+     * between regions.
+     * @return This TextureAtlas' padding
+     */
+    public final int getPadding() {
+        return padding;
+    }
+    
+    /**
+     * Returns an unmodifiable Set view of the Sprites that have been added to
+     * this TextureAtlas, not counting those that are part of SpriteSheets.
+     * @return The Sprites that have been added to this TextureAtlas
+     */
+    public final Set<Sprite> getSprites() {
+        return Collections.unmodifiableSet(sprites);
+    }
+    
+    /**
+     * Returns an unmodifiable Set view of the SpriteSheets that have been
+     * added to this TextureAtlas.
+     * @return The SpriteSheets that have been added to this TextureAtlas
+     */
+    public final Set<SpriteSheet> getSpriteSheets() {
+        return Collections.unmodifiableSet(spriteSheets);
+    }
+    
+    /**
+     * Adds the specified Sprite to this TextureAtlas. This TextureAtlas must
+     * not be loaded. The Sprite must not be blank or part of a SpriteSheet;
+     * Sprites that are part of a SpriteSheet are added with their SpriteSheet.
+     * @param sprite The Sprite to be added
+     * @return Whether the Sprite was not already in this TextureAtlas
+     */
+    public final boolean addSprite(Sprite sprite) {
+        if (loaded) {
+            throw new RuntimeException("Attempted to add a Sprite to a TextureAtlas while it was loaded");
+        }
+        if (sprite == Sprite.BLANK) {
+            throw new RuntimeException("Attempted to add the blank Sprite to a TextureAtlas");
+        }
+        if (sprite.getSpriteSheet() != null) {
+            throw new RuntimeException("Attempted to add a Sprite that is part of a SpriteSheet to a"
+                    + " TextureAtlas on its own");
+        }
+        return sprites.add(sprite);
+    }
+    
+    /**
+     * Adds the specified SpriteSheet, and thus all of its Sprites, to this
+     * TextureAtlas. This TextureAtlas must not be loaded.
+     * @param spriteSheet The SpriteSheet to be added
+     * @return Whether the SpriteSheet was not already in this TextureAtlas
+     */
+    public final boolean addSpriteSheet(SpriteSheet spriteSheet) {
+        if (loaded) {
+            throw new RuntimeException("Attempted to add a SpriteSheet to a TextureAtlas while it was loaded");
+        }
+        return spriteSheets.add(spriteSheet);
+    }
+    
+    /**
+     * Removes the specified Sprite from this TextureAtlas. This TextureAtlas
+     * must not be loaded.
+     * @param sprite The Sprite to be removed
+     * @return Whether the Sprite was in this TextureAtlas
+     */
+    public final boolean removeSprite(Sprite sprite) {
+        if (loaded) {
+            throw new RuntimeException("Attempted to remove a Sprite from a TextureAtlas while it was loaded");
+        }
+        return sprites.remove(sprite);
+    }
+    
+    /**
+     * Removes the specified SpriteSheet from this TextureAtlas. This
+     * TextureAtlas must not be loaded.
+     * @param spriteSheet The SpriteSheet to be removed
+     * @return Whether the SpriteSheet was in this TextureAtlas
+     */
+    public final boolean removeSpriteSheet(SpriteSheet spriteSheet) {
+        if (loaded) {
+            throw new RuntimeException("Attempted to remove a SpriteSheet from a TextureAtlas while it was"
+                    + " loaded");
+        }
+        return spriteSheets.remove(spriteSheet);
+    }
+    
+    @Override
+    public final boolean isLoaded() {
+        return loaded;
+    }
+    
+    private void addRegions(List<Region> regions, Sprite sprite) {
+        if (sprite.atlas != null) {
+            throw new RuntimeException("Attempted to load a TextureAtlas with a Sprite that is already in"
+                    + " another loaded TextureAtlas");
+        }
+        regions.add(new Region(sprite, null, sprite.getImage(null)));
+        for (Filter filter : sprite.getFilters()) {
+            regions.add(new Region(sprite, filter, sprite.getImage(filter)));
+        }
+    }
+    
+    /**
+     * Loads this TextureAtlas, along with all of its Sprites and SpriteSheets,
+     * if it is not already loaded, and packs their images into its pages.
+     * @return Whether the loading occurred
+     */
+    @Override
+    public final boolean load() {
+        if (loaded) {
+            return false;
+        }
+        loaded = true;
+        for (Sprite sprite : sprites) {
+            sprite.load();
+        }
+        for (SpriteSheet spriteSheet : spriteSheets) {
+            spriteSheet.load();
+        }
+        if (HeadlessRunner.isHeadless()) {
+            return true;
+        }
+        List<Region> regions = new ArrayList<>();
+        for (Sprite sprite : sprites) {
+            addRegions(regions, sprite);
+        }
+        for (SpriteSheet spriteSheet : spriteSheets) {
+            for (Sprite sprite : spriteSheet) {
+                addRegions(regions, sprite);
+            }
+        }
+        pack(regions);
+        //Read each source texture's pixels only once, however many regions it contains
+        Map<Texture,byte[]> textureData = new IdentityHashMap<>();
+        for (Page page : pages) {
+            ImageBuffer buffer = new ImageBuffer(page.width, page.height);
+            for (Region region : page.regions) {
+                Texture texture = region.image.getTexture();
+                byte[] data = textureData.get(texture);
+                if (data == null) {
+                    data = texture.getTextureData();
+                    textureData.put(texture, data);
+                }
+                copyRegion(region, data, buffer);
+            }
+            page.image = buffer.getImage(Image.FILTER_NEAREST);
+        }
+        //Release the Sprites' own textures only once all of them have been read
+        List<Image> oldImages = new ArrayList<>();
+        for (Page page : pages) {
+            for (Region region : page.regions) {
+                //Sprites do not release the images they load from paths themselves either
+                if ((region.filter != null || region.sprite.ownsImage())
+                        && region.sprite.getSpriteSheet() == null) {
+                    oldImages.add(region.image);
+                }
+                region.sprite.loadFilter(region.filter,
+                        page.image.getSubImage(region.x, region.y, region.width, region.height));
+                region.sprite.atlas = this;
+            }
+        }
+        try {
+            for (Image image : oldImages) {
+                image.destroy();
+            }
+        } catch (SlickException e) {
+            throw new RuntimeException(e);
+        }
+        for (SpriteSheet spriteSheet : spriteSheets) {
+            spriteSheet.releaseImages();
+        }
+        return true;
+    }
+    
+    private void pack(List<Region> regions) {
+        //Packing the tallest regions first leaves the fewest gaps under the skyline
+        regions.sort((region1, region2) -> {
+            if (region1.height != region2.height) {
+                return region2.height - region1.height;
+            }
+            return region2.width - region1.width;
+        });
+        for (Region region : regions) {
+            //The padding after a region may extend past the edge of its page
+            int rectWidth = region.width + padding;
+            int rectHeight = region.height + padding;
+            if (region.width > pageWidth || region.height > pageHeight) {
+                Page page = new Page(region.width + padding, region.height + padding);
+                page.place(region, rectWidth, rectHeight);
+                pages.add(page);
+                continue;
+            }
+            boolean placed = false;
+            for (Page page : pages) {
+                if (page.width == pageWidth + padding && page.place(region, rectWidth, rectHeight)) {
+                    placed = true;
+                    break;
+                }
+            }
+            if (!placed) {
+                Page page = new Page(pageWidth + padding, pageHeight + padding);
+                page.place(region, rectWidth, rectHeight);
+                pages.add(page);
+            }
+        }
+    }
+    
+    private static void copyRegion(Region region, byte[] data, ImageBuffer buffer) {
+        Image image = region.image;
+        Texture texture = image.getTexture();
+        int texWidth = texture.getTextureWidth();
+        int texHeight = texture.getTextureHeight();
+        int bytesPerPixel = (texture.hasAlpha() ? 4 : 3);
+        float offsetX = image.getTextureOffsetX();
+        float offsetY = image.getTextureOffsetY();
+        float scaleX = image.getTextureWidth()/region.width;
+        float scaleY = image.getTextureHeight()/region.height;
+        for (int y = 0; y < region.height; y++) {
+            //Sample each texel at its center, which works whether or not the image is flipped
+            int texY = (int)Math.floor((offsetY + (y + 0.5f)*scaleY)*texHeight);
+            texY = Math.max(0, Math.min(texY, texHeight - 1));
+            for (int x = 0; x < region.width; x++) {
+                int texX = (int)Math.floor((offsetX + (x + 0.5f)*scaleX)*texWidth);
+                texX = Math.max(0, Math.min(texX, texWidth - 1));
+                int i = (texX + texY*texWidth)*bytesPerPixel;
+                int a = (bytesPerPixel == 4 ? data[i + 3] & 0xFF : 255);
+                buffer.setRGBA(region.x + x, region.y + y,
+                        data[i] & 0xFF, data[i + 1] & 0xFF, data[i + 2] & 0xFF, a);
+            }
+        }
+    }
+    
+    /**
+     * Unloads this TextureAtlas, along with all of its Sprites and
+     * SpriteSheets, if it is currently loaded, and releases its pages.
+     * @return Whether the unloading occurred
+     */
+    @Override
+    public final boolean unload() {
+        if (!loaded) {
+            return false;
+        }
+        loaded = false;
+        for (Sprite sprite : sprites) {
+            sprite.unload();
+        }
+        for (SpriteSheet spriteSheet : spriteSheets) {
+            spriteSheet.unload();
+        }
+        try {
+            for (Page page : pages) {
+                if (page.image != null) {
+                    page.image.destroy();
+                }
+            }
+        } catch (SlickException e) {
+            throw new RuntimeException(e);
+        }
+        pages.clear();
+        return true;
+    }
+    
+    /**
+     * Returns the number of pages that this TextureAtlas has. If this
+     * TextureAtlas is not loaded, this will be 0.
+     * @return The number of pages that this TextureAtlas has
+     */
+    public final int getNumPages() {
+        return pages.size();
+    }
+    
+    private Page getPage(int index) {
+        if (index < 0 || index >= pages.size()) {
+            throw new IndexOutOfBoundsException("Attempted to get a TextureAtlas' page at invalid index "
+                    + index);
+        }
+        return pages.get(index);
+    }
+    
+    /**
+     * Returns the number of regions that are packed into the page of this
+     * TextureAtlas at the specified index.
+     * @param index The index of the page
+     * @return The number of regions in the page
+     */
+    public final int getNumRegions(int index) {
+        return getPage(index).regions.size();
+    }
+    
+    /**
+     * Returns the fraction of the area of the page of this TextureAtlas at the
+     * specified index that its regions fill, not counting padding.
+     * @param index The index of the page
+     * @return The page's fill ratio, from 0 to 1
+     */
+    public final double getFillRatio(int index) {
+        Page page = getPage(index);
+        return (double)page.usedArea/((long)(page.width - padding)*(page.height - padding));
+    }
+    
+    /**
+     * Returns a human-readable report of this TextureAtlas' pages, with one
+     * line per page stating its dimensions, its number of regions, and its
+     * fill ratio.
+     * @return A report of this TextureAtlas' pages
+     */
+    public final String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            report.append(String.format("Page %d: %dx%d, %d regions, %.1f%% full%n",
+                    i, page.width - padding, page.height - padding, page.regions.size(),
+                    100*getFillRatio(i)));
+        }
+        return report.toString();
+    }
+    
+}
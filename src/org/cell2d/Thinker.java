@@ -1,15 +1,14 @@
 package org.cell2d;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>A Thinker is a collection of methods that contributes to the mechanics of
@@ -36,8 +35,9 @@ import java.util.Set;
  * indicating that either the Event was performed, or the value was deliberately
  * set to 0, this time unit. Each time unit, a Thinker decreases its
  * non-negative timers' values by 1 and performs the Events whose timers have
- * reached 0. Each frame, each Thinker experiences all of its time units
- * immediately before its assigned SubThinkers experience any of theirs.</p>
+ * reached 0, in the order in which those timers' values were last set. Each
+ * frame, each Thinker experiences all of its time units immediately before its
+ * assigned SubThinkers experience any of theirs.</p>
  * 
  * <p>A Thinker has frameActions() that it takes exactly once each frame, after
  * all Thinkers have experienced all of their time units for that frame. It also
@@ -54,6 +54,17 @@ import java.util.Set;
  * completed. Multiple delayed instructions may be successfully given to
  * Thinkers regarding the same SubThinker without having to wait until all
  * iterations have finished.</p>
+ * 
+ * <p>SubThinkers may be marked as <i>parallel-safe</i>. Immediately before a
+ * Thinker performs its frame Events, all of its assigned parallel-safe
+ * SubThinkers take their frameActions() concurrently on multiple threads. While
+ * doing so, they may only read the state of the game, such as by calling
+ * getters and SpaceStates' spatial queries, and must defer any changes they
+ * make to it with their defer() methods. Then, when each of those
+ * SubThinkers' turn to take its frameActions() comes in the Thinker's frame
+ * Events, it instead performs the Events that it deferred, in the order in
+ * which it deferred them. The changes are thus applied in the same order
+ * regardless of how the concurrent frameActions() were scheduled.</p>
  * @param <T> The type of CellGame that uses this Thinker's GameStates
  * @param <U> The type of GameState that uses this Thinker
  * @param <V> The type of SubThinker that can be assigned to this Thinker
@@ -61,21 +72,31 @@ import java.util.Set;
  */
 public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V extends SubThinker<T,U,V>> {
     
+    //The number of Thinkers whose parallel-safe SubThinkers are taking their frameActions() on several threads
+    private static final AtomicInteger numParallelPhases = new AtomicInteger();
+    
     private final Class<T> gameClass;
     private final Class<U> stateClass;
     private final Class<V> subThinkerClass;
     private long timeFactor = -1;
     private long timeToRun = 0;
-    private final Map<Event<T,U>,Integer> timers = new HashMap<>();
+    private TimerWheel<T,U> timers = null;
     private final EventGroup<T,U> frameEvents = new EventGroup<>();
     private final Set<V> subThinkers = new HashSet<>();
     private int subThinkerIterators = 0;
     private final Queue<SubThinkerChange<T,U,V>> subThinkerChanges = new LinkedList<>();
     private boolean updatingSubThinkers = false;
+    private int numParallelSafeSubThinkers = 0;
+    private List<V> parallelSafeSubThinkers = null;
     
     final Event<T,U> frame = (game, state) -> {
-        frameActions(game, state);
+        if (!performDeferredEvents(game, state)) {
+            frameActions(game, state);
+        }
         if (frameEvents.size() > 0) {
+            if (numParallelSafeSubThinkers > 0) {
+                takeParallelFrameActions(game, state);
+            }
             frameEvents.perform(state);
         }
     };
@@ -170,7 +191,7 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
      * @return The current value of the timer for the specified Event
      */
     public final int getTimerValue(Event<T,U> event) {
-        return timers.getOrDefault(event, -1);
+        return (timers == null ? -1 : timers.getValue(event));
     }
     
     /**
@@ -180,11 +201,13 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
      * @param value The new value of the specified Event's timer
      */
     public final void setTimerValue(Event<T,U> event, int value) {
-        if (value < 0) {
-            timers.remove(event);
-        } else {
-            timers.put(event, value);
+        if (timers == null) {
+            if (value < 0) {
+                return;
+            }
+            timers = new TimerWheel<>();
         }
+        timers.setValue(event, value);
     }
     
     final void update(T game, U state, long time) {
@@ -193,24 +216,8 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
         }
         timeToRun += time;
         while (timeToRun >= Frac.UNIT) {
-            if (!timers.isEmpty()) {
-                List<Event<T,U>> eventsToPerform = new ArrayList<>();
-                Iterator<Map.Entry<Event<T,U>,Integer>> iterator = timers.entrySet().iterator();
-                while (iterator.hasNext()) {
-                    Map.Entry<Event<T,U>,Integer> entry = iterator.next();
-                    int value = entry.getValue();
-                    if (value == 0) {
-                        iterator.remove();
-                    } else {
-                        if (value == 1) {
-                            eventsToPerform.add(entry.getKey());
-                        }
-                        entry.setValue(value - 1);
-                    }
-                }
-                for (Event<T,U> event : eventsToPerform) {
-                    event.actions(game, state);
-                }
+            if (timers != null && !timers.isEmpty()) {
+                timers.advance(game, state);
             }
             timeToRun -= Frac.UNIT;
         }
@@ -229,6 +236,54 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
      */
     public void frameActions(T game, U state) {}
     
+    boolean performDeferredEvents(T game, U state) {
+        return false;
+    }
+    
+    final void changeNumParallelSafeSubThinkers(int change) {
+        numParallelSafeSubThinkers += change;
+    }
+    
+    private void takeParallelFrameActions(T game, U state) {
+        if (parallelSafeSubThinkers == null) {
+            parallelSafeSubThinkers = new ArrayList<>();
+        }
+        Iterator<V> iterator = subThinkerIterator();
+        while (iterator.hasNext()) {
+            V subThinker = iterator.next();
+            if (subThinker.isParallelSafe()) {
+                parallelSafeSubThinkers.add(subThinker);
+            }
+        }
+        try {
+            if (parallelSafeSubThinkers.size() == 1) {
+                parallelSafeSubThinkers.get(0).takeFrameActionsInParallel(game, state);
+            } else {
+                numParallelPhases.incrementAndGet();
+                try {
+                    parallelSafeSubThinkers.parallelStream().forEach(
+                            subThinker -> subThinker.takeFrameActionsInParallel(game, state));
+                } finally {
+                    numParallelPhases.decrementAndGet();
+                }
+            }
+        } finally {
+            parallelSafeSubThinkers.clear();
+        }
+    }
+    
+    /**
+     * Returns whether the parallel-safe SubThinkers of any Thinker are
+     * currently taking their frameActions() concurrently on several threads.
+     * While this is the case, code that reads the state of the game must not
+     * change any shared data in the process, even temporarily.
+     * @return Whether any parallel-safe SubThinkers are taking their
+     * frameActions() concurrently
+     */
+    protected static boolean parallelFrameActionsRunning() {
+        return numParallelPhases.get() > 0;
+    }
+    
     /**
      * Returns the EventGroup of this Thinker's frame Events.
      * @return The EventGroup of this Thinker's frame Events
@@ -478,6 +533,9 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
     private void add(T game, U state, V subThinker) {
         subThinkers.add(subThinker);
         subThinker.superThinker = this;
+        if (subThinker.isParallelSafe()) {
+            numParallelSafeSubThinkers++;
+        }
         subThinker.setGameAndState(game, state);
         frameEvents.add(subThinker.frame, subThinker.getFramePriority());
         addSubThinkerActions(game, state, subThinker);
@@ -500,6 +558,10 @@ public abstract class Thinker<T extends CellGame, U extends GameState<T,U,V>, V
         frameEvents.remove(subThinker.frame, subThinker.getFramePriority());
         subThinkers.remove(subThinker);
         subThinker.superThinker = null;
+        if (subThinker.isParallelSafe()) {
+            numParallelSafeSubThinkers--;
+        }
+        subThinker.discardDeferredEvents();
         subThinker.setGameAndState(null, null);
     }
     
@@ -0,0 +1,213 @@
+package org.cell2d;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A TimerWheel is a hierarchical timing wheel that stores a Thinker's timers.
+ * Rather than decreasing every timer's value each time unit, a TimerWheel
+ * stores each timer by the time unit at which its value will reach 0, so
+ * advancing time by one time unit only requires work proportional to the number
+ * of timers that reach 0 then. Timers that are far from reaching 0 are stored
+ * on coarser levels of the wheel and moved to finer ones as they approach it.
+ * </p>
+ * 
+ * <p>Timers whose values reach 0 during the same time unit have their Events
+ * performed in the order in which those timers' values were last set.</p>
+ * @param <T> The type of CellGame that uses the GameStates that can involve
+ * this TimerWheel's Events
+ * @param <U> The type of GameState that can involve this TimerWheel's Events
+ * @author Alex Heyman
+ */
+final class TimerWheel<T extends CellGame, U extends GameState<T,U,?>> {
+    
+    private static final int SLOT_BITS = 6;
+    private static final int NUM_SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = NUM_SLOTS - 1;
+    //Enough levels for the largest possible int timer value to fit on the wheel
+    private static final int NUM_LEVELS = (31 + SLOT_BITS - 1)/SLOT_BITS;
+    
+    private static class Timer<T extends CellGame, U extends GameState<T,U,?>> {
+        
+        private final Event<T,U> event;
+        private long expiration;
+        private long sequence;
+        //-1 if this Timer is in the expired list
+        private int level = -1;
+        private int slot = 0;
+        private Timer<T,U> prev = null;
+        private Timer<T,U> next = null;
+        
+        private Timer(Event<T,U> event) {
+            this.event = event;
+        }
+        
+    }
+    
+    private final Map<Event<T,U>,Timer<T,U>> timers = new HashMap<>();
+    //slots[level][slot] is the first Timer in a doubly linked list
+    private final Timer<T,U>[][] slots = asGeneric(new Timer<?,?>[NUM_LEVELS][]);
+    //Timers whose values are 0 this time unit and will stop running next time unit
+    private Timer<T,U> expired = null;
+    private long time = 0;
+    private long nextSequence = 0;
+    private final List<Timer<T,U>> timersToPerform = new ArrayList<>();
+    
+    TimerWheel() {}
+    
+    //Arrays of a generic type cannot be created directly, so this is the one place where they are cast to it
+    @SuppressWarnings("unchecked")
+    private static <A> A asGeneric(Object[] array) {
+        return (A)array;
+    }
+    
+    final boolean isEmpty() {
+        return timers.isEmpty();
+    }
+    
+    final int getValue(Event<T,U> event) {
+        Timer<T,U> timer = timers.get(event);
+        return (timer == null ? -1 : (int)(timer.expiration - time));
+    }
+    
+    final void setValue(Event<T,U> event, int value) {
+        if (value < 0) {
+            Timer<T,U> timer = timers.remove(event);
+            if (timer != null) {
+                unlink(timer);
+            }
+            return;
+        }
+        Timer<T,U> timer = timers.get(event);
+        if (timer == null) {
+            timer = new Timer<>(event);
+            timers.put(event, timer);
+        } else {
+            unlink(timer);
+        }
+        timer.expiration = time + value;
+        timer.sequence = nextSequence++;
+        if (value == 0) {
+            addExpired(timer);
+        } else {
+            schedule(timer);
+        }
+    }
+    
+    private void unlink(Timer<T,U> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else if (timer.level < 0) {
+            expired = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+    }
+    
+    private void addExpired(Timer<T,U> timer) {
+        timer.level = -1;
+        timer.next = expired;
+        if (expired != null) {
+            expired.prev = timer;
+        }
+        expired = timer;
+    }
+    
+    //The finest level on which the specified expiration time is within one rotation of the current time
+    private int getLevel(long expiration) {
+        int level = 0;
+        while (level < NUM_LEVELS - 1
+                && (expiration >> (level*SLOT_BITS)) - (time >> (level*SLOT_BITS)) >= NUM_SLOTS) {
+            level++;
+        }
+        return level;
+    }
+    
+    private void schedule(Timer<T,U> timer) {
+        int level = getLevel(timer.expiration);
+        Timer<T,U>[] levelSlots = slots[level];
+        if (levelSlots == null) {
+            levelSlots = asGeneric(new Timer<?,?>[NUM_SLOTS]);
+            slots[level] = levelSlots;
+        }
+        int slot = (int)(timer.expiration >> (level*SLOT_BITS)) & SLOT_MASK;
+        timer.next = levelSlots[slot];
+        if (levelSlots[slot] != null) {
+            levelSlots[slot].prev = timer;
+        }
+        levelSlots[slot] = timer;
+        timer.level = level;
+        timer.slot = slot;
+    }
+    
+    /**
+     * Advances this TimerWheel's time by one time unit, stops the timers whose
+     * values were 0, and performs the Events whose timers' values have reached
+     * 0.
+     * @param game The CellGame of the GameState in which to perform the Events
+     * @param state The GameState in which to perform the Events
+     */
+    final void advance(T game, U state) {
+        time++;
+        while (expired != null) {
+            Timer<T,U> timer = expired;
+            expired = timer.next;
+            timer.next = null;
+            if (expired != null) {
+                expired.prev = null;
+            }
+            timers.remove(timer.event);
+        }
+        if (timers.isEmpty()) {
+            return;
+        }
+        //Move the Timers in each coarser slot that has just been reached to finer levels
+        for (int level = NUM_LEVELS - 1; level > 0; level--) {
+            if ((time & ((1L << (level*SLOT_BITS)) - 1)) == 0 && slots[level] != null) {
+                int slot = (int)(time >> (level*SLOT_BITS)) & SLOT_MASK;
+                Timer<T,U> timer = slots[level][slot];
+                slots[level][slot] = null;
+                while (timer != null) {
+                    Timer<T,U> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    schedule(timer);
+                    timer = next;
+                }
+            }
+        }
+        if (slots[0] == null) {
+            return;
+        }
+        int slot = (int)time & SLOT_MASK;
+        Timer<T,U> timer = slots[0][slot];
+        if (timer == null) {
+            return;
+        }
+        slots[0][slot] = null;
+        while (timer != null) {
+            Timer<T,U> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            addExpired(timer);
+            timersToPerform.add(timer);
+            timer = next;
+        }
+        if (timersToPerform.size() > 1) {
+            timersToPerform.sort((timer1, timer2) -> Long.compare(timer1.sequence, timer2.sequence));
+        }
+        //All of these Events are performed even if one of them stops another's timer
+        for (int i = 0; i < timersToPerform.size(); i++) {
+            timersToPerform.get(i).event.actions(game, state);
+        }
+        timersToPerform.clear();
+    }
+    
+}
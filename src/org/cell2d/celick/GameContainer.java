@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import org.cell2d.FramePacer;
 import org.cell2d.celick.opengl.CursorLoader;
 import org.cell2d.celick.opengl.ImageData;
 import org.cell2d.celick.opengl.ImageIOImageData;
@@ -100,6 +101,11 @@ public class GameContainer {
      */
     protected boolean supportsMultiSample;
     
+    /**
+     * The frame pacer that spaces out the frames, if any
+     */
+    private FramePacer framePacer = null;
+    
     /**
      * Create a new container wrapping a game
      *
@@ -227,6 +233,25 @@ public class GameContainer {
     public int getHeight() {
         return height;
     }
+    
+    /**
+     * Get the frame pacer that spaces out the frames
+     * 
+     * @return The frame pacer, or null if there is none
+     */
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
+    /**
+     * Set the frame pacer that spaces out the frames
+     * 
+     * @param framePacer The new frame pacer, or null if the frames should not
+     * be paced
+     */
+    public void setFramePacer(FramePacer framePacer) {
+        this.framePacer = framePacer;
+    }
 
     /**
      * Get the accurate system time
@@ -594,9 +619,13 @@ public class GameContainer {
     protected void gameLoop() {
         int msElapsed = getDelta();
         if (msElapsed == 0) {
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {}
+            if (framePacer != null) {
+                framePacer.pause(1000000);
+            } else {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {}
+            }
             return;
         }
         try {
@@ -608,6 +637,10 @@ public class GameContainer {
         }
         if (game.closeRequested() || Display.isCloseRequested()) {
             running = false;
+            return;
+        }
+        if (framePacer != null) {
+            framePacer.waitForNextFrame();
         }
     }
     
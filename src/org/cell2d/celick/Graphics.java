@@ -14,6 +14,7 @@ import org.cell2d.celick.opengl.TextureImpl;
 import org.cell2d.celick.opengl.renderer.LineStripRenderer;
 import org.cell2d.celick.opengl.renderer.Renderer;
 import org.cell2d.celick.opengl.renderer.SGL;
+import org.cell2d.celick.opengl.renderer.SpriteBatch;
 import org.cell2d.celick.util.Log;
 import org.lwjgl.BufferUtils;
 
@@ -84,6 +85,7 @@ public class Graphics {
 	 */
 	public static void setCurrent(Graphics current) {
 		if (currentGraphics != current) {
+			flushSpriteBatch();
 			if (currentGraphics != null) {
 				currentGraphics.disable();
 			}
@@ -241,6 +243,17 @@ public class Graphics {
 		popTransform();
 	}
 
+	/**
+	 * Pass on any quads held by the sprite batch in use, since switching
+	 * graphics contexts bypasses it
+	 */
+	private static void flushSpriteBatch() {
+		SpriteBatch batch = Renderer.getSpriteBatch();
+		if (batch != null) {
+			batch.flushBatch();
+		}
+	}
+
 	/**
 	 * Must be called before all OpenGL operations to maintain context for
 	 * dynamic images
@@ -267,6 +280,7 @@ public class Graphics {
 	 */
 	public void flush() {
 		if (currentGraphics == this) {
+			flushSpriteBatch();
 			currentGraphics.disable();
 			currentGraphics = null;
 		}
@@ -11,6 +11,7 @@ import org.cell2d.celick.opengl.TextureImpl;
 import org.cell2d.celick.opengl.pbuffer.GraphicsFactory;
 import org.cell2d.celick.opengl.renderer.Renderer;
 import org.cell2d.celick.opengl.renderer.SGL;
+import org.cell2d.celick.opengl.renderer.SpriteBatch;
 import org.cell2d.celick.util.Log;
 
 /**
@@ -337,6 +338,23 @@ public class Image implements Renderable {
             return image;
         }
         
+        /**
+         * Constructs and returns a new Image that is identical to this one in
+         * every way except that its pixel data is uploaded from the specified
+         * image data source, which should have the same width and height.
+         * @param data The image data source to upload the new Image's pixels from
+         * @return A copy of this Image with the specified pixel data
+         */
+        public final Image getCopyWithData(ImageData data) {
+            Image image = new Image(data, filter == SGL.GL_LINEAR ? FILTER_LINEAR : FILTER_NEAREST);
+            image.centerX = centerX;
+            image.centerY = centerY;
+            image.angle = angle;
+            image.alpha = alpha;
+            image.corners = (corners == null ? null : Arrays.copyOf(corners, corners.length));
+            return image;
+        }
+        
 	/** 
 	 * Get the OpenGL image filter in use
 	 * 
@@ -772,6 +790,17 @@ public class Image implements Renderable {
 	 * @param filter The color to filter with while drawing
 	 */
     public void draw(float x,float y,float width,float height,Color filter) { 
+        init();
+        
+        SpriteBatch batch = Renderer.getSpriteBatch();
+        if (batch != null && batch.isBatching() && corners == null) {
+            texture.bind();
+            batch.addQuad(x, y, width, height, angle, centerX, centerY,
+                    textureOffsetX, textureOffsetY,
+                    textureOffsetX + textureWidth, textureOffsetY + textureHeight,
+                    (filter == null && alpha != 1 ? Color.WHITE : filter), alpha);
+            return;
+        }
     	if (alpha != 1) {
     		if (filter == null) {
     			filter = Color.WHITE;
@@ -1036,6 +1065,18 @@ public class Image implements Renderable {
 	 */
 	public void draw(float x, float y, float x2, float y2, float srcx, float srcy, float srcx2, float srcy2, Color filter) {
 		init();
+		
+		SpriteBatch batch = Renderer.getSpriteBatch();
+		if (batch != null && batch.isBatching()) {
+			float u1 = ((srcx / width) * textureWidth) + textureOffsetX;
+			float v1 = ((srcy / height) * textureHeight) + textureOffsetY;
+			float u2 = u1 + (((srcx2 - srcx) / width) * textureWidth);
+			float v2 = v1 + (((srcy2 - srcy) / height) * textureHeight);
+			texture.bind();
+			batch.addQuad(x, y, x2 - x, y2 - y, angle, centerX, centerY, u1, v1, u2, v2,
+					(filter == null && alpha != 1 ? Color.WHITE : filter), alpha);
+			return;
+		}
 
     	if (alpha != 1) {
     		if (filter == null) {
@@ -1372,9 +1413,43 @@ public class Image implements Renderable {
 		}
 	}
 	
+	/**
+	 * Get the alpha value of a pixel at a specified location in this image
+	 * without creating a Color
+	 *
+	 * @param x The x coordinate of the pixel
+	 * @param y The y coordinate of the pixel
+	 * @return The alpha value (0-255) of the pixel at the specified location
+	 */
+	public int getAlpha(int x, int y) {
+		if (!texture.hasAlpha()) {
+			return 255;
+		}
+		if (pixelData == null) {
+			pixelData = texture.getTextureData();
+		}
+
+		int xo = (int) (textureOffsetX * texture.getTextureWidth());
+		int yo = (int) (textureOffsetY * texture.getTextureHeight());
+
+		if (textureWidth < 0) {
+			x = xo - x;
+		} else {
+			x = xo + x;
+		}
+
+		if (textureHeight < 0) {
+			y = yo - y;
+		} else {
+			y = yo + y;
+		}
+
+		return Graphics.translate(pixelData[(x + (y * texture.getTextureWidth()))*4 + 3]);
+	}
+
 	/**
 	 * Check if this image has been destroyed
-	 * 
+	 *
 	 * @return True if this image has been destroyed
 	 */
 	public boolean isDestroyed() {
@@ -144,9 +144,7 @@ public class InternalTextureLoader {
      * @throws IOException Indicates a failure to load the image
      */
     public Texture getTexture(String resourceName, boolean flipped, int filter) throws IOException {
-    	InputStream in = ResourceLoader.getResourceAsStream(resourceName);
-    	
-    	return getTexture(in, resourceName, flipped, filter, null);
+    	return getTexture(resourceName, flipped, filter, null);
     }
     
     /**
@@ -162,7 +160,10 @@ public class InternalTextureLoader {
     public Texture getTexture(String resourceName, boolean flipped, int filter, int[] transparent) throws IOException {
     	InputStream in = ResourceLoader.getResourceAsStream(resourceName);
     	
-    	return getTexture(in, resourceName, flipped, filter, transparent);
+    	TextureImpl texture = getTexture(in, resourceName, flipped, filter, transparent);
+    	// the texture can be decoded from the same resource again if it is evicted
+    	TextureResidency.get().setSource(texture, resourceName, flipped, transparent);
+    	return texture;
     }
     /**
      * Get a texture from a image file
@@ -320,6 +321,7 @@ public class InternalTextureLoader {
                       SGL.GL_UNSIGNED_BYTE, 
                       textureBuffer); 
         
+        TextureResidency.get().add(texture, getTextureBytes(texWidth, texHeight), minFilter);
         return texture; 
     } 
 
@@ -424,9 +426,21 @@ public class InternalTextureLoader {
                       SGL.GL_UNSIGNED_BYTE, 
                       textureBuffer); 
         
+        TextureResidency.get().add(texture, getTextureBytes(texWidth, texHeight), minFilter);
         return texture; 
     } 
     
+    /**
+     * Get the number of bytes of texture memory that a texture occupies
+     * 
+     * @param texWidth The width of the texture
+     * @param texHeight The height of the texture
+     * @return The number of bytes the texture occupies
+     */
+    private long getTextureBytes(int texWidth, int texHeight) {
+        return (long) texWidth * texHeight * (dstPixelFormat == SGL.GL_RGBA16 ? 8 : 4);
+    }
+    
     /**
      * Get the closest greater power of 2 to the fold number
      * 
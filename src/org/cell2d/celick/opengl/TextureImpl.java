@@ -63,6 +63,17 @@ public class TextureImpl implements Texture {
     /** Data used to reload this texture */
     private ReloadData reloadData;
     
+    //Residency information, managed by the TextureResidency
+    long residencyBytes = 0;
+    int residencyFilter = SGL.GL_NEAREST;
+    long lastUse = 0;
+    boolean evicted = false;
+    boolean pinned = false;
+    ByteBuffer cachedData = null;
+    String sourceName = null;
+    boolean sourceFlipped = false;
+    int[] sourceTransparent = null;
+    
     /**
      * For subclasses to utilise
      */
@@ -131,6 +142,7 @@ public class TextureImpl implements Texture {
     @Override
     public void bind() {
     	if (lastBind != this) {
+    		TextureResidency.get().use(this);
     		lastBind = this;
     		GL.glEnable(SGL.GL_TEXTURE_2D);
     	    GL.glBindTexture(target, textureID);
@@ -229,11 +241,14 @@ public class TextureImpl implements Texture {
     
     @Override
     public void release() {
-        IntBuffer texBuf = createIntBuffer(1); 
-        texBuf.put(textureID);
-        texBuf.flip();
-        
-    	GL.glDeleteTextures(texBuf);
+        // an evicted texture has no texture ID left to delete
+        if (TextureResidency.get().remove(this)) {
+            IntBuffer texBuf = createIntBuffer(1); 
+            texBuf.put(textureID);
+            texBuf.flip();
+            
+            GL.glDeleteTextures(texBuf);
+        }
     	
         if (lastBind == this) {
         	bindNone();
@@ -248,6 +263,11 @@ public class TextureImpl implements Texture {
     
     @Override
     public int getTextureID() {
+    	TextureResidency.get().ensureResident(this);
+    	return textureID;
+    }
+    
+    int getTextureIDUnchecked() {
     	return textureID;
     }
     
@@ -290,6 +310,7 @@ public class TextureImpl implements Texture {
         @Override
 	public void setTextureFilter(int textureFilter) {
 		bind();
+		residencyFilter = textureFilter;
         GL.glTexParameteri(target, SGL.GL_TEXTURE_MIN_FILTER, textureFilter); 
         GL.glTexParameteri(target, SGL.GL_TEXTURE_MAG_FILTER, textureFilter); 
 	}
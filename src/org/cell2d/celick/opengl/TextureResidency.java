@@ -0,0 +1,327 @@
+package org.cell2d.celick.opengl;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.cell2d.celick.opengl.renderer.Renderer;
+import org.cell2d.celick.opengl.renderer.SGL;
+import org.cell2d.celick.util.ResourceLoader;
+import org.lwjgl.BufferUtils;
+
+/**
+ * <p>The TextureResidency keeps track of the size in bytes of every texture
+ * that the InternalTextureLoader creates, and of when each one was last bound.
+ * If it is given a texture memory budget, then whenever the textures that are
+ * resident in texture memory exceed that budget, it evicts the textures that
+ * were bound least recently from texture memory until they fit within it. An
+ * evicted texture keeps its Texture object, and is reloaded transparently the
+ * next time it is bound or its texture ID is needed.</p>
+ * 
+ * <p>A texture that was loaded from an image file is reloaded by decoding the
+ * file again. Any other texture, such as a filtered copy of a Sprite's image,
+ * is read back from texture memory into a decoded cache when it is evicted, and
+ * uploaded from there when it is reloaded. The decoded cache has a budget of
+ * its own, and a texture that would not fit in it is not evicted. Textures that
+ * are the targets of off-screen rendering, and the texture that is currently
+ * bound, are never evicted.</p>
+ * 
+ * <p>The TextureResidency has a texture memory budget of 0, meaning no budget,
+ * by default. Since evicting and reloading textures requires the GL context,
+ * budgets are enforced only when textures are created or bound.</p>
+ * @see InternalTextureLoader
+ * @author Alex Heyman
+ */
+public final class TextureResidency {
+    
+    private static final TextureResidency residency = new TextureResidency();
+    
+    /**
+     * Returns the single instance of the TextureResidency.
+     * @return The TextureResidency
+     */
+    public static TextureResidency get() {
+        return residency;
+    }
+    
+    private final Set<TextureImpl> textures = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long clock = 0;
+    private long budget = 0;
+    private long cacheBudget = 256L*1024*1024;
+    private int numResident = 0;
+    private long residentBytes = 0;
+    private int numCached = 0;
+    private long cachedBytes = 0;
+    private long numEvictions = 0;
+    private long numReloads = 0;
+    //Whether the last attempt to enforce the budget could not evict enough, and nothing has changed since
+    private boolean stuck = false;
+    
+    private TextureResidency() {}
+    
+    /**
+     * Returns the texture memory budget in bytes, or 0 if there is none.
+     * @return The texture memory budget
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+    
+    /**
+     * Sets the texture memory budget in bytes. If it is 0, textures will no
+     * longer be evicted.
+     * @param budget The new texture memory budget
+     */
+    public synchronized void setBudget(long budget) {
+        if (budget < 0) {
+            throw new RuntimeException("Attempted to give the TextureResidency a negative budget " + budget);
+        }
+        this.budget = budget;
+        stuck = false;
+    }
+    
+    /**
+     * Returns the budget in bytes of the decoded cache that holds evicted
+     * textures that cannot be reloaded from image files.
+     * @return The decoded cache's budget
+     */
+    public synchronized long getCacheBudget() {
+        return cacheBudget;
+    }
+    
+    /**
+     * Sets the budget in bytes of the decoded cache that holds evicted
+     * textures that cannot be reloaded from image files. If it is 0, only
+     * textures that can be reloaded from image files will be evicted. Lowering
+     * the budget does not remove textures that are already cached.
+     * @param cacheBudget The decoded cache's new budget
+     */
+    public synchronized void setCacheBudget(long cacheBudget) {
+        if (cacheBudget < 0) {
+            throw new RuntimeException("Attempted to give the TextureResidency a negative cache budget "
+                    + cacheBudget);
+        }
+        this.cacheBudget = cacheBudget;
+        stuck = false;
+    }
+    
+    synchronized void add(TextureImpl texture, long bytes, int filter) {
+        texture.residencyBytes = bytes;
+        texture.residencyFilter = filter;
+        texture.lastUse = ++clock;
+        textures.add(texture);
+        numResident++;
+        residentBytes += bytes;
+        stuck = false;
+        enforceBudget(texture);
+    }
+    
+    synchronized void setSource(TextureImpl texture, String name, boolean flipped, int[] transparent) {
+        texture.sourceName = name;
+        texture.sourceFlipped = flipped;
+        texture.sourceTransparent = transparent;
+    }
+    
+    /**
+     * Prevents the specified texture from ever being evicted. This should be
+     * done for textures whose IDs are held onto by something else, such as a
+     * framebuffer object.
+     * @param texture The texture to pin
+     */
+    public synchronized void pin(Texture texture) {
+        if (texture instanceof TextureImpl) {
+            TextureImpl impl = (TextureImpl)texture;
+            impl.pinned = true;
+            ensureResident(impl);
+        }
+    }
+    
+    //Returns whether the texture was resident, and thus still has a texture ID to delete
+    synchronized boolean remove(TextureImpl texture) {
+        if (!textures.remove(texture)) {
+            return true;
+        }
+        stuck = false;
+        if (texture.evicted) {
+            dropCache(texture);
+            return false;
+        }
+        numResident--;
+        residentBytes -= texture.residencyBytes;
+        return true;
+    }
+    
+    synchronized void use(TextureImpl texture) {
+        texture.lastUse = ++clock;
+        if (texture.evicted) {
+            reload(texture);
+            enforceBudget(texture);
+        }
+    }
+    
+    synchronized void ensureResident(TextureImpl texture) {
+        if (texture.evicted) {
+            texture.lastUse = ++clock;
+            reload(texture);
+            enforceBudget(texture);
+        }
+    }
+    
+    //Evicts textures other than the specified one and the bound one until the resident ones fit the budget.
+    //If that is impossible, further attempts are skipped until textures are added or removed or the budgets
+    //change, so that a budget that cannot be met does not cost a sort on every bind.
+    private void enforceBudget(TextureImpl keep) {
+        if (budget == 0 || residentBytes <= budget || stuck) {
+            return;
+        }
+        List<TextureImpl> candidates = new ArrayList<>();
+        for (TextureImpl texture : textures) {
+            if (!texture.evicted && !texture.pinned && texture != keep && texture != TextureImpl.lastBind) {
+                candidates.add(texture);
+            }
+        }
+        candidates.sort((texture1, texture2) -> Long.compare(texture1.lastUse, texture2.lastUse));
+        for (TextureImpl texture : candidates) {
+            if (residentBytes <= budget) {
+                break;
+            }
+            evict(texture);
+        }
+        stuck = (residentBytes > budget);
+    }
+    
+    private void evict(TextureImpl texture) {
+        SGL gl = Renderer.get();
+        int id = texture.getTextureIDUnchecked();
+        if (texture.sourceName == null) {
+            long bytes = 4L*texture.getTextureWidth()*texture.getTextureHeight();
+            if (cachedBytes + bytes > cacheBudget) {
+                return;
+            }
+            ByteBuffer data = BufferUtils.createByteBuffer((int)bytes);
+            gl.glBindTexture(SGL.GL_TEXTURE_2D, id);
+            gl.glGetTexImage(SGL.GL_TEXTURE_2D, 0, SGL.GL_RGBA, SGL.GL_UNSIGNED_BYTE, data);
+            //The bound texture has changed out from under TextureImpl
+            TextureImpl.unbind();
+            texture.cachedData = data;
+            numCached++;
+            cachedBytes += bytes;
+        }
+        IntBuffer ids = BufferUtils.createIntBuffer(1);
+        ids.put(id).flip();
+        gl.glDeleteTextures(ids);
+        texture.evicted = true;
+        numResident--;
+        residentBytes -= texture.residencyBytes;
+        numEvictions++;
+    }
+    
+    private void reload(TextureImpl texture) {
+        ByteBuffer data;
+        int format;
+        if (texture.cachedData != null) {
+            data = texture.cachedData;
+            format = SGL.GL_RGBA;
+            dropCache(texture);
+        } else {
+            LoadableImageData imageData = ImageDataFactory.getImageDataFor(texture.sourceName);
+            try (InputStream in = new BufferedInputStream(
+                    ResourceLoader.getResourceAsStream(texture.sourceName))) {
+                data = imageData.loadImage(in, texture.sourceFlipped, texture.sourceTransparent);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            format = (imageData.getDepth() == 32 ? SGL.GL_RGBA : SGL.GL_RGB);
+        }
+        int filter = texture.residencyFilter;
+        texture.setTextureID(InternalTextureLoader.get().reload(
+                texture, format, (format == SGL.GL_RGBA ? 4 : 3), filter, filter, data));
+        TextureImpl.unbind();
+        texture.evicted = false;
+        numResident++;
+        residentBytes += texture.residencyBytes;
+        numReloads++;
+    }
+    
+    private void dropCache(TextureImpl texture) {
+        if (texture.cachedData != null) {
+            numCached--;
+            cachedBytes -= texture.cachedData.capacity();
+            texture.cachedData = null;
+        }
+    }
+    
+    /**
+     * Returns the number of textures that the TextureResidency is keeping
+     * track of, resident or not.
+     * @return The number of tracked textures
+     */
+    public synchronized int getNumTextures() {
+        return textures.size();
+    }
+    
+    /**
+     * Returns the number of textures that are resident in texture memory.
+     * @return The number of resident textures
+     */
+    public synchronized int getNumResident() {
+        return numResident;
+    }
+    
+    /**
+     * Returns the number of bytes of texture memory that resident textures
+     * occupy.
+     * @return The number of bytes that resident textures occupy
+     */
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+    
+    /**
+     * Returns the number of evicted textures that are held in the decoded
+     * cache.
+     * @return The number of cached textures
+     */
+    public synchronized int getNumCached() {
+        return numCached;
+    }
+    
+    /**
+     * Returns the number of bytes that the decoded cache occupies.
+     * @return The number of bytes that the decoded cache occupies
+     */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+    
+    /**
+     * Returns the number of times that a texture has been evicted.
+     * @return The number of evictions
+     */
+    public synchronized long getNumEvictions() {
+        return numEvictions;
+    }
+    
+    /**
+     * Returns the number of times that an evicted texture has been reloaded.
+     * @return The number of reloads
+     */
+    public synchronized long getNumReloads() {
+        return numReloads;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("%d textures, %d resident (%.1f MB of %s), %d cached (%.1f MB of %.1f MB),"
+                + " %d evictions, %d reloads", textures.size(), numResident, residentBytes/1048576.0,
+                (budget == 0 ? "unlimited" : String.format("%.1f MB", budget/1048576.0)),
+                numCached, cachedBytes/1048576.0, cacheBudget/1048576.0, numEvictions, numReloads);
+    }
+    
+}
@@ -7,6 +7,7 @@ import org.cell2d.celick.SlickException;
 import org.cell2d.celick.opengl.InternalTextureLoader;
 import org.cell2d.celick.opengl.SlickCallable;
 import org.cell2d.celick.opengl.Texture;
+import org.cell2d.celick.opengl.TextureResidency;
 import org.cell2d.celick.util.Log;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.EXTFramebufferObject;
@@ -93,6 +94,8 @@ public class FBOGraphics extends Graphics {
 		// created them.
 		try {
 			Texture tex = InternalTextureLoader.get().createTexture(image.getWidth(), image.getHeight(), image.getFilter());
+			// the framebuffer holds on to the texture's ID, so the texture must never be evicted
+			TextureResidency.get().pin(tex);
 			
 			EXTFramebufferObject.glBindFramebufferEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT, FBO);
 			EXTFramebufferObject.glFramebufferTexture2DEXT(EXTFramebufferObject.GL_FRAMEBUFFER_EXT, 
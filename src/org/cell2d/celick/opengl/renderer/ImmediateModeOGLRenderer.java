@@ -4,6 +4,7 @@ import java.nio.ByteBuffer;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.EXTSecondaryColor;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GLContext;
@@ -22,6 +23,8 @@ public class ImmediateModeOGLRenderer implements SGL {
 	private float[] current = new float[] {1,1,1,1};
 	/** The global colour scale */
 	protected float alphaScale = 1;
+	/** The buffer used to pass quad vertex data to the card */
+	private FloatBuffer quadBuffer = null;
 	
         @Override
 	public void initDisplay(int width, int height) {
@@ -315,5 +318,48 @@ public class ImmediateModeOGLRenderer implements SGL {
 	public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {
 		EXTSecondaryColor.glSecondaryColor3ubEXT(b,c,d);
 	}
+	
+	@Override
+	public void glDrawQuads(float[] data, int offset, int numQuads) {
+		GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		drawQuadArrays(data, offset, numQuads);
+		GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+	}
+	
+	/**
+	 * Draw a number of textured, coloured quads from interleaved vertex
+	 * arrays, assuming that the vertex, texture coordinate and colour client
+	 * states are already enabled
+	 * 
+	 * @param data The array holding the vertex data
+	 * @param offset The index in the array of the first float of the first quad
+	 * @param numQuads The number of quads to draw
+	 */
+	protected void drawQuadArrays(float[] data, int offset, int numQuads) {
+		int length = numQuads*32;
+		if (quadBuffer == null || quadBuffer.capacity() < length) {
+			quadBuffer = BufferUtils.createFloatBuffer(length);
+		}
+		quadBuffer.clear();
+		quadBuffer.put(data, offset, length);
+		if (alphaScale != 1) {
+			for (int i = 7; i < length; i += 8) {
+				quadBuffer.put(i, quadBuffer.get(i)*alphaScale);
+			}
+		}
+		quadBuffer.position(0);
+		GL11.glVertexPointer(2, 32, quadBuffer);
+		quadBuffer.position(2);
+		GL11.glTexCoordPointer(2, 32, quadBuffer);
+		quadBuffer.position(4);
+		GL11.glColorPointer(4, 32, quadBuffer);
+		quadBuffer.position(0);
+		GL11.glDrawArrays(GL11.GL_QUADS, 0, numQuads*4);
+		GL11.glColor4f(current[0], current[1], current[2], current[3]);
+	}
         
 }
@@ -0,0 +1,229 @@
+package org.cell2d.celick.opengl.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A NullSGL is an SGL that makes no GL calls at all, for use where there is
+ * no display or GL context. Calls that would draw or change GL state do
+ * nothing. Calls that would create textures or display lists return new,
+ * unique IDs, and calls that would fill buffers with GL state fill them with
+ * zeroes, except that the maximum texture size is reported as unlimited.</p>
+ * @author Alex Heyman
+ */
+public class NullSGL implements SGL {
+    
+    private final float[] currentColor = {1, 1, 1, 1};
+    private float alphaScale = 1;
+    //Atomic so that CellGames on different threads never get the same ID
+    private final AtomicInteger nextTextureID = new AtomicInteger(1);
+    private final AtomicInteger nextListID = new AtomicInteger(1);
+    
+    private static void fillWithZeroes(ByteBuffer buffer) {
+        if (buffer != null) {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                buffer.put(i, (byte)0);
+            }
+        }
+    }
+    
+    @Override
+    public void flush() {}
+    
+    @Override
+    public void initDisplay(int width, int height) {}
+    
+    @Override
+    public void enterOrtho(int xsize, int ysize) {}
+    
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {}
+    
+    @Override
+    public void glClipPlane(int plane, DoubleBuffer buffer) {}
+    
+    @Override
+    public void glScissor(int x, int y, int width, int height) {}
+    
+    @Override
+    public void glLineWidth(float width) {}
+    
+    @Override
+    public void glClear(int value) {}
+    
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {}
+    
+    @Override
+    public void glLoadIdentity() {}
+    
+    @Override
+    public void glGetInteger(int id, IntBuffer ret) {
+        int value = (id == GL_MAX_TEXTURE_SIZE ? Integer.MAX_VALUE : 0);
+        for (int i = ret.position(); i < ret.limit(); i++) {
+            ret.put(i, value);
+        }
+    }
+    
+    @Override
+    public void glGetFloat(int id, FloatBuffer ret) {
+        for (int i = ret.position(); i < ret.limit(); i++) {
+            ret.put(i, 0);
+        }
+    }
+    
+    @Override
+    public void glEnable(int item) {}
+    
+    @Override
+    public void glDisable(int item) {}
+    
+    @Override
+    public void glBindTexture(int target, int id) {}
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels) {
+        fillWithZeroes(pixels);
+    }
+    
+    @Override
+    public void glDeleteTextures(IntBuffer buffer) {}
+    
+    @Override
+    public void glColor4f(float r, float g, float b, float a) {
+        currentColor[0] = r;
+        currentColor[1] = g;
+        currentColor[2] = b;
+        currentColor[3] = a*alphaScale;
+    }
+    
+    @Override
+    public void glTexCoord2f(float u, float v) {}
+    
+    @Override
+    public void glVertex3f(float x, float y, float z) {}
+    
+    @Override
+    public void glVertex2f(float x, float y) {}
+    
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {}
+    
+    @Override
+    public void glTranslatef(float x, float y, float z) {}
+    
+    @Override
+    public void glBegin(int geomType) {}
+    
+    @Override
+    public void glEnd() {}
+    
+    @Override
+    public void glTexEnvi(int target, int mode, int value) {}
+    
+    @Override
+    public void glPointSize(float size) {}
+    
+    @Override
+    public void glScalef(float x, float y, float z) {}
+    
+    @Override
+    public void glPushMatrix() {}
+    
+    @Override
+    public void glPopMatrix() {}
+    
+    @Override
+    public void glBlendFunc(int src, int dest) {}
+    
+    @Override
+    public int glGenLists(int count) {
+        return nextListID.getAndAdd(count);
+    }
+    
+    @Override
+    public void glNewList(int id, int option) {}
+    
+    @Override
+    public void glEndList() {}
+    
+    @Override
+    public void glCallList(int id) {}
+    
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalFormat,
+            int x, int y, int width, int height, int border) {}
+    
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        fillWithZeroes(pixels);
+    }
+    
+    @Override
+    public void glTexParameteri(int target, int param, int value) {}
+    
+    @Override
+    public float[] getCurrentColor() {
+        return currentColor;
+    }
+    
+    @Override
+    public void glDeleteLists(int list, int count) {}
+    
+    @Override
+    public void glDepthMask(boolean mask) {}
+    
+    @Override
+    public void glClearDepth(float value) {}
+    
+    @Override
+    public void glDepthFunc(int func) {}
+    
+    @Override
+    public void setGlobalAlphaScale(float alphaScale) {
+        this.alphaScale = alphaScale;
+    }
+    
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {}
+    
+    @Override
+    public void glGenTextures(IntBuffer ids) {
+        for (int i = ids.position(); i < ids.limit(); i++) {
+            ids.put(i, nextTextureID.getAndIncrement());
+        }
+    }
+    
+    @Override
+    public void glGetError() {}
+    
+    @Override
+    public void glTexImage2D(int target, int i, int dstPixelFormat,
+            int width, int height, int j, int srcPixelFormat,
+            int glUnsignedByte, ByteBuffer textureBuffer) {}
+    
+    @Override
+    public void glTexSubImage2D(int glTexture2d, int i, int pageX, int pageY,
+            int width, int height, int glBgra, int glUnsignedByte,
+            ByteBuffer scratchByteBuffer) {}
+    
+    @Override
+    public boolean canTextureMirrorClamp() {
+        return false;
+    }
+    
+    @Override
+    public boolean canSecondaryColor() {
+        return false;
+    }
+    
+    @Override
+    public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {}
+    
+    @Override
+    public void glDrawQuads(float[] data, int offset, int numQuads) {}
+    
+}
@@ -0,0 +1,1165 @@
+package org.cell2d.celick.opengl.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>A RecordingSGL is an SGL that wraps another SGL, and that can record the
+ * calls that one thread, its recording thread, makes to it into a command list
+ * instead of passing them on. Calls from any other thread are passed on to the
+ * wrapped SGL immediately. The thread that owns the GL context can later replay
+ * a recorded command list through the wrapped SGL, so that the recording thread
+ * can compute and draw one frame while the GL context's thread displays the
+ * previous one.</p>
+ * 
+ * <p>A RecordingSGL has two command lists: the recording list, into which calls
+ * from the recording thread are recorded, and the ready list, which holds the
+ * commands of a finished frame until they are replayed. The contents of
+ * buffers that are passed to recorded calls are copied into the command list,
+ * so the buffers may be reused as soon as the calls return, and are put back
+ * into a reusable buffer when the calls are replayed.</p>
+ * 
+ * <p>Calls that return values or fill buffers cannot be recorded. When the
+ * recording thread makes such a call, it waits until the GL context's thread
+ * calls awaitRecording(), which replays the recording list up to that point and
+ * then passes the call on. The results of canTextureMirrorClamp() and
+ * canSecondaryColor() are remembered after they are first found, so those
+ * calls never cause the recording thread to wait more than once.</p>
+ * @author Alex Heyman
+ */
+public class RecordingSGL implements SGL {
+    
+    private static final int FLUSH = 0;
+    private static final int INIT_DISPLAY = 1;
+    private static final int ENTER_ORTHO = 2;
+    private static final int CLEAR_COLOR = 3;
+    private static final int CLIP_PLANE = 4;
+    private static final int SCISSOR = 5;
+    private static final int LINE_WIDTH = 6;
+    private static final int CLEAR = 7;
+    private static final int COLOR_MASK = 8;
+    private static final int LOAD_IDENTITY = 9;
+    private static final int ENABLE = 10;
+    private static final int DISABLE = 11;
+    private static final int BIND_TEXTURE = 12;
+    private static final int DELETE_TEXTURES = 13;
+    private static final int COLOR_4F = 14;
+    private static final int TEX_COORD_2F = 15;
+    private static final int VERTEX_3F = 16;
+    private static final int VERTEX_2F = 17;
+    private static final int ROTATE_F = 18;
+    private static final int TRANSLATE_F = 19;
+    private static final int BEGIN = 20;
+    private static final int END = 21;
+    private static final int TEX_ENV_I = 22;
+    private static final int POINT_SIZE = 23;
+    private static final int SCALE_F = 24;
+    private static final int PUSH_MATRIX = 25;
+    private static final int POP_MATRIX = 26;
+    private static final int BLEND_FUNC = 27;
+    private static final int NEW_LIST = 28;
+    private static final int END_LIST = 29;
+    private static final int CALL_LIST = 30;
+    private static final int COPY_TEX_IMAGE_2D = 31;
+    private static final int TEX_PARAMETER_I = 32;
+    private static final int DELETE_LISTS = 33;
+    private static final int DEPTH_MASK = 34;
+    private static final int CLEAR_DEPTH = 35;
+    private static final int DEPTH_FUNC = 36;
+    private static final int SET_GLOBAL_ALPHA_SCALE = 37;
+    private static final int LOAD_MATRIX = 38;
+    private static final int GET_ERROR = 39;
+    private static final int TEX_IMAGE_2D = 40;
+    private static final int TEX_SUB_IMAGE_2D = 41;
+    private static final int SECONDARY_COLOR = 42;
+    private static final int DRAW_QUADS = 43;
+    
+    //Opcodes and int arguments, float arguments, double arguments, and byte arguments are kept in separate
+    //arrays. A buffer argument is recorded as its length, in the int array, followed by its contents.
+    private static class CommandList {
+        
+        private int[] ints = new int[4096];
+        private float[] floats = new float[8192];
+        private double[] doubles = new double[64];
+        private byte[] bytes = new byte[0];
+        private int numInts = 0;
+        private int numFloats = 0;
+        private int numDoubles = 0;
+        private int numBytes = 0;
+        //The replay cursor: how far into each array the list has been replayed
+        private int intIndex = 0;
+        private int floatIndex = 0;
+        private int doubleIndex = 0;
+        private int byteIndex = 0;
+        
+        private CommandList() {}
+        
+        private void addInt(int value) {
+            if (numInts == ints.length) {
+                ints = Arrays.copyOf(ints, 2*ints.length);
+            }
+            ints[numInts++] = value;
+        }
+        
+        private void addFloat(float value) {
+            if (numFloats == floats.length) {
+                floats = Arrays.copyOf(floats, 2*floats.length);
+            }
+            floats[numFloats++] = value;
+        }
+        
+        private void addFloats(float[] values, int offset, int length) {
+            if (numFloats + length > floats.length) {
+                floats = Arrays.copyOf(floats, Math.max(2*floats.length, numFloats + length));
+            }
+            System.arraycopy(values, offset, floats, numFloats, length);
+            numFloats += length;
+        }
+        
+        private void addDouble(double value) {
+            if (numDoubles == doubles.length) {
+                doubles = Arrays.copyOf(doubles, 2*doubles.length);
+            }
+            doubles[numDoubles++] = value;
+        }
+        
+        private void addBuffer(IntBuffer buffer) {
+            int start = buffer.position();
+            int end = buffer.limit();
+            addInt(end - start);
+            for (int j = start; j < end; j++) {
+                addInt(buffer.get(j));
+            }
+        }
+        
+        private void addBuffer(FloatBuffer buffer) {
+            int start = buffer.position();
+            int end = buffer.limit();
+            addInt(end - start);
+            for (int j = start; j < end; j++) {
+                addFloat(buffer.get(j));
+            }
+        }
+        
+        private void addBuffer(DoubleBuffer buffer) {
+            int start = buffer.position();
+            int end = buffer.limit();
+            addInt(end - start);
+            for (int j = start; j < end; j++) {
+                addDouble(buffer.get(j));
+            }
+        }
+        
+        //A null buffer is recorded as a length of -1
+        private void addBuffer(ByteBuffer buffer) {
+            if (buffer == null) {
+                addInt(-1);
+                return;
+            }
+            int length = buffer.remaining();
+            addInt(length);
+            if (numBytes + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2*bytes.length, numBytes + length));
+            }
+            int position = buffer.position();
+            buffer.get(bytes, numBytes, length);
+            buffer.position(position);
+            numBytes += length;
+        }
+        
+        private boolean isReplayed() {
+            return intIndex == numInts;
+        }
+        
+        private void clear() {
+            numInts = 0;
+            numFloats = 0;
+            numDoubles = 0;
+            numBytes = 0;
+            intIndex = 0;
+            floatIndex = 0;
+            doubleIndex = 0;
+            byteIndex = 0;
+        }
+        
+    }
+    
+    private SGL sgl;
+    private volatile Thread recordingThread = null;
+    private CommandList recordingList = new CommandList();
+    private CommandList readyList = new CommandList();
+    private final Object lock = new Object();
+    private boolean recording = false;
+    private Runnable syncRequest = null;
+    private Boolean textureMirrorClamp = null;
+    private Boolean secondaryColor = null;
+    //The direct buffer, and views of it, that recorded buffer arguments are put back into when replayed
+    private ByteBuffer replayBuffer = null;
+    private IntBuffer replayInts = null;
+    private FloatBuffer replayFloats = null;
+    private DoubleBuffer replayDoubles = null;
+    
+    /**
+     * Constructs a RecordingSGL that wraps the specified SGL.
+     * @param sgl The SGL that this RecordingSGL passes calls on to
+     */
+    public RecordingSGL(SGL sgl) {
+        this.sgl = sgl;
+    }
+    
+    /**
+     * Returns the SGL that this RecordingSGL passes calls on to.
+     * @return The SGL that this RecordingSGL wraps
+     */
+    public final SGL getSGL() {
+        return sgl;
+    }
+    
+    /**
+     * Sets the SGL that this RecordingSGL passes calls on to to the specified
+     * SGL. This should only be done before any GL calls are made.
+     * @param sgl The SGL that this RecordingSGL should wrap
+     */
+    public final void setSGL(SGL sgl) {
+        this.sgl = sgl;
+    }
+    
+    /**
+     * Returns the thread whose calls to this RecordingSGL are recorded, or
+     * null if there is none.
+     * @return This RecordingSGL's recording thread
+     */
+    public final Thread getRecordingThread() {
+        return recordingThread;
+    }
+    
+    /**
+     * Sets the thread whose calls to this RecordingSGL are recorded to the
+     * specified thread. This should not be done while the current recording
+     * thread is recording a frame.
+     * @param thread This RecordingSGL's new recording thread, or null if it
+     * should have none
+     */
+    public final void setRecordingThread(Thread thread) {
+        recordingThread = thread;
+    }
+    
+    /**
+     * Notes that the recording thread is about to start recording a frame, so
+     * that awaitRecording() will wait until it calls finishRecording(). This
+     * method should be called by the GL context's thread.
+     */
+    public final void startRecording() {
+        synchronized (lock) {
+            recording = true;
+        }
+    }
+    
+    /**
+     * Notes that the recording thread has finished recording a frame. This
+     * method should be called by the recording thread.
+     */
+    public final void finishRecording() {
+        synchronized (lock) {
+            recording = false;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Waits until the recording thread finishes recording a frame, serving any
+     * calls that it makes in the meantime that cannot be recorded. This method
+     * should be called by the GL context's thread, and only after the ready list
+     * has been replayed, so that commands are passed on in the order in which
+     * they were recorded.
+     */
+    public final void awaitRecording() {
+        synchronized (lock) {
+            while (true) {
+                if (syncRequest != null) {
+                    replay(recordingList);
+                    syncRequest.run();
+                    syncRequest = null;
+                    lock.notifyAll();
+                } else if (!recording) {
+                    return;
+                } else {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {}
+                }
+            }
+        }
+    }
+    
+    /**
+     * Makes the recording list the ready list and makes the previous ready list,
+     * cleared, the new recording list. Any commands in the previous ready list
+     * that have not yet been replayed are replayed first. This method should be
+     * called by the GL context's thread while the recording thread is not
+     * recording a frame.
+     */
+    public final void swapCommandLists() {
+        if (!readyList.isReplayed()) {
+            replay(readyList);
+        }
+        readyList.clear();
+        CommandList list = readyList;
+        readyList = recordingList;
+        recordingList = list;
+    }
+    
+    /**
+     * Replays the commands in the ready list that have not yet been replayed
+     * through the wrapped SGL. This method should be called by the GL context's
+     * thread.
+     */
+    public final void replayReady() {
+        replay(readyList);
+    }
+    
+    //Makes the replay buffer at least the specified number of bytes long, and empties it and its views
+    private void prepareReplayBuffer(int numBytes) {
+        if (replayBuffer == null || replayBuffer.capacity() < numBytes) {
+            int capacity = (replayBuffer == null ? 256 : replayBuffer.capacity());
+            while (capacity < numBytes) {
+                capacity *= 2;
+            }
+            replayBuffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+            replayInts = replayBuffer.asIntBuffer();
+            replayFloats = replayBuffer.asFloatBuffer();
+            replayDoubles = replayBuffer.asDoubleBuffer();
+        }
+        replayBuffer.clear();
+        replayInts.clear();
+        replayFloats.clear();
+        replayDoubles.clear();
+    }
+    
+    private void replay(CommandList list) {
+        int[] ints = list.ints;
+        float[] floats = list.floats;
+        double[] doubles = list.doubles;
+        byte[] bytes = list.bytes;
+        int i = list.intIndex;
+        int f = list.floatIndex;
+        int d = list.doubleIndex;
+        int b = list.byteIndex;
+        int numInts = list.numInts;
+        int length;
+        while (i < numInts) {
+            switch (ints[i++]) {
+                case FLUSH:
+                    sgl.flush();
+                    break;
+                case INIT_DISPLAY:
+                    sgl.initDisplay(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case ENTER_ORTHO:
+                    sgl.enterOrtho(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case CLEAR_COLOR:
+                    sgl.glClearColor(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+                    f += 4;
+                    break;
+                case CLIP_PLANE:
+                    length = ints[i + 1];
+                    prepareReplayBuffer(8*length);
+                    replayDoubles.put(doubles, d, length).flip();
+                    d += length;
+                    sgl.glClipPlane(ints[i], replayDoubles);
+                    i += 2;
+                    break;
+                case SCISSOR:
+                    sgl.glScissor(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+                    i += 4;
+                    break;
+                case LINE_WIDTH:
+                    sgl.glLineWidth(floats[f++]);
+                    break;
+                case CLEAR:
+                    sgl.glClear(ints[i++]);
+                    break;
+                case COLOR_MASK:
+                    sgl.glColorMask(ints[i] != 0, ints[i + 1] != 0, ints[i + 2] != 0, ints[i + 3] != 0);
+                    i += 4;
+                    break;
+                case LOAD_IDENTITY:
+                    sgl.glLoadIdentity();
+                    break;
+                case ENABLE:
+                    sgl.glEnable(ints[i++]);
+                    break;
+                case DISABLE:
+                    sgl.glDisable(ints[i++]);
+                    break;
+                case BIND_TEXTURE:
+                    sgl.glBindTexture(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case DELETE_TEXTURES:
+                    length = ints[i++];
+                    prepareReplayBuffer(4*length);
+                    replayInts.put(ints, i, length).flip();
+                    i += length;
+                    sgl.glDeleteTextures(replayInts);
+                    break;
+                case COLOR_4F:
+                    sgl.glColor4f(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+                    f += 4;
+                    break;
+                case TEX_COORD_2F:
+                    sgl.glTexCoord2f(floats[f], floats[f + 1]);
+                    f += 2;
+                    break;
+                case VERTEX_3F:
+                    sgl.glVertex3f(floats[f], floats[f + 1], floats[f + 2]);
+                    f += 3;
+                    break;
+                case VERTEX_2F:
+                    sgl.glVertex2f(floats[f], floats[f + 1]);
+                    f += 2;
+                    break;
+                case ROTATE_F:
+                    sgl.glRotatef(floats[f], floats[f + 1], floats[f + 2], floats[f + 3]);
+                    f += 4;
+                    break;
+                case TRANSLATE_F:
+                    sgl.glTranslatef(floats[f], floats[f + 1], floats[f + 2]);
+                    f += 3;
+                    break;
+                case BEGIN:
+                    sgl.glBegin(ints[i++]);
+                    break;
+                case END:
+                    sgl.glEnd();
+                    break;
+                case TEX_ENV_I:
+                    sgl.glTexEnvi(ints[i], ints[i + 1], ints[i + 2]);
+                    i += 3;
+                    break;
+                case POINT_SIZE:
+                    sgl.glPointSize(floats[f++]);
+                    break;
+                case SCALE_F:
+                    sgl.glScalef(floats[f], floats[f + 1], floats[f + 2]);
+                    f += 3;
+                    break;
+                case PUSH_MATRIX:
+                    sgl.glPushMatrix();
+                    break;
+                case POP_MATRIX:
+                    sgl.glPopMatrix();
+                    break;
+                case BLEND_FUNC:
+                    sgl.glBlendFunc(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case NEW_LIST:
+                    sgl.glNewList(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case END_LIST:
+                    sgl.glEndList();
+                    break;
+                case CALL_LIST:
+                    sgl.glCallList(ints[i++]);
+                    break;
+                case COPY_TEX_IMAGE_2D:
+                    sgl.glCopyTexImage2D(ints[i], ints[i + 1], ints[i + 2], ints[i + 3],
+                            ints[i + 4], ints[i + 5], ints[i + 6], ints[i + 7]);
+                    i += 8;
+                    break;
+                case TEX_PARAMETER_I:
+                    sgl.glTexParameteri(ints[i], ints[i + 1], ints[i + 2]);
+                    i += 3;
+                    break;
+                case DELETE_LISTS:
+                    sgl.glDeleteLists(ints[i], ints[i + 1]);
+                    i += 2;
+                    break;
+                case DEPTH_MASK:
+                    sgl.glDepthMask(ints[i++] != 0);
+                    break;
+                case CLEAR_DEPTH:
+                    sgl.glClearDepth(floats[f++]);
+                    break;
+                case DEPTH_FUNC:
+                    sgl.glDepthFunc(ints[i++]);
+                    break;
+                case SET_GLOBAL_ALPHA_SCALE:
+                    sgl.setGlobalAlphaScale(floats[f++]);
+                    break;
+                case LOAD_MATRIX:
+                    length = ints[i++];
+                    prepareReplayBuffer(4*length);
+                    replayFloats.put(floats, f, length).flip();
+                    f += length;
+                    sgl.glLoadMatrix(replayFloats);
+                    break;
+                case GET_ERROR:
+                    sgl.glGetError();
+                    break;
+                case TEX_IMAGE_2D:
+                    length = ints[i + 8];
+                    sgl.glTexImage2D(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4],
+                            ints[i + 5], ints[i + 6], ints[i + 7], getReplayBytes(bytes, b, length));
+                    b += Math.max(length, 0);
+                    i += 9;
+                    break;
+                case TEX_SUB_IMAGE_2D:
+                    length = ints[i + 8];
+                    sgl.glTexSubImage2D(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], ints[i + 4],
+                            ints[i + 5], ints[i + 6], ints[i + 7], getReplayBytes(bytes, b, length));
+                    b += Math.max(length, 0);
+                    i += 9;
+                    break;
+                case SECONDARY_COLOR:
+                    sgl.glSecondaryColor3ubEXT((byte)ints[i], (byte)ints[i + 1], (byte)ints[i + 2]);
+                    i += 3;
+                    break;
+                case DRAW_QUADS:
+                    sgl.glDrawQuads(floats, f, ints[i]);
+                    f += ints[i++]*32;
+                    break;
+            }
+        }
+        list.intIndex = i;
+        list.floatIndex = f;
+        list.doubleIndex = d;
+        list.byteIndex = b;
+    }
+    
+    //Returns the replay buffer filled with the specified recorded bytes, or null if the length is -1
+    private ByteBuffer getReplayBytes(byte[] bytes, int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        prepareReplayBuffer(length);
+        replayBuffer.put(bytes, offset, length).flip();
+        return replayBuffer;
+    }
+    
+    private boolean isRecording() {
+        return Thread.currentThread() == recordingThread;
+    }
+    
+    //Makes the recording thread wait until the GL context's thread has passed on the specified call
+    private void sync(Runnable request) {
+        boolean interrupted = false;
+        synchronized (lock) {
+            syncRequest = request;
+            lock.notifyAll();
+            while (syncRequest != null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void flush() {
+        if (isRecording()) {
+            recordingList.addInt(FLUSH);
+        } else {
+            sgl.flush();
+        }
+    }
+    
+    @Override
+    public void initDisplay(int width, int height) {
+        if (isRecording()) {
+            recordingList.addInt(INIT_DISPLAY);
+            recordingList.addInt(width);
+            recordingList.addInt(height);
+        } else {
+            sgl.initDisplay(width, height);
+        }
+    }
+    
+    @Override
+    public void enterOrtho(int xsize, int ysize) {
+        if (isRecording()) {
+            recordingList.addInt(ENTER_ORTHO);
+            recordingList.addInt(xsize);
+            recordingList.addInt(ysize);
+        } else {
+            sgl.enterOrtho(xsize, ysize);
+        }
+    }
+    
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        if (isRecording()) {
+            recordingList.addInt(CLEAR_COLOR);
+            recordingList.addFloat(red);
+            recordingList.addFloat(green);
+            recordingList.addFloat(blue);
+            recordingList.addFloat(alpha);
+        } else {
+            sgl.glClearColor(red, green, blue, alpha);
+        }
+    }
+    
+    @Override
+    public void glClipPlane(int plane, DoubleBuffer buffer) {
+        if (isRecording()) {
+            recordingList.addInt(CLIP_PLANE);
+            recordingList.addInt(plane);
+            recordingList.addBuffer(buffer);
+        } else {
+            sgl.glClipPlane(plane, buffer);
+        }
+    }
+    
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        if (isRecording()) {
+            recordingList.addInt(SCISSOR);
+            recordingList.addInt(x);
+            recordingList.addInt(y);
+            recordingList.addInt(width);
+            recordingList.addInt(height);
+        } else {
+            sgl.glScissor(x, y, width, height);
+        }
+    }
+    
+    @Override
+    public void glLineWidth(float width) {
+        if (isRecording()) {
+            recordingList.addInt(LINE_WIDTH);
+            recordingList.addFloat(width);
+        } else {
+            sgl.glLineWidth(width);
+        }
+    }
+    
+    @Override
+    public void glClear(int value) {
+        if (isRecording()) {
+            recordingList.addInt(CLEAR);
+            recordingList.addInt(value);
+        } else {
+            sgl.glClear(value);
+        }
+    }
+    
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        if (isRecording()) {
+            recordingList.addInt(COLOR_MASK);
+            recordingList.addInt(red ? 1 : 0);
+            recordingList.addInt(green ? 1 : 0);
+            recordingList.addInt(blue ? 1 : 0);
+            recordingList.addInt(alpha ? 1 : 0);
+        } else {
+            sgl.glColorMask(red, green, blue, alpha);
+        }
+    }
+    
+    @Override
+    public void glLoadIdentity() {
+        if (isRecording()) {
+            recordingList.addInt(LOAD_IDENTITY);
+        } else {
+            sgl.glLoadIdentity();
+        }
+    }
+    
+    @Override
+    public void glGetInteger(int id, IntBuffer ret) {
+        if (isRecording()) {
+            sync(() -> sgl.glGetInteger(id, ret));
+        } else {
+            sgl.glGetInteger(id, ret);
+        }
+    }
+    
+    @Override
+    public void glGetFloat(int id, FloatBuffer ret) {
+        if (isRecording()) {
+            sync(() -> sgl.glGetFloat(id, ret));
+        } else {
+            sgl.glGetFloat(id, ret);
+        }
+    }
+    
+    @Override
+    public void glEnable(int item) {
+        if (isRecording()) {
+            recordingList.addInt(ENABLE);
+            recordingList.addInt(item);
+        } else {
+            sgl.glEnable(item);
+        }
+    }
+    
+    @Override
+    public void glDisable(int item) {
+        if (isRecording()) {
+            recordingList.addInt(DISABLE);
+            recordingList.addInt(item);
+        } else {
+            sgl.glDisable(item);
+        }
+    }
+    
+    @Override
+    public void glBindTexture(int target, int id) {
+        if (isRecording()) {
+            recordingList.addInt(BIND_TEXTURE);
+            recordingList.addInt(target);
+            recordingList.addInt(id);
+        } else {
+            sgl.glBindTexture(target, id);
+        }
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels) {
+        if (isRecording()) {
+            sync(() -> sgl.glGetTexImage(target, level, format, type, pixels));
+        } else {
+            sgl.glGetTexImage(target, level, format, type, pixels);
+        }
+    }
+    
+    @Override
+    public void glDeleteTextures(IntBuffer buffer) {
+        if (isRecording()) {
+            recordingList.addInt(DELETE_TEXTURES);
+            recordingList.addBuffer(buffer);
+        } else {
+            sgl.glDeleteTextures(buffer);
+        }
+    }
+    
+    @Override
+    public void glColor4f(float r, float g, float b, float a) {
+        if (isRecording()) {
+            recordingList.addInt(COLOR_4F);
+            recordingList.addFloat(r);
+            recordingList.addFloat(g);
+            recordingList.addFloat(b);
+            recordingList.addFloat(a);
+        } else {
+            sgl.glColor4f(r, g, b, a);
+        }
+    }
+    
+    @Override
+    public void glTexCoord2f(float u, float v) {
+        if (isRecording()) {
+            recordingList.addInt(TEX_COORD_2F);
+            recordingList.addFloat(u);
+            recordingList.addFloat(v);
+        } else {
+            sgl.glTexCoord2f(u, v);
+        }
+    }
+    
+    @Override
+    public void glVertex3f(float x, float y, float z) {
+        if (isRecording()) {
+            recordingList.addInt(VERTEX_3F);
+            recordingList.addFloat(x);
+            recordingList.addFloat(y);
+            recordingList.addFloat(z);
+        } else {
+            sgl.glVertex3f(x, y, z);
+        }
+    }
+    
+    @Override
+    public void glVertex2f(float x, float y) {
+        if (isRecording()) {
+            recordingList.addInt(VERTEX_2F);
+            recordingList.addFloat(x);
+            recordingList.addFloat(y);
+        } else {
+            sgl.glVertex2f(x, y);
+        }
+    }
+    
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        if (isRecording()) {
+            recordingList.addInt(ROTATE_F);
+            recordingList.addFloat(angle);
+            recordingList.addFloat(x);
+            recordingList.addFloat(y);
+            recordingList.addFloat(z);
+        } else {
+            sgl.glRotatef(angle, x, y, z);
+        }
+    }
+    
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        if (isRecording()) {
+            recordingList.addInt(TRANSLATE_F);
+            recordingList.addFloat(x);
+            recordingList.addFloat(y);
+            recordingList.addFloat(z);
+        } else {
+            sgl.glTranslatef(x, y, z);
+        }
+    }
+    
+    @Override
+    public void glBegin(int geomType) {
+        if (isRecording()) {
+            recordingList.addInt(BEGIN);
+            recordingList.addInt(geomType);
+        } else {
+            sgl.glBegin(geomType);
+        }
+    }
+    
+    @Override
+    public void glEnd() {
+        if (isRecording()) {
+            recordingList.addInt(END);
+        } else {
+            sgl.glEnd();
+        }
+    }
+    
+    @Override
+    public void glTexEnvi(int target, int mode, int value) {
+        if (isRecording()) {
+            recordingList.addInt(TEX_ENV_I);
+            recordingList.addInt(target);
+            recordingList.addInt(mode);
+            recordingList.addInt(value);
+        } else {
+            sgl.glTexEnvi(target, mode, value);
+        }
+    }
+    
+    @Override
+    public void glPointSize(float size) {
+        if (isRecording()) {
+            recordingList.addInt(POINT_SIZE);
+            recordingList.addFloat(size);
+        } else {
+            sgl.glPointSize(size);
+        }
+    }
+    
+    @Override
+    public void glScalef(float x, float y, float z) {
+        if (isRecording()) {
+            recordingList.addInt(SCALE_F);
+            recordingList.addFloat(x);
+            recordingList.addFloat(y);
+            recordingList.addFloat(z);
+        } else {
+            sgl.glScalef(x, y, z);
+        }
+    }
+    
+    @Override
+    public void glPushMatrix() {
+        if (isRecording()) {
+            recordingList.addInt(PUSH_MATRIX);
+        } else {
+            sgl.glPushMatrix();
+        }
+    }
+    
+    @Override
+    public void glPopMatrix() {
+        if (isRecording()) {
+            recordingList.addInt(POP_MATRIX);
+        } else {
+            sgl.glPopMatrix();
+        }
+    }
+    
+    @Override
+    public void glBlendFunc(int src, int dest) {
+        if (isRecording()) {
+            recordingList.addInt(BLEND_FUNC);
+            recordingList.addInt(src);
+            recordingList.addInt(dest);
+        } else {
+            sgl.glBlendFunc(src, dest);
+        }
+    }
+    
+    @Override
+    public int glGenLists(int count) {
+        if (isRecording()) {
+            int[] result = new int[1];
+            sync(() -> result[0] = sgl.glGenLists(count));
+            return result[0];
+        }
+        return sgl.glGenLists(count);
+    }
+    
+    @Override
+    public void glNewList(int id, int option) {
+        if (isRecording()) {
+            recordingList.addInt(NEW_LIST);
+            recordingList.addInt(id);
+            recordingList.addInt(option);
+        } else {
+            sgl.glNewList(id, option);
+        }
+    }
+    
+    @Override
+    public void glEndList() {
+        if (isRecording()) {
+            recordingList.addInt(END_LIST);
+        } else {
+            sgl.glEndList();
+        }
+    }
+    
+    @Override
+    public void glCallList(int id) {
+        if (isRecording()) {
+            recordingList.addInt(CALL_LIST);
+            recordingList.addInt(id);
+        } else {
+            sgl.glCallList(id);
+        }
+    }
+    
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalFormat,
+            int x, int y, int width, int height, int border) {
+        if (isRecording()) {
+            recordingList.addInt(COPY_TEX_IMAGE_2D);
+            recordingList.addInt(target);
+            recordingList.addInt(level);
+            recordingList.addInt(internalFormat);
+            recordingList.addInt(x);
+            recordingList.addInt(y);
+            recordingList.addInt(width);
+            recordingList.addInt(height);
+            recordingList.addInt(border);
+        } else {
+            sgl.glCopyTexImage2D(target, level, internalFormat, x, y, width, height, border);
+        }
+    }
+    
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        if (isRecording()) {
+            sync(() -> sgl.glReadPixels(x, y, width, height, format, type, pixels));
+        } else {
+            sgl.glReadPixels(x, y, width, height, format, type, pixels);
+        }
+    }
+    
+    @Override
+    public void glTexParameteri(int target, int param, int value) {
+        if (isRecording()) {
+            recordingList.addInt(TEX_PARAMETER_I);
+            recordingList.addInt(target);
+            recordingList.addInt(param);
+            recordingList.addInt(value);
+        } else {
+            sgl.glTexParameteri(target, param, value);
+        }
+    }
+    
+    @Override
+    public float[] getCurrentColor() {
+        if (isRecording()) {
+            float[][] result = new float[1][];
+            sync(() -> result[0] = sgl.getCurrentColor());
+            return result[0];
+        }
+        return sgl.getCurrentColor();
+    }
+    
+    @Override
+    public void glDeleteLists(int list, int count) {
+        if (isRecording()) {
+            recordingList.addInt(DELETE_LISTS);
+            recordingList.addInt(list);
+            recordingList.addInt(count);
+        } else {
+            sgl.glDeleteLists(list, count);
+        }
+    }
+    
+    @Override
+    public void glDepthMask(boolean mask) {
+        if (isRecording()) {
+            recordingList.addInt(DEPTH_MASK);
+            recordingList.addInt(mask ? 1 : 0);
+        } else {
+            sgl.glDepthMask(mask);
+        }
+    }
+    
+    @Override
+    public void glClearDepth(float value) {
+        if (isRecording()) {
+            recordingList.addInt(CLEAR_DEPTH);
+            recordingList.addFloat(value);
+        } else {
+            sgl.glClearDepth(value);
+        }
+    }
+    
+    @Override
+    public void glDepthFunc(int func) {
+        if (isRecording()) {
+            recordingList.addInt(DEPTH_FUNC);
+            recordingList.addInt(func);
+        } else {
+            sgl.glDepthFunc(func);
+        }
+    }
+    
+    @Override
+    public void setGlobalAlphaScale(float alphaScale) {
+        if (isRecording()) {
+            recordingList.addInt(SET_GLOBAL_ALPHA_SCALE);
+            recordingList.addFloat(alphaScale);
+        } else {
+            sgl.setGlobalAlphaScale(alphaScale);
+        }
+    }
+    
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {
+        if (isRecording()) {
+            recordingList.addInt(LOAD_MATRIX);
+            recordingList.addBuffer(buffer);
+        } else {
+            sgl.glLoadMatrix(buffer);
+        }
+    }
+    
+    @Override
+    public void glGenTextures(IntBuffer ids) {
+        if (isRecording()) {
+            sync(() -> sgl.glGenTextures(ids));
+        } else {
+            sgl.glGenTextures(ids);
+        }
+    }
+    
+    @Override
+    public void glGetError() {
+        if (isRecording()) {
+            recordingList.addInt(GET_ERROR);
+        } else {
+            sgl.glGetError();
+        }
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int i, int dstPixelFormat,
+            int width, int height, int j, int srcPixelFormat,
+            int glUnsignedByte, ByteBuffer textureBuffer) {
+        if (isRecording()) {
+            recordingList.addInt(TEX_IMAGE_2D);
+            recordingList.addInt(target);
+            recordingList.addInt(i);
+            recordingList.addInt(dstPixelFormat);
+            recordingList.addInt(width);
+            recordingList.addInt(height);
+            recordingList.addInt(j);
+            recordingList.addInt(srcPixelFormat);
+            recordingList.addInt(glUnsignedByte);
+            recordingList.addBuffer(textureBuffer);
+        } else {
+            sgl.glTexImage2D(target, i, dstPixelFormat, width, height, j,
+                    srcPixelFormat, glUnsignedByte, textureBuffer);
+        }
+    }
+    
+    @Override
+    public void glTexSubImage2D(int glTexture2d, int i, int pageX, int pageY,
+            int width, int height, int glBgra, int glUnsignedByte,
+            ByteBuffer scratchByteBuffer) {
+        if (isRecording()) {
+            recordingList.addInt(TEX_SUB_IMAGE_2D);
+            recordingList.addInt(glTexture2d);
+            recordingList.addInt(i);
+            recordingList.addInt(pageX);
+            recordingList.addInt(pageY);
+            recordingList.addInt(width);
+            recordingList.addInt(height);
+            recordingList.addInt(glBgra);
+            recordingList.addInt(glUnsignedByte);
+            recordingList.addBuffer(scratchByteBuffer);
+        } else {
+            sgl.glTexSubImage2D(glTexture2d, i, pageX, pageY, width, height,
+                    glBgra, glUnsignedByte, scratchByteBuffer);
+        }
+    }
+    
+    @Override
+    public boolean canTextureMirrorClamp() {
+        if (textureMirrorClamp == null) {
+            if (isRecording()) {
+                boolean[] result = new boolean[1];
+                sync(() -> result[0] = sgl.canTextureMirrorClamp());
+                textureMirrorClamp = result[0];
+            } else {
+                textureMirrorClamp = sgl.canTextureMirrorClamp();
+            }
+        }
+        return textureMirrorClamp;
+    }
+    
+    @Override
+    public boolean canSecondaryColor() {
+        if (secondaryColor == null) {
+            if (isRecording()) {
+                boolean[] result = new boolean[1];
+                sync(() -> result[0] = sgl.canSecondaryColor());
+                secondaryColor = result[0];
+            } else {
+                secondaryColor = sgl.canSecondaryColor();
+            }
+        }
+        return secondaryColor;
+    }
+    
+    @Override
+    public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {
+        if (isRecording()) {
+            recordingList.addInt(SECONDARY_COLOR);
+            recordingList.addInt(b);
+            recordingList.addInt(c);
+            recordingList.addInt(d);
+        } else {
+            sgl.glSecondaryColor3ubEXT(b, c, d);
+        }
+    }
+    
+    @Override
+    public void glDrawQuads(float[] data, int offset, int numQuads) {
+        if (isRecording()) {
+            recordingList.addInt(DRAW_QUADS);
+            recordingList.addInt(numQuads);
+            recordingList.addFloats(data, offset, numQuads*32);
+        } else {
+            sgl.glDrawQuads(data, offset, numQuads);
+        }
+    }
+    
+}
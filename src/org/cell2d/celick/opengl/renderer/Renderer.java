@@ -7,6 +7,11 @@ import org.cell2d.Color;
  * The static holder for the current GL implementation. Note that this 
  * renderer can only be set before the game has been started.
  * 
+ * Every GL call goes through the same SpriteBatch and then the same
+ * RecordingSGL before it reaches the renderer that has been set, so classes
+ * that keep hold of the result of get() see the wrappers no matter when they
+ * were initialized.
+ * 
  * @author kevin
  */
 public class Renderer {		
@@ -21,8 +26,10 @@ public class Renderer {
 	public static final int QUAD_BASED_LINE_STRIP_RENDERER = 4;
 	
 	
-	/** The renderer in use */
-	private static SGL renderer = new ImmediateModeOGLRenderer();
+	/** The recorder that all GL calls pass through on their way to the renderer that has been set */
+	private static final RecordingSGL recorder = new RecordingSGL(new ImmediateModeOGLRenderer());
+	/** The renderer in use, which batches quads ahead of the recorder */
+	private static final SpriteBatch renderer = new SpriteBatch(recorder);
 	/** The line strip renderer to use */
 	private static LineStripRenderer lineStripRenderer = new DefaultLineStripRenderer();
 	
@@ -72,12 +79,13 @@ public class Renderer {
 	}
 	
 	/**
-	 * Set the renderer to be used
+	 * Set the renderer to be used. GL calls still pass through the sprite
+	 * batch and the recorder before they reach it.
 	 * 
 	 * @param r The renderer to be used
 	 */
 	public static void setRenderer(SGL r) {
-		renderer = r;
+		recorder.setSGL(r);
 	}
 	
 	/**
@@ -106,4 +114,22 @@ public class Renderer {
             renderer.glColor4f(color.getR(), color.getG(), color.getB(), color.getA());
         }
         
+        /**
+         * Get the SpriteBatch that images should be drawn through, which is
+         * also the renderer in use.
+         * @return The SpriteBatch in use
+         */
+        public static SpriteBatch getSpriteBatch() {
+            return renderer;
+        }
+        
+        /**
+         * Get the RecordingSGL that all GL calls pass through after the
+         * SpriteBatch, so that a pipelined game's logic thread can record them.
+         * @return The RecordingSGL in use
+         */
+        public static RecordingSGL getRecorder() {
+            return recorder;
+        }
+        
 }
@@ -531,4 +531,17 @@ public interface SGL {
 	public boolean canSecondaryColor();
 
 	public void glSecondaryColor3ubEXT(byte b, byte c, byte d);
+	
+	/**
+	 * Draw a number of textured, coloured quads in one call, using the
+	 * currently bound texture. Each vertex takes up 8 consecutive floats in
+	 * the data array: x, y, texture x, texture y, red, green, blue and alpha.
+	 * Each quad takes up 4 consecutive vertices. The current colour is the
+	 * same after the call as it was before it.
+	 * 
+	 * @param data The array holding the vertex data
+	 * @param offset The index in the array of the first float of the first quad
+	 * @param numQuads The number of quads to draw
+	 */
+	public void glDrawQuads(float[] data, int offset, int numQuads);
 }
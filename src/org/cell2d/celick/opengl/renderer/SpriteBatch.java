@@ -0,0 +1,588 @@
+package org.cell2d.celick.opengl.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import org.cell2d.Color;
+
+/**
+ * <p>A SpriteBatch is an SGL that wraps another SGL. Instead of passing on
+ * each textured quad as it is drawn, it collects the quads drawn with its
+ * addQuad() methods into one large array of vertex data. The corners of the
+ * quads are rotated and positioned on the CPU, so drawing them needs no matrix
+ * operations, and each quad's color is stored with its vertices, so drawing
+ * one with a color does not change the current color. The collected quads
+ * are passed on in one glDrawQuads() call when the SpriteBatch is flushed.</p>
+ * 
+ * <p>A SpriteBatch flushes itself before it passes on any call other than
+ * glColor4f() and the calls that only return information. Binding a
+ * different texture and changing the blend function are such calls, so all of
+ * the quads in one batch share a texture and a blend mode, and a series of
+ * quads that all use the same texture is passed on all at once. A SpriteBatch
+ * also flushes itself when its array of vertex data is full.</p>
+ * 
+ * <p>A SpriteBatch is not thread-safe. Only one thread at a time may draw
+ * through it, and it should be flushed before another thread starts.</p>
+ * @see Renderer#getSpriteBatch()
+ * @author Alex Heyman
+ */
+public class SpriteBatch implements SGL {
+    
+    /**
+     * The number of quads that a SpriteBatch can hold by default before it
+     * must flush itself.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    //Each vertex is x, y, texture x, texture y, red, green, blue, alpha
+    private static final int FLOATS_PER_QUAD = 32;
+    
+    private SGL sgl;
+    private final float[] data;
+    private final int capacity;
+    private int numQuads = 0;
+    private boolean batching = true;
+    //The color most recently passed to glColor4f(), before any global alpha scale is applied
+    private float red = 1;
+    private float green = 1;
+    private float blue = 1;
+    private float alpha = 1;
+    
+    /**
+     * Constructs a SpriteBatch that wraps the specified SGL and has the default
+     * capacity.
+     * @param sgl The SGL that this SpriteBatch passes calls on to
+     */
+    public SpriteBatch(SGL sgl) {
+        this(sgl, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a SpriteBatch that wraps the specified SGL and can hold the
+     * specified number of quads before it must flush itself.
+     * @param sgl The SGL that this SpriteBatch passes calls on to
+     * @param capacity The number of quads that this SpriteBatch can hold
+     */
+    public SpriteBatch(SGL sgl, int capacity) {
+        if (capacity <= 0) {
+            throw new RuntimeException("Attempted to construct a SpriteBatch with non-positive capacity "
+                    + capacity);
+        }
+        this.sgl = sgl;
+        this.capacity = capacity;
+        data = new float[capacity*FLOATS_PER_QUAD];
+    }
+    
+    /**
+     * Returns the SGL that this SpriteBatch passes calls on to.
+     * @return The SGL that this SpriteBatch wraps
+     */
+    public final SGL getSGL() {
+        return sgl;
+    }
+    
+    /**
+     * Sets the SGL that this SpriteBatch passes calls on to to the specified
+     * SGL. This SpriteBatch will be flushed to its current SGL first.
+     * @param sgl The SGL that this SpriteBatch should wrap
+     */
+    public final void setSGL(SGL sgl) {
+        flushBatch();
+        this.sgl = sgl;
+    }
+    
+    /**
+     * Returns the number of quads that this SpriteBatch can hold before it
+     * must flush itself.
+     * @return This SpriteBatch's capacity
+     */
+    public final int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Returns the number of quads that this SpriteBatch currently holds.
+     * @return The number of quads in this SpriteBatch
+     */
+    public final int getNumQuads() {
+        return numQuads;
+    }
+    
+    /**
+     * Returns whether images should be drawn by adding quads to this
+     * SpriteBatch. If they should not, they are drawn through it with
+     * individual GL calls instead.
+     * @return Whether images should be drawn by adding quads to this
+     * SpriteBatch
+     */
+    public final boolean isBatching() {
+        return batching;
+    }
+    
+    /**
+     * Sets whether images should be drawn by adding quads to this SpriteBatch.
+     * If they should not, this SpriteBatch will be flushed.
+     * @param batching Whether images should be drawn by adding quads to this
+     * SpriteBatch
+     */
+    public final void setBatching(boolean batching) {
+        if (!batching) {
+            flushBatch();
+        }
+        this.batching = batching;
+    }
+    
+    /**
+     * Passes on all of the quads that this SpriteBatch holds to its SGL in one
+     * glDrawQuads() call, and removes them from this SpriteBatch. If this
+     * SpriteBatch holds no quads, this method will do nothing.
+     */
+    public final void flushBatch() {
+        if (numQuads > 0) {
+            int quadsToDraw = numQuads;
+            numQuads = 0;
+            sgl.glDrawQuads(data, 0, quadsToDraw);
+        }
+    }
+    
+    /**
+     * Adds a quad with the specified corners, texture coordinates, and color
+     * to this SpriteBatch. The quad will be drawn with the texture that is
+     * bound when this SpriteBatch is next flushed. The corners are given in
+     * the order top left, bottom left, bottom right, top right, and the top
+     * left corner of the texture region is drawn at the top left corner.
+     * @param x1 The x-coordinate of the top left corner
+     * @param y1 The y-coordinate of the top left corner
+     * @param x2 The x-coordinate of the bottom left corner
+     * @param y2 The y-coordinate of the bottom left corner
+     * @param x3 The x-coordinate of the bottom right corner
+     * @param y3 The y-coordinate of the bottom right corner
+     * @param x4 The x-coordinate of the top right corner
+     * @param y4 The y-coordinate of the top right corner
+     * @param u1 The left texture x-coordinate
+     * @param v1 The top texture y-coordinate
+     * @param u2 The right texture x-coordinate
+     * @param v2 The bottom texture y-coordinate
+     * @param r The red value of the quad's color
+     * @param g The green value of the quad's color
+     * @param b The blue value of the quad's color
+     * @param a The alpha value of the quad's color
+     */
+    public final void addQuad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4,
+            float u1, float v1, float u2, float v2, float r, float g, float b, float a) {
+        if (numQuads == capacity) {
+            flushBatch();
+        }
+        float[] data = this.data;
+        int i = numQuads*FLOATS_PER_QUAD;
+        data[i] = x1;
+        data[i + 1] = y1;
+        data[i + 2] = u1;
+        data[i + 3] = v1;
+        data[i + 8] = x2;
+        data[i + 9] = y2;
+        data[i + 10] = u1;
+        data[i + 11] = v2;
+        data[i + 16] = x3;
+        data[i + 17] = y3;
+        data[i + 18] = u2;
+        data[i + 19] = v2;
+        data[i + 24] = x4;
+        data[i + 25] = y4;
+        data[i + 26] = u2;
+        data[i + 27] = v1;
+        for (int j = i + 4; j < i + FLOATS_PER_QUAD; j += 8) {
+            data[j] = r;
+            data[j + 1] = g;
+            data[j + 2] = b;
+            data[j + 3] = a;
+        }
+        numQuads++;
+    }
+    
+    /**
+     * Adds a quad with the specified position, size, rotation, texture
+     * coordinates, and color to this SpriteBatch. The quad will be drawn with
+     * the texture that is bound when this SpriteBatch is next flushed. Its
+     * texture region is flipped if u2 is less than u1 or v2 is less than v1.
+     * @param x The x-coordinate of the quad's top left corner before rotation
+     * @param y The y-coordinate of the quad's top left corner before rotation
+     * @param width The quad's width
+     * @param height The quad's height
+     * @param angle The angle in degrees by which to rotate the quad, in the
+     * same direction as glRotatef()
+     * @param centerX The x-coordinate, relative to the quad's top left corner,
+     * of the point around which to rotate it
+     * @param centerY The y-coordinate, relative to the quad's top left corner,
+     * of the point around which to rotate it
+     * @param u1 The left texture x-coordinate
+     * @param v1 The top texture y-coordinate
+     * @param u2 The right texture x-coordinate
+     * @param v2 The bottom texture y-coordinate
+     * @param color The quad's color, or null if it should be the color most
+     * recently passed to glColor4f()
+     * @param alphaFactor The factor by which to multiply the alpha value of
+     * the quad's color
+     */
+    public final void addQuad(float x, float y, float width, float height,
+            float angle, float centerX, float centerY, float u1, float v1, float u2, float v2,
+            Color color, float alphaFactor) {
+        float r, g, b, a;
+        if (color == null) {
+            r = red;
+            g = green;
+            b = blue;
+            a = alpha*alphaFactor;
+        } else {
+            r = color.getR();
+            g = color.getG();
+            b = color.getB();
+            a = color.getA()*alphaFactor;
+        }
+        if (angle == 0) {
+            float right = x + width;
+            float bottom = y + height;
+            addQuad(x, y, x, bottom, right, bottom, right, y, u1, v1, u2, v2, r, g, b, a);
+            return;
+        }
+        double radians = Math.toRadians(angle);
+        float cos = (float)Math.cos(radians);
+        float sin = (float)Math.sin(radians);
+        //The positions of the rotation center and of the top left corner relative to it
+        float cx = x + centerX;
+        float cy = y + centerY;
+        float left = -centerX;
+        float top = -centerY;
+        float right = width - centerX;
+        float bottom = height - centerY;
+        addQuad(cx + cos*left - sin*top, cy + sin*left + cos*top,
+                cx + cos*left - sin*bottom, cy + sin*left + cos*bottom,
+                cx + cos*right - sin*bottom, cy + sin*right + cos*bottom,
+                cx + cos*right - sin*top, cy + sin*right + cos*top,
+                u1, v1, u2, v2, r, g, b, a);
+    }
+    
+    @Override
+    public void flush() {
+        flushBatch();
+        sgl.flush();
+    }
+    
+    @Override
+    public void glColor4f(float r, float g, float b, float a) {
+        red = r;
+        green = g;
+        blue = b;
+        alpha = a;
+        sgl.glColor4f(r, g, b, a);
+    }
+    
+    @Override
+    public void glDrawQuads(float[] data, int offset, int numQuads) {
+        flushBatch();
+        sgl.glDrawQuads(data, offset, numQuads);
+    }
+    
+    @Override
+    public void initDisplay(int width, int height) {
+        flushBatch();
+        sgl.initDisplay(width, height);
+    }
+    
+    @Override
+    public void enterOrtho(int xsize, int ysize) {
+        flushBatch();
+        sgl.enterOrtho(xsize, ysize);
+    }
+    
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        flushBatch();
+        sgl.glClearColor(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void glClipPlane(int plane, DoubleBuffer buffer) {
+        flushBatch();
+        sgl.glClipPlane(plane, buffer);
+    }
+    
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        flushBatch();
+        sgl.glScissor(x, y, width, height);
+    }
+    
+    @Override
+    public void glLineWidth(float width) {
+        flushBatch();
+        sgl.glLineWidth(width);
+    }
+    
+    @Override
+    public void glClear(int value) {
+        flushBatch();
+        sgl.glClear(value);
+    }
+    
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        flushBatch();
+        sgl.glColorMask(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void glLoadIdentity() {
+        flushBatch();
+        sgl.glLoadIdentity();
+    }
+    
+    @Override
+    public void glGetInteger(int id, IntBuffer ret) {
+        flushBatch();
+        sgl.glGetInteger(id, ret);
+    }
+    
+    @Override
+    public void glGetFloat(int id, FloatBuffer ret) {
+        flushBatch();
+        sgl.glGetFloat(id, ret);
+    }
+    
+    @Override
+    public void glEnable(int item) {
+        flushBatch();
+        sgl.glEnable(item);
+    }
+    
+    @Override
+    public void glDisable(int item) {
+        flushBatch();
+        sgl.glDisable(item);
+    }
+    
+    @Override
+    public void glBindTexture(int target, int id) {
+        flushBatch();
+        sgl.glBindTexture(target, id);
+    }
+    
+    @Override
+    public void glGetTexImage(int target, int level, int format, int type, ByteBuffer pixels) {
+        flushBatch();
+        sgl.glGetTexImage(target, level, format, type, pixels);
+    }
+    
+    @Override
+    public void glDeleteTextures(IntBuffer buffer) {
+        flushBatch();
+        sgl.glDeleteTextures(buffer);
+    }
+    
+    @Override
+    public void glTexCoord2f(float u, float v) {
+        flushBatch();
+        sgl.glTexCoord2f(u, v);
+    }
+    
+    @Override
+    public void glVertex3f(float x, float y, float z) {
+        flushBatch();
+        sgl.glVertex3f(x, y, z);
+    }
+    
+    @Override
+    public void glVertex2f(float x, float y) {
+        flushBatch();
+        sgl.glVertex2f(x, y);
+    }
+    
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        flushBatch();
+        sgl.glRotatef(angle, x, y, z);
+    }
+    
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        flushBatch();
+        sgl.glTranslatef(x, y, z);
+    }
+    
+    @Override
+    public void glBegin(int geomType) {
+        flushBatch();
+        sgl.glBegin(geomType);
+    }
+    
+    @Override
+    public void glEnd() {
+        flushBatch();
+        sgl.glEnd();
+    }
+    
+    @Override
+    public void glTexEnvi(int target, int mode, int value) {
+        flushBatch();
+        sgl.glTexEnvi(target, mode, value);
+    }
+    
+    @Override
+    public void glPointSize(float size) {
+        flushBatch();
+        sgl.glPointSize(size);
+    }
+    
+    @Override
+    public void glScalef(float x, float y, float z) {
+        flushBatch();
+        sgl.glScalef(x, y, z);
+    }
+    
+    @Override
+    public void glPushMatrix() {
+        flushBatch();
+        sgl.glPushMatrix();
+    }
+    
+    @Override
+    public void glPopMatrix() {
+        flushBatch();
+        sgl.glPopMatrix();
+    }
+    
+    @Override
+    public void glBlendFunc(int src, int dest) {
+        flushBatch();
+        sgl.glBlendFunc(src, dest);
+    }
+    
+    @Override
+    public int glGenLists(int count) {
+        flushBatch();
+        return sgl.glGenLists(count);
+    }
+    
+    @Override
+    public void glNewList(int id, int option) {
+        flushBatch();
+        sgl.glNewList(id, option);
+    }
+    
+    @Override
+    public void glEndList() {
+        flushBatch();
+        sgl.glEndList();
+    }
+    
+    @Override
+    public void glCallList(int id) {
+        flushBatch();
+        sgl.glCallList(id);
+    }
+    
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalFormat, int x, int y, int width,
+            int height, int border) {
+        flushBatch();
+        sgl.glCopyTexImage2D(target, level, internalFormat, x, y, width, height, border);
+    }
+    
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        flushBatch();
+        sgl.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void glTexParameteri(int target, int param, int value) {
+        flushBatch();
+        sgl.glTexParameteri(target, param, value);
+    }
+    
+    @Override
+    public float[] getCurrentColor() {
+        return sgl.getCurrentColor();
+    }
+    
+    @Override
+    public void glDeleteLists(int list, int count) {
+        flushBatch();
+        sgl.glDeleteLists(list, count);
+    }
+    
+    @Override
+    public void glDepthMask(boolean mask) {
+        flushBatch();
+        sgl.glDepthMask(mask);
+    }
+    
+    @Override
+    public void glClearDepth(float value) {
+        flushBatch();
+        sgl.glClearDepth(value);
+    }
+    
+    @Override
+    public void glDepthFunc(int func) {
+        flushBatch();
+        sgl.glDepthFunc(func);
+    }
+    
+    @Override
+    public void setGlobalAlphaScale(float alphaScale) {
+        flushBatch();
+        sgl.setGlobalAlphaScale(alphaScale);
+    }
+    
+    @Override
+    public void glLoadMatrix(FloatBuffer buffer) {
+        flushBatch();
+        sgl.glLoadMatrix(buffer);
+    }
+    
+    @Override
+    public void glGenTextures(IntBuffer ids) {
+        flushBatch();
+        sgl.glGenTextures(ids);
+    }
+    
+    @Override
+    public void glGetError() {
+        flushBatch();
+        sgl.glGetError();
+    }
+    
+    @Override
+    public void glTexImage2D(int target, int i, int dstPixelFormat, int get2Fold, int get2Fold2, int j,
+            int srcPixelFormat, int glUnsignedByte, ByteBuffer textureBuffer) {
+        flushBatch();
+        sgl.glTexImage2D(target, i, dstPixelFormat, get2Fold, get2Fold2, j,
+                srcPixelFormat, glUnsignedByte, textureBuffer);
+    }
+    
+    @Override
+    public void glTexSubImage2D(int glTexture2d, int i, int pageX, int pageY, int width, int height,
+            int glBgra, int glUnsignedByte, ByteBuffer scratchByteBuffer) {
+        flushBatch();
+        sgl.glTexSubImage2D(glTexture2d, i, pageX, pageY, width, height,
+                glBgra, glUnsignedByte, scratchByteBuffer);
+    }
+    
+    @Override
+    public boolean canTextureMirrorClamp() {
+        return sgl.canTextureMirrorClamp();
+    }
+    
+    @Override
+    public boolean canSecondaryColor() {
+        return sgl.canSecondaryColor();
+    }
+    
+    @Override
+    public void glSecondaryColor3ubEXT(byte b, byte c, byte d) {
+        flushBatch();
+        sgl.glSecondaryColor3ubEXT(b, c, d);
+    }
+    
+}
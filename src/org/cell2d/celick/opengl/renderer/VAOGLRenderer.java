@@ -355,5 +355,17 @@ public class VAOGLRenderer extends ImmediateModeOGLRenderer {
 		flushBuffer();
 		super.glLoadMatrix(buffer);
 	}
+	
+	@Override
+	public void glDrawQuads(float[] data, int offset, int numQuads) {
+		if (listMode > 0) {
+			super.glDrawQuads(data, offset, numQuads);
+			return;
+		}
+		
+		applyBuffer();
+		//The client states that the quad arrays need are always enabled
+		drawQuadArrays(data, offset, numQuads);
+	}
         
 }
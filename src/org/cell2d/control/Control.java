@@ -13,6 +13,113 @@ import org.cell2d.Direction;
  */
 public abstract class Control {
     
+    private static final int NUM_KEY_INDICES = 256;
+    private static final int NUM_MOUSE_BUTTON_INDICES = 8;
+    private static final int CONTROLLER_START = NUM_KEY_INDICES + NUM_MOUSE_BUTTON_INDICES;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int CONTROLLER_SIZE = ControllerButtonControl.MAX_BUTTONS + DIRECTIONS.length;
+    
+    /**
+     * The number of distinct indices that Controls can have. Every Control's
+     * index is at least 0 and less than this number.
+     */
+    public static final int NUM_INDICES = CONTROLLER_START
+            + ControllerControl.MAX_CONTROLLERS*CONTROLLER_SIZE;
+    
+    /**
+     * Returns this Control's index, a number that identifies it among all of
+     * the Controls that Cell2D recognizes. Two Controls have the same index if
+     * and only if they are equal, so Controls can be looked up by index in
+     * arrays rather than in hash tables.
+     * @return This Control's index
+     */
+    public abstract int getIndex();
+    
+    /**
+     * Returns the index that a KeyControl with the specified key code would
+     * have, or -1 if no Control could have that key code. This method does not
+     * check whether the key code is one that a KeyControl accepts.
+     * @param keyCode The key code
+     * @return The index of the KeyControl with the specified key code
+     */
+    public static int getKeyIndex(int keyCode) {
+        return (keyCode >= 0 && keyCode < NUM_KEY_INDICES ? keyCode : -1);
+    }
+    
+    /**
+     * Returns the index that a MouseButtonControl with the specified button
+     * code would have, or -1 if no Control could have that button code. This
+     * method does not check whether the button code is one that a
+     * MouseButtonControl accepts.
+     * @param buttonCode The button code
+     * @return The index of the MouseButtonControl with the specified button
+     * code
+     */
+    public static int getMouseButtonIndex(int buttonCode) {
+        return (buttonCode >= 0 && buttonCode < NUM_MOUSE_BUTTON_INDICES ?
+                NUM_KEY_INDICES + buttonCode : -1);
+    }
+    
+    /**
+     * Returns the index of the ControllerButtonControl with the specified
+     * controller and button numbers, or -1 if either number is invalid.
+     * @param controllerNum The controller number
+     * @param buttonNum The button number
+     * @return The index of the ControllerButtonControl with the specified
+     * controller and button numbers
+     */
+    public static int getControllerButtonIndex(int controllerNum, int buttonNum) {
+        if (controllerNum < 0 || controllerNum >= ControllerControl.MAX_CONTROLLERS
+                || buttonNum < 0 || buttonNum >= ControllerButtonControl.MAX_BUTTONS) {
+            return -1;
+        }
+        return CONTROLLER_START + controllerNum*CONTROLLER_SIZE + buttonNum;
+    }
+    
+    /**
+     * Returns the index of the ControllerDirectionControl with the specified
+     * controller number and Direction, or -1 if the controller number is
+     * invalid.
+     * @param controllerNum The controller number
+     * @param direction The Direction
+     * @return The index of the ControllerDirectionControl with the specified
+     * controller number and Direction
+     */
+    public static int getControllerDirectionIndex(int controllerNum, Direction direction) {
+        if (controllerNum < 0 || controllerNum >= ControllerControl.MAX_CONTROLLERS) {
+            return -1;
+        }
+        return CONTROLLER_START + controllerNum*CONTROLLER_SIZE + ControllerButtonControl.MAX_BUTTONS
+                + direction.ordinal();
+    }
+    
+    /**
+     * Returns a Control whose index according to getIndex() is the specified
+     * index, or null if no Control has that index.
+     * @param index The index of the Control to be returned
+     * @return A Control whose index is the specified index
+     */
+    public static Control getControl(int index) {
+        try {
+            if (index < 0 || index >= NUM_INDICES) {
+                return null;
+            } else if (index < NUM_KEY_INDICES) {
+                return new KeyControl(index);
+            } else if (index < CONTROLLER_START) {
+                return new MouseButtonControl(index - NUM_KEY_INDICES);
+            }
+            int controllerNum = (index - CONTROLLER_START)/CONTROLLER_SIZE;
+            int i = (index - CONTROLLER_START) % CONTROLLER_SIZE;
+            if (i < ControllerButtonControl.MAX_BUTTONS) {
+                return new ControllerButtonControl(controllerNum, i);
+            }
+            return new ControllerDirectionControl(
+                    controllerNum, DIRECTIONS[i - ControllerButtonControl.MAX_BUTTONS]);
+        } catch (InvalidControlException e) {
+            return null;
+        }
+    }
+    
     /**
      * Returns a short, descriptive, and unique String name for this Control.
      * The name will be no more than 6 characters long and contain only ASCII
@@ -64,6 +64,11 @@ public class ControllerButtonControl extends ControllerControl {
         return "C" + getControllerNum() + "B" + buttonNum;
     }
     
+    @Override
+    public final int getIndex() {
+        return Control.getControllerButtonIndex(getControllerNum(), buttonNum);
+    }
+    
     /**
      * Returns the number of this ControllerButtonControl's button.
      * @return The number of this ControllerButtonControl's button
@@ -78,6 +78,11 @@ public class ControllerDirectionControl extends ControllerControl {
         return null;
     }
     
+    @Override
+    public final int getIndex() {
+        return Control.getControllerDirectionIndex(getControllerNum(), direction);
+    }
+    
     /**
      * Returns this ControllerButtonControl's Direction.
      * @return This ControllerButtonControl's Direction
@@ -144,8 +144,12 @@ public class KeyControl extends Control {
     public static final int KEY_POWER           = 0xDE;
     public static final int KEY_SLEEP           = 0xDF;
     
-    private static Map<Integer,String> KEYCODE_NAMES = null;
-    private static Map<String,Integer> NAME_KEYCODES = null;
+    private static final Map<Integer,String> KEYCODE_NAMES = new HashMap<>();
+    private static final Map<String,Integer> NAME_KEYCODES = new HashMap<>();
+    static {
+        //Filled in eagerly so that threads never see the Maps partially filled
+        initKeyCodeData();
+    }
     
     private static void putKeyCodeName(int keyCode, String name) {
         KEYCODE_NAMES.put(keyCode, name);
@@ -153,8 +157,6 @@ public class KeyControl extends Control {
     }
     
     private static void initKeyCodeData() {
-        KEYCODE_NAMES = new HashMap<>();
-        NAME_KEYCODES = new HashMap<>();
         putKeyCodeName(KEY_ESCAPE, "Escape");
 	putKeyCodeName(KEY_1, "1");
 	putKeyCodeName(KEY_2, "2");
@@ -296,9 +298,6 @@ public class KeyControl extends Control {
      * @return The name of the specified key code
      */
     public static String getKeyCodeName(int keyCode) {
-        if (KEYCODE_NAMES == null) {
-            initKeyCodeData();
-        }
         return KEYCODE_NAMES.get(keyCode);
     }
     
@@ -310,9 +309,6 @@ public class KeyControl extends Control {
      * @return The key code whose name is the specified String
      */
     public static Integer getKeyCode(String name) {
-        if (NAME_KEYCODES == null) {
-            initKeyCodeData();
-        }
         return NAME_KEYCODES.get(name);
     }
     
@@ -358,6 +354,11 @@ public class KeyControl extends Control {
         return KEYCODE_NAMES.get(keyCode);
     }
     
+    @Override
+    public final int getIndex() {
+        return Control.getKeyIndex(keyCode);
+    }
+    
     /**
      * Returns this KeyControl's key code.
      * @return This KeyControl's key code
@@ -65,6 +65,11 @@ public class MouseButtonControl extends Control {
         return null;
     }
     
+    @Override
+    public final int getIndex() {
+        return Control.getMouseButtonIndex(buttonCode);
+    }
+    
     /**
      * Returns this MouseButtonControl's button code.
      * @return This MouseButtonControl's button code
@@ -0,0 +1,187 @@
+package org.cell2d.space;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>A CellDiagnostics is a record of how well a SpaceState's cells divided its
+ * space at the time that the CellDiagnostics was created, along with
+ * statistics on the spatial queries that the SpaceState had performed since
+ * its query statistics were last reset, if they were enabled. It is useful for
+ * choosing cell dimensions for a SpaceState: cells that are too large hold
+ * many Hitboxes each, making queries test many candidate SpaceObjects that
+ * they then reject, while cells that are too small make each Hitbox occupy
+ * many cells and leave many of them empty.</p>
+ * @see SpaceState#getCellDiagnostics()
+ * @see SpaceState#setQueryStatisticsEnabled(boolean)
+ * @author Alex Heyman
+ */
+public final class CellDiagnostics {
+    
+    private final int numCells;
+    private final int numEmptyCells;
+    private final int maxOccupancy;
+    private final Map<HitboxRole,int[]> histograms;
+    private final int numHitboxes;
+    private final long numCellsSpanned;
+    private final int maxCellsSpanned;
+    private final long numQueries;
+    private final long queryCellsVisited;
+    private final long queryCandidatesTested;
+    private final long queryCandidatesRejected;
+    
+    CellDiagnostics(int numCells, int numEmptyCells, int maxOccupancy,
+            EnumMap<HitboxRole,int[]> histograms, int numHitboxes, long numCellsSpanned,
+            int maxCellsSpanned, long numQueries, long queryCellsVisited,
+            long queryCandidatesTested, long queryCandidatesRejected) {
+        this.numCells = numCells;
+        this.numEmptyCells = numEmptyCells;
+        this.maxOccupancy = maxOccupancy;
+        this.histograms = histograms;
+        this.numHitboxes = numHitboxes;
+        this.numCellsSpanned = numCellsSpanned;
+        this.maxCellsSpanned = maxCellsSpanned;
+        this.numQueries = numQueries;
+        this.queryCellsVisited = queryCellsVisited;
+        this.queryCandidatesTested = queryCandidatesTested;
+        this.queryCandidatesRejected = queryCandidatesRejected;
+    }
+    
+    /**
+     * Returns the number of cells that the SpaceState had.
+     * @return The number of cells
+     */
+    public final int getNumCells() {
+        return numCells;
+    }
+    
+    /**
+     * Returns the number of the SpaceState's cells that no Hitboxes occupied.
+     * Such cells take up memory without helping the SpaceState to search its
+     * space, and can be removed with the SpaceState's clearEmptyCells() method.
+     * @return The number of empty cells
+     */
+    public final int getNumEmptyCells() {
+        return numEmptyCells;
+    }
+    
+    /**
+     * Returns a histogram of how many Hitboxes with the specified HitboxRole
+     * occupied each of the SpaceState's cells. The value of the returned array
+     * at each index is the number of cells that exactly that many such
+     * Hitboxes occupied. The length of the array is one more than the largest
+     * number of such Hitboxes that occupied any one cell.
+     * @param role The HitboxRole whose histogram should be returned
+     * @return The histogram of cell occupancy for the specified HitboxRole
+     */
+    public final int[] getHistogram(HitboxRole role) {
+        int[] histogram = histograms.get(role);
+        return Arrays.copyOf(histogram, histogram.length);
+    }
+    
+    /**
+     * Returns the largest number of Hitboxes with the specified HitboxRole that
+     * occupied any one of the SpaceState's cells.
+     * @param role The HitboxRole whose maximum cell occupancy should be
+     * returned
+     * @return The maximum cell occupancy for the specified HitboxRole
+     */
+    public final int getMaxOccupancy(HitboxRole role) {
+        return histograms.get(role).length - 1;
+    }
+    
+    /**
+     * Returns the largest number of Hitboxes of any HitboxRoles that occupied
+     * any one of the SpaceState's cells. A Hitbox with more than one HitboxRole
+     * counts once for each of them.
+     * @return The maximum cell occupancy for all HitboxRoles combined
+     */
+    public final int getMaxOccupancy() {
+        return maxOccupancy;
+    }
+    
+    /**
+     * Returns the number of distinct Hitboxes that occupied the SpaceState's
+     * cells.
+     * @return The number of Hitboxes in cells
+     */
+    public final int getNumHitboxes() {
+        return numHitboxes;
+    }
+    
+    /**
+     * Returns the average number of the SpaceState's cells that each Hitbox
+     * that occupied any of them occupied, or 0 if there were no such Hitboxes.
+     * @return The average number of cells that each Hitbox spanned
+     */
+    public final double getAverageCellsSpanned() {
+        return (numHitboxes == 0 ? 0 : ((double)numCellsSpanned)/numHitboxes);
+    }
+    
+    /**
+     * Returns the largest number of the SpaceState's cells that any one Hitbox
+     * occupied.
+     * @return The maximum number of cells that any Hitbox spanned
+     */
+    public final int getMaxCellsSpanned() {
+        return maxCellsSpanned;
+    }
+    
+    /**
+     * Returns the number of spatial queries, such as searches for SpaceObjects
+     * within regions or overlapping Hitboxes, that the SpaceState had performed
+     * since its query statistics were last reset.
+     * @return The number of spatial queries
+     */
+    public final long getNumQueries() {
+        return numQueries;
+    }
+    
+    /**
+     * Returns the total number of cells that the SpaceState's spatial queries
+     * visited since its query statistics were last reset.
+     * @return The total number of cells visited by spatial queries
+     */
+    public final long getQueryCellsVisited() {
+        return queryCellsVisited;
+    }
+    
+    /**
+     * Returns the total number of candidate Hitboxes that the SpaceState's
+     * spatial queries tested since its query statistics were last reset.
+     * @return The total number of candidates tested by spatial queries
+     */
+    public final long getQueryCandidatesTested() {
+        return queryCandidatesTested;
+    }
+    
+    /**
+     * Returns the total number of candidate Hitboxes that the SpaceState's
+     * spatial queries tested and found not to match since its query statistics
+     * were last reset.
+     * @return The total number of candidates rejected by spatial queries
+     */
+    public final long getQueryCandidatesRejected() {
+        return queryCandidatesRejected;
+    }
+    
+    /**
+     * Returns the average number of cells that each of the SpaceState's spatial
+     * queries visited, or 0 if it had performed none.
+     * @return The average number of cells visited per spatial query
+     */
+    public final double getAverageCellsVisited() {
+        return (numQueries == 0 ? 0 : ((double)queryCellsVisited)/numQueries);
+    }
+    
+    /**
+     * Returns the average number of candidate Hitboxes that each of the
+     * SpaceState's spatial queries rejected, or 0 if it had performed none.
+     * @return The average number of candidates rejected per spatial query
+     */
+    public final double getAverageCandidatesRejected() {
+        return (numQueries == 0 ? 0 : ((double)queryCandidatesRejected)/numQueries);
+    }
+    
+}
@@ -0,0 +1,143 @@
+package org.cell2d.space;
+
+import org.cell2d.Color;
+import org.cell2d.Frac;
+import org.cell2d.celick.Graphics;
+
+/**
+ * <p>A CellHeatmapLayer is a type of SpaceLayer that displays a SpaceState's
+ * cells for debugging purposes. It outlines each of the SpaceState's cells, and
+ * fills each cell with a color that ranges from green to red as the number of
+ * Hitboxes with a certain HitboxRole in the cell approaches a certain
+ * saturation number. Cells with no such Hitboxes are filled with a faint gray.
+ * A CellHeatmapLayer is most useful when assigned to the SpaceState whose cells
+ * it displays with a positive ID, so that it is rendered in front of the
+ * SpaceState's SpaceObjects.</p>
+ * @see CellDiagnostics
+ * @author Alex Heyman
+ */
+public class CellHeatmapLayer implements SpaceLayer {
+    
+    private static final Color EMPTY_COLOR = new Color(0.5f, 0.5f, 0.5f, 0.15f);
+    private static final float HEAT_ALPHA = 0.4f;
+    
+    private final SpaceState<?,?,?> state;
+    private HitboxRole role;
+    private int saturation;
+    private Color gridColor;
+    
+    /**
+     * Constructs a CellHeatmapLayer that displays the cells of the specified
+     * SpaceState.
+     * @param state The SpaceState whose cells this CellHeatmapLayer displays
+     * @param role The HitboxRole whose Hitboxes this CellHeatmapLayer counts in
+     * each cell
+     * @param saturation The number of Hitboxes in a cell at or above which this
+     * CellHeatmapLayer fills it with red
+     * @param gridColor The Color with which this CellHeatmapLayer outlines each
+     * cell
+     */
+    public CellHeatmapLayer(SpaceState<?,?,?> state, HitboxRole role, int saturation, Color gridColor) {
+        this.state = state;
+        this.role = role;
+        setSaturation(saturation);
+        this.gridColor = gridColor;
+    }
+    
+    /**
+     * Returns the SpaceState whose cells this CellHeatmapLayer displays.
+     * @return This CellHeatmapLayer's SpaceState
+     */
+    public final SpaceState<?,?,?> getState() {
+        return state;
+    }
+    
+    /**
+     * Returns the HitboxRole whose Hitboxes this CellHeatmapLayer counts in
+     * each cell.
+     * @return This CellHeatmapLayer's HitboxRole
+     */
+    public final HitboxRole getRole() {
+        return role;
+    }
+    
+    /**
+     * Sets the HitboxRole whose Hitboxes this CellHeatmapLayer counts in each
+     * cell to the specified HitboxRole.
+     * @param role This CellHeatmapLayer's new HitboxRole
+     */
+    public final void setRole(HitboxRole role) {
+        this.role = role;
+    }
+    
+    /**
+     * Returns the number of Hitboxes in a cell at or above which this
+     * CellHeatmapLayer fills it with red.
+     * @return This CellHeatmapLayer's saturation number
+     */
+    public final int getSaturation() {
+        return saturation;
+    }
+    
+    /**
+     * Sets the number of Hitboxes in a cell at or above which this
+     * CellHeatmapLayer fills it with red to the specified value.
+     * @param saturation This CellHeatmapLayer's new saturation number
+     */
+    public final void setSaturation(int saturation) {
+        if (saturation <= 0) {
+            throw new RuntimeException("Attempted to give a CellHeatmapLayer a non-positive saturation number ("
+                    + saturation + ")");
+        }
+        this.saturation = saturation;
+    }
+    
+    /**
+     * Returns the Color with which this CellHeatmapLayer outlines each cell.
+     * @return This CellHeatmapLayer's grid Color
+     */
+    public final Color getGridColor() {
+        return gridColor;
+    }
+    
+    /**
+     * Sets the Color with which this CellHeatmapLayer outlines each cell to the
+     * specified Color.
+     * @param gridColor This CellHeatmapLayer's new grid Color
+     */
+    public final void setGridColor(Color gridColor) {
+        this.gridColor = gridColor;
+    }
+    
+    @Override
+    public void renderActions(Graphics g, long cx, long cy, int x, int y, int x1, int y1, int x2, int y2) {
+        long cellWidth = state.getCellWidth();
+        long cellHeight = state.getCellHeight();
+        int left = Frac.intFloor(Frac.div(cx + (x1 - x)*Frac.UNIT, cellWidth));
+        int right = Frac.intFloor(Frac.div(cx + (x2 - x)*Frac.UNIT, cellWidth));
+        int top = Frac.intFloor(Frac.div(cy + (y1 - y)*Frac.UNIT, cellHeight));
+        int bottom = Frac.intFloor(Frac.div(cy + (y2 - y)*Frac.UNIT, cellHeight));
+        for (int cellY = top; cellY <= bottom; cellY++) {
+            int sy1 = y + Frac.intRound(cellY*cellHeight - cy);
+            int sy2 = y + Frac.intRound((cellY + 1)*cellHeight - cy);
+            for (int cellX = left; cellX <= right; cellX++) {
+                int occupancy = state.getCellOccupancy(cellX, cellY, role);
+                if (occupancy < 0) {
+                    continue;
+                }
+                int sx1 = x + Frac.intRound(cellX*cellWidth - cx);
+                int sx2 = x + Frac.intRound((cellX + 1)*cellWidth - cx);
+                if (occupancy == 0) {
+                    g.setColor(EMPTY_COLOR);
+                } else {
+                    float heat = Math.min(((float)occupancy)/saturation, 1);
+                    g.setColor(new Color(heat, 1 - heat, 0, HEAT_ALPHA));
+                }
+                g.fillRect(sx1, sy1, sx2 - sx1, sy2 - sy1);
+                g.setColor(gridColor);
+                g.drawRect(sx1, sy1, sx2 - sx1, sy2 - sy1);
+            }
+        }
+    }
+    
+}
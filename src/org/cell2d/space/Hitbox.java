@@ -1,7 +1,11 @@
 package org.cell2d.space;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.cell2d.CellVector;
 import org.cell2d.Direction;
@@ -35,6 +39,8 @@ import org.cell2d.Frac;
  */
 public abstract class Hitbox {
     
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
     private Hitbox parent = null;
     private final Set<Hitbox> children = new HashSet<>();
     CompositeHitbox componentOf = null;
@@ -173,6 +179,9 @@ public abstract class Hitbox {
      * solid
      */
     public final void setSurfaceSolid(Direction direction, boolean solid) {
+        if (object != null) {
+            object.markChanged();
+        }
         if (solid) {
             if (solidSurfaces.add(direction) && solidSurfaces.size() == 1
                     && roles.contains(HitboxRole.SOLID) && state != null) {
@@ -192,6 +201,9 @@ public abstract class Hitbox {
      * solid
      */
     public final void setSolid(boolean solid) {
+        if (object != null) {
+            object.markChanged();
+        }
         if (solid) {
             if (solidSurfaces.isEmpty() && roles.contains(HitboxRole.SOLID) && state != null) {
                 state.addHitbox(this, HitboxRole.SOLID);
@@ -205,6 +217,71 @@ public abstract class Hitbox {
         }
     }
     
+    //Writes this Hitbox's relative position, flipped status, angle, and solid surfaces, then its components'
+    final void writeSnapshot(ByteBuffer buffer) {
+        buffer.putLong(relPosition.getX());
+        buffer.putLong(relPosition.getY());
+        int flags = (relXFlip ? 1 : 0) | (relYFlip ? 2 : 0);
+        for (Direction direction : solidSurfaces) {
+            flags |= 4 << direction.ordinal();
+        }
+        buffer.put((byte)flags);
+        buffer.putDouble(relAngle);
+        if (this instanceof CompositeHitbox) {
+            CompositeHitbox composite = (CompositeHitbox)this;
+            List<Integer> ids = new ArrayList<>(composite.components.keySet());
+            Collections.sort(ids);
+            buffer.putInt(ids.size());
+            for (int id : ids) {
+                buffer.putInt(id);
+                composite.components.get(id).writeSnapshot(buffer);
+            }
+        }
+    }
+    
+    final void readSnapshot(ByteBuffer buffer) {
+        long relX = buffer.getLong();
+        long relY = buffer.getLong();
+        if (relX != relPosition.getX() || relY != relPosition.getY()) {
+            setRelPosition(relX, relY);
+        }
+        int flags = buffer.get();
+        if (((flags & 1) != 0) != relXFlip) {
+            setRelXFlip(!relXFlip);
+        }
+        if (((flags & 2) != 0) != relYFlip) {
+            setRelYFlip(!relYFlip);
+        }
+        for (Direction direction : DIRECTIONS) {
+            boolean solid = (flags & (4 << direction.ordinal())) != 0;
+            if (solid != solidSurfaces.contains(direction)) {
+                setSurfaceSolid(direction, solid);
+            }
+        }
+        double angle = buffer.getDouble();
+        if (angle != relAngle) {
+            setRelAngle(angle);
+        }
+        if (this instanceof CompositeHitbox) {
+            CompositeHitbox composite = (CompositeHitbox)this;
+            int numComponents = buffer.getInt();
+            if (numComponents != composite.components.size()) {
+                throw new RuntimeException("Attempted to restore a snapshot of a CompositeHitbox with "
+                        + numComponents + " components to a CompositeHitbox with "
+                        + composite.components.size() + " components");
+            }
+            for (int i = 0; i < numComponents; i++) {
+                int id = buffer.getInt();
+                Hitbox component = composite.components.get(id);
+                if (component == null) {
+                    throw new RuntimeException("Attempted to restore a snapshot of a CompositeHitbox component"
+                            + " with ID " + id + " to a CompositeHitbox with no such component");
+                }
+                component.readSnapshot(buffer);
+            }
+        }
+    }
+    
     /**
      * Returns the SpaceObject that is using this Hitbox, directly or indirectly
      * as part of a CompositeHitbox, or null if it is not being used by a
@@ -448,6 +525,9 @@ public abstract class Hitbox {
     }
     
     private void recursivelyUpdateAbsPosition() {
+        if (object != null) {
+            object.markChanged();
+        }
         updateAbsPosition();
         if (!children.isEmpty()) {
             for (Hitbox child : children) {
@@ -481,6 +561,9 @@ public abstract class Hitbox {
      */
     public final void setRelXFlip(boolean relXFlip) {
         this.relXFlip = relXFlip;
+        if (object != null) {
+            object.markChanged();
+        }
         absXFlip = (parent == null ? false : parent.absXFlip) ^ relXFlip;
         if (!children.isEmpty()) {
             for (Hitbox child : children) {
@@ -561,6 +644,9 @@ public abstract class Hitbox {
      */
     public final void setRelYFlip(boolean relYFlip) {
         this.relYFlip = relYFlip;
+        if (object != null) {
+            object.markChanged();
+        }
         absYFlip = (parent == null ? false : parent.absYFlip) ^ relYFlip;
         if (!children.isEmpty()) {
             for (Hitbox child : children) {
@@ -650,6 +736,9 @@ public abstract class Hitbox {
      */
     public final void setRelAngle(double relAngle) {
         this.relAngle = relAngle % 360;
+        if (object != null) {
+            object.markChanged();
+        }
         if (this.relAngle < 0) {
             this.relAngle += 360;
         }
@@ -1201,6 +1290,35 @@ public abstract class Hitbox {
         return polygonsIntersect(polygon, x1 - 1, rectVertices, rectDiffs);
     }
     
+    private static boolean maskIntersectsHitbox(MaskHitbox mask, Hitbox hitbox) {
+        //Assumption: mask and hitbox's bounding boxes intersect, and hitbox is not a CompositeHitbox
+        if (hitbox instanceof MaskHitbox) {
+            return mask.overlapsMask((MaskHitbox)hitbox);
+        } else if (hitbox instanceof RectangleHitbox) {
+            return mask.overlapsRectangle(hitbox.getLeftEdge(), hitbox.getTopEdge(), hitbox.getRightEdge(), hitbox.getBottomEdge());
+        } else if (hitbox instanceof PointHitbox) {
+            return mask.overlapsPoint(hitbox.getAbsX(), hitbox.getAbsY());
+        } else if (hitbox instanceof CircleHitbox) {
+            //Circle intersects any of mask's runs of solid pixels
+            long radius = ((CircleHitbox)hitbox).getRadius();
+            return mask.anyRunMeets(hitbox.getLeftEdge(), hitbox.getTopEdge(), hitbox.getRightEdge(), hitbox.getBottomEdge(),
+                    (x1, y1, x2, y2) -> circleIntersectsRectangle(hitbox.getAbsX(), hitbox.getAbsY(), radius, x1, y1, x2, y2));
+        } else if (hitbox instanceof LineHitbox) {
+            //Segment intersects any of mask's runs of solid pixels
+            CellVector diff = ((LineHitbox)hitbox).getAbsDifference();
+            return mask.anyRunMeets(hitbox.getLeftEdge(), hitbox.getTopEdge(), hitbox.getRightEdge(), hitbox.getBottomEdge(),
+                    (x1, y1, x2, y2) -> lineSegmentIntersectsRectangle(hitbox.absPosition, diff, x1, y1, x2, y2));
+        } else if (hitbox instanceof PolygonHitbox) {
+            //Polygon intersects any of mask's runs of solid pixels
+            PolygonHitbox polygon = (PolygonHitbox)hitbox;
+            return mask.anyRunMeets(hitbox.getLeftEdge(), hitbox.getTopEdge(), hitbox.getRightEdge(), hitbox.getBottomEdge(),
+                    (x1, y1, x2, y2) -> polygon.getLeftEdge() < x2 && polygon.getRightEdge() > x1
+                    && polygon.getTopEdge() < y2 && polygon.getBottomEdge() > y1
+                    && polygonIntersectsRectangle(polygon, x1, y1, x2, y2));
+        }
+        return false;
+    }
+    
     /**
      * Returns whether this Hitbox overlaps the specified Hitbox. Two Hitboxes
      * overlap if they share any points that are in the interior of at least one
@@ -1257,6 +1375,8 @@ public abstract class Hitbox {
                     return circleIntersectsPolygon(hitbox1.absPosition, ((CircleHitbox)hitbox1).getRadius(), (PolygonHitbox)hitbox2);
                 } else if (hitbox2 instanceof RectangleHitbox) {
                     return circleIntersectsRectangle(hitbox1.getAbsX(), hitbox1.getAbsY(), ((CircleHitbox)hitbox1).getRadius(), hitbox2.getLeftEdge(), hitbox2.getTopEdge(), hitbox2.getRightEdge(), hitbox2.getBottomEdge());
+                } else if (hitbox2 instanceof MaskHitbox) {
+                    return maskIntersectsHitbox((MaskHitbox)hitbox2, hitbox1);
                 }
             } else if (hitbox1 instanceof LineHitbox) {
                 if (hitbox2 instanceof CircleHitbox) {
@@ -1269,6 +1389,8 @@ public abstract class Hitbox {
                     return lineSegmentIntersectsPolygon(hitbox1.absPosition, ((LineHitbox)hitbox1).getAbsDifference(), (PolygonHitbox)hitbox2);
                 } else if (hitbox2 instanceof RectangleHitbox) {
                     return lineSegmentIntersectsRectangle(hitbox1.absPosition, ((LineHitbox)hitbox1).getAbsDifference(), hitbox2.getLeftEdge(), hitbox2.getTopEdge(), hitbox2.getRightEdge(), hitbox2.getBottomEdge());
+                } else if (hitbox2 instanceof MaskHitbox) {
+                    return maskIntersectsHitbox((MaskHitbox)hitbox2, hitbox1);
                 }
             } else if (hitbox1 instanceof PointHitbox) {
                 if (hitbox2 instanceof CircleHitbox) {
@@ -1279,6 +1401,8 @@ public abstract class Hitbox {
                     return pointIntersectsPolygon(hitbox1.absPosition, (PolygonHitbox)hitbox2);
                 } else if (hitbox2 instanceof RectangleHitbox) {
                     return true;
+                } else if (hitbox2 instanceof MaskHitbox) {
+                    return maskIntersectsHitbox((MaskHitbox)hitbox2, hitbox1);
                 }
             } else if (hitbox1 instanceof PolygonHitbox) {
                 if (hitbox2 instanceof CircleHitbox) {
@@ -1291,6 +1415,8 @@ public abstract class Hitbox {
                     return polygonsIntersect((PolygonHitbox)hitbox1, (PolygonHitbox)hitbox2);
                 } else if (hitbox2 instanceof RectangleHitbox) {
                     return polygonIntersectsRectangle((PolygonHitbox)hitbox1, hitbox2.getLeftEdge(), hitbox2.getTopEdge(), hitbox2.getRightEdge(), hitbox2.getBottomEdge());
+                } else if (hitbox2 instanceof MaskHitbox) {
+                    return maskIntersectsHitbox((MaskHitbox)hitbox2, hitbox1);
                 }
             } else if (hitbox1 instanceof RectangleHitbox) {
                 if (hitbox2 instanceof CircleHitbox) {
@@ -1303,7 +1429,11 @@ public abstract class Hitbox {
                     return polygonIntersectsRectangle((PolygonHitbox)hitbox2, hitbox1.getLeftEdge(), hitbox1.getTopEdge(), hitbox1.getRightEdge(), hitbox1.getBottomEdge());
                 } else if (hitbox2 instanceof RectangleHitbox) {
                     return true;
+                } else if (hitbox2 instanceof MaskHitbox) {
+                    return maskIntersectsHitbox((MaskHitbox)hitbox2, hitbox1);
                 }
+            } else if (hitbox1 instanceof MaskHitbox) {
+                return maskIntersectsHitbox((MaskHitbox)hitbox1, hitbox2);
             }
         }
         return false;
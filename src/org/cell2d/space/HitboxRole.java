@@ -1,8 +1,36 @@
 package org.cell2d.space;
 
 /**
+ * <p>A HitboxRole is a purpose for which a SpaceState keeps track of which of
+ * its cells a Hitbox occupies. A Hitbox can have several HitboxRoles at once.
+ * </p>
+ * @see CellDiagnostics
  * @author Alex Heyman
  */
-enum HitboxRole {
-    LOCATOR, CENTER, OVERLAP, SOLID, COLLISION
+public enum HitboxRole {
+    /**
+     * The role of a SpaceObject's locator Hitbox, which determines where the
+     * SpaceObject is visible and drawn.
+     */
+    LOCATOR,
+    /**
+     * The role of a SpaceObject's center Hitbox, which is used to search for
+     * SpaceObjects with their centers within regions.
+     */
+    CENTER,
+    /**
+     * The role of a SpaceObject's overlap Hitbox, which is used to search for
+     * SpaceObjects that overlap other Hitboxes.
+     */
+    OVERLAP,
+    /**
+     * The role of a SpaceObject's solid Hitbox, which other SpaceObjects can
+     * collide with.
+     */
+    SOLID,
+    /**
+     * The role of a MobileObject's collision Hitbox, which collides with the
+     * solid Hitboxes of other SpaceObjects.
+     */
+    COLLISION
 }
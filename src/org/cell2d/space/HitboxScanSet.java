@@ -0,0 +1,133 @@
+package org.cell2d.space;
+
+import java.util.Arrays;
+
+/**
+ * <p>A HitboxScanSet records which Hitboxes a spatial query has already
+ * scanned, so that a Hitbox that occupies several of the cells that the query
+ * visits is only tested once. A marking HitboxScanSet records a Hitbox by
+ * setting a flag on it, which is as cheap as possible, but only one query at a
+ * time may mark the Hitboxes of a given SpaceState. While parallel-safe
+ * SubThinkers may be querying at once, queries instead use shared
+ * HitboxScanSets, which record Hitboxes in tables of their own. Each thread
+ * reuses one shared HitboxScanSet for its queries, so a query does not
+ * normally allocate one.</p>
+ * @author Alex Heyman
+ */
+final class HitboxScanSet {
+    
+    private static final int INITIAL_CAPACITY = 64;
+    private static final ThreadLocal<HitboxScanSet> SETS
+            = ThreadLocal.withInitial(() -> new HitboxScanSet(false));
+    
+    private final boolean marking;
+    //A marking HitboxScanSet lists the Hitboxes it has marked here. Otherwise, this is open-addressed by
+    //identity hash, with a list of the occupied slots so that clearing is proportional to size.
+    private Hitbox[] table = new Hitbox[INITIAL_CAPACITY];
+    private int[] usedSlots = null;
+    private int size = 0;
+    private boolean inUse = false;
+    
+    private HitboxScanSet(boolean marking) {
+        this.marking = marking;
+        if (!marking) {
+            usedSlots = new int[INITIAL_CAPACITY/2];
+        }
+    }
+    
+    //Returns a new marking HitboxScanSet for one SpaceState's queries
+    static HitboxScanSet newMarking() {
+        return new HitboxScanSet(true);
+    }
+    
+    //Returns an empty shared HitboxScanSet for a query on the current thread, which must release() it
+    static HitboxScanSet acquireShared() {
+        HitboxScanSet set = SETS.get();
+        if (set.inUse) {
+            //A query is already using this thread's HitboxScanSet
+            return new HitboxScanSet(false);
+        }
+        set.inUse = true;
+        return set;
+    }
+    
+    //Returns this marking HitboxScanSet, empty, or a shared one if a query is already marking with this one
+    final HitboxScanSet acquireMarking() {
+        if (inUse) {
+            return acquireShared();
+        }
+        inUse = true;
+        return this;
+    }
+    
+    final void release() {
+        if (marking) {
+            for (int i = 0; i < size; i++) {
+                table[i].scanned = false;
+                table[i] = null;
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                table[usedSlots[i]] = null;
+            }
+        }
+        size = 0;
+        inUse = false;
+    }
+    
+    final int size() {
+        return size;
+    }
+    
+    private static int getSlot(Hitbox hitbox, int mask) {
+        return (System.identityHashCode(hitbox)*0x9E3779B9 >>> 7) & mask;
+    }
+    
+    //Adds the specified Hitbox and returns true if it was not already in this HitboxScanSet
+    final boolean add(Hitbox hitbox) {
+        if (marking) {
+            if (hitbox.scanned) {
+                return false;
+            }
+            hitbox.scanned = true;
+            if (size == table.length) {
+                table = Arrays.copyOf(table, 2*size);
+            }
+            table[size++] = hitbox;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = getSlot(hitbox, mask);
+        while (table[slot] != null) {
+            if (table[slot] == hitbox) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = hitbox;
+        usedSlots[size] = slot;
+        size++;
+        if (size == usedSlots.length) {
+            grow();
+        }
+        return true;
+    }
+    
+    //Keeps the table at most half full
+    private void grow() {
+        Hitbox[] oldTable = table;
+        table = new Hitbox[oldTable.length*2];
+        usedSlots = Arrays.copyOf(usedSlots, usedSlots.length*2);
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            Hitbox hitbox = oldTable[usedSlots[i]];
+            int slot = getSlot(hitbox, mask);
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = hitbox;
+            usedSlots[i] = slot;
+        }
+    }
+    
+}
@@ -0,0 +1,418 @@
+package org.cell2d.space;
+
+import org.cell2d.CellVector;
+import org.cell2d.Frac;
+import org.cell2d.Sprite;
+
+/**
+ * <p>A MaskHitbox is a Hitbox whose shape is the set of sufficiently opaque
+ * pixels of a Sprite, with each pixel occupying a square that is one fracunit
+ * wide and one fracunit tall. A MaskHitbox's position corresponds to the
+ * origin of the Sprite from which it was created. The shape is read from the
+ * Sprite once, upon the MaskHitbox's creation, and stored as rows of packed
+ * bits, so the MaskHitbox is independent of the Sprite afterward.</p>
+ * 
+ * <p>Horizontal and vertical flipping will flip a MaskHitbox across axes
+ * through its position, just as the same flips would affect the drawing of its
+ * Sprite. A MaskHitbox's angle of rotation is rounded to the nearest multiple
+ * of 90 degrees for the purpose of determining its shape. Every combination of
+ * flips and quarter turns is computed when the MaskHitbox is created, so
+ * flipping or rotating a MaskHitbox does not require re-examining its pixels.
+ * </p>
+ * 
+ * <p>Two MaskHitboxes overlap if any of their solid pixels overlap. Copies of a
+ * MaskHitbox made with getCopy() share their pixel data with the original.</p>
+ * @see Sprite
+ * @author Alex Heyman
+ */
+public class MaskHitbox extends Hitbox {
+    
+    private static class Mask {
+        
+        private final int left, top, width, height, wordsPerRow;
+        private final long[] bits;
+        
+        private Mask(int left, int top, int width, int height) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            wordsPerRow = (width + 63) >>> 6;
+            bits = new long[wordsPerRow*height];
+        }
+        
+        private boolean get(int x, int y) {
+            return (bits[y*wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+        }
+        
+        private void set(int x, int y) {
+            bits[y*wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+        }
+        
+        private long getWord(int y, int wordIndex) {
+            return (wordIndex < 0 || wordIndex >= wordsPerRow ? 0 : bits[y*wordsPerRow + wordIndex]);
+        }
+        
+        //Returns the 64 bits of row y starting at column x, which may lie outside the Mask
+        private long getBits(int y, int x) {
+            if (y < 0 || y >= height) {
+                return 0;
+            }
+            int wordIndex = Math.floorDiv(x, 64);
+            int offset = Math.floorMod(x, 64);
+            long low = getWord(y, wordIndex);
+            if (offset == 0) {
+                return low;
+            }
+            return (low >>> offset) | (getWord(y, wordIndex + 1) << (64 - offset));
+        }
+        
+        //Returns the first set column in row y in [from, to), or to if there is none
+        private int nextSetBit(int y, int from, int to) {
+            if (from >= to) {
+                return to;
+            }
+            int wordIndex = from >>> 6;
+            long word = bits[y*wordsPerRow + wordIndex] & (-1L << (from & 63));
+            while (true) {
+                if (word != 0) {
+                    return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), to);
+                }
+                wordIndex++;
+                if ((wordIndex << 6) >= to) {
+                    return to;
+                }
+                word = bits[y*wordsPerRow + wordIndex];
+            }
+        }
+        
+        //Returns the first clear column in row y in [from, to), or to if there is none
+        private int nextClearBit(int y, int from, int to) {
+            if (from >= to) {
+                return to;
+            }
+            int wordIndex = from >>> 6;
+            long word = ~bits[y*wordsPerRow + wordIndex] & (-1L << (from & 63));
+            while (true) {
+                if (word != 0) {
+                    return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), to);
+                }
+                wordIndex++;
+                if ((wordIndex << 6) >= to) {
+                    return to;
+                }
+                word = ~bits[y*wordsPerRow + wordIndex];
+            }
+        }
+        
+        //Returns a copy of this Mask flipped across the vertical axis through the
+        //origin if xFlip is true, then rotated counterclockwise by quarterTurns*90 degrees
+        private Mask getTransformed(boolean xFlip, int quarterTurns) {
+            int newLeft = left;
+            int newRight = left + width;
+            int newTop = top;
+            int newBottom = top + height;
+            if (xFlip) {
+                int temp = newLeft;
+                newLeft = -newRight;
+                newRight = -temp;
+            }
+            for (int i = 0; i < quarterTurns; i++) {
+                int temp1 = newLeft;
+                int temp2 = newRight;
+                newLeft = newTop;
+                newRight = newBottom;
+                newTop = -temp2;
+                newBottom = -temp1;
+            }
+            Mask mask = new Mask(newLeft, newTop, newRight - newLeft, newBottom - newTop);
+            for (int y = 0; y < height; y++) {
+                int x = nextSetBit(y, 0, width);
+                while (x < width) {
+                    //Each pixel is a unit square with its top left corner at (u, v)
+                    int u = x + left;
+                    int v = y + top;
+                    if (xFlip) {
+                        u = -u - 1;
+                    }
+                    for (int i = 0; i < quarterTurns; i++) {
+                        int temp = u;
+                        u = v;
+                        v = -temp - 1;
+                    }
+                    mask.set(u - mask.left, v - mask.top);
+                    x = nextSetBit(y, x + 1, width);
+                }
+            }
+            return mask;
+        }
+        
+    }
+    
+    interface RunTest {
+        
+        boolean meets(long x1, long y1, long x2, long y2);
+        
+    }
+    
+    /*
+     * masks[2*quarterTurns + (xFlip ? 1 : 0)] is the shape after flipping horizontally and then rotating.
+     * A vertical flip is a horizontal flip followed by a half turn.
+     */
+    private final Mask[] masks;
+    private Mask mask;
+    
+    /**
+     * Constructs a MaskHitbox with the specified relative position whose shape
+     * consists of the specified Sprite's pixels with nonzero alpha values. The
+     * Sprite must be loaded.
+     * @param relPosition This MaskHitbox's relative position
+     * @param sprite The Sprite from which to create this MaskHitbox's shape
+     */
+    public MaskHitbox(CellVector relPosition, Sprite sprite) {
+        this(relPosition.getX(), relPosition.getY(), sprite, 1);
+    }
+    
+    /**
+     * Constructs a MaskHitbox with the specified relative position whose shape
+     * consists of the specified Sprite's pixels with nonzero alpha values. The
+     * Sprite must be loaded.
+     * @param relX The x-coordinate of this MaskHitbox's relative position
+     * @param relY The y-coordinate of this MaskHitbox's relative position
+     * @param sprite The Sprite from which to create this MaskHitbox's shape
+     */
+    public MaskHitbox(long relX, long relY, Sprite sprite) {
+        this(relX, relY, sprite, 1);
+    }
+    
+    /**
+     * Constructs a MaskHitbox with the specified relative position whose shape
+     * consists of the specified Sprite's pixels with alpha values at least as
+     * high as the specified threshold. The Sprite must be loaded.
+     * @param relPosition This MaskHitbox's relative position
+     * @param sprite The Sprite from which to create this MaskHitbox's shape
+     * @param alphaThreshold The minimum alpha value (1-255) of a pixel that
+     * should be part of this MaskHitbox's shape
+     */
+    public MaskHitbox(CellVector relPosition, Sprite sprite, int alphaThreshold) {
+        this(relPosition.getX(), relPosition.getY(), sprite, alphaThreshold);
+    }
+    
+    /**
+     * Constructs a MaskHitbox with the specified relative position whose shape
+     * consists of the specified Sprite's pixels with alpha values at least as
+     * high as the specified threshold. The Sprite must be loaded, and its
+     * pixels must be readable.
+     * @param relX The x-coordinate of this MaskHitbox's relative position
+     * @param relY The y-coordinate of this MaskHitbox's relative position
+     * @param sprite The Sprite from which to create this MaskHitbox's shape
+     * @param alphaThreshold The minimum alpha value (1-255) of a pixel that
+     * should be part of this MaskHitbox's shape
+     * @see Sprite#hasPixelData()
+     */
+    public MaskHitbox(long relX, long relY, Sprite sprite, int alphaThreshold) {
+        super(relX, relY);
+        if (!sprite.isLoaded()) {
+            throw new RuntimeException("Attempted to create a MaskHitbox from a Sprite that is not loaded");
+        }
+        if (!sprite.hasPixelData()) {
+            throw new RuntimeException("Attempted to create a MaskHitbox from a Sprite whose pixels cannot be"
+                    + " read");
+        }
+        if (alphaThreshold < 1 || alphaThreshold > 255) {
+            throw new RuntimeException("Attempted to give a MaskHitbox an invalid alpha threshold ("
+                    + alphaThreshold + ")");
+        }
+        int width = sprite.getWidth();
+        int height = sprite.getHeight();
+        Mask base = new Mask(-sprite.getOriginX(), -sprite.getOriginY(), width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (sprite.getAlpha(x, y) >= alphaThreshold) {
+                    base.set(x, y);
+                }
+            }
+        }
+        masks = new Mask[8];
+        masks[0] = base;
+        for (int i = 1; i < 8; i++) {
+            masks[i] = base.getTransformed((i & 1) != 0, i >>> 1);
+        }
+        mask = base;
+    }
+    
+    private MaskHitbox(long relX, long relY, Mask[] masks) {
+        super(relX, relY);
+        this.masks = masks;
+        mask = masks[0];
+    }
+    
+    @Override
+    public final MaskHitbox getCopy() {
+        return new MaskHitbox(0, 0, masks);
+    }
+    
+    /**
+     * Returns whether the pixel of this MaskHitbox's current shape at the
+     * specified absolute point is solid. This is false if the point is outside
+     * this MaskHitbox's boundaries.
+     * @param x The x-coordinate of the point
+     * @param y The y-coordinate of the point
+     * @return Whether the pixel at the specified point is solid
+     */
+    public final boolean pixelIsSolid(long x, long y) {
+        long column = Math.floorDiv(x - getLeftEdge(), Frac.UNIT);
+        long row = Math.floorDiv(y - getTopEdge(), Frac.UNIT);
+        return column >= 0 && column < mask.width && row >= 0 && row < mask.height
+                && mask.get((int)column, (int)row);
+    }
+    
+    @Override
+    public final long getLeftEdge() {
+        return getAbsX() + ((long)mask.left << Frac.BITS);
+    }
+    
+    @Override
+    public final long getRightEdge() {
+        return getAbsX() + ((long)(mask.left + mask.width) << Frac.BITS);
+    }
+    
+    @Override
+    public final long getTopEdge() {
+        return getAbsY() + ((long)mask.top << Frac.BITS);
+    }
+    
+    @Override
+    public final long getBottomEdge() {
+        return getAbsY() + ((long)(mask.top + mask.height) << Frac.BITS);
+    }
+    
+    private void updateMask() {
+        boolean xFlip = getAbsXFlip();
+        int quarterTurns = (int)Math.round(getAbsAngle()/90) % 4;
+        if (getAbsYFlip()) {
+            xFlip = !xFlip;
+            quarterTurns = (quarterTurns + 2) % 4;
+        }
+        Mask newMask = masks[2*quarterTurns + (xFlip ? 1 : 0)];
+        if (newMask != mask) {
+            mask = newMask;
+            updateBoundaries();
+        }
+    }
+    
+    @Override
+    final void updateAbsXFlipActions() {
+        updateMask();
+    }
+    
+    @Override
+    final void updateAbsYFlipActions() {
+        updateMask();
+    }
+    
+    @Override
+    final void updateAbsAngleActions() {
+        updateMask();
+    }
+    
+    private static int clampFloor(long a, int max) {
+        return (int)Math.max(Math.min(Math.floorDiv(a, Frac.UNIT), max), 0);
+    }
+    
+    private static int clampCeil(long a, int max) {
+        return (int)Math.max(Math.min(-Math.floorDiv(-a, Frac.UNIT), max), 0);
+    }
+    
+    final boolean overlapsPoint(long x, long y) {
+        return pixelIsSolid(x, y);
+    }
+    
+    final boolean overlapsRectangle(long x1, long y1, long x2, long y2) {
+        long left = getLeftEdge();
+        long top = getTopEdge();
+        int column1 = clampFloor(x1 - left, mask.width);
+        int column2 = clampCeil(x2 - left, mask.width);
+        int row1 = clampFloor(y1 - top, mask.height);
+        int row2 = clampCeil(y2 - top, mask.height);
+        if (column1 < column2) {
+            for (int row = row1; row < row2; row++) {
+                if (mask.nextSetBit(row, column1, column2) < column2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    final boolean overlapsMask(MaskHitbox hitbox) {
+        Mask mask1 = mask;
+        Mask mask2 = hitbox.mask;
+        long diffX = hitbox.getLeftEdge() - getLeftEdge();
+        long diffY = hitbox.getTopEdge() - getTopEdge();
+        //Pixel (x, y) of mask 2 lies at (x + shiftX, y + shiftY) in mask 1's pixel grid, or straddles
+        //that pixel and the next one over along each axis in which the grids are not aligned
+        int shiftX = (int)Math.floorDiv(diffX, Frac.UNIT);
+        int shiftY = (int)Math.floorDiv(diffY, Frac.UNIT);
+        boolean straddleX = Math.floorMod(diffX, Frac.UNIT) != 0;
+        boolean straddleY = Math.floorMod(diffY, Frac.UNIT) != 0;
+        int column1 = Math.max(shiftX, 0);
+        int column2 = Math.min(shiftX + mask2.width + (straddleX ? 1 : 0), mask1.width);
+        int row1 = Math.max(shiftY, 0);
+        int row2 = Math.min(shiftY + mask2.height + (straddleY ? 1 : 0), mask1.height);
+        if (column1 >= column2 || row1 >= row2) {
+            return false;
+        }
+        int word1 = column1 >>> 6;
+        int word2 = (column2 - 1) >>> 6;
+        for (int row = row1; row < row2; row++) {
+            int row2Index = row - shiftY;
+            for (int word = word1; word <= word2; word++) {
+                long bits1 = mask1.getWord(row, word);
+                if (bits1 != 0) {
+                    int column = (word << 6) - shiftX;
+                    long bits2 = mask2.getBits(row2Index, column);
+                    if (straddleX) {
+                        bits2 |= mask2.getBits(row2Index, column - 1);
+                    }
+                    if (straddleY) {
+                        bits2 |= mask2.getBits(row2Index - 1, column);
+                        if (straddleX) {
+                            bits2 |= mask2.getBits(row2Index - 1, column - 1);
+                        }
+                    }
+                    if ((bits1 & bits2) != 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    //Tests each horizontal run of solid pixels within the specified region
+    final boolean anyRunMeets(long x1, long y1, long x2, long y2, RunTest test) {
+        long left = getLeftEdge();
+        long top = getTopEdge();
+        int column1 = clampFloor(x1 - left, mask.width);
+        int column2 = clampCeil(x2 - left, mask.width);
+        int row1 = clampFloor(y1 - top, mask.height);
+        int row2 = clampCeil(y2 - top, mask.height);
+        if (column1 < column2) {
+            for (int row = row1; row < row2; row++) {
+                long runTop = top + ((long)row << Frac.BITS);
+                int start = mask.nextSetBit(row, column1, column2);
+                while (start < column2) {
+                    int end = mask.nextClearBit(row, start, column2);
+                    if (test.meets(left + ((long)start << Frac.BITS), runTop,
+                            left + ((long)end << Frac.BITS), runTop + Frac.UNIT)) {
+                        return true;
+                    }
+                    start = mask.nextSetBit(row, end, column2);
+                }
+            }
+        }
+        return false;
+    }
+    
+}
@@ -0,0 +1,168 @@
+package org.cell2d.space;
+
+import java.util.Arrays;
+
+/**
+ * <p>A MobileKinematics stores the velocities, steps, and time factors of a
+ * SpaceState's MobileObjects in parallel arrays, and moves those of them that
+ * cannot collide with or push other objects in one batch. While a MobileObject
+ * is in a MobileKinematics, its velocity and step getters and setters read and
+ * write its entries in the arrays.</p>
+ * @author Alex Heyman
+ */
+final class MobileKinematics {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private MobileObject[] objects = new MobileObject[INITIAL_CAPACITY];
+    long[] velocityX = new long[INITIAL_CAPACITY];
+    long[] velocityY = new long[INITIAL_CAPACITY];
+    long[] stepX = new long[INITIAL_CAPACITY];
+    long[] stepY = new long[INITIAL_CAPACITY];
+    private long[] timeFactor = new long[INITIAL_CAPACITY];
+    //Positions as of the start of the last frame, for drawing between them and the current positions
+    private long[] previousX = new long[INITIAL_CAPACITY];
+    private long[] previousY = new long[INITIAL_CAPACITY];
+    private int size = 0;
+    //Scratch space for the batch currently being moved
+    private int[] batch = new int[INITIAL_CAPACITY];
+    private long[] positionX = new long[INITIAL_CAPACITY];
+    private long[] positionY = new long[INITIAL_CAPACITY];
+    
+    MobileKinematics() {}
+    
+    final int add(MobileObject object, long velocityX, long velocityY,
+            long stepX, long stepY, long timeFactor) {
+        if (size == objects.length) {
+            int capacity = size*2;
+            objects = Arrays.copyOf(objects, capacity);
+            this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+            this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+            this.stepX = Arrays.copyOf(this.stepX, capacity);
+            this.stepY = Arrays.copyOf(this.stepY, capacity);
+            this.timeFactor = Arrays.copyOf(this.timeFactor, capacity);
+            previousX = Arrays.copyOf(previousX, capacity);
+            previousY = Arrays.copyOf(previousY, capacity);
+            batch = new int[capacity];
+            positionX = new long[capacity];
+            positionY = new long[capacity];
+        }
+        int index = size;
+        objects[index] = object;
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+        this.stepX[index] = stepX;
+        this.stepY[index] = stepY;
+        this.timeFactor[index] = timeFactor;
+        previousX[index] = object.getX();
+        previousY[index] = object.getY();
+        size++;
+        return index;
+    }
+    
+    //Moves the last entry into the removed one's place, so the caller must copy the removed entry out first
+    final void remove(int index) {
+        size--;
+        if (index != size) {
+            MobileObject last = objects[size];
+            objects[index] = last;
+            velocityX[index] = velocityX[size];
+            velocityY[index] = velocityY[size];
+            stepX[index] = stepX[size];
+            stepY[index] = stepY[size];
+            timeFactor[index] = timeFactor[size];
+            previousX[index] = previousX[size];
+            previousY[index] = previousY[size];
+            last.kinematicsIndex = index;
+        }
+        objects[size] = null;
+    }
+    
+    final void setTimeFactor(int index, long timeFactor) {
+        this.timeFactor[index] = timeFactor;
+    }
+    
+    final void recordPreviousPositions() {
+        for (int i = 0; i < size; i++) {
+            previousX[i] = objects[i].getX();
+            previousY[i] = objects[i].getY();
+        }
+    }
+    
+    final void resetPreviousPosition(int index) {
+        previousX[index] = objects[index].getX();
+        previousY[index] = objects[index].getY();
+    }
+    
+    //How far from its current position to draw the MobileObject at the specified index, given 1 minus the alpha
+    final long getDrawOffsetX(int index, long remaining) {
+        return mul(remaining, previousX[index] - objects[index].getX());
+    }
+    
+    final long getDrawOffsetY(int index, long remaining) {
+        return mul(remaining, previousY[index] - objects[index].getY());
+    }
+    
+    //The high 64 bits of the 128-bit product of a and b
+    private static long mulHigh(long a, long b) {
+        long a1 = a >> 32;
+        long a2 = a & 0xFFFFFFFFL;
+        long b1 = b >> 32;
+        long b2 = b & 0xFFFFFFFFL;
+        long z2 = a2*b2;
+        long t = a1*b2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + a2*b1;
+        return a1*b1 + (t >> 32) + (z1 >> 32);
+    }
+    
+    //Equivalent to Frac.mul(a, b) without creating BigIntegers
+    private static long mul(long a, long b) {
+        return (mulHigh(a, b) << 32) | ((a*b) >>> 32);
+    }
+    
+    /**
+     * Moves all of the MobileObjects in this MobileKinematics that have neither
+     * collision nor solid surfaces, and that have no followers, by the sum of
+     * their velocities and steps multiplied by their effective time factors,
+     * and then resets their steps to (0, 0). Since such MobileObjects cannot
+     * interact with any other SpaceObjects while moving, their movement does
+     * not depend on the order in which they move.
+     * @param stateTimeFactor The effective time factor of the SpaceState that
+     * the MobileObjects are assigned to
+     */
+    final void moveBatch(long stateTimeFactor) {
+        int batchSize = 0;
+        for (int i = 0; i < size; i++) {
+            MobileObject object = objects[i];
+            if (!(object.hasCollision() && object.getCollisionHitbox() != null)
+                    && !object.isSolid() && object.followers.isEmpty()) {
+                batch[batchSize] = i;
+                positionX[batchSize] = object.getX();
+                positionY[batchSize] = object.getY();
+                batchSize++;
+            }
+        }
+        for (int j = 0; j < batchSize; j++) {
+            int i = batch[j];
+            long objectTimeFactor = (timeFactor[i] < 0 ? stateTimeFactor : timeFactor[i]);
+            long changeX = mul(objectTimeFactor, velocityX[i] + stepX[i]);
+            long changeY = mul(objectTimeFactor, velocityY[i] + stepY[i]);
+            if (stepX[i] != 0 || stepY[i] != 0) {
+                objects[i].markChanged();
+                stepX[i] = 0;
+                stepY[i] = 0;
+            }
+            objects[i].displacement.setCoordinates(changeX, changeY);
+            positionX[j] += changeX;
+            positionY[j] += changeY;
+        }
+        for (int j = 0; j < batchSize; j++) {
+            MobileObject object = objects[batch[j]];
+            object.movedInBatch = true;
+            if (object.displacement.getX() != 0 || object.displacement.getY() != 0) {
+                object.setPosition(positionX[j], positionY[j]);
+            }
+        }
+    }
+    
+}
@@ -1,5 +1,6 @@
 package org.cell2d.space;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -74,6 +75,10 @@ public abstract class MobileObject extends SpaceObject {
     private final CellVector velocity = new CellVector();
     private final CellVector step = new CellVector();
     final CellVector displacement = new CellVector();
+    //While this MobileObject is assigned to a SpaceState, its velocity and step are stored here instead
+    MobileKinematics kinematics = null;
+    int kinematicsIndex = -1;
+    boolean movedInBatch = false;
     
     /**
      * Constructs a MobileObject with no locator Hitbox. This MobileObject must
@@ -109,6 +114,66 @@ public abstract class MobileObject extends SpaceObject {
         displacement.clear();
     }
     
+    final void addToKinematics(MobileKinematics kinematics) {
+        this.kinematics = kinematics;
+        kinematicsIndex = kinematics.add(this, velocity.getX(), velocity.getY(),
+                step.getX(), step.getY(), getTimeFactor());
+    }
+    
+    final void removeFromKinematics() {
+        velocity.setCoordinates(kinematics.velocityX[kinematicsIndex], kinematics.velocityY[kinematicsIndex]);
+        step.setCoordinates(kinematics.stepX[kinematicsIndex], kinematics.stepY[kinematicsIndex]);
+        kinematics.remove(kinematicsIndex);
+        kinematics = null;
+        kinematicsIndex = -1;
+    }
+    
+    @Override
+    void writeSnapshotData(ByteBuffer buffer) {
+        super.writeSnapshotData(buffer);
+        buffer.putInt(newMovementPriority);
+        buffer.put((byte)(hasCollision ? 1 : 0));
+        writeHitboxSnapshot(buffer, collisionHitbox);
+        buffer.putDouble(relPressingAngle == null ? Double.NaN : relPressingAngle);
+        buffer.putLong(getVelocityX());
+        buffer.putLong(getVelocityY());
+        buffer.putLong(getStepX());
+        buffer.putLong(getStepY());
+    }
+    
+    @Override
+    void readSnapshotData(ByteBuffer buffer) {
+        super.readSnapshotData(buffer);
+        int newPriority = buffer.getInt();
+        if (newPriority != newMovementPriority) {
+            setMovementPriority(newPriority);
+        }
+        boolean newHasCollision = (buffer.get() != 0);
+        if (newHasCollision != hasCollision) {
+            setCollision(newHasCollision);
+        }
+        Hitbox newCollisionHitbox = readHitboxSnapshot(buffer, collisionHitbox);
+        if (newCollisionHitbox != collisionHitbox) {
+            setCollisionHitbox(newCollisionHitbox);
+        }
+        double angle = buffer.getDouble();
+        relPressingAngle = (Double.isNaN(angle) ? null : angle);
+        long velocityX = buffer.getLong();
+        long velocityY = buffer.getLong();
+        setVelocity(velocityX, velocityY);
+        long stepX = buffer.getLong();
+        long stepY = buffer.getLong();
+        setStep(stepX, stepY);
+    }
+    
+    @Override
+    void setTimeFactorActions(long timeFactor) {
+        super.setTimeFactorActions(timeFactor);
+        if (kinematics != null) {
+            kinematics.setTimeFactor(kinematicsIndex, timeFactor);
+        }
+    }
+    
     @Override
     void removeNonLocatorHitboxes(Hitbox locatorHitbox) {
         super.removeNonLocatorHitboxes(locatorHitbox);
@@ -149,6 +214,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param movementPriority The new movement priority
      */
     public final void setMovementPriority(int movementPriority) {
+        markChanged();
         if (state == null) {
             this.newMovementPriority = movementPriority;
             this.movementPriority = movementPriority;
@@ -174,6 +240,7 @@ public abstract class MobileObject extends SpaceObject {
      * enabled
      */
     public final void setCollision(boolean hasCollision) {
+        markChanged();
         if (state != null && collisionHitbox != null) {
             if (hasCollision && !this.hasCollision) {
                 state.addHitbox(collisionHitbox, HitboxRole.COLLISION);
@@ -224,6 +291,7 @@ public abstract class MobileObject extends SpaceObject {
                     locatorHitbox.addChild(collisionHitbox);
                     collisionHitbox.addAsCollisionHitbox(hasCollision);
                 }
+                markChanged();
                 return true;
             }
         }
@@ -260,6 +328,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param angle The new relative pressing angle
      */
     public final void setRelPressingAngle(Double angle) {
+        markChanged();
         if (angle == null) {
             relPressingAngle = null;
         } else {
@@ -275,6 +344,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param angle The new relative pressing angle
      */
     public final void setRelPressingAngle(double angle) {
+        markChanged();
         relPressingAngle = angle % 360;
         if (relPressingAngle < 0) {
             relPressingAngle += 360;
@@ -576,6 +646,29 @@ public abstract class MobileObject extends SpaceObject {
         }
     }
     
+    /**
+     * Makes this MobileObject's position at the start of the current frame
+     * equal to its current position, so that if its CellGame uses a
+     * fixed-timestep game loop, its SpaceState draws it at its current
+     * position rather than somewhere between the two. This should be called
+     * after moving this MobileObject to a position that it should not be seen
+     * passing through, such as when it teleports.
+     * @param bringFollowers If true, all of this MobileObject's followers and
+     * sub-followers will have their positions at the start of the current
+     * frame reset as well
+     * @see org.cell2d.CellGame#setFixedStep(boolean)
+     */
+    public final void resetPreviousPosition(boolean bringFollowers) {
+        if (kinematics != null) {
+            kinematics.resetPreviousPosition(kinematicsIndex);
+        }
+        if (bringFollowers && !followers.isEmpty()) {
+            for (MobileObject follower : followers) {
+                follower.resetPreviousPosition(true);
+            }
+        }
+    }
+    
     /**
      * Moves this MobileObject and its followers and sub-followers by the
      * specified amount, colliding with solid surfaces if they have collision
@@ -683,7 +776,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return This MobileObject's velocity
      */
     public final CellVector getVelocity() {
-        return new CellVector(velocity);
+        return new CellVector(getVelocityX(), getVelocityY());
     }
     
     /**
@@ -691,7 +784,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return The x-component of this MobileObject's velocity
      */
     public final long getVelocityX() {
-        return velocity.getX();
+        return (kinematics == null ? velocity.getX() : kinematics.velocityX[kinematicsIndex]);
     }
     
     /**
@@ -699,7 +792,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return The y-component of this MobileObject's velocity
      */
     public final long getVelocityY() {
-        return velocity.getY();
+        return (kinematics == null ? velocity.getY() : kinematics.velocityY[kinematicsIndex]);
     }
     
     /**
@@ -707,7 +800,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return This MobileObject's speed
      */
     public final long getSpeed() {
-        return velocity.getMagnitude();
+        return getVelocity().getMagnitude();
     }
     
     /**
@@ -715,7 +808,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param velocity The new velocity
      */
     public final void setVelocity(CellVector velocity) {
-        this.velocity.setCoordinates(velocity);
+        setVelocity(velocity.getX(), velocity.getY());
     }
     
     /**
@@ -724,7 +817,8 @@ public abstract class MobileObject extends SpaceObject {
      * @param velocityY The new y-component of the velocity
      */
     public final void setVelocity(long velocityX, long velocityY) {
-        velocity.setCoordinates(velocityX, velocityY);
+        setVelocityX(velocityX);
+        setVelocityY(velocityY);
     }
     
     /**
@@ -733,7 +827,12 @@ public abstract class MobileObject extends SpaceObject {
      * @param velocityX The new x-component of the velocity
      */
     public final void setVelocityX(long velocityX) {
-        velocity.setX(velocityX);
+        markChanged();
+        if (kinematics == null) {
+            velocity.setX(velocityX);
+        } else {
+            kinematics.velocityX[kinematicsIndex] = velocityX;
+        }
     }
     
     /**
@@ -742,7 +841,12 @@ public abstract class MobileObject extends SpaceObject {
      * @param velocityY The new y-component of the velocity
      */
     public final void setVelocityY(long velocityY) {
-        velocity.setY(velocityY);
+        markChanged();
+        if (kinematics == null) {
+            velocity.setY(velocityY);
+        } else {
+            kinematics.velocityY[kinematicsIndex] = velocityY;
+        }
     }
     
     /**
@@ -751,7 +855,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param speed The new speed
      */
     public final void setSpeed(long speed) {
-        velocity.setMagnitude(speed);
+        setVelocity(getVelocity().setMagnitude(speed));
     }
     
     /**
@@ -784,7 +888,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return This MobileObject's step
      */
     public final CellVector getStep() {
-        return new CellVector(step);
+        return new CellVector(getStepX(), getStepY());
     }
     
     /**
@@ -792,7 +896,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return The x-component of this MobileObject's step
      */
     public final long getStepX() {
-        return step.getX();
+        return (kinematics == null ? step.getX() : kinematics.stepX[kinematicsIndex]);
     }
     
     /**
@@ -800,7 +904,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return The y-component of this MobileObject's step
      */
     public final long getStepY() {
-        return step.getY();
+        return (kinematics == null ? step.getY() : kinematics.stepY[kinematicsIndex]);
     }
     
     /**
@@ -808,7 +912,7 @@ public abstract class MobileObject extends SpaceObject {
      * @return The length of this MobileObject's step
      */
     public final long getStepLength() {
-        return step.getMagnitude();
+        return getStep().getMagnitude();
     }
     
     /**
@@ -816,7 +920,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param step The new step
      */
     public final void setStep(CellVector step) {
-        this.step.setCoordinates(step);
+        setStep(step.getX(), step.getY());
     }
     
     /**
@@ -825,7 +929,8 @@ public abstract class MobileObject extends SpaceObject {
      * @param stepY The y-component of the new step
      */
     public final void setStep(long stepX, long stepY) {
-        step.setCoordinates(stepX, stepY);
+        setStepX(stepX);
+        setStepY(stepY);
     }
     
     /**
@@ -833,7 +938,12 @@ public abstract class MobileObject extends SpaceObject {
      * @param stepX The new x-component of the step
      */
     public final void setStepX(long stepX) {
-        step.setX(stepX);
+        markChanged();
+        if (kinematics == null) {
+            step.setX(stepX);
+        } else {
+            kinematics.stepX[kinematicsIndex] = stepX;
+        }
     }
     
     /**
@@ -841,7 +951,12 @@ public abstract class MobileObject extends SpaceObject {
      * @param stepY The new y-component of the step
      */
     public final void setStepY(long stepY) {
-        step.setY(stepY);
+        markChanged();
+        if (kinematics == null) {
+            step.setY(stepY);
+        } else {
+            kinematics.stepY[kinematicsIndex] = stepY;
+        }
     }
     
     /**
@@ -849,7 +964,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param length The new step length
      */
     public final void setStepLength(long length) {
-        step.setMagnitude(length);
+        setStep(getStep().setMagnitude(length));
     }
     
     /**
@@ -857,7 +972,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param change The amount to change the step by
      */
     public final void changeStep(CellVector change) {
-        step.add(change);
+        changeStep(change.getX(), change.getY());
     }
     
     /**
@@ -866,7 +981,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param changeY The amount to change the step's y-component by
      */
     public final void changeStep(long changeX, long changeY) {
-        step.add(changeX, changeY);
+        setStep(getStepX() + changeX, getStepY() + changeY);
     }
     
     /**
@@ -875,7 +990,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param changeX The amount to change the step's x-component by
      */
     public final void changeStepX(long changeX) {
-        step.add(changeX, 0);
+        setStepX(getStepX() + changeX);
     }
     
     /**
@@ -884,7 +999,7 @@ public abstract class MobileObject extends SpaceObject {
      * @param changeY The amount to change the step's y-component by
      */
     public final void changeStepY(long changeY) {
-        step.add(0, changeY);
+        setStepY(getStepY() + changeY);
     }
     
     /**
@@ -0,0 +1,88 @@
+package org.cell2d.space;
+
+import org.cell2d.Color;
+import org.cell2d.FrameProfiler;
+import org.cell2d.FrameProfiler.Phase;
+import org.cell2d.celick.Graphics;
+
+/**
+ * <p>A ProfilerHUD is a type of HUD that displays the measurements of a
+ * FrameProfiler in the top left corner of its rendering region. For each Phase,
+ * it displays the Phase's time in the FrameProfiler's most recent frame,
+ * followed by the 50th, 95th, and 99th percentiles of the Phase's times over
+ * the FrameProfiler's window, all in milliseconds.</p>
+ * @see FrameProfiler
+ * @author Alex Heyman
+ */
+public class ProfilerHUD implements HUD {
+    
+    private static final Phase[] PHASES = Phase.values();
+    
+    private FrameProfiler profiler;
+    private Color color;
+    
+    /**
+     * Constructs a ProfilerHUD that displays the measurements of the specified
+     * FrameProfiler in the specified Color.
+     * @param profiler The FrameProfiler whose measurements this ProfilerHUD
+     * displays
+     * @param color The Color of this ProfilerHUD's text
+     */
+    public ProfilerHUD(FrameProfiler profiler, Color color) {
+        this.profiler = profiler;
+        this.color = color;
+    }
+    
+    /**
+     * Returns the FrameProfiler whose measurements this ProfilerHUD displays.
+     * @return This ProfilerHUD's FrameProfiler
+     */
+    public final FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Sets the FrameProfiler whose measurements this ProfilerHUD displays to
+     * the specified one.
+     * @param profiler This ProfilerHUD's new FrameProfiler
+     */
+    public final void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    /**
+     * Returns the Color of this ProfilerHUD's text.
+     * @return The Color of this ProfilerHUD's text
+     */
+    public final Color getColor() {
+        return color;
+    }
+    
+    /**
+     * Sets the Color of this ProfilerHUD's text to the specified Color.
+     * @param color The new Color of this ProfilerHUD's text
+     */
+    public final void setColor(Color color) {
+        this.color = color;
+    }
+    
+    private static String toMs(long nanoseconds) {
+        return String.format("%.2f", nanoseconds/1000000.0);
+    }
+    
+    @Override
+    public void renderActions(Graphics g, int x1, int y1, int x2, int y2) {
+        g.setColor(color);
+        int lineHeight = g.getFont().getLineHeight();
+        int y = y1;
+        g.drawString("Phase: last p50 p95 p99 (ms)", x1, y);
+        for (Phase phase : PHASES) {
+            y += lineHeight;
+            g.drawString(phase + ": " + toMs(profiler.getLastTime(phase))
+                    + " " + toMs(profiler.getPercentile(phase, 0.5))
+                    + " " + toMs(profiler.getPercentile(phase, 0.95))
+                    + " " + toMs(profiler.getPercentile(phase, 0.99)), x1, y);
+        }
+    }
+    
+}
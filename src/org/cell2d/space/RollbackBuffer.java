@@ -0,0 +1,611 @@
+package org.cell2d.space;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import org.cell2d.SafeIterator;
+
+/**
+ * <p>A RollbackBuffer keeps a fixed number of the most recent frames of a
+ * SpaceState in memory, so that the SpaceState can be rolled back to any of
+ * them and re-simulated from there, as when a networked game receives input
+ * for a frame that it has already simulated. Each saved frame is recorded
+ * incrementally: only the SpaceObjects that have changed since the previous
+ * saved frame, or that have been added to or removed from the SpaceState, are
+ * written, so the cost of saving a frame depends on how much of the SpaceState
+ * changed rather than on how large it is.</p>
+ * 
+ * <p>The data that a RollbackBuffer records for each SpaceObject is the same
+ * data that SpaceState snapshots record. SpaceObjects inform their
+ * SpaceState's RollbackBuffer when that data changes, except for data written
+ * by their writeSnapshotActions() methods; a SpaceObject that writes data of
+ * its own must call its markChanged() method whenever that data changes.
+ * ThinkerObjects whose snapshot Events' timers are running are checked for
+ * changes every frame. A SpaceObject is only recorded in a frame if its data
+ * actually differs from its last recorded data.</p>
+ * 
+ * <p>A SpaceState may have only one RollbackBuffer at a time, and a
+ * SpaceObject that is recorded in a RollbackBuffer should not be added to
+ * other SpaceStates while the RollbackBuffer retains frames in which it was
+ * assigned to the RollbackBuffer's SpaceState. Unlike a snapshot, a
+ * RollbackBuffer restores its SpaceState with the same SpaceObjects that it
+ * recorded, so it needs no SpaceObjectFactory.</p>
+ * @see SpaceState#saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+ * @see SpaceObject#markChanged()
+ * @author Alex Heyman
+ */
+public final class RollbackBuffer {
+    
+    //The records of one SpaceObject, or of the SpaceState itself, oldest first, in a ring that grows as needed
+    private static class History {
+        
+        private long[] frames = new long[4];
+        private byte[][] records = new byte[4][];
+        private int[] lengths = new int[4];
+        private int start = 0;
+        private int size = 0;
+        //Whether the SpaceObject was assigned to the SpaceState as of the newest saved frame
+        private boolean present = false;
+        //The number of retained frames in which the SpaceObject was added to or removed from the SpaceState
+        private int numEvents = 0;
+        //The last frame in which the SpaceObject was checked for changes
+        private long checkedFrame = Long.MIN_VALUE;
+        
+        private int slot(int i) {
+            return (start + i) & (frames.length - 1);
+        }
+        
+        private boolean latestEquals(byte[] data, int length) {
+            if (size == 0) {
+                return false;
+            }
+            int s = slot(size - 1);
+            if (lengths[s] != length) {
+                return false;
+            }
+            byte[] record = records[s];
+            for (int i = 0; i < length; i++) {
+                if (record[i] != data[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private void add(long frame, byte[] data, int length) {
+            if (size == frames.length) {
+                long[] newFrames = new long[2*size];
+                byte[][] newRecords = new byte[2*size][];
+                int[] newLengths = new int[2*size];
+                for (int i = 0; i < size; i++) {
+                    int s = slot(i);
+                    newFrames[i] = frames[s];
+                    newRecords[i] = records[s];
+                    newLengths[i] = lengths[s];
+                }
+                frames = newFrames;
+                records = newRecords;
+                lengths = newLengths;
+                start = 0;
+            }
+            int s = slot(size);
+            //Byte arrays left behind by discarded records are reused
+            if (records[s] == null || records[s].length < length) {
+                records[s] = new byte[Math.max(length, 32)];
+            }
+            System.arraycopy(data, 0, records[s], 0, length);
+            frames[s] = frame;
+            lengths[s] = length;
+            size++;
+        }
+        
+        //Returns the index of the latest record at or before the specified frame, or -1 if there is none
+        private int indexAtOrBefore(long frame) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (frames[slot(i)] <= frame) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        private ByteBuffer getRecord(int i) {
+            int s = slot(i);
+            return ByteBuffer.wrap(records[s], 0, lengths[s]);
+        }
+        
+        private void truncateAfter(long frame) {
+            while (size > 0 && frames[slot(size - 1)] > frame) {
+                size--;
+            }
+        }
+        
+        //Discards the records older than the one that describes the specified frame
+        private void pruneBefore(long frame) {
+            int i = indexAtOrBefore(frame);
+            if (i > 0) {
+                start = slot(i);
+                size -= i;
+            }
+        }
+        
+        private int getNumBytes() {
+            int numBytes = 0;
+            for (int i = 0; i < size; i++) {
+                numBytes += lengths[slot(i)];
+            }
+            return numBytes;
+        }
+        
+    }
+    
+    private static class Frame {
+        
+        private long number;
+        private final List<SpaceObject> changed = new ArrayList<>();
+        private final List<SpaceObject> added = new ArrayList<>();
+        private final List<SpaceObject> removed = new ArrayList<>();
+        
+        private void clear() {
+            changed.clear();
+            added.clear();
+            removed.clear();
+        }
+        
+    }
+    
+    private final SpaceState<?,?,?> state;
+    private final Frame[] frames;
+    private int firstFrame = 0;
+    private int numFrames = 0;
+    private final Map<SpaceObject,History> histories = new IdentityHashMap<>();
+    private final History stateHistory = new History();
+    //SpaceObjects that have called markChanged() since the last saved frame
+    final List<SpaceObject> changedObjects = new ArrayList<>();
+    //SpaceObjects that have been added to or removed from the SpaceState since the last saved frame
+    private final List<SpaceObject> movedObjects = new ArrayList<>();
+    //SpaceObjects whose data can change without their calling markChanged()
+    private final Set<SpaceObject> timedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<SpaceObject> recheckedObjects = new ArrayList<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private boolean detached = false;
+    
+    /**
+     * Constructs a RollbackBuffer that keeps the specified number of the most
+     * recent saved frames of the specified SpaceState. The SpaceState must not
+     * already have a RollbackBuffer.
+     * @param state The SpaceState to record
+     * @param capacity The maximum number of frames to keep
+     */
+    public RollbackBuffer(SpaceState<?,?,?> state, int capacity) {
+        if (capacity <= 0) {
+            throw new RuntimeException("Attempted to construct a RollbackBuffer with a non-positive capacity ("
+                    + capacity + ")");
+        }
+        if (state.rollbackBuffer != null) {
+            throw new RuntimeException("Attempted to give a SpaceState a second RollbackBuffer");
+        }
+        this.state = state;
+        frames = new Frame[capacity];
+        state.rollbackBuffer = this;
+        SafeIterator<SpaceObject> iterator = state.objectIterator();
+        while (iterator.hasNext()) {
+            objectAdded(iterator.next());
+        }
+    }
+    
+    /**
+     * Returns the SpaceState that this RollbackBuffer records.
+     * @return This RollbackBuffer's SpaceState
+     */
+    public final SpaceState<?,?,?> getState() {
+        return state;
+    }
+    
+    /**
+     * Returns the maximum number of frames that this RollbackBuffer keeps.
+     * @return This RollbackBuffer's capacity
+     */
+    public final int getCapacity() {
+        return frames.length;
+    }
+    
+    /**
+     * Returns the number of frames that this RollbackBuffer currently keeps.
+     * @return The number of frames kept
+     */
+    public final int getNumFrames() {
+        return numFrames;
+    }
+    
+    private Frame getFrame(int i) {
+        return frames[(firstFrame + i) % frames.length];
+    }
+    
+    /**
+     * Returns the number of the oldest frame that this RollbackBuffer keeps,
+     * or -1 if it keeps no frames.
+     * @return The number of the oldest frame kept
+     */
+    public final long getOldestFrame() {
+        return (numFrames == 0 ? -1 : getFrame(0).number);
+    }
+    
+    /**
+     * Returns the number of the most recent frame that this RollbackBuffer
+     * saved and still keeps, or -1 if it keeps no frames.
+     * @return The number of the newest frame kept
+     */
+    public final long getNewestFrame() {
+        return (numFrames == 0 ? -1 : getFrame(numFrames - 1).number);
+    }
+    
+    /**
+     * Returns whether this RollbackBuffer keeps the frame with the specified
+     * number.
+     * @param frameNumber The number of the frame to check for
+     * @return Whether this RollbackBuffer keeps the specified frame
+     */
+    public final boolean hasFrame(long frameNumber) {
+        return indexOf(frameNumber) >= 0;
+    }
+    
+    private int indexOf(long frameNumber) {
+        for (int i = numFrames - 1; i >= 0; i--) {
+            long number = getFrame(i).number;
+            if (number == frameNumber) {
+                return i;
+            } else if (number < frameNumber) {
+                break;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Returns the total size in bytes of the records that this RollbackBuffer
+     * currently keeps.
+     * @return The size of this RollbackBuffer's records in bytes
+     */
+    public final long getNumBytes() {
+        long numBytes = stateHistory.getNumBytes();
+        for (History history : histories.values()) {
+            numBytes += history.getNumBytes();
+        }
+        return numBytes;
+    }
+    
+    final void objectAdded(SpaceObject object) {
+        movedObjects.add(object);
+        if (object instanceof ThinkerObject) {
+            timedObjects.add(object);
+        }
+    }
+    
+    final void objectRemoved(SpaceObject object) {
+        movedObjects.add(object);
+        timedObjects.remove(object);
+    }
+    
+    //SpaceObjects may call markChanged() from several threads at once during parallel frame actions
+    final synchronized void objectChanged(SpaceObject object) {
+        if (!object.rollbackChanged) {
+            object.rollbackChanged = true;
+            changedObjects.add(object);
+        }
+    }
+    
+    private void checkDetached() {
+        if (detached) {
+            throw new RuntimeException("Attempted to use a RollbackBuffer that has been detached from its"
+                    + " SpaceState");
+        }
+    }
+    
+    //Writes the specified SpaceObject's data, or the SpaceState's if it is null, to the scratch buffer
+    private void writeScratch(SpaceObject object) {
+        while (true) {
+            scratch.clear();
+            try {
+                if (object == null) {
+                    scratch.putLong(state.getTimeFactor());
+                    state.writeSnapshotActions(scratch);
+                } else {
+                    object.writeSnapshot(scratch);
+                }
+                return;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(2*scratch.capacity());
+            }
+        }
+    }
+    
+    private void record(SpaceObject object, History history, Frame frame) {
+        if (history.checkedFrame == frame.number) {
+            return;
+        }
+        history.checkedFrame = frame.number;
+        writeScratch(object);
+        if (!history.latestEquals(scratch.array(), scratch.position())) {
+            history.add(frame.number, scratch.array(), scratch.position());
+            frame.changed.add(object);
+        }
+    }
+    
+    private void record(SpaceObject object, Frame frame) {
+        if (object.state == state) {
+            History history = histories.get(object);
+            if (history != null) {
+                record(object, history, frame);
+            }
+        }
+    }
+    
+    private void evictOldestFrame() {
+        Frame frame = getFrame(0);
+        firstFrame = (firstFrame + 1) % frames.length;
+        numFrames--;
+        //Each record is only needed if it describes the new oldest frame or a later one
+        long oldestFrame = (numFrames == 0 ? Long.MAX_VALUE : getFrame(0).number);
+        for (SpaceObject object : frame.changed) {
+            History history = histories.get(object);
+            if (history != null) {
+                history.pruneBefore(oldestFrame);
+            }
+        }
+        evictEvents(frame.added);
+        evictEvents(frame.removed);
+        stateHistory.pruneBefore(oldestFrame);
+        frame.clear();
+    }
+    
+    private void evictEvents(List<SpaceObject> objects) {
+        for (SpaceObject object : objects) {
+            History history = histories.get(object);
+            if (history != null) {
+                history.numEvents--;
+                if (!history.present && history.numEvents == 0) {
+                    histories.remove(object);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Saves the current state of this RollbackBuffer's SpaceState as the frame
+     * with the specified number. Each saved frame must have a greater number
+     * than the one saved before it. If this RollbackBuffer already keeps as
+     * many frames as its capacity allows, its oldest frame will be discarded.
+     * @param frameNumber The number of the frame to save
+     */
+    public final void saveFrame(long frameNumber) {
+        checkDetached();
+        if (numFrames > 0 && frameNumber <= getNewestFrame()) {
+            throw new RuntimeException("Attempted to save frame " + frameNumber + " to a RollbackBuffer"
+                    + " whose newest frame is " + getNewestFrame());
+        }
+        //SpaceObjects that changed in the previous frame may have stopped changing without saying so
+        if (numFrames > 0) {
+            recheckedObjects.addAll(getFrame(numFrames - 1).changed);
+        }
+        if (numFrames == frames.length) {
+            evictOldestFrame();
+        }
+        int index = (firstFrame + numFrames) % frames.length;
+        if (frames[index] == null) {
+            frames[index] = new Frame();
+        }
+        Frame frame = frames[index];
+        frame.number = frameNumber;
+        numFrames++;
+        for (SpaceObject object : movedObjects) {
+            History history = histories.get(object);
+            boolean present = (object.state == state);
+            if (present != (history != null && history.present)) {
+                if (history == null) {
+                    history = new History();
+                    histories.put(object, history);
+                }
+                history.present = present;
+                history.numEvents++;
+                if (present) {
+                    frame.added.add(object);
+                } else {
+                    frame.removed.add(object);
+                }
+            }
+            if (present) {
+                record(object, history, frame);
+            }
+        }
+        movedObjects.clear();
+        for (SpaceObject object : changedObjects) {
+            object.rollbackChanged = false;
+            record(object, frame);
+        }
+        changedObjects.clear();
+        for (SpaceObject object : recheckedObjects) {
+            record(object, frame);
+        }
+        recheckedObjects.clear();
+        for (SpaceObject object : timedObjects) {
+            if (object.changesOverTime()) {
+                record(object, frame);
+            }
+        }
+        writeScratch(null);
+        if (!stateHistory.latestEquals(scratch.array(), scratch.position())) {
+            stateHistory.add(frameNumber, scratch.array(), scratch.position());
+        }
+    }
+    
+    /**
+     * Restores this RollbackBuffer's SpaceState to the frame with the
+     * specified number, which this RollbackBuffer must keep, and discards all
+     * of the frames after it. SpaceObjects that were added to the SpaceState
+     * after that frame are removed from it, SpaceObjects that were removed
+     * from it since then are added back, and SpaceObjects whose data changed
+     * since then have their data restored. This method should not be called
+     * while the SpaceState is iterating through its SpaceObjects.
+     * @param frameNumber The number of the frame to restore
+     */
+    public final void restoreFrame(long frameNumber) {
+        checkDetached();
+        int index = indexOf(frameNumber);
+        if (index < 0) {
+            throw new RuntimeException("Attempted to restore frame " + frameNumber + " from a RollbackBuffer"
+                    + " that does not keep it");
+        }
+        if (state.iteratingThroughObjects()) {
+            throw new RuntimeException("Attempted to restore a frame of a SpaceState while it is iterating"
+                    + " through its SpaceObjects");
+        }
+        Set<SpaceObject> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        //Whether each SpaceObject added or removed since the frame was assigned to the SpaceState then
+        Map<SpaceObject,Boolean> presences = new IdentityHashMap<>();
+        for (SpaceObject object : movedObjects) {
+            History history = histories.get(object);
+            presences.put(object, history != null && history.present);
+            affected.add(object);
+        }
+        affected.addAll(changedObjects);
+        affected.addAll(timedObjects);
+        //Going backward in time, the earliest addition or removal after the frame has the final say
+        for (int i = numFrames - 1; i > index; i--) {
+            Frame frame = getFrame(i);
+            affected.addAll(frame.changed);
+            for (SpaceObject object : frame.added) {
+                presences.put(object, false);
+                affected.add(object);
+            }
+            for (SpaceObject object : frame.removed) {
+                presences.put(object, true);
+                affected.add(object);
+            }
+        }
+        List<SpaceObject> objectsToRemove = new ArrayList<>();
+        List<SpaceObject> objectsToAdd = new ArrayList<>();
+        for (Map.Entry<SpaceObject,Boolean> entry : presences.entrySet()) {
+            SpaceObject object = entry.getKey();
+            boolean present = entry.getValue();
+            if (present && object.newState != state) {
+                objectsToAdd.add(object);
+            } else if (!present && object.newState == state) {
+                objectsToRemove.add(object);
+            }
+        }
+        state.removeObjects(objectsToRemove);
+        for (SpaceObject object : affected) {
+            History history = histories.get(object);
+            if (history == null) {
+                continue;
+            }
+            Boolean present = presences.get(object);
+            history.present = (present == null ? object.state == state : present);
+            history.truncateAfter(frameNumber);
+            history.checkedFrame = Long.MIN_VALUE;
+            if (history.present && history.size > 0) {
+                object.readSnapshot(history.getRecord(history.size - 1));
+            }
+        }
+        state.addObjects(objectsToAdd);
+        stateHistory.truncateAfter(frameNumber);
+        if (stateHistory.size > 0) {
+            ByteBuffer record = stateHistory.getRecord(stateHistory.size - 1);
+            state.setTimeFactor(record.getLong());
+            state.readSnapshotActions(record);
+        }
+        for (int i = index + 1; i < numFrames; i++) {
+            Frame frame = getFrame(i);
+            for (SpaceObject object : frame.added) {
+                histories.get(object).numEvents--;
+            }
+            for (SpaceObject object : frame.removed) {
+                histories.get(object).numEvents--;
+            }
+            frame.clear();
+        }
+        numFrames = index + 1;
+        for (SpaceObject object : affected) {
+            History history = histories.get(object);
+            if (history != null && (history.size == 0 || (!history.present && history.numEvents == 0))) {
+                histories.remove(object);
+            }
+        }
+        //Restoring the frame's data is not a change to be recorded in the next frame
+        for (SpaceObject object : changedObjects) {
+            object.rollbackChanged = false;
+        }
+        changedObjects.clear();
+        movedObjects.clear();
+    }
+    
+    /**
+     * Restores this RollbackBuffer's SpaceState to the frame with the
+     * specified number, then re-simulates each frame after it up to the
+     * newest frame that this RollbackBuffer kept before the restoration,
+     * saving each frame after it is simulated. The specified LongConsumer is
+     * called with each frame's number to simulate that frame, as by running
+     * the SpaceState's CellGame for one frame with the input for that frame.
+     * If the simulation is deterministic and receives the same input as it did
+     * originally, the re-simulated frames will be the same as the original
+     * ones.
+     * @param frameNumber The number of the frame to restore
+     * @param simulateFrame The LongConsumer that simulates one frame
+     * @see org.cell2d.HeadlessRunner#run(long)
+     */
+    public final void rollBack(long frameNumber, LongConsumer simulateFrame) {
+        long newestFrame = getNewestFrame();
+        restoreFrame(frameNumber);
+        for (long i = frameNumber + 1; i <= newestFrame; i++) {
+            simulateFrame.accept(i);
+            saveFrame(i);
+        }
+    }
+    
+    /**
+     * Discards all of the frames that this RollbackBuffer keeps. The next
+     * frame that it saves will be able to have any number.
+     */
+    public final void clear() {
+        checkDetached();
+        while (numFrames > 0) {
+            evictOldestFrame();
+        }
+        histories.clear();
+        stateHistory.size = 0;
+        for (SpaceObject object : changedObjects) {
+            object.rollbackChanged = false;
+        }
+        changedObjects.clear();
+        movedObjects.clear();
+        SafeIterator<SpaceObject> iterator = state.objectIterator();
+        while (iterator.hasNext()) {
+            movedObjects.add(iterator.next());
+        }
+    }
+    
+    /**
+     * Detaches this RollbackBuffer from its SpaceState, discarding all of its
+     * frames, so that the SpaceState no longer informs it of changes and can
+     * be given another RollbackBuffer. This RollbackBuffer can no longer be
+     * used afterward. If it is already detached, this method will do nothing.
+     */
+    public final void detach() {
+        if (detached) {
+            return;
+        }
+        clear();
+        movedObjects.clear();
+        timedObjects.clear();
+        state.rollbackBuffer = null;
+        detached = true;
+    }
+    
+}
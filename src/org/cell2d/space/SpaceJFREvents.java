@@ -0,0 +1,133 @@
+package org.cell2d.space;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * <p>SpaceJFREvents contains the Java Flight Recorder events that SpaceStates
+ * emit. Each event type can be enabled or disabled, and given a duration
+ * threshold below which it is not recorded, through a recording's settings by
+ * the event type's name. The event types for SpaceObject movement and spatial
+ * queries, which occur many times per frame, are disabled by default.</p>
+ * @author Alex Heyman
+ */
+final class SpaceJFREvents {
+    
+    private SpaceJFREvents() {}
+    
+    private static final String CATEGORY = "Cell2D";
+    
+    @Name("org.cell2d.space.Move")
+    @Label("MobileObject Move")
+    @Category({CATEGORY, "Space"})
+    @Description("A SpaceState's movement of a MobileObject, including the movements it causes")
+    @Enabled(false)
+    @Threshold("100 us")
+    static final class Move extends Event {
+        
+        @Label("Recursion Depth")
+        @Description("How many other movements this movement occurred during")
+        int depth;
+        
+        @Label("Move Events")
+        @Description("The number of encounters with other SpaceObjects that the MobileObject had")
+        int numMoveEvents;
+        
+        @Label("Change X")
+        double changeX;
+        
+        @Label("Change Y")
+        double changeY;
+        
+    }
+    
+    @Name("org.cell2d.space.SpatialQuery")
+    @Label("Spatial Query")
+    @Category({CATEGORY, "Space"})
+    @Description("A SpaceState's search of its cells for SpaceObjects in a region")
+    @Enabled(false)
+    @Threshold("100 us")
+    static final class SpatialQuery extends Event {
+        
+        @Label("Query Type")
+        String queryType;
+        
+        @Label("Cells Visited")
+        int cellsVisited;
+        
+        @Label("Candidates Tested")
+        int candidatesTested;
+        
+        @Label("Matches")
+        int matches;
+        
+    }
+    
+    @Name("org.cell2d.space.CellCreation")
+    @Label("Cell Creation")
+    @Category({CATEGORY, "Space", "Cells"})
+    @Description("A SpaceState's creation of a cell")
+    @Enabled(true)
+    @Threshold("0 ms")
+    @StackTrace(false)
+    static final class CellCreation extends Event {
+        
+        @Label("Cell X")
+        int x;
+        
+        @Label("Cell Y")
+        int y;
+        
+        @Label("Number of Cells")
+        int numCells;
+        
+    }
+    
+    @Name("org.cell2d.space.CellRemoval")
+    @Label("Cell Removal")
+    @Category({CATEGORY, "Space", "Cells"})
+    @Description("A SpaceState's removal of its empty cells")
+    @Enabled(true)
+    @Threshold("0 ms")
+    static final class CellRemoval extends Event {
+        
+        @Label("Cells Removed")
+        int cellsRemoved;
+        
+        @Label("Cells Remaining")
+        int cellsRemaining;
+        
+    }
+    
+    @Name("org.cell2d.space.CellRebuild")
+    @Label("Cell Rebuild")
+    @Category({CATEGORY, "Space", "Cells"})
+    @Description("A SpaceState's reorganization of its SpaceObjects into cells of new dimensions")
+    @Enabled(true)
+    @Threshold("0 ms")
+    static final class CellRebuild extends Event {
+        
+        @Label("Cell Width")
+        double cellWidth;
+        
+        @Label("Cell Height")
+        double cellHeight;
+        
+        @Label("Old Number of Cells")
+        int oldNumCells;
+        
+        @Label("New Number of Cells")
+        int newNumCells;
+        
+        @Label("Number of SpaceObjects")
+        int numObjects;
+        
+    }
+    
+}
@@ -1,6 +1,8 @@
 package org.cell2d.space;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,8 @@ public abstract class SpaceObject {
     CellGame game = null;
     SpaceState state = null;
     SpaceState newState = null;
+    SpaceObjectPool<?> pool = null;
+    boolean pooled = false;
     private long timeFactor = -1;
     private Hitbox locatorHitbox = null;
     private final Hitbox centerHitbox;
@@ -82,11 +86,11 @@ public abstract class SpaceObject {
     private Hitbox solidHitbox = null;
     boolean solidEvent = false;
     boolean moved = false;
+    //Whether this SpaceObject is in its SpaceState's RollbackBuffer's list of changed SpaceObjects
+    boolean rollbackChanged = false;
     private int drawPriority = 0;
     private Drawable appearance = Sprite.BLANK;
     
-    private static final Map<AnimationInstance,SpaceObject> animInstancesToObjects = new HashMap<>();
-    
     //If an AnimationInstance was not added with an ID, it's in this Map, but with a null value
     private final Map<AnimationInstance,Integer> animInstancesToIDs = new HashMap<>();
     
@@ -215,6 +219,7 @@ public abstract class SpaceObject {
     public final void setTimeFactor(long timeFactor) {
         this.timeFactor = timeFactor;
         setTimeFactorActions(timeFactor);
+        markChanged();
     }
     
     void setTimeFactorActions(long timeFactor) {
@@ -820,6 +825,7 @@ public abstract class SpaceObject {
                     locatorHitbox.addChild(overlapHitbox);
                     overlapHitbox.add(HitboxRole.OVERLAP);
                 }
+                markChanged();
                 return true;
             }
         }
@@ -973,6 +979,7 @@ public abstract class SpaceObject {
                     locatorHitbox.addChild(solidHitbox);
                     solidHitbox.add(HitboxRole.SOLID);
                 }
+                markChanged();
                 return true;
             }
         }
@@ -1046,6 +1053,7 @@ public abstract class SpaceObject {
     public final void setDrawPriority(int drawPriority) {
         this.drawPriority = drawPriority;
         locatorHitbox.setDrawPriority(drawPriority);
+        markChanged();
     }
     
     /**
@@ -1062,6 +1070,7 @@ public abstract class SpaceObject {
      */
     public final void setAppearance(Drawable appearance) {
         this.appearance = appearance;
+        markChanged();
     }
     
     /**
@@ -1081,12 +1090,13 @@ public abstract class SpaceObject {
      * @return Whether the addition occurred
      */
     public final boolean addAnimInstance(AnimationInstance instance) {
+        markChanged();
         if (instance == AnimationInstance.BLANK) {
             return true;
         }
-        if (instance.getGameState() == null && animInstancesToObjects.get(instance) == null) {
+        if (instance.getGameState() == null && instance.getOwner() == null) {
             instance.setTimeFactor(timeFactor);
-            animInstancesToObjects.put(instance, this);
+            instance.claim(this);
             animInstancesToIDs.put(instance, null);
             if (state != null) {
                 state.addAnimInstance(instance);
@@ -1103,12 +1113,13 @@ public abstract class SpaceObject {
      * @return The new AnimationInstance
      */
     public final AnimationInstance addAnimInstance(Animation animation) {
+        markChanged();
         if (animation == Animation.BLANK) {
             return AnimationInstance.BLANK;
         }
         AnimationInstance instance = new AnimationInstance(animation);
         instance.setTimeFactor(timeFactor);
-        animInstancesToObjects.put(instance, this);
+        instance.claim(this);
         animInstancesToIDs.put(instance, null);
         if (state != null) {
             state.addAnimInstance(instance);
@@ -1123,11 +1134,12 @@ public abstract class SpaceObject {
      * @return Whether the removal occurred
      */
     public final boolean removeAnimInstance(AnimationInstance instance) {
+        markChanged();
         if (instance == AnimationInstance.BLANK) {
             return true;
         }
         if (animInstancesToIDs.containsKey(instance) && animInstancesToIDs.get(instance) == null) {
-            animInstancesToObjects.remove(instance);
+            instance.release(this);
             animInstancesToIDs.remove(instance);
             if (state != null) {
                 state.removeAnimInstance(instance);
@@ -1170,10 +1182,11 @@ public abstract class SpaceObject {
      * @return Whether the change occurred
      */
     public final boolean setAnimInstance(int id, AnimationInstance instance) {
+        markChanged();
         if (instance == AnimationInstance.BLANK) {
             AnimationInstance oldInstance = idsToAnimInstances.remove(id);
             if (oldInstance != null) {
-                animInstancesToObjects.remove(oldInstance);
+                oldInstance.release(this);
                 animInstancesToIDs.remove(oldInstance);
                 if (state != null) {
                     state.removeAnimInstance(oldInstance);
@@ -1181,12 +1194,13 @@ public abstract class SpaceObject {
             }
             return true;
         }
-        if (instance.getGameState() == null && animInstancesToObjects.get(instance) == null) {
+        if (instance.getGameState() == null && instance.getOwner() == null) {
             instance.setTimeFactor(timeFactor);
+            instance.claim(this);
             animInstancesToIDs.put(instance, id);
             AnimationInstance oldInstance = idsToAnimInstances.put(id, instance);
             if (oldInstance != null) {
-                animInstancesToObjects.remove(oldInstance);
+                oldInstance.release(this);
                 animInstancesToIDs.remove(oldInstance);
                 if (state != null) {
                     state.removeAnimInstance(oldInstance);
@@ -1250,12 +1264,13 @@ public abstract class SpaceObject {
      * @return The AnimationInstance assigned with the specified ID
      */
     public final AnimationInstance setAnimation(int id, Animation animation) {
+        markChanged();
         AnimationInstance instance = getAnimInstance(id);
         if (instance.getAnimation() != animation) {
             if (animation == Animation.BLANK) {
                 AnimationInstance oldInstance = idsToAnimInstances.remove(id);
                 if (oldInstance != null) {
-                    animInstancesToObjects.remove(oldInstance);
+                    oldInstance.release(this);
                     animInstancesToIDs.remove(oldInstance);
                     if (state != null) {
                         state.removeAnimInstance(oldInstance);
@@ -1265,10 +1280,11 @@ public abstract class SpaceObject {
             }
             instance = new AnimationInstance(animation);
             instance.setTimeFactor(timeFactor);
+            instance.claim(this);
             animInstancesToIDs.put(instance, id);
             AnimationInstance oldInstance = idsToAnimInstances.put(id, instance);
             if (oldInstance != null) {
-                animInstancesToObjects.remove(oldInstance);
+                oldInstance.release(this);
                 animInstancesToIDs.remove(oldInstance);
                 if (state != null) {
                     state.removeAnimInstance(oldInstance);
@@ -1303,8 +1319,9 @@ public abstract class SpaceObject {
      * assigned to it.
      */
     public final void clearAnimInstances() {
+        markChanged();
         for (AnimationInstance instance : animInstancesToIDs.keySet()) {
-            animInstancesToObjects.remove(instance);
+            instance.release(this);
             if (state != null) {
                 state.removeAnimInstance(instance);
             }
@@ -1327,6 +1344,7 @@ public abstract class SpaceObject {
      */
     public final void setAlpha(double alpha) {
         this.alpha = Math.max(0, Math.min(1, alpha));
+        markChanged();
     }
     
     /**
@@ -1367,6 +1385,143 @@ public abstract class SpaceObject {
         return viewport.rectangleIsVisible(getLeftEdge(), getTopEdge(), getRightEdge(), getBottomEdge());
     }
     
+    /**
+     * Informs the RollbackBuffer of this SpaceObject's SpaceState, if it has
+     * one, that this SpaceObject's snapshot data has changed since the
+     * RollbackBuffer last saved a frame. SpaceObjects call this method
+     * themselves whenever the data that snapshots record for all SpaceObjects
+     * changes, but a SpaceObject whose writeSnapshotActions() writes data of
+     * its own must call it whenever that data changes.
+     * @see RollbackBuffer
+     */
+    public final void markChanged() {
+        if (!rollbackChanged && state != null && state.rollbackBuffer != null) {
+            state.rollbackBuffer.objectChanged(this);
+        }
+    }
+    
+    //Returns whether this SpaceObject's snapshot data can change without markChanged() being called
+    boolean changesOverTime() {
+        return false;
+    }
+    
+    //Writes whether the specified Hitbox is absent, is the locator Hitbox, or is its own Hitbox with this data
+    final void writeHitboxSnapshot(ByteBuffer buffer, Hitbox hitbox) {
+        if (hitbox == null) {
+            buffer.put((byte)0);
+        } else if (hitbox == locatorHitbox) {
+            buffer.put((byte)1);
+        } else {
+            buffer.put((byte)2);
+            hitbox.writeSnapshot(buffer);
+        }
+    }
+    
+    //Returns the Hitbox that the snapshot says should fill the role of the specified one
+    final Hitbox readHitboxSnapshot(ByteBuffer buffer, Hitbox hitbox) {
+        switch (buffer.get()) {
+            case 0:
+                return null;
+            case 1:
+                return locatorHitbox;
+            default:
+                if (hitbox == null || hitbox == locatorHitbox) {
+                    throw new RuntimeException("Attempted to restore a snapshot of a SpaceObject's Hitbox to a"
+                            + " SpaceObject that has no corresponding Hitbox of its own");
+                }
+                hitbox.readSnapshot(buffer);
+                return hitbox;
+        }
+    }
+    
+    final void writeSnapshot(ByteBuffer buffer) {
+        writeSnapshotData(buffer);
+        writeSnapshotActions(buffer);
+    }
+    
+    final void readSnapshot(ByteBuffer buffer) {
+        readSnapshotData(buffer);
+        readSnapshotActions(buffer);
+    }
+    
+    void writeSnapshotData(ByteBuffer buffer) {
+        buffer.putLong(timeFactor);
+        buffer.putInt(drawPriority);
+        buffer.putDouble(alpha);
+        locatorHitbox.writeSnapshot(buffer);
+        buffer.putLong(centerHitbox.getRelX());
+        buffer.putLong(centerHitbox.getRelY());
+        writeHitboxSnapshot(buffer, overlapHitbox);
+        writeHitboxSnapshot(buffer, solidHitbox);
+        List<Integer> ids = new ArrayList<>(idsToAnimInstances.keySet());
+        Collections.sort(ids);
+        buffer.putInt(ids.size());
+        for (int id : ids) {
+            buffer.putInt(id);
+            idsToAnimInstances.get(id).writeSnapshot(buffer);
+        }
+        Integer appearanceID = animInstancesToIDs.get(appearance);
+        if (appearanceID == null) {
+            buffer.put((byte)0);
+        } else {
+            buffer.put((byte)1);
+            buffer.putInt(appearanceID);
+        }
+    }
+    
+    void readSnapshotData(ByteBuffer buffer) {
+        long newTimeFactor = buffer.getLong();
+        if (newTimeFactor != timeFactor) {
+            setTimeFactor(newTimeFactor);
+        }
+        int newDrawPriority = buffer.getInt();
+        if (newDrawPriority != drawPriority) {
+            setDrawPriority(newDrawPriority);
+        }
+        alpha = buffer.getDouble();
+        locatorHitbox.readSnapshot(buffer);
+        long centerX = buffer.getLong();
+        long centerY = buffer.getLong();
+        if (centerX != centerHitbox.getRelX() || centerY != centerHitbox.getRelY()) {
+            centerHitbox.setRelPosition(centerX, centerY);
+        }
+        Hitbox newOverlapHitbox = readHitboxSnapshot(buffer, overlapHitbox);
+        if (newOverlapHitbox != overlapHitbox) {
+            setOverlapHitbox(newOverlapHitbox);
+        }
+        Hitbox newSolidHitbox = readHitboxSnapshot(buffer, solidHitbox);
+        if (newSolidHitbox != solidHitbox) {
+            setSolidHitbox(newSolidHitbox);
+        }
+        int numAnimInstances = buffer.getInt();
+        for (int i = 0; i < numAnimInstances; i++) {
+            //An ID with no AnimationInstance has its data read into BLANK, which ignores it
+            getAnimInstance(buffer.getInt()).readSnapshot(buffer);
+        }
+        if (buffer.get() != 0) {
+            appearance = getAnimInstance(buffer.getInt());
+        }
+    }
+    
+    /**
+     * Actions for this SpaceObject to take to write its own data to a snapshot
+     * of its SpaceState, after the data that snapshots record for all
+     * SpaceObjects. Anything that this method writes must be read back, in the
+     * same order, by readSnapshotActions().
+     * @param buffer The ByteBuffer to which the snapshot is being written
+     * @see SpaceState#saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public void writeSnapshotActions(ByteBuffer buffer) {}
+    
+    /**
+     * Actions for this SpaceObject to take to read back the data that its
+     * writeSnapshotActions() wrote to a snapshot, when the snapshot is
+     * restored.
+     * @param buffer The ByteBuffer from which the snapshot is being read
+     * @see SpaceState#loadSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public void readSnapshotActions(ByteBuffer buffer) {}
+    
     /**
      * Draws this SpaceObject as seen through a Viewport's camera.
      * @param g The Graphics context to which this SpaceObject is being drawn
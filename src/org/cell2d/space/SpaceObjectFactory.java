@@ -0,0 +1,33 @@
+package org.cell2d.space;
+
+/**
+ * <p>A SpaceObjectFactory identifies the types of SpaceObjects that are
+ * written to snapshots of a SpaceState, and creates new SpaceObjects of those
+ * types when the snapshots are restored. Each type of SpaceObject is
+ * identified by an integer <i>type ID</i> of the SpaceObjectFactory's
+ * choosing. A SpaceObject that the SpaceObjectFactory creates should have the
+ * same Hitboxes and AnimationInstances as the SpaceObjects of its type had
+ * when they were constructed; its snapshot data then gives them the positions,
+ * indices, and other values that they had when the snapshot was written.</p>
+ * @see SpaceState#saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+ * @see SpaceState#loadSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+ * @author Alex Heyman
+ */
+public interface SpaceObjectFactory {
+    
+    /**
+     * Returns the type ID of the specified SpaceObject.
+     * @param object The SpaceObject whose type ID is to be returned
+     * @return The type ID of the specified SpaceObject
+     */
+    int getTypeID(SpaceObject object);
+    
+    /**
+     * Creates and returns a new SpaceObject of the type with the specified type
+     * ID. The SpaceObject must not be assigned to a SpaceState.
+     * @param typeID The type ID of the SpaceObject to be created
+     * @return A new SpaceObject of the specified type
+     */
+    SpaceObject createObject(int typeID);
+    
+}
@@ -0,0 +1,115 @@
+package org.cell2d.space;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * <p>A SpaceObjectPool is a reusable supply of SpaceObjects of one type, useful
+ * for SpaceObjects such as projectiles and particles that are created and
+ * discarded in large numbers. Rather than constructing a new SpaceObject, a
+ * SpaceObjectPool's acquire() method returns one that was previously released
+ * to it if it has one, and only creates a new one with its create() method if
+ * it does not. A SpaceObject that was acquired from a SpaceObjectPool keeps its
+ * Hitboxes and other data when it is released, so that they can be reused.</p>
+ * 
+ * <p>A SpaceObject that was acquired from a SpaceObjectPool is released back to
+ * it either when the SpaceObjectPool's release() method is called on it, or
+ * automatically when it is removed from its SpaceState without being added to
+ * another one. A SpaceObjectPool takes its reset() actions on each SpaceObject
+ * when the SpaceObject is released, and again immediately before returning the
+ * SpaceObject from acquire(), allowing the SpaceObject to be returned to its
+ * initial state. A SpaceObject should not be used after it is released until it
+ * is acquired again.</p>
+ * 
+ * <p>It is useful to implicitly extend SpaceObjectPool to override its methods
+ * without creating a new class file.</p>
+ * @see SpaceObject
+ * @param <O> The type of SpaceObject that this SpaceObjectPool supplies
+ * @author Alex Heyman
+ */
+public abstract class SpaceObjectPool<O extends SpaceObject> {
+    
+    private final Deque<O> available = new ArrayDeque<>();
+    
+    /**
+     * Constructs an empty SpaceObjectPool.
+     */
+    public SpaceObjectPool() {}
+    
+    /**
+     * Returns the number of released SpaceObjects that this SpaceObjectPool is
+     * ready to return from acquire().
+     * @return The number of available SpaceObjects in this SpaceObjectPool
+     */
+    public final int getNumAvailable() {
+        return available.size();
+    }
+    
+    /**
+     * Creates a new SpaceObject for this SpaceObjectPool to supply. The
+     * SpaceObject must not already be assigned to a SpaceState.
+     * @return The new SpaceObject
+     */
+    public abstract O create();
+    
+    /**
+     * Actions for this SpaceObjectPool to take to reset a SpaceObject that was
+     * released to it or is about to be returned from its acquire() method.
+     * @param object The SpaceObject to reset
+     */
+    public void reset(O object) {}
+    
+    /**
+     * Returns a SpaceObject that is not assigned to a SpaceState, reusing one
+     * that was released to this SpaceObjectPool if possible.
+     * @return The acquired SpaceObject
+     */
+    public final O acquire() {
+        O object = available.poll();
+        if (object == null) {
+            object = create();
+            if (object.newState != null) {
+                throw new RuntimeException("Attempted to acquire a SpaceObject that is already assigned to a"
+                        + " SpaceState from a SpaceObjectPool");
+            }
+        }
+        object.pool = this;
+        object.pooled = false;
+        reset(object);
+        return object;
+    }
+    
+    /**
+     * Releases the specified SpaceObject to this SpaceObjectPool. If the
+     * SpaceObject is assigned to a SpaceState, it will be removed from it and
+     * released once the removal has occurred.
+     * @param object The SpaceObject to release
+     */
+    public final void release(O object) {
+        if (object.pool != this) {
+            throw new RuntimeException("Attempted to release a SpaceObject to a SpaceObjectPool that it was"
+                    + " not acquired from");
+        }
+        if (object.newState != null) {
+            object.newState.removeObject(object);
+        } else if (object.state == null) {
+            returnObject(object);
+        }
+    }
+    
+    //A SpaceObject only ever refers to the SpaceObjectPool it was acquired from, so this cast always succeeds
+    @SuppressWarnings("unchecked")
+    private O cast(SpaceObject object) {
+        return (O)object;
+    }
+    
+    final void returnObject(SpaceObject object) {
+        if (!object.pooled) {
+            object.pooled = true;
+            O pooledObject = cast(object);
+            reset(pooledObject);
+            available.push(pooledObject);
+        }
+    }
+    
+}
@@ -1,14 +1,22 @@
 package org.cell2d.space;
 
 import java.awt.Point;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -19,11 +27,13 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
 import org.cell2d.CellGame;
 import org.cell2d.CellVector;
 import org.cell2d.Direction;
 import org.cell2d.EventGroup;
 import org.cell2d.Frac;
+import org.cell2d.FrameProfiler;
 import org.cell2d.GameState;
 import org.cell2d.SafeIterator;
 import org.cell2d.celick.Graphics;
@@ -52,6 +62,14 @@ import org.cell2d.celick.Graphics;
  * they are in too frequently, but small enough that not too many SpaceObjects
  * are in each cell at any one time.</p>
  * 
+ * <p>A SpaceState's spatial queries, such as objectsWithinRectangle(),
+ * overlappingObjects(), intersectingSolidObjects(), and their relatives, only
+ * read the SpaceState, so parallel-safe SubThinkers may call them from several
+ * threads at once while taking their frameActions(), as may they call
+ * getCellDiagnostics() and the SpaceState's other getters. Methods that add,
+ * remove, or move SpaceObjects or change their Hitboxes are not safe to call
+ * at such times, and must be deferred.</p>
+ * 
  * <p>Like the SpaceThinkers that it uses, a SpaceState has an EventGroup of
  * <i>before-movement Events</i> that it performs once each frame. A SpaceState
  * performs these Events at the beginning of its frameActions(). Immediately
@@ -59,7 +77,11 @@ import org.cell2d.celick.Graphics;
  * velocity and step multiplied by its time factor, then resets its step to (0,
  * 0). This, along with manual calls to the MobileObject's doMovement() method,
  * is when the MobileObject interacts with the solid surfaces of SpaceObjects in
- * its path if it has Cell2D's standard collision mechanics enabled.</p>
+ * its path if it has Cell2D's standard collision mechanics enabled.
+ * MobileObjects that have neither collision mechanics nor solid surfaces, nor
+ * any followers, cannot interact with other SpaceObjects as they move, and are
+ * all moved together before the SpaceState moves its other MobileObjects in
+ * order of movement priority.</p>
  * 
  * <p>Viewports may be assigned to one SpaceState each with an integer ID in
  * the context of that SpaceState. Only one Viewport may be assigned to a
@@ -125,6 +147,12 @@ public abstract class SpaceState<T extends CellGame,
                 System.identityHashCode(object1) - System.identityHashCode(object2) : priorityDiff);
     };
     
+    //The minimum number of queued SpaceObject additions that are made as a batch
+    private static final int MIN_BATCH_SIZE = 64;
+    
+    private static final int SNAPSHOT_MAGIC = 0x43324453; //"C2DS"
+    private static final int SNAPSHOT_VERSION = 1;
+    
     private static final Comparator<MoveEvent> moveComparator = (event1, event2) -> {
         long metricDiff = event1.metric - event2.metric;
         if (metricDiff == 0) {
@@ -186,17 +214,34 @@ public abstract class SpaceState<T extends CellGame,
     private final EventGroup<T,U> beforeMovementEvents = new EventGroup<>();
     private final Set<SpaceObject> spaceObjects = new HashSet<>();
     private int objectIterators = 0;
-    private final Queue<ObjectChange> objectChanges = new LinkedList<>();
+    private final Queue<ObjectChange> objectChanges = new ArrayDeque<>();
     private boolean updatingObjects = false;
     private final SortedSet<MobileObject> mobileObjects = new TreeSet<>(movementPriorityComparator);
     private int mobileObjectIterators = 0;
-    private final Queue<MobileObjectChange> mobileObjectChanges = new LinkedList<>();
+    private final Queue<MobileObjectChange> mobileObjectChanges = new ArrayDeque<>();
+    //Non-null while a batch of SpaceObjects is being added
+    private List<Hitbox> batchHitboxes = null;
+    private List<HitboxRole> batchHitboxRoles = null;
+    private List<MobileObject> batchMobileObjects = null;
+    private final MobileKinematics kinematics = new MobileKinematics();
+    RollbackBuffer rollbackBuffer = null;
     private long cellWidth, cellHeight;
     private final Map<Point,Cell> cells = new HashMap<>();
     private int cellLeft = 0;
     private int cellRight = 0;
     private int cellTop = 0;
     private int cellBottom = 0;
+    //How many calls to move() are currently in progress
+    private int moveDepth = 0;
+    //1 minus the CellGame's interpolation alpha during renderActions(), or 0 if not interpolating
+    private long drawRemaining = 0;
+    //Spatial queries may run on several threads at once during parallel frame actions
+    private boolean queryStatisticsEnabled = false;
+    private final LongAdder numQueries = new LongAdder();
+    private final LongAdder queryCellsVisited = new LongAdder();
+    private final LongAdder queryCandidatesTested = new LongAdder();
+    private final LongAdder queryCandidatesRejected = new LongAdder();
+    private final HitboxScanSet markingScanSet = HitboxScanSet.newMarking();
     private DrawMode drawMode;
     private Comparator<HitboxIteratorData> drawComparator;
     private final Map<Integer,Viewport<T,U>> viewports = new HashMap<>();
@@ -304,6 +349,7 @@ public abstract class SpaceState<T extends CellGame,
         private final int left, right, top, bottom;
         private int xPos, yPos;
         private Cell nextCell;
+        private int numCellsVisited = 0;
         
         private ReadCellRangeIterator(int x1, int y1, int x2, int y2) {
             left = Math.max(x1, cellLeft);
@@ -341,6 +387,7 @@ public abstract class SpaceState<T extends CellGame,
         public final Cell next() {
             Cell next = nextCell;
             advance();
+            numCellsVisited++;
             return next;
         }
         
@@ -368,6 +415,8 @@ public abstract class SpaceState<T extends CellGame,
             Cell next = cells.get(point);
             if (next == null) {
                 //There needs to be a cell here, but there isn't, so it's time to make one
+                SpaceJFREvents.CellCreation event = new SpaceJFREvents.CellCreation();
+                event.begin();
                 if (cells.isEmpty()) {
                     cellLeft = xPos;
                     cellRight = xPos;
@@ -387,6 +436,13 @@ public abstract class SpaceState<T extends CellGame,
                 }
                 next = new Cell(xPos, yPos);
                 cells.put(point, next);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.x = xPos;
+                    event.y = yPos;
+                    event.numCells = cells.size();
+                    event.commit();
+                }
             }
             if (xPos == cellRange[2]) {
                 xPos = cellRange[0];
@@ -441,6 +497,9 @@ public abstract class SpaceState<T extends CellGame,
             throw new RuntimeException("Attempted to give a SpaceState a non-positive cell height (about "
                     + Frac.toDouble(cellHeight) + " fracunits)");
         }
+        SpaceJFREvents.CellRebuild event = new SpaceJFREvents.CellRebuild();
+        event.begin();
+        int oldNumCells = cells.size();
         cells.clear();
         this.cellWidth = cellWidth;
         this.cellHeight = cellHeight;
@@ -449,6 +508,15 @@ public abstract class SpaceState<T extends CellGame,
                 object.addCellData();
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.cellWidth = Frac.toDouble(cellWidth);
+            event.cellHeight = Frac.toDouble(cellHeight);
+            event.oldNumCells = oldNumCells;
+            event.newNumCells = cells.size();
+            event.numObjects = spaceObjects.size();
+            event.commit();
+        }
     }
     
     /**
@@ -457,6 +525,9 @@ public abstract class SpaceState<T extends CellGame,
      * longer this operation takes.
      */
     public final void clearEmptyCells() {
+        SpaceJFREvents.CellRemoval event = new SpaceJFREvents.CellRemoval();
+        event.begin();
+        int oldNumCells = cells.size();
         boolean firstCell = true;
         Iterator<Cell> iterator = cells.values().iterator();
         while (iterator.hasNext()) {
@@ -489,6 +560,103 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.cellsRemoved = oldNumCells - cells.size();
+            event.cellsRemaining = cells.size();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Returns a CellDiagnostics that records how well this SpaceState's cells
+     * currently divide its space, along with statistics on the spatial queries
+     * that it has performed since its query statistics were last reset. Only
+     * queries performed while query statistics were enabled are counted. The
+     * more cells this SpaceState has, the longer this operation takes.
+     * @return A CellDiagnostics for this SpaceState
+     */
+    public final CellDiagnostics getCellDiagnostics() {
+        HitboxRole[] roles = HitboxRole.values();
+        int[] maxOccupancies = new int[roles.length];
+        int maxOccupancy = 0;
+        int numEmptyCells = 0;
+        for (Cell cell : cells.values()) {
+            int occupancy = 0;
+            for (HitboxRole role : roles) {
+                int roleOccupancy = cell.hitboxes.get(role).size();
+                maxOccupancies[role.ordinal()] = Math.max(maxOccupancies[role.ordinal()], roleOccupancy);
+                occupancy += roleOccupancy;
+            }
+            maxOccupancy = Math.max(maxOccupancy, occupancy);
+            if (occupancy == 0) {
+                numEmptyCells++;
+            }
+        }
+        EnumMap<HitboxRole,int[]> histograms = new EnumMap<>(HitboxRole.class);
+        for (HitboxRole role : roles) {
+            histograms.put(role, new int[maxOccupancies[role.ordinal()] + 1]);
+        }
+        HitboxScanSet scanned = acquireScanSet();
+        long numCellsSpanned = 0;
+        int maxCellsSpanned = 0;
+        for (Cell cell : cells.values()) {
+            for (HitboxRole role : roles) {
+                Set<Hitbox> hitboxes = cell.hitboxes.get(role);
+                histograms.get(role)[hitboxes.size()]++;
+                for (Hitbox hitbox : hitboxes) {
+                    if (scanned.add(hitbox)) {
+                        int[] cellRange = hitbox.cellRange;
+                        int cellsSpanned = (cellRange[2] - cellRange[0] + 1)*(cellRange[3] - cellRange[1] + 1);
+                        numCellsSpanned += cellsSpanned;
+                        maxCellsSpanned = Math.max(maxCellsSpanned, cellsSpanned);
+                    }
+                }
+            }
+        }
+        int numHitboxes = scanned.size();
+        scanned.release();
+        return new CellDiagnostics(cells.size(), numEmptyCells, maxOccupancy, histograms, numHitboxes,
+                numCellsSpanned, maxCellsSpanned, numQueries.sum(), queryCellsVisited.sum(),
+                queryCandidatesTested.sum(), queryCandidatesRejected.sum());
+    }
+    
+    /**
+     * Returns whether this SpaceState keeps statistics on the spatial queries
+     * that it performs.
+     * @return Whether this SpaceState's query statistics are enabled
+     */
+    public final boolean isQueryStatisticsEnabled() {
+        return queryStatisticsEnabled;
+    }
+    
+    /**
+     * Sets whether this SpaceState keeps statistics on the spatial queries that
+     * it performs, which are reported by its getCellDiagnostics() method.
+     * Keeping them adds a little to the cost of each query, so they are
+     * disabled by default. Disabling them does not reset them.
+     * @param queryStatisticsEnabled Whether this SpaceState's query statistics
+     * should be enabled
+     */
+    public final void setQueryStatisticsEnabled(boolean queryStatisticsEnabled) {
+        this.queryStatisticsEnabled = queryStatisticsEnabled;
+    }
+    
+    /**
+     * Resets to 0 this SpaceState's statistics on the spatial queries that it
+     * has performed, which are reported by its getCellDiagnostics() method.
+     */
+    public final void resetQueryStatistics() {
+        numQueries.reset();
+        queryCellsVisited.reset();
+        queryCandidatesTested.reset();
+        queryCandidatesRejected.reset();
+    }
+    
+    //The number of Hitboxes with the specified role in the specified cell, or -1 if there is no such cell
+    final int getCellOccupancy(int cellX, int cellY, HitboxRole role) {
+        Cell cell = cells.get(new Point(cellX, cellY));
+        return (cell == null ? -1 : cell.hitboxes.get(role).size());
     }
     
     /**
@@ -552,6 +720,8 @@ public abstract class SpaceState<T extends CellGame,
         int[] newRange = hitbox.cellRange;
         if (oldRange[0] != newRange[0] || oldRange[1] != newRange[1]
                 || oldRange[2] != newRange[2] || oldRange[3] != newRange[3]) {
+            FrameProfiler profiler = getGame().getProfiler();
+            long startTime = (profiler == null ? 0 : System.nanoTime());
             Iterator<Cell> iterator = new WriteCellRangeIterator(oldRange);
             while (iterator.hasNext()) {
                 Cell cell = iterator.next();
@@ -570,6 +740,9 @@ public abstract class SpaceState<T extends CellGame,
                     }
                 }
             }
+            if (profiler != null) {
+                profiler.endPhase(FrameProfiler.Phase.CELL_MAINTENANCE, startTime);
+            }
         }
     }
     
@@ -578,6 +751,11 @@ public abstract class SpaceState<T extends CellGame,
             updateCellRange(hitbox);
         }
         hitbox.numCellRoles++;
+        if (batchHitboxes != null) {
+            batchHitboxes.add(hitbox);
+            batchHitboxRoles.add(role);
+            return;
+        }
         Iterator<Cell> iterator = new WriteCellRangeIterator(hitbox.cellRange);
         while (iterator.hasNext()) {
             iterator.next().hitboxes.get(role).add(hitbox);
@@ -595,6 +773,38 @@ public abstract class SpaceState<T extends CellGame,
         }
     }
     
+    //Adds the batch's Hitboxes to their cells, looking up each cell only once per run of Hitboxes in it
+    private void addBatchHitboxes() {
+        int numHitboxes = batchHitboxes.size();
+        //Each key is a hash of a Hitbox's top left cell above its index in the batch, so sorting the keys puts
+        //the Hitboxes in the same cell next to each other. Different cells rarely share a hash, and when they
+        //do, it only costs an extra cell lookup.
+        long[] keys = new long[numHitboxes];
+        for (int i = 0; i < numHitboxes; i++) {
+            int[] cellRange = batchHitboxes.get(i).cellRange;
+            keys[i] = ((long)(cellRange[1]*0x9E3779B9 + cellRange[0]) << 32) | i;
+        }
+        Arrays.sort(keys);
+        Cell cell = null;
+        for (long key : keys) {
+            int i = (int)key;
+            Hitbox hitbox = batchHitboxes.get(i);
+            HitboxRole role = batchHitboxRoles.get(i);
+            int[] cellRange = hitbox.cellRange;
+            if (cellRange[0] == cellRange[2] && cellRange[1] == cellRange[3]) {
+                if (cell == null || cell.x != cellRange[0] || cell.y != cellRange[1]) {
+                    cell = new WriteCellRangeIterator(cellRange).next();
+                }
+                cell.hitboxes.get(role).add(hitbox);
+            } else {
+                Iterator<Cell> iterator = new WriteCellRangeIterator(cellRange);
+                while (iterator.hasNext()) {
+                    iterator.next().hitboxes.get(role).add(hitbox);
+                }
+            }
+        }
+    }
+    
     final void setLocatorHitboxDrawPriority(Hitbox hitbox, int drawPriority) {
         List<Cell> cellList = getCells(hitbox.cellRange);
         for (Cell cell : cellList) {
@@ -614,6 +824,177 @@ public abstract class SpaceState<T extends CellGame,
         return spaceObjects.size();
     }
     
+    /**
+     * Returns a checksum of the positions of the SpaceObjects that are
+     * assigned to this SpaceState. Two SpaceStates whose SpaceObjects are at
+     * the same positions have the same checksum, regardless of the order in
+     * which the SpaceObjects were added. The checksum is useful for detecting
+     * where two runs of a deterministic simulation diverge.
+     * @return A checksum of the positions of this SpaceState's SpaceObjects
+     */
+    public final long getPositionChecksum() {
+        long checksum = spaceObjects.size();
+        for (SpaceObject object : spaceObjects) {
+            //Summing the objects' mixed hashes makes the checksum independent of iteration order
+            long hash = object.getX()*0x9E3779B97F4A7C15L + object.getY();
+            hash = (hash ^ (hash >>> 30))*0xBF58476D1CE4E5B9L;
+            hash = (hash ^ (hash >>> 27))*0x94D049BB133111EBL;
+            checksum += hash ^ (hash >>> 31);
+        }
+        return checksum;
+    }
+    
+    /**
+     * Writes a snapshot of this SpaceState and its SpaceObjects to the
+     * specified ByteBuffer, starting at its current position. For each
+     * SpaceObject currently assigned to this SpaceState, the snapshot records
+     * its type ID according to the specified SpaceObjectFactory; its time
+     * factor, draw priority, and alpha value; the relative positions, flipped
+     * statuses, angles, and solid surfaces of its locator, overlap, and solid
+     * Hitboxes and all of their CompositeHitbox components, and of its center;
+     * the indices and speeds of its AnimationInstances with IDs, and which of
+     * them is its appearance; for a MobileObject, its movement priority,
+     * collision settings, collision Hitbox, relative pressing angle, velocity,
+     * and step; for a ThinkerObject, the timer values of its snapshot Events;
+     * and then whatever its writeSnapshotActions() writes. The snapshot ends
+     * with this SpaceState's time factor and whatever its
+     * writeSnapshotActions() writes. Assets such as Animations, Sprites, and
+     * Filters, and references between SpaceObjects, such as leaders and
+     * followers, are not recorded unless the SpaceObjects' or SpaceState's
+     * writeSnapshotActions() record them.
+     * @param buffer The ByteBuffer to write to
+     * @param factory The SpaceObjectFactory that identifies the SpaceObjects'
+     * types
+     * @throws BufferOverflowException if the snapshot does not fit in the
+     * ByteBuffer's remaining space
+     * @see #loadSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public final void saveSnapshot(ByteBuffer buffer, SpaceObjectFactory factory) {
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.put((byte)SNAPSHOT_VERSION);
+        buffer.putInt(spaceObjects.size());
+        for (SpaceObject object : spaceObjects) {
+            buffer.putInt(factory.getTypeID(object));
+            object.writeSnapshot(buffer);
+        }
+        buffer.putLong(getTimeFactor());
+        writeSnapshotActions(buffer);
+    }
+    
+    /**
+     * Writes a snapshot of this SpaceState and its SpaceObjects to a new
+     * ByteBuffer and returns that ByteBuffer, ready to be read from.
+     * @param factory The SpaceObjectFactory that identifies the SpaceObjects'
+     * types
+     * @return A ByteBuffer containing the snapshot
+     * @see #saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public final ByteBuffer saveSnapshot(SpaceObjectFactory factory) {
+        int capacity = Math.max(4096, 128*spaceObjects.size());
+        while (true) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                saveSnapshot(buffer, factory);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                if (capacity > Integer.MAX_VALUE/2) {
+                    throw new RuntimeException("Attempted to write a snapshot of a SpaceState that is too large"
+                            + " to fit in a ByteBuffer");
+                }
+                capacity *= 2;
+            }
+        }
+    }
+    
+    /**
+     * Writes a snapshot of this SpaceState and its SpaceObjects to the file at
+     * the specified path, replacing the file if it already exists.
+     * @param path The path of the file to write to
+     * @param factory The SpaceObjectFactory that identifies the SpaceObjects'
+     * types
+     * @throws IOException if an I/O error occurs
+     * @see #saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public final void saveSnapshot(Path path, SpaceObjectFactory factory) throws IOException {
+        ByteBuffer buffer = saveSnapshot(factory);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    /**
+     * Restores this SpaceState to the state recorded in a snapshot, reading
+     * the snapshot from the specified ByteBuffer starting at its current
+     * position. All of the SpaceObjects currently assigned to this SpaceState
+     * will be removed from it. New SpaceObjects will be created with the
+     * specified SpaceObjectFactory, given the data that the snapshot recorded,
+     * and then added to this SpaceState all at once.
+     * @param buffer The ByteBuffer to read from
+     * @param factory The SpaceObjectFactory that creates the SpaceObjects
+     * @see #saveSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public final void loadSnapshot(ByteBuffer buffer, SpaceObjectFactory factory) {
+        if (buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new RuntimeException("Attempted to restore a SpaceState from data that is not a snapshot");
+        }
+        int version = buffer.get();
+        if (version != SNAPSHOT_VERSION) {
+            throw new RuntimeException("Attempted to restore a SpaceState from a snapshot with unsupported"
+                    + " version " + version);
+        }
+        int numObjects = buffer.getInt();
+        List<SpaceObject> objects = new ArrayList<>(numObjects);
+        for (int i = 0; i < numObjects; i++) {
+            int typeID = buffer.getInt();
+            SpaceObject object = factory.createObject(typeID);
+            if (object == null || object.newState != null) {
+                throw new RuntimeException("Attempted to restore a SpaceState from a snapshot with a"
+                        + " SpaceObjectFactory that did not create a new SpaceObject of type " + typeID);
+            }
+            object.readSnapshot(buffer);
+            objects.add(object);
+        }
+        setTimeFactor(buffer.getLong());
+        clearObjects();
+        addObjects(objects);
+        readSnapshotActions(buffer);
+    }
+    
+    /**
+     * Restores this SpaceState to the state recorded in a snapshot that is
+     * stored in the file at the specified path. The file is memory-mapped and
+     * read in place.
+     * @param path The path of the file to read from
+     * @param factory The SpaceObjectFactory that creates the SpaceObjects
+     * @throws IOException if an I/O error occurs
+     * @see #loadSnapshot(java.nio.ByteBuffer, org.cell2d.space.SpaceObjectFactory)
+     */
+    public final void loadSnapshot(Path path, SpaceObjectFactory factory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            loadSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), factory);
+        }
+    }
+    
+    /**
+     * Actions for this SpaceState to take to write its own data to a snapshot
+     * of itself, after the data of its SpaceObjects. Anything that this method
+     * writes must be read back, in the same order, by readSnapshotActions().
+     * @param buffer The ByteBuffer to which the snapshot is being written
+     */
+    public void writeSnapshotActions(ByteBuffer buffer) {}
+    
+    /**
+     * Actions for this SpaceState to take to read back the data that its
+     * writeSnapshotActions() wrote to a snapshot, after the SpaceObjects in the
+     * snapshot have been added to it.
+     * @param buffer The ByteBuffer from which the snapshot is being read
+     */
+    public void readSnapshotActions(ByteBuffer buffer) {}
+    
     private class ObjectIterator implements SafeIterator<SpaceObject> {
         
         private boolean stopped = false;
@@ -712,6 +1093,33 @@ public abstract class SpaceState<T extends CellGame,
         return false;
     }
     
+    /**
+     * Adds each of the specified SpaceObjects to this SpaceState if it is not
+     * already assigned to a SpaceState. Large numbers of SpaceObjects are added
+     * more efficiently this way than one at a time.
+     * @param objects The SpaceObjects to be added
+     * @return Whether any additions occurred
+     */
+    public final boolean addObjects(Collection<? extends SpaceObject> objects) {
+        boolean added = false;
+        for (SpaceObject object : objects) {
+            if (object.newState == null) {
+                object.newState = this;
+                ObjectChange change = new ObjectChange(object, this);
+                SpaceState<?,?,?> oldState = object.state;
+                if (oldState != null) {
+                    oldState.objectChanges.add(change);
+                }
+                objectChanges.add(change);
+                added = true;
+            }
+        }
+        if (added) {
+            updateObjects();
+        }
+        return added;
+    }
+    
     /**
      * Removes the specified SpaceObject from this SpaceState if it is currently
      * assigned to it.
@@ -726,6 +1134,27 @@ public abstract class SpaceState<T extends CellGame,
         return false;
     }
     
+    /**
+     * Removes each of the specified SpaceObjects from this SpaceState if it is
+     * currently assigned to it.
+     * @param objects The SpaceObjects to be removed
+     * @return Whether any removals occurred
+     */
+    public final boolean removeObjects(Collection<? extends SpaceObject> objects) {
+        boolean removed = false;
+        for (SpaceObject object : objects) {
+            if (object.newState == this) {
+                object.newState = null;
+                objectChanges.add(new ObjectChange(object, null));
+                removed = true;
+            }
+        }
+        if (removed) {
+            updateObjects();
+        }
+        return removed;
+    }
+    
     /**
      * Removes from this SpaceState all of the SpaceObjects that are currently
      * assigned to it.
@@ -750,27 +1179,20 @@ public abstract class SpaceState<T extends CellGame,
      * @param y2 The y-coordinate of the region's bottom edge
      */
     public final void removeRectangle(long x1, long y1, long x2, long y2) {
-        List<Hitbox> scanned = new ArrayList<>();
         Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
         while (iterator.hasNext()) {
             for (Hitbox locatorHitbox : iterator.next().hitboxes.get(HitboxRole.LOCATOR)) {
-                if (!locatorHitbox.scanned) {
-                    SpaceObject object = locatorHitbox.getObject();
-                    if (object.newState == this
-                            && locatorHitbox.getLeftEdge() >= x1
-                            && locatorHitbox.getRightEdge() <= x2
-                            && locatorHitbox.getTopEdge() >= y1
-                            && locatorHitbox.getBottomEdge() <= y2) {
-                        object.newState = null;
-                        objectChanges.add(new ObjectChange(object, null));
-                    }
-                    locatorHitbox.scanned = true;
+                SpaceObject object = locatorHitbox.getObject();
+                if (object.newState == this
+                        && locatorHitbox.getLeftEdge() >= x1
+                        && locatorHitbox.getRightEdge() <= x2
+                        && locatorHitbox.getTopEdge() >= y1
+                        && locatorHitbox.getBottomEdge() <= y2) {
+                    object.newState = null;
+                    objectChanges.add(new ObjectChange(object, null));
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -784,28 +1206,21 @@ public abstract class SpaceState<T extends CellGame,
      * @param y2 The y-coordinate of the region's bottom edge
      */
     public final void removeOutsideRectangle(long x1, long y1, long x2, long y2) {
-        List<Hitbox> scanned = new ArrayList<>();
         for (Cell cell : cells.values()) {
             if (cell.left < x1 || cell.right > x2 || cell.top < y1 || cell.bottom > y2) {
                 for (Hitbox locatorHitbox : cell.hitboxes.get(HitboxRole.LOCATOR)) {
-                    if (!locatorHitbox.scanned) {
-                        SpaceObject object = locatorHitbox.getObject();
-                        if (object.newState == this
-                                && (locatorHitbox.getLeftEdge() >= x2
-                                || locatorHitbox.getRightEdge() <= x1
-                                || locatorHitbox.getTopEdge() >= y2
-                                || locatorHitbox.getBottomEdge() <= y1)) {
-                            object.newState = null;
-                            objectChanges.add(new ObjectChange(object, null));
-                        }
-                        locatorHitbox.scanned = true;
+                    SpaceObject object = locatorHitbox.getObject();
+                    if (object.newState == this
+                            && (locatorHitbox.getLeftEdge() >= x2
+                            || locatorHitbox.getRightEdge() <= x1
+                            || locatorHitbox.getTopEdge() >= y2
+                            || locatorHitbox.getBottomEdge() <= y1)) {
+                        object.newState = null;
+                        objectChanges.add(new ObjectChange(object, null));
                     }
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -816,24 +1231,17 @@ public abstract class SpaceState<T extends CellGame,
      * @param x The line's x-coordinate
      */
     public final void removeLeftOfLine(long x) {
-        List<Hitbox> scanned = new ArrayList<>();
         Iterator<Cell> iterator = new ReadCellRangeIterator(
                 cellLeft, cellTop, Frac.intCeil(Frac.div(x, cellWidth)) - 1, cellBottom);
         while (iterator.hasNext()) {
             for (Hitbox locatorHitbox : iterator.next().hitboxes.get(HitboxRole.LOCATOR)) {
-                if (!locatorHitbox.scanned) {
-                    SpaceObject object = locatorHitbox.getObject();
-                    if (object.newState == this && locatorHitbox.getRightEdge() <= x) {
-                        object.newState = null;
-                        objectChanges.add(new ObjectChange(object, null));
-                    }
-                    locatorHitbox.scanned = true;
+                SpaceObject object = locatorHitbox.getObject();
+                if (object.newState == this && locatorHitbox.getRightEdge() <= x) {
+                    object.newState = null;
+                    objectChanges.add(new ObjectChange(object, null));
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -844,24 +1252,17 @@ public abstract class SpaceState<T extends CellGame,
      * @param x The line's x-coordinate
      */
     public final void removeRightOfLine(long x) {
-        List<Hitbox> scanned = new ArrayList<>();
         Iterator<Cell> iterator = new ReadCellRangeIterator(
                 Frac.intFloor(Frac.div(x, cellWidth)), cellTop, cellRight, cellBottom);
         while (iterator.hasNext()) {
             for (Hitbox locatorHitbox : iterator.next().hitboxes.get(HitboxRole.LOCATOR)) {
-                if (!locatorHitbox.scanned) {
-                    SpaceObject object = locatorHitbox.getObject();
-                    if (object.newState == this && locatorHitbox.getLeftEdge() >= x) {
-                        object.newState = null;
-                        objectChanges.add(new ObjectChange(object, null));
-                    }
-                    locatorHitbox.scanned = true;
+                SpaceObject object = locatorHitbox.getObject();
+                if (object.newState == this && locatorHitbox.getLeftEdge() >= x) {
+                    object.newState = null;
+                    objectChanges.add(new ObjectChange(object, null));
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -872,24 +1273,17 @@ public abstract class SpaceState<T extends CellGame,
      * @param y The line's y-coordinate
      */
     public final void removeAboveLine(long y) {
-        List<Hitbox> scanned = new ArrayList<>();
         Iterator<Cell> iterator = new ReadCellRangeIterator(
                 cellLeft, cellTop, cellRight, Frac.intCeil(Frac.div(y, cellHeight)) - 1);
         while (iterator.hasNext()) {
             for (Hitbox locatorHitbox : iterator.next().hitboxes.get(HitboxRole.LOCATOR)) {
-                if (!locatorHitbox.scanned) {
-                    SpaceObject object = locatorHitbox.getObject();
-                    if (object.newState == this && locatorHitbox.getBottomEdge() <= y) {
-                        object.newState = null;
-                        objectChanges.add(new ObjectChange(object, null));
-                    }
-                    locatorHitbox.scanned = true;
+                SpaceObject object = locatorHitbox.getObject();
+                if (object.newState == this && locatorHitbox.getBottomEdge() <= y) {
+                    object.newState = null;
+                    objectChanges.add(new ObjectChange(object, null));
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -900,24 +1294,17 @@ public abstract class SpaceState<T extends CellGame,
      * @param y The line's y-coordinate
      */
     public final void removeBelowLine(long y) {
-        List<Hitbox> scanned = new ArrayList<>();
         Iterator<Cell> iterator = new ReadCellRangeIterator(
                 cellLeft, Frac.intFloor(Frac.div(y, cellHeight)), cellRight, cellBottom);
         while (iterator.hasNext()) {
             for (Hitbox locatorHitbox : iterator.next().hitboxes.get(HitboxRole.LOCATOR)) {
-                if (!locatorHitbox.scanned) {
-                    SpaceObject object = locatorHitbox.getObject();
-                    if (object.newState == this && locatorHitbox.getTopEdge() >= y) {
-                        object.newState = null;
-                        objectChanges.add(new ObjectChange(object, null));
-                    }
-                    locatorHitbox.scanned = true;
+                SpaceObject object = locatorHitbox.getObject();
+                if (object.newState == this && locatorHitbox.getTopEdge() >= y) {
+                    object.newState = null;
+                    objectChanges.add(new ObjectChange(object, null));
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
         updateObjects();
     }
     
@@ -940,6 +1327,9 @@ public abstract class SpaceState<T extends CellGame,
         object.state = this;
         object.addCellData();
         object.addNonCellData();
+        if (rollbackBuffer != null) {
+            rollbackBuffer.objectAdded(object);
+        }
     }
     
     private void remove(SpaceObject object) {
@@ -947,12 +1337,64 @@ public abstract class SpaceState<T extends CellGame,
         spaceObjects.remove(object);
         object.game = null;
         object.state = null;
+        if (rollbackBuffer != null) {
+            rollbackBuffer.objectRemoved(object);
+        }
+    }
+    
+    private void addBatch(List<SpaceObject> objects) {
+        batchHitboxes = new ArrayList<>();
+        batchHitboxRoles = new ArrayList<>();
+        T game = getGame();
+        for (SpaceObject object : objects) {
+            spaceObjects.add(object);
+            object.game = game;
+            object.state = this;
+            object.addCellData();
+        }
+        addBatchHitboxes();
+        batchHitboxes = null;
+        batchHitboxRoles = null;
+        if (mobileObjectIterators == 0 && mobileObjectChanges.isEmpty()) {
+            batchMobileObjects = new ArrayList<>();
+        }
+        for (SpaceObject object : objects) {
+            object.addNonCellData();
+        }
+        if (rollbackBuffer != null) {
+            for (SpaceObject object : objects) {
+                rollbackBuffer.objectAdded(object);
+            }
+        }
+        if (batchMobileObjects != null) {
+            List<MobileObject> newMobileObjects = batchMobileObjects;
+            batchMobileObjects = null;
+            addMobileObjects(newMobileObjects);
+        }
     }
     
     private void updateObjects() {
         if (objectIterators == 0 && !updatingObjects) {
             updatingObjects = true;
             while (!objectChanges.isEmpty()) {
+                if (objectChanges.size() >= MIN_BATCH_SIZE) {
+                    //Add the SpaceObjects at the front of the queue that are simply being added to this SpaceState together
+                    List<SpaceObject> batch = new ArrayList<>();
+                    while (!objectChanges.isEmpty()) {
+                        ObjectChange change = objectChanges.peek();
+                        if (!change.made && change.object.state == null && change.newState == this) {
+                            objectChanges.remove();
+                            change.made = true;
+                            batch.add(change.object);
+                        } else {
+                            break;
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        addBatch(batch);
+                        continue;
+                    }
+                }
                 ObjectChange change = objectChanges.remove();
                 if (!change.made) {
                     change.made = true;
@@ -961,6 +1403,8 @@ public abstract class SpaceState<T extends CellGame,
                     }
                     if (change.newState != null) {
                         change.newState.add(change.object);
+                    } else if (change.object.pool != null && change.object.newState == null) {
+                        change.object.pool.returnObject(change.object);
                     }
                 }
             }
@@ -1072,10 +1516,26 @@ public abstract class SpaceState<T extends CellGame,
     }
     
     final void addMobileObject(MobileObject object) {
+        if (batchMobileObjects != null) {
+            batchMobileObjects.add(object);
+            return;
+        }
         mobileObjectChanges.add(new MobileObjectChange(object, true));
         updateMobileObjects();
     }
     
+    private void addMobileObjects(List<MobileObject> objects) {
+        List<MobileObject> newObjects = new ArrayList<>(objects.size());
+        for (MobileObject object : objects) {
+            //The object might have already been added by a change of movement priority
+            if (object.kinematics == null) {
+                object.addToKinematics(kinematics);
+                newObjects.add(object);
+            }
+        }
+        mobileObjects.addAll(newObjects);
+    }
+    
     final void removeMobileObject(MobileObject object) {
         mobileObjectChanges.add(new MobileObjectChange(object, false));
         updateMobileObjects();
@@ -1099,11 +1559,20 @@ public abstract class SpaceState<T extends CellGame,
                             mobileObjects.remove(change.object);
                             change.object.movementPriority = change.movementPriority;
                             mobileObjects.add(change.object);
+                            if (change.object.kinematics == null) {
+                                change.object.addToKinematics(kinematics);
+                            }
                         }
                     } else if (change.add) {
                         mobileObjects.add(change.object);
+                        if (change.object.kinematics == null) {
+                            change.object.addToKinematics(kinematics);
+                        }
                     } else {
                         mobileObjects.remove(change.object);
+                        if (change.object.kinematics != null) {
+                            change.object.removeFromKinematics();
+                        }
                     }
                 }
             }
@@ -1152,6 +1621,32 @@ public abstract class SpaceState<T extends CellGame,
         return nearest;
     }
     
+    //Marking Hitboxes is cheapest, but is only safe while no parallel-safe SubThinkers may be querying at once
+    private HitboxScanSet acquireScanSet() {
+        return (parallelFrameActionsRunning() ? HitboxScanSet.acquireShared() : markingScanSet.acquireMarking());
+    }
+    
+    //Records the statistics of a spatial query that is about to return
+    private void endQuery(SpaceJFREvents.SpatialQuery event, String queryType,
+            ReadCellRangeIterator iterator, HitboxScanSet scanned, int numMatches) {
+        int numCandidates = scanned.size();
+        scanned.release();
+        if (queryStatisticsEnabled) {
+            numQueries.increment();
+            queryCellsVisited.add(iterator.numCellsVisited);
+            queryCandidatesTested.add(numCandidates);
+            queryCandidatesRejected.add(numCandidates - numMatches);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.queryType = queryType;
+            event.cellsVisited = iterator.numCellsVisited;
+            event.candidatesTested = numCandidates;
+            event.matches = numMatches;
+            event.commit();
+        }
+    }
+    
     /**
      * Returns whether this SpaceState has any SpaceObjects of the specified
      * class with their centers within the specified rectangular region.
@@ -1184,29 +1679,25 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O objectWithinRectangle(
             long x1, long y1, long x2, long y2, Class<O> cls) {
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
         while (iterator.hasNext()) {
             for (Hitbox centerHitbox : iterator.next().hitboxes.get(HitboxRole.CENTER)) {
-                if (!centerHitbox.scanned) {
+                if (scanned.add(centerHitbox)) {
                     if (cls.isAssignableFrom(centerHitbox.getObject().getClass())
                             && centerHitbox.getAbsX() >= x1
                             && centerHitbox.getAbsY() >= y1
                             && centerHitbox.getAbsX() <= x2
                             && centerHitbox.getAbsY() <= y2) {
-                        for (Hitbox hitbox : scanned) {
-                            hitbox.scanned = false;
-                        }
+                        endQuery(queryEvent, "objectWithinRectangle", iterator, scanned, 1);
                         return cls.cast(centerHitbox.getObject());
                     }
-                    centerHitbox.scanned = true;
-                    scanned.add(centerHitbox);
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "objectWithinRectangle", iterator, scanned, 0);
         return null;
     }
     
@@ -1224,14 +1715,14 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> List<O> objectsWithinRectangle(
             long x1, long y1, long x2, long y2, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> within = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
         while (iterator.hasNext()) {
             for (Hitbox centerHitbox : iterator.next().hitboxes.get(HitboxRole.CENTER)) {
-                if (!centerHitbox.scanned) {
-                    centerHitbox.scanned = true;
-                    scanned.add(centerHitbox);
+                if (scanned.add(centerHitbox)) {
                     if (cls.isAssignableFrom(centerHitbox.getObject().getClass())
                             && centerHitbox.getAbsX() >= x1
                             && centerHitbox.getAbsY() >= y1
@@ -1242,9 +1733,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "objectsWithinRectangle", iterator, scanned, within.size());
         return within;
     }
     
@@ -1284,21 +1773,23 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O nearestObjectWithinRectangle(
             long pointX, long pointY, long x1, long y1, long x2, long y2, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         O nearest = null;
         long nearestDistance = -1;
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
+        int numMatches = 0;
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(x1, y1, x2, y2));
         while (iterator.hasNext()) {
             for (Hitbox centerHitbox : iterator.next().hitboxes.get(HitboxRole.CENTER)) {
-                if (!centerHitbox.scanned) {
-                    centerHitbox.scanned = true;
-                    scanned.add(centerHitbox);
+                if (scanned.add(centerHitbox)) {
                     SpaceObject object = centerHitbox.getObject();
                     if (cls.isAssignableFrom(object.getClass())
                             && centerHitbox.getAbsX() >= x1
                             && centerHitbox.getAbsY() >= y1
                             && centerHitbox.getAbsX() <= x2
                             && centerHitbox.getAbsY() <= y2) {
+                        numMatches++;
                         long distance = CellVector.distanceBetween(
                                 pointX, pointY, centerHitbox.getAbsX(), centerHitbox.getAbsY());
                         if (nearestDistance < 0 || distance < nearestDistance) {
@@ -1309,9 +1800,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "nearestObjectWithinRectangle", iterator, scanned, numMatches);
         return nearest;
     }
     
@@ -1398,29 +1887,25 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O objectWithinCircle(
             long centerX, long centerY, long radius, Class<O> cls) {
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
         while (iterator.hasNext()) {
             Cell cell = iterator.next();
             if (circleMeetsRectangle(centerX, centerY, radius, cell.left, cell.top, cell.right, cell.bottom)) {
                 for (Hitbox centerHitbox : cell.hitboxes.get(HitboxRole.CENTER)) {
-                    if (!centerHitbox.scanned) {
+                    if (scanned.add(centerHitbox)) {
                         if (cls.isAssignableFrom(centerHitbox.getObject().getClass())
                                 && CellVector.distanceBetween(centerX, centerY, centerHitbox.getAbsX(), centerHitbox.getAbsY()) <= radius) {
-                            for (Hitbox hitbox : scanned) {
-                                hitbox.scanned = false;
-                            }
+                            endQuery(queryEvent, "objectWithinCircle", iterator, scanned, 1);
                             return cls.cast(centerHitbox.getObject());
                         }
-                        centerHitbox.scanned = true;
-                        scanned.add(centerHitbox);
                     }
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "objectWithinCircle", iterator, scanned, 0);
         return null;
     }
     
@@ -1452,16 +1937,16 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> List<O> objectsWithinCircle(
             long centerX, long centerY, long radius, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> within = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
         while (iterator.hasNext()) {
             Cell cell = iterator.next();
             if (circleMeetsRectangle(centerX, centerY, radius, cell.left, cell.top, cell.right, cell.bottom)) {
                 for (Hitbox centerHitbox : cell.hitboxes.get(HitboxRole.CENTER)) {
-                    if (!centerHitbox.scanned) {
-                        centerHitbox.scanned = true;
-                        scanned.add(centerHitbox);
+                    if (scanned.add(centerHitbox)) {
                         if (cls.isAssignableFrom(centerHitbox.getObject().getClass())
                                 && CellVector.distanceBetween(centerX, centerY, centerHitbox.getAbsX(), centerHitbox.getAbsY()) <= radius) {
                             within.add(cls.cast(centerHitbox.getObject()));
@@ -1470,9 +1955,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "objectsWithinCircle", iterator, scanned, within.size());
         return within;
     }
     
@@ -1510,20 +1993,22 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O nearestObjectWithinCircle(
             long pointX, long pointY, long centerX, long centerY, long radius, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         O nearest = null;
         long nearestDistance = -1;
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
+        int numMatches = 0;
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(centerX - radius, centerY - radius, centerX + radius, centerY + radius));
         while (iterator.hasNext()) {
             Cell cell = iterator.next();
             if (circleMeetsRectangle(centerX, centerY, radius, cell.left, cell.top, cell.right, cell.bottom)) {
                 for (Hitbox centerHitbox : cell.hitboxes.get(HitboxRole.CENTER)) {
-                    if (!centerHitbox.scanned) {
-                        centerHitbox.scanned = true;
-                        scanned.add(centerHitbox);
+                    if (scanned.add(centerHitbox)) {
                         SpaceObject object = centerHitbox.getObject();
                         if (cls.isAssignableFrom(object.getClass())
                                 && CellVector.distanceBetween(centerX, centerY, centerHitbox.getAbsX(), centerHitbox.getAbsY()) <= radius) {
+                            numMatches++;
                             long distance = CellVector.distanceBetween(pointX, pointY, centerHitbox.getAbsX(), centerHitbox.getAbsY());
                             if (nearestDistance < 0 || distance < nearestDistance) {
                                 nearest = cls.cast(object);
@@ -1534,9 +2019,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox hitbox : scanned) {
-            hitbox.scanned = false;
-        }
+        endQuery(queryEvent, "nearestObjectWithinCircle", iterator, scanned, numMatches);
         return nearest;
     }
     
@@ -1563,26 +2046,22 @@ public abstract class SpaceState<T extends CellGame,
      * Hitbox
      */
     public final <O extends SpaceObject> O overlappingObject(Hitbox hitbox, Class<O> cls) {
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox overlapHitbox : iterator.next().hitboxes.get(HitboxRole.OVERLAP)) {
-                if (!overlapHitbox.scanned) {
+                if (scanned.add(overlapHitbox)) {
                     if (cls.isAssignableFrom(overlapHitbox.getObject().getClass())
                             && Hitbox.overlap(hitbox, overlapHitbox)) {
-                        for (Hitbox scannedHitbox : scanned) {
-                            scannedHitbox.scanned = false;
-                        }
+                        endQuery(queryEvent, "overlappingObject", iterator, scanned, 1);
                         return cls.cast(overlapHitbox.getObject());
                     }
-                    overlapHitbox.scanned = true;
-                    scanned.add(overlapHitbox);
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "overlappingObject", iterator, scanned, 0);
         return null;
     }
     
@@ -1596,14 +2075,14 @@ public abstract class SpaceState<T extends CellGame,
      * specified Hitbox
      */
     public final <O extends SpaceObject> List<O> overlappingObjects(Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> overlapping = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox overlapHitbox : iterator.next().hitboxes.get(HitboxRole.OVERLAP)) {
-                if (!overlapHitbox.scanned) {
-                    overlapHitbox.scanned = true;
-                    scanned.add(overlapHitbox);
+                if (scanned.add(overlapHitbox)) {
                     if (cls.isAssignableFrom(overlapHitbox.getObject().getClass())
                             && Hitbox.overlap(hitbox, overlapHitbox)) {
                         overlapping.add(cls.cast(overlapHitbox.getObject()));
@@ -1611,9 +2090,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "overlappingObjects", iterator, scanned, overlapping.size());
         return overlapping;
     }
     
@@ -1647,18 +2124,20 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O nearestOverlappingObject(
             long pointX, long pointY, Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         O nearest = null;
         long nearestDistance = -1;
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        int numMatches = 0;
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox overlapHitbox : iterator.next().hitboxes.get(HitboxRole.OVERLAP)) {
-                if (!overlapHitbox.scanned) {
-                    overlapHitbox.scanned = true;
-                    scanned.add(overlapHitbox);
+                if (scanned.add(overlapHitbox)) {
                     SpaceObject object = overlapHitbox.getObject();
                     if (cls.isAssignableFrom(object.getClass())
                             && Hitbox.overlap(hitbox, overlapHitbox)) {
+                        numMatches++;
                         long distance = CellVector.distanceBetween(pointX, pointY, object.getCenterX(), object.getCenterY());
                         if (nearestDistance < 0 || distance < nearestDistance) {
                             nearest = cls.cast(object);
@@ -1668,9 +2147,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "nearestOverlappingObject", iterator, scanned, numMatches);
         return nearest;
     }
     
@@ -1685,14 +2162,14 @@ public abstract class SpaceState<T extends CellGame,
      * Hitboxes' bounding boxes meet the specified Hitbox's bounding box
      */
     public final <O extends SpaceObject> List<O> boundingBoxesMeet(Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> meeting = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox overlapHitbox : iterator.next().hitboxes.get(HitboxRole.OVERLAP)) {
-                if (!overlapHitbox.scanned) {
-                    overlapHitbox.scanned = true;
-                    scanned.add(overlapHitbox);
+                if (scanned.add(overlapHitbox)) {
                     if (cls.isAssignableFrom(overlapHitbox.getObject().getClass())
                             && hitbox.getLeftEdge() <= overlapHitbox.getRightEdge()
                             && hitbox.getRightEdge() >= overlapHitbox.getLeftEdge()
@@ -1703,9 +2180,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "boundingBoxesMeet", iterator, scanned, meeting.size());
         return meeting;
     }
     
@@ -1733,26 +2208,22 @@ public abstract class SpaceState<T extends CellGame,
      * the specified Hitbox
      */
     public final <O extends SpaceObject> O intersectingSolidObject(Hitbox hitbox, Class<O> cls) {
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox solidHitbox : iterator.next().hitboxes.get(HitboxRole.SOLID)) {
-                if (!solidHitbox.scanned) {
+                if (scanned.add(solidHitbox)) {
                     if (cls.isAssignableFrom(solidHitbox.getObject().getClass())
                             && Hitbox.overlap(hitbox, solidHitbox)) {
-                        for (Hitbox scannedHitbox : scanned) {
-                            scannedHitbox.scanned = false;
-                        }
+                        endQuery(queryEvent, "intersectingSolidObject", iterator, scanned, 1);
                         return cls.cast(solidHitbox.getObject());
                     }
-                    solidHitbox.scanned = true;
-                    scanned.add(solidHitbox);
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "intersectingSolidObject", iterator, scanned, 0);
         return null;
     }
     
@@ -1766,14 +2237,14 @@ public abstract class SpaceState<T extends CellGame,
      * Hitboxes overlap the specified Hitbox
      */
     public final <O extends SpaceObject> List<O> intersectingSolidObjects(Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> intersecting = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox solidHitbox : iterator.next().hitboxes.get(HitboxRole.SOLID)) {
-                if (!solidHitbox.scanned) {
-                    solidHitbox.scanned = true;
-                    scanned.add(solidHitbox);
+                if (scanned.add(solidHitbox)) {
                     if (cls.isAssignableFrom(solidHitbox.getObject().getClass())
                             && Hitbox.overlap(hitbox, solidHitbox)) {
                         intersecting.add(cls.cast(solidHitbox.getObject()));
@@ -1781,9 +2252,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "intersectingSolidObjects", iterator, scanned, intersecting.size());
         return intersecting;
     }
     
@@ -1817,18 +2286,20 @@ public abstract class SpaceState<T extends CellGame,
      */
     public final <O extends SpaceObject> O nearestIntersectingSolidObject(
             long pointX, long pointY, Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         O nearest = null;
         long nearestDistance = -1;
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        int numMatches = 0;
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox solidHitbox : iterator.next().hitboxes.get(HitboxRole.SOLID)) {
-                if (!solidHitbox.scanned) {
-                    solidHitbox.scanned = true;
-                    scanned.add(solidHitbox);
+                if (scanned.add(solidHitbox)) {
                     SpaceObject object = solidHitbox.getObject();
                     if (cls.isAssignableFrom(object.getClass())
                             && Hitbox.overlap(hitbox, solidHitbox)) {
+                        numMatches++;
                         long distance = CellVector.distanceBetween(pointX, pointY, object.getCenterX(), object.getCenterY());
                         if (nearestDistance < 0 || distance < nearestDistance) {
                             nearest = cls.cast(object);
@@ -1838,9 +2309,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "nearestIntersectingSolidObject", iterator, scanned, numMatches);
         return nearest;
     }
     
@@ -1855,14 +2324,14 @@ public abstract class SpaceState<T extends CellGame,
      * Hitboxes' bounding boxes meet the specified Hitbox's bounding box
      */
     public final <O extends SpaceObject> List<O> solidBoundingBoxesMeet(Hitbox hitbox, Class<O> cls) {
+        SpaceJFREvents.SpatialQuery queryEvent = new SpaceJFREvents.SpatialQuery();
+        queryEvent.begin();
         List<O> meeting = new ArrayList<>();
-        List<Hitbox> scanned = new ArrayList<>();
-        Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
+        HitboxScanSet scanned = acquireScanSet();
+        ReadCellRangeIterator iterator = new ReadCellRangeIterator(getCellRangeExclusive(hitbox));
         while (iterator.hasNext()) {
             for (Hitbox solidHitbox : iterator.next().hitboxes.get(HitboxRole.SOLID)) {
-                if (!solidHitbox.scanned) {
-                    solidHitbox.scanned = true;
-                    scanned.add(solidHitbox);
+                if (scanned.add(solidHitbox)) {
                     if (cls.isAssignableFrom(solidHitbox.getObject().getClass())
                             && hitbox.getLeftEdge() <= solidHitbox.getRightEdge()
                             && hitbox.getRightEdge() >= solidHitbox.getLeftEdge()
@@ -1873,9 +2342,7 @@ public abstract class SpaceState<T extends CellGame,
                 }
             }
         }
-        for (Hitbox scannedHitbox : scanned) {
-            scannedHitbox.scanned = false;
-        }
+        endQuery(queryEvent, "solidBoundingBoxesMeet", iterator, scanned, meeting.size());
         return meeting;
     }
     
@@ -2121,6 +2588,23 @@ public abstract class SpaceState<T extends CellGame,
     }
     
     final CellVector move(MobileObject object, long changeX, long changeY) {
+        SpaceJFREvents.Move event = new SpaceJFREvents.Move();
+        event.begin();
+        moveDepth++;
+        CellVector displacement = moveObject(object, changeX, changeY, event);
+        moveDepth--;
+        event.end();
+        if (event.shouldCommit()) {
+            event.depth = moveDepth;
+            event.changeX = Frac.toDouble(changeX);
+            event.changeY = Frac.toDouble(changeY);
+            event.commit();
+        }
+        return displacement;
+    }
+    
+    private CellVector moveObject(MobileObject object, long changeX, long changeY,
+            SpaceJFREvents.Move moveEvent) {
         if (changeX == 0 && changeY == 0) { //Object isn't changing position
             Double pressingAngle = object.getAbsPressingAngle();
             if (object.hasCollision() && object.getCollisionHitbox() != null && pressingAngle != null) {
@@ -2134,15 +2618,13 @@ public abstract class SpaceState<T extends CellGame,
                 boolean pressingRight = pressingAngle < 90 || pressingAngle > 270;
                 boolean pressingUp = pressingAngle > 0 && pressingAngle < 180;
                 boolean pressingDown = pressingAngle > 180;
-                List<Hitbox> scanned = new ArrayList<>();
+                HitboxScanSet scanned = acquireScanSet();
                 Map<SpaceObject,Direction> pressingAgainst = null;
                 Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(leftEdge, topEdge, rightEdge, bottomEdge));
                 while (iterator.hasNext()) {
                     Cell cell = iterator.next();
                     for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                        if (!hitbox.scanned) {
-                            hitbox.scanned = true;
-                            scanned.add(hitbox);
+                        if (scanned.add(hitbox)) {
                             if (pressingLeft && hitbox.surfaceIsSolid(Direction.RIGHT)
                                     && hitbox.getRightEdge() == leftEdge
                                     && hitbox.getBottomEdge() > topEdge && hitbox.getTopEdge() < bottomEdge) {
@@ -2183,9 +2665,6 @@ public abstract class SpaceState<T extends CellGame,
                         }
                     }
                 }
-                for (Hitbox scannedHitbox : scanned) {
-                    scannedHitbox.scanned = false;
-                }
                 if (pressingAgainst != null) {
                     //Object is pressing against things; make it collide with them
                     EnumSet<Direction> slideDirections = EnumSet.noneOf(Direction.class);
@@ -2268,16 +2747,14 @@ public abstract class SpaceState<T extends CellGame,
                 pressingUp = pressingAngle > 0 && pressingAngle < 180;
                 pressingDown = pressingAngle > 180;
             }
-            List<Hitbox> scanned = new ArrayList<>();
+            HitboxScanSet scanned = acquireScanSet();
             Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(leftEdge + left, topEdge + top, rightEdge + right, bottomEdge + bottom));
             if (changeX > 0) {
                 if (changeY > 0) { //Object is moving diagonally down-right
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 long hitboxTop = hitbox.getTopEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxLeft - rightEdge, changeY), changeX);
@@ -2306,9 +2783,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxLeft - rightEdge, changeY), changeX);
@@ -2337,9 +2812,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 if (hitbox.surfaceIsSolid(Direction.LEFT) && hitboxLeft >= rightEdge
                                         && hitbox.getTopEdge() < bottomEdge && hitbox.getBottomEdge() > topEdge
@@ -2377,9 +2850,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 long hitboxTop = hitbox.getTopEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxRight - leftEdge, changeY), changeX);
@@ -2408,9 +2879,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxRight - leftEdge, changeY), changeX);
@@ -2439,9 +2908,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 if (hitbox.surfaceIsSolid(Direction.RIGHT) && hitboxRight <= leftEdge
                                         && hitbox.getTopEdge() < bottomEdge && hitbox.getBottomEdge() > topEdge
@@ -2479,9 +2946,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxTop = hitbox.getTopEdge();
                                 if (hitbox.surfaceIsSolid(Direction.UP) && hitboxTop >= bottomEdge
                                         && hitbox.getLeftEdge() < rightEdge && hitbox.getRightEdge() > leftEdge
@@ -2517,9 +2982,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.SOLID)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 if (hitbox.surfaceIsSolid(Direction.DOWN) && hitboxBottom <= topEdge
                                         && hitbox.getLeftEdge() < rightEdge && hitbox.getRightEdge() > leftEdge
@@ -2553,9 +3016,6 @@ public abstract class SpaceState<T extends CellGame,
                     }
                 }
             }
-            for (Hitbox scannedHitbox : scanned) {
-                scannedHitbox.scanned = false;
-            }
         }
         if (object.isSolid()) {
             //Object has solid surfaces; check for colliding objects to move along with it
@@ -2568,16 +3028,14 @@ public abstract class SpaceState<T extends CellGame,
             long rightEdge = solidHitbox.getRightEdge();
             long topEdge = solidHitbox.getTopEdge();
             long bottomEdge = solidHitbox.getBottomEdge();
-            List<Hitbox> scanned = new ArrayList<>();
+            HitboxScanSet scanned = acquireScanSet();
             Iterator<Cell> iterator = new ReadCellRangeIterator(getCellRangeExclusive(leftEdge + left, topEdge + top, rightEdge + right, bottomEdge + bottom));
             if (changeX > 0) {
                 if (changeY > 0) { //Object is moving diagonally down-right
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 long hitboxTop = hitbox.getTopEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxLeft - rightEdge, changeY), changeX);
@@ -2615,9 +3073,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxLeft - rightEdge, changeY), changeX);
@@ -2655,9 +3111,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxLeft = hitbox.getLeftEdge();
                                 MobileObject hitboxObject = (MobileObject)hitbox.getObject();
                                 if (solidRight && hitboxLeft >= rightEdge && hitboxLeft < rightEdge + changeX
@@ -2696,9 +3150,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 long hitboxTop = hitbox.getTopEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxRight - leftEdge, changeY), changeX);
@@ -2736,9 +3188,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 long verticalDiff = Frac.div(Frac.mul(hitboxRight - leftEdge, changeY), changeX);
@@ -2776,9 +3226,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxRight = hitbox.getRightEdge();
                                 MobileObject hitboxObject = (MobileObject)hitbox.getObject();
                                 if (solidLeft && hitboxRight <= leftEdge && hitboxRight > leftEdge + changeX
@@ -2817,9 +3265,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxTop = hitbox.getTopEdge();
                                 MobileObject hitboxObject = (MobileObject)hitbox.getObject();
                                 if (solidBottom && hitboxTop >= bottomEdge && hitboxTop < bottomEdge + changeY
@@ -2856,9 +3302,7 @@ public abstract class SpaceState<T extends CellGame,
                     while (iterator.hasNext()) {
                         Cell cell = iterator.next();
                         for (Hitbox hitbox : cell.hitboxes.get(HitboxRole.COLLISION)) {
-                            if (!hitbox.scanned) {
-                                hitbox.scanned = true;
-                                scanned.add(hitbox);
+                            if (scanned.add(hitbox)) {
                                 long hitboxBottom = hitbox.getBottomEdge();
                                 MobileObject hitboxObject = (MobileObject)hitbox.getObject();
                                 if (solidTop && hitboxBottom <= topEdge && hitboxBottom > topEdge + changeY
@@ -2893,11 +3337,9 @@ public abstract class SpaceState<T extends CellGame,
                     }
                 }
             }
-            for (Hitbox scannedHitbox : scanned) {
-                scannedHitbox.scanned = false;
-            }
         }
         List<MoveData> moveData = null; //Record objects that need to move along with this object
+        moveEvent.numMoveEvents = moveEvents.size();
         if (!moveEvents.isEmpty()) { //Does object need to collide with anything?
             boolean blocked = false;
             long blockedMetric = 0;
@@ -3044,25 +3486,66 @@ public abstract class SpaceState<T extends CellGame,
     
     @Override
     public void frameActions(T game, U state) {
+        FrameProfiler profiler = game.getProfiler();
+        long startTime = (profiler == null ? 0 : System.nanoTime());
+        if (game.isFixedStep()) {
+            kinematics.recordPreviousPositions();
+        }
         beforeMovementEvents.perform(state);
+        if (profiler != null) {
+            startTime = profiler.endPhase(FrameProfiler.Phase.BEFORE_MOVEMENT, startTime);
+        }
         for (MobileObject object : mobileObjects) {
             object.collisions.clear();
             object.collisionDirections.clear();
             object.displacement.clear();
         }
         Iterator<MobileObject> iterator = mobileObjectIterator();
+        //MobileObjects that can't interact with anything as they move are moved first, all at once
+        kinematics.moveBatch(getEffectiveTimeFactor());
         while (iterator.hasNext()) {
             MobileObject object = iterator.next();
+            if (object.movedInBatch) {
+                object.movedInBatch = false;
+                continue;
+            }
             long objectTimeFactor = object.getEffectiveTimeFactor();
             long changeX = Frac.mul(objectTimeFactor, object.getVelocityX() + object.getStepX());
             long changeY = Frac.mul(objectTimeFactor, object.getVelocityY() + object.getStepY());
             object.displacement.setCoordinates(move(object, changeX, changeY));
             object.setStep(0, 0);
         }
+        if (profiler != null) {
+            profiler.endPhase(FrameProfiler.Phase.MOVEMENT, startTime);
+        }
+    }
+    
+    //How far from its current position to draw the specified SpaceObject between its previous and current positions
+    private long getDrawOffsetX(SpaceObject object) {
+        if (drawRemaining != 0 && object instanceof MobileObject) {
+            MobileObject mobileObject = (MobileObject)object;
+            if (mobileObject.kinematics == kinematics) {
+                return kinematics.getDrawOffsetX(mobileObject.kinematicsIndex, drawRemaining);
+            }
+        }
+        return 0;
+    }
+    
+    private long getDrawOffsetY(SpaceObject object) {
+        if (drawRemaining != 0 && object instanceof MobileObject) {
+            MobileObject mobileObject = (MobileObject)object;
+            if (mobileObject.kinematics == kinematics) {
+                return kinematics.getDrawOffsetY(mobileObject.kinematicsIndex, drawRemaining);
+            }
+        }
+        return 0;
     }
     
     @Override
     public void renderActions(T game, Graphics g, int x1, int y1, int x2, int y2) {
+        FrameProfiler profiler = game.getProfiler();
+        long startTime = (profiler == null ? 0 : System.nanoTime());
+        drawRemaining = (game.isFixedStep() ? Frac.UNIT - Frac.units(game.getInterpolationAlpha()) : 0);
         g.clearWorldClip();
         for (Viewport viewport : viewports.values()) {
             if (viewport.roundX1 != viewport.roundX2 && viewport.roundY1 != viewport.roundY2) {
@@ -3076,17 +3559,23 @@ public abstract class SpaceState<T extends CellGame,
                 int sy2 = Math.min(vy2, y2);
                 g.setWorldClip(sx1, sy1, sx2 - sx1, sy2 - sy1);
                 if (viewport.getCamera() != null && viewport.getCamera().newState == this) {
-                    long cx = viewport.getCamera().getCenterX();
-                    long cy = viewport.getCamera().getCenterY();
-                    long leftEdge = viewport.getLeftEdge();
-                    long rightEdge = viewport.getRightEdge();
-                    long topEdge = viewport.getTopEdge();
-                    long bottomEdge = viewport.getBottomEdge();
+                    //The camera is drawn between its previous and current positions, and so is its view
+                    long offsetX = getDrawOffsetX(viewport.getCamera());
+                    long offsetY = getDrawOffsetY(viewport.getCamera());
+                    long cx = viewport.getCamera().getCenterX() + offsetX;
+                    long cy = viewport.getCamera().getCenterY() + offsetY;
+                    long leftEdge = viewport.getLeftEdge() + offsetX;
+                    long rightEdge = viewport.getRightEdge() + offsetX;
+                    long topEdge = viewport.getTopEdge() + offsetY;
+                    long bottomEdge = viewport.getBottomEdge() + offsetY;
                     int scx = vx1 + Frac.intRound(cx - leftEdge);
                     int scy = vy1 + Frac.intRound(cy - topEdge);
                     for (SpaceLayer layer : spaceLayers.headMap(0).values()) {
                         layer.renderActions(g, cx, cy, scx, scy, vx1, vy1, vx2, vy2);
                     }
+                    if (profiler != null) {
+                        startTime = profiler.endPhase(FrameProfiler.Phase.LAYER_RENDERING, startTime);
+                    }
                     int[] cellRange = getCellRangeExclusive(leftEdge, topEdge, rightEdge, bottomEdge);
                     if (drawMode == DrawMode.FLAT
                             && cellRange[0] == cellRange[2] && cellRange[1] == cellRange[3]) {
@@ -3097,9 +3586,10 @@ public abstract class SpaceState<T extends CellGame,
                                         && locatorHitbox.getRightEdge() > leftEdge
                                         && locatorHitbox.getTopEdge() < bottomEdge
                                         && locatorHitbox.getBottomEdge() > topEdge) {
-                                    locatorHitbox.getObject().draw(g,
-                                            scx + Frac.intRound(locatorHitbox.getAbsX() - cx),
-                                            scy + Frac.intRound(locatorHitbox.getAbsY() - cy));
+                                    SpaceObject object = locatorHitbox.getObject();
+                                    object.draw(g,
+                                            scx + Frac.intRound(locatorHitbox.getAbsX() + getDrawOffsetX(object) - cx),
+                                            scy + Frac.intRound(locatorHitbox.getAbsY() + getDrawOffsetY(object) - cy));
                                 }
                             }
                         }
@@ -3125,9 +3615,10 @@ public abstract class SpaceState<T extends CellGame,
                                         && locatorHitbox.getRightEdge() > leftEdge
                                         && locatorHitbox.getTopEdge() < bottomEdge
                                         && locatorHitbox.getBottomEdge() > topEdge) {
-                                    locatorHitbox.getObject().draw(g,
-                                            scx + Frac.intRound(locatorHitbox.getAbsX() - cx),
-                                            scy + Frac.intRound(locatorHitbox.getAbsY() - cy));
+                                    SpaceObject object = locatorHitbox.getObject();
+                                    object.draw(g,
+                                            scx + Frac.intRound(locatorHitbox.getAbsX() + getDrawOffsetX(object) - cx),
+                                            scy + Frac.intRound(locatorHitbox.getAbsY() + getDrawOffsetY(object) - cy));
                                 }
                                 lastHitbox = locatorHitbox;
                             }
@@ -3137,20 +3628,32 @@ public abstract class SpaceState<T extends CellGame,
                             }
                         }
                     }
+                    if (profiler != null) {
+                        startTime = profiler.endPhase(FrameProfiler.Phase.OBJECT_DRAWING, startTime);
+                    }
                     for (SpaceLayer layer : spaceLayers.tailMap(0).values()) {
                         layer.renderActions(g, cx, cy, scx, scy, vx1, vy1, vx2, vy2);
                     }
+                    if (profiler != null) {
+                        startTime = profiler.endPhase(FrameProfiler.Phase.LAYER_RENDERING, startTime);
+                    }
                 }
                 if (viewport.getHUD() != null) {
                     viewport.getHUD().renderActions(g, vx1, vy1, vx2, vy2);
                 }
                 g.clearWorldClip();
+                if (profiler != null) {
+                    startTime = profiler.endPhase(FrameProfiler.Phase.HUD_RENDERING, startTime);
+                }
             }
         }
         g.setWorldClip(x1, y1, x2 - x1, y2 - y1);
         if (hud != null) {
             hud.renderActions(g, x1, y1, x2, y2);
         }
+        if (profiler != null) {
+            profiler.endPhase(FrameProfiler.Phase.HUD_RENDERING, startTime);
+        }
     }
     
 }
@@ -1,5 +1,8 @@
 package org.cell2d.space;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
 import org.cell2d.CellGame;
 import org.cell2d.Event;
 import org.cell2d.EventGroup;
@@ -57,6 +60,55 @@ public abstract class ThinkerObject<T extends CellGame,
         }
     }
     
+    @Override
+    void writeSnapshotData(ByteBuffer buffer) {
+        super.writeSnapshotData(buffer);
+        List<Event<T,U>> events = getSnapshotEvents();
+        buffer.putInt(events.size());
+        for (Event<T,U> event : events) {
+            buffer.putInt(thinker.getTimerValue(event));
+        }
+    }
+    
+    @Override
+    void readSnapshotData(ByteBuffer buffer) {
+        super.readSnapshotData(buffer);
+        List<Event<T,U>> events = getSnapshotEvents();
+        int numEvents = buffer.getInt();
+        if (numEvents != events.size()) {
+            throw new RuntimeException("Attempted to restore a snapshot of " + numEvents
+                    + " timers to a ThinkerObject with " + events.size() + " snapshot Events");
+        }
+        for (Event<T,U> event : events) {
+            int value = buffer.getInt();
+            if (value != thinker.getTimerValue(event)) {
+                thinker.setTimerValue(event, value);
+            }
+        }
+    }
+    
+    @Override
+    boolean changesOverTime() {
+        for (Event<T,U> event : getSnapshotEvents()) {
+            if (thinker.getTimerValue(event) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns the Events whose timer values in this ThinkerObject's
+     * SpaceThinker are recorded in snapshots of its SpaceState. The same
+     * Events must be returned, in the same order, when a snapshot is restored
+     * as when it was written, and their timers are restored in that order.
+     * ThinkerObject's implementation of this method returns an empty List.
+     * @return The Events whose timer values are recorded in snapshots
+     */
+    public List<Event<T,U>> getSnapshotEvents() {
+        return Collections.emptyList();
+    }
+    
     @Override
     void setTimeFactorActions(long timeFactor) {
         super.setTimeFactorActions(timeFactor);
@@ -250,6 +302,32 @@ public abstract class ThinkerObject<T extends CellGame,
         thinker.setFramePriority(framePriority);
     }
     
+    /**
+     * Returns whether this ThinkerObject's SpaceThinker is parallel-safe.
+     * @return Whether this ThinkerObject's SpaceThinker is parallel-safe
+     */
+    public final boolean isParallelSafe() {
+        return thinker.isParallelSafe();
+    }
+    
+    /**
+     * Sets whether this ThinkerObject's SpaceThinker is parallel-safe.
+     * @param parallelSafe Whether this ThinkerObject's SpaceThinker should be
+     * parallel-safe
+     */
+    public final void setParallelSafe(boolean parallelSafe) {
+        thinker.setParallelSafe(parallelSafe);
+    }
+    
+    /**
+     * Defers the performance of the specified Event by this ThinkerObject's
+     * SpaceThinker.
+     * @param event The Event to defer
+     */
+    public final void defer(Event<T,U> event) {
+        thinker.defer(event);
+    }
+    
     /**
      * Returns the EventGroup of this ThinkerObject's before-movement Events.
      * @return The EventGroup of this ThinkerObject's before-movement Events